@@ -0,0 +1,32 @@
+package com.weddingmarketplace.analytics.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor for vendor stats rollup maintenance. A single thread, so refreshes, the
+ * hourly window slide and the nightly reconciliation of a node never overlap.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Configuration
+public class VendorStatsConfig {
+
+    @Bean(name = "vendorStatsExecutor")
+    public Executor vendorStatsExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("vendor-stats-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
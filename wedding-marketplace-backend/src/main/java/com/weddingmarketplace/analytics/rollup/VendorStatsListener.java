@@ -0,0 +1,63 @@
+package com.weddingmarketplace.analytics.rollup;
+
+import com.weddingmarketplace.model.entity.Booking;
+import com.weddingmarketplace.model.entity.Inquiry;
+import com.weddingmarketplace.model.entity.Review;
+import com.weddingmarketplace.model.entity.Vendor;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Refreshes a vendor's stats rollup row once a write to one of its bookings, inquiries
+ * or reviews commits
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+public class VendorStatsListener {
+
+    // Looked up lazily: entity listeners are created with the entity manager factory,
+    // before the beans the rollup depends on exist
+    private final ObjectProvider<VendorStatsRollup> vendorStatsRollup;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onActivityWritten(Object entity) {
+        Vendor vendor = vendorOf(entity);
+        if (vendor == null) {
+            return;
+        }
+        Long vendorId = vendor.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    vendorStatsRollup.ifAvailable(rollup -> rollup.enqueue(vendorId));
+                }
+            });
+        } else {
+            vendorStatsRollup.ifAvailable(rollup -> rollup.enqueue(vendorId));
+        }
+    }
+
+    private static Vendor vendorOf(Object entity) {
+        if (entity instanceof Booking booking) {
+            return booking.getVendor();
+        }
+        if (entity instanceof Inquiry inquiry) {
+            return inquiry.getVendor();
+        }
+        if (entity instanceof Review review) {
+            return review.getVendor();
+        }
+        return null;
+    }
+}
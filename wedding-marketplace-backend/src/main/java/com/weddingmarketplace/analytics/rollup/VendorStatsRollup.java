@@ -0,0 +1,193 @@
+package com.weddingmarketplace.analytics.rollup;
+
+import com.weddingmarketplace.cache.broadcast.ChangeFanout;
+import com.weddingmarketplace.service.CacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps the {@code vendor_stats} rollup behind trending, quality ranking and
+ * competition analysis current.
+ *
+ * Vendors arrive through {@link #enqueue} once a booking, inquiry, review or the vendor
+ * itself has changed and the change has committed; their rows are recomputed in
+ * coalesced batches. Counts also fall as the 7 and 30 day windows slide past old rows,
+ * which no event announces, so vendors with activity inside the window are recomputed
+ * hourly. A nightly pass recomputes every vendor and recounts competition everywhere,
+ * and records how many rows it had to correct: a count that keeps growing means events
+ * are being missed. The hourly and nightly passes run on one node at a time.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VendorStatsRollup {
+
+    private static final String SLIDE_LOCK = "vendor_stats:slide";
+    private static final String RECONCILE_LOCK = "vendor_stats:reconcile";
+
+    private final VendorStatsStore vendorStatsStore;
+    private final CacheService cacheService;
+    private final Executor vendorStatsExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.analytics.vendor-stats.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.analytics.vendor-stats.lock-ttl:2h}")
+    private Duration lockTtl;
+
+    private ChangeFanout changes;
+    private Counter driftCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        // Every node writes the same table, so nothing is broadcast
+        changes = ChangeFanout.builder()
+            .name("vendor stats")
+            .batchSize(batchSize)
+            .executor(vendorStatsExecutor)
+            .applier((vendorIds, local) -> vendorStatsStore.recountCompetition(vendorStatsStore.refresh(vendorIds)))
+            .build();
+        Gauge.builder("analytics.vendor_stats.pending", changes, ChangeFanout::pending)
+            .register(meterRegistry);
+        driftCounter = Counter.builder("analytics.vendor_stats.drift")
+            .description("Rollup rows the nightly reconciliation found out of date")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Schedule a vendor's row to be recomputed; callers hand ids over once their
+     * transaction has committed
+     */
+    public void enqueue(Long vendorId) {
+        changes.enqueue(vendorId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.vendor-stats.drain-interval-ms:5000}")
+    public void scheduledDrain() {
+        changes.drainPending();
+    }
+
+    @Scheduled(cron = "${app.analytics.vendor-stats.slide-cron:0 5 * * * *}")
+    public void scheduledSlide() {
+        submit(this::slide, "window slide");
+    }
+
+    @Scheduled(cron = "${app.analytics.vendor-stats.reconcile-cron:0 0 4 * * *}")
+    public void scheduledReconcile() {
+        submit(this::reconcile, "reconciliation");
+    }
+
+    // Periodic passes
+
+    private void submit(Runnable pass, String name) {
+        try {
+            vendorStatsExecutor.execute(pass);
+        } catch (RejectedExecutionException e) {
+            log.error("Vendor stats executor saturated, skipping {}", name, e);
+        }
+    }
+
+    /**
+     * Recompute vendors whose windows still hold activity, so counts drop as rows age out
+     */
+    void slide() {
+        if (!cacheService.acquireLock(SLIDE_LOCK, lockTtl)) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            int refreshed = 0;
+            long lastId = 0;
+            List<Long> page;
+            do {
+                page = vendorStatsStore.activePage(lastId, batchSize);
+                if (!page.isEmpty()) {
+                    vendorStatsStore.refresh(page);
+                    refreshed += page.size();
+                    lastId = page.get(page.size() - 1);
+                }
+            } while (page.size() == batchSize);
+            log.debug("Slid vendor stats windows of {} vendors in {} ms", refreshed, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Failed to slide vendor stats windows", e);
+        } finally {
+            cacheService.releaseLock(SLIDE_LOCK);
+        }
+    }
+
+    /**
+     * Recompute every vendor and recount competition in every category
+     */
+    void reconcile() {
+        if (!cacheService.acquireLock(RECONCILE_LOCK, lockTtl)) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            int vendors = 0;
+            int drifted = 0;
+            long lastId = 0;
+            List<Long> page;
+            do {
+                page = vendorStatsStore.vendorPage(lastId, batchSize);
+                if (!page.isEmpty()) {
+                    Map<Long, VendorStatsStore.Row> before = vendorStatsStore.rows(page);
+                    vendorStatsStore.refresh(page);
+                    drifted += countChanged(before, vendorStatsStore.rows(page));
+                    vendors += page.size();
+                    lastId = page.get(page.size() - 1);
+                }
+            } while (page.size() == batchSize);
+
+            List<Long> categories = vendorStatsStore.categories();
+            for (int from = 0; from < categories.size(); from += batchSize) {
+                vendorStatsStore.recountCompetition(categories.subList(from, Math.min(from + batchSize, categories.size())));
+            }
+
+            driftCounter.increment(drifted);
+            if (drifted > 0) {
+                log.warn("Vendor stats reconciliation corrected {} of {} rows", drifted, vendors);
+            }
+            log.info("Reconciled vendor stats of {} vendors in {} ms", vendors, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Failed to reconcile vendor stats", e);
+        } finally {
+            cacheService.releaseLock(RECONCILE_LOCK);
+        }
+    }
+
+    /**
+     * Rows missing before or different after; windows that slid since the last hourly
+     * pass count too, so a small baseline is expected
+     */
+    static int countChanged(Map<Long, VendorStatsStore.Row> before, Map<Long, VendorStatsStore.Row> after) {
+        Set<Long> vendorIds = new HashSet<>(before.keySet());
+        vendorIds.addAll(after.keySet());
+        int changed = 0;
+        for (Long vendorId : vendorIds) {
+            if (!Objects.equals(before.get(vendorId), after.get(vendorId))) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
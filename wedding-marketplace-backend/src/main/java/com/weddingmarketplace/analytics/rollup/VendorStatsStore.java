@@ -0,0 +1,199 @@
+package com.weddingmarketplace.analytics.rollup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC access to the {@code vendor_stats} rollup.
+ *
+ * A refresh recomputes whole rows for a batch of vendors from the source tables in one
+ * statement, so applying the same refresh twice, or out of order, converges on the
+ * same row. Local competition depends on every vendor in a category and city and is
+ * recounted separately per category.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+public class VendorStatsStore {
+
+    private static final String REFRESH_SQL = """
+        INSERT INTO vendor_stats (vendor_id, category_id, business_city, listed,
+                                  bookings_7d, bookings_30d, inquiries_7d, inquiries_30d,
+                                  average_rating, quality_score, refreshed_at)
+        SELECT * FROM (
+            SELECT v.id, v.category_id, v.business_city,
+                   v.deleted = false AND v.status = 'APPROVED' AS listed,
+                   COALESCE(b.bookings_7d, 0) AS bookings_7d, COALESCE(b.bookings_30d, 0) AS bookings_30d,
+                   COALESCE(i.inquiries_7d, 0) AS inquiries_7d, COALESCE(i.inquiries_30d, 0) AS inquiries_30d,
+                   v.average_rating,
+                   (v.average_rating * 0.25 +
+                    LEAST(v.total_reviews / 50.0, 1.0) * 0.20 +
+                    v.response_rate / 100.0 * 0.15 +
+                    (1.0 - LEAST(v.response_time_hours / 24.0, 1.0)) * 0.10 +
+                    CASE WHEN v.featured THEN 0.15 ELSE 0.0 END +
+                    CASE WHEN v.premium THEN 0.10 ELSE 0.0 END +
+                    CASE WHEN v.instant_booking_enabled THEN 0.05 ELSE 0.0 END) AS quality_score,
+                   CURRENT_TIMESTAMP(3) AS refreshed_at
+            FROM vendors v
+            LEFT JOIN (SELECT vendor_id,
+                              SUM(created_at >= DATE_SUB(NOW(), INTERVAL 7 DAY)) AS bookings_7d,
+                              COUNT(*) AS bookings_30d
+                       FROM bookings
+                       WHERE vendor_id IN (:vendorIds)
+                       AND created_at >= DATE_SUB(NOW(), INTERVAL 30 DAY)
+                       GROUP BY vendor_id) b ON b.vendor_id = v.id
+            LEFT JOIN (SELECT vendor_id,
+                              SUM(created_at >= DATE_SUB(NOW(), INTERVAL 7 DAY)) AS inquiries_7d,
+                              COUNT(*) AS inquiries_30d
+                       FROM inquiries
+                       WHERE vendor_id IN (:vendorIds)
+                       AND created_at >= DATE_SUB(NOW(), INTERVAL 30 DAY)
+                       GROUP BY vendor_id) i ON i.vendor_id = v.id
+            WHERE v.id IN (:vendorIds)
+        ) AS fresh
+        ON DUPLICATE KEY UPDATE
+            category_id = fresh.category_id,
+            business_city = fresh.business_city,
+            listed = fresh.listed,
+            bookings_7d = fresh.bookings_7d,
+            bookings_30d = fresh.bookings_30d,
+            inquiries_7d = fresh.inquiries_7d,
+            inquiries_30d = fresh.inquiries_30d,
+            average_rating = fresh.average_rating,
+            quality_score = fresh.quality_score,
+            refreshed_at = fresh.refreshed_at
+        """;
+
+    private static final String COMPETITION_SQL = """
+        UPDATE vendor_stats s
+        LEFT JOIN (SELECT category_id, business_city, COUNT(*) AS vendor_count
+                   FROM vendors
+                   WHERE category_id IN (:categoryIds)
+                   AND deleted = false
+                   AND status = 'APPROVED'
+                   AND business_city IS NOT NULL
+                   GROUP BY category_id, business_city) m
+            ON m.category_id = s.category_id AND m.business_city = s.business_city
+        SET s.local_competition = COALESCE(m.vendor_count, 0)
+        WHERE s.category_id IN (:categoryIds)
+        """;
+
+    private static final String ROWS_SQL = """
+        SELECT vendor_id, category_id, business_city, listed, bookings_7d, bookings_30d,
+               inquiries_7d, inquiries_30d, average_rating, quality_score, local_competition
+        FROM vendor_stats
+        WHERE vendor_id IN (:vendorIds)
+        """;
+
+    private static final String VENDOR_PAGE_SQL =
+        "SELECT id FROM vendors WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String ACTIVE_PAGE_SQL = """
+        SELECT vendor_id FROM vendor_stats
+        WHERE vendor_id > ?
+        AND (bookings_30d > 0 OR inquiries_30d > 0)
+        ORDER BY vendor_id
+        LIMIT ?
+        """;
+
+    private static final String CATEGORIES_SQL = "SELECT id FROM categories";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Recompute the rows of the given vendors, and return the categories they were in
+     * before or are in now so the caller can recount competition there
+     */
+    public Set<Long> refresh(Collection<Long> vendorIds) {
+        if (vendorIds.isEmpty()) {
+            return Set.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("vendorIds", vendorIds);
+        Set<Long> categories = new HashSet<>(categoriesOf(params));
+        namedParameterJdbcTemplate.update(REFRESH_SQL, params);
+        categories.addAll(categoriesOf(params));
+        return categories;
+    }
+
+    public void recountCompetition(Collection<Long> categoryIds) {
+        if (!categoryIds.isEmpty()) {
+            namedParameterJdbcTemplate.update(COMPETITION_SQL, new MapSqlParameterSource("categoryIds", categoryIds));
+        }
+    }
+
+    /**
+     * Current rollup rows by vendor, for comparing before and after a reconciliation
+     */
+    public Map<Long, Row> rows(Collection<Long> vendorIds) {
+        Map<Long, Row> rows = new HashMap<>();
+        if (vendorIds.isEmpty()) {
+            return rows;
+        }
+        namedParameterJdbcTemplate.query(ROWS_SQL, new MapSqlParameterSource("vendorIds", vendorIds), rs -> {
+            long vendorId = rs.getLong("vendor_id");
+            rows.put(vendorId, new Row(
+                rs.getObject("category_id", Long.class),
+                rs.getString("business_city"),
+                rs.getBoolean("listed"),
+                rs.getInt("bookings_7d"),
+                rs.getInt("bookings_30d"),
+                rs.getInt("inquiries_7d"),
+                rs.getInt("inquiries_30d"),
+                rs.getBigDecimal("average_rating"),
+                rs.getObject("quality_score", Double.class),
+                rs.getInt("local_competition")));
+        });
+        return rows;
+    }
+
+    /**
+     * Next page of vendor ids, in id order, for reconciling every vendor
+     */
+    public List<Long> vendorPage(long afterId, int limit) {
+        return jdbcTemplate.queryForList(VENDOR_PAGE_SQL, Long.class, afterId, limit);
+    }
+
+    /**
+     * Next page of vendors with activity inside the 30-day window, whose counts drop as it slides
+     */
+    public List<Long> activePage(long afterId, int limit) {
+        return jdbcTemplate.queryForList(ACTIVE_PAGE_SQL, Long.class, afterId, limit);
+    }
+
+    public List<Long> categories() {
+        return jdbcTemplate.queryForList(CATEGORIES_SQL, Long.class);
+    }
+
+    private List<Long> categoriesOf(MapSqlParameterSource params) {
+        return namedParameterJdbcTemplate.queryForList(
+            "SELECT DISTINCT category_id FROM vendor_stats WHERE vendor_id IN (:vendorIds) AND category_id IS NOT NULL",
+            params, Long.class);
+    }
+
+    @lombok.Value
+    public static class Row {
+        Long categoryId;
+        String businessCity;
+        boolean listed;
+        int bookings7d;
+        int bookings30d;
+        int inquiries7d;
+        int inquiries30d;
+        BigDecimal averageRating;
+        Double qualityScore;
+        int localCompetition;
+    }
+}
@@ -0,0 +1,207 @@
+package com.weddingmarketplace.cache.broadcast;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Coalescing queue of changed ids for state that every node derives for itself, such as
+ * the in-process search indexes, applied in batches on a background executor and fanned
+ * out to peer nodes.
+ *
+ * Ids enqueued on this node wait in a set, so repeated changes to one id collapse into a
+ * single entry, and are drained once {@code batchSize} are pending or on the owner's
+ * next tick. Each batch is handed to the {@link Applier} and then broadcast on
+ * {@code channel} as {@code nodeId|id,id,...}; peers apply the ids they receive without
+ * broadcasting them again, and the applier is told which kind a batch is. Nothing is
+ * applied while {@code ready} is false. A batch that fails is queued again and the drain
+ * stops, so the next tick retries it rather than spinning. Without a channel nothing is
+ * broadcast.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Slf4j
+public class ChangeFanout implements MessageListener {
+
+    private static final String SEPARATOR = "|";
+
+    private final String name;
+    private final String channel;
+    private final int batchSize;
+    private final Executor executor;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final BooleanSupplier ready;
+    private final Applier applier;
+    private final LongConsumer drained;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Changes seen on this node, and changes broadcast by peers
+    private final Set<Long> pendingLocal = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingRemote = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    @Builder
+    private ChangeFanout(String name, String channel, int batchSize, Executor executor,
+                         StringRedisTemplate stringRedisTemplate, BooleanSupplier ready,
+                         Applier applier, LongConsumer drained) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.channel = channel;
+        this.batchSize = batchSize;
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ready = ready != null ? ready : () -> true;
+        this.applier = Objects.requireNonNull(applier, "applier");
+        this.drained = drained != null ? drained : started -> { };
+    }
+
+    /**
+     * Apply one batch of changed ids; {@code local} when the changes were seen on this node
+     * rather than broadcast by a peer. Throwing queues the batch again.
+     */
+    @FunctionalInterface
+    public interface Applier {
+        void apply(List<Long> ids, boolean local);
+    }
+
+    /**
+     * Queue an id changed on this node, draining once a batch is pending
+     */
+    public void enqueue(Long id) {
+        pendingLocal.add(id);
+        if (pendingLocal.size() >= batchSize) {
+            requestDrain();
+        }
+    }
+
+    /**
+     * Queue ids for the next drain without starting one
+     */
+    public void enqueueAll(Collection<Long> ids, boolean local) {
+        (local ? pendingLocal : pendingRemote).addAll(ids);
+    }
+
+    public int pending() {
+        return pendingLocal.size() + pendingRemote.size();
+    }
+
+    public boolean hasPending() {
+        return !pendingLocal.isEmpty() || !pendingRemote.isEmpty();
+    }
+
+    /**
+     * Drain what is pending, if anything is and it can be applied; for the owner's tick
+     */
+    public void drainPending() {
+        if (ready.getAsBoolean() && hasPending()) {
+            requestDrain();
+        }
+    }
+
+    public void requestDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Pending ids stay queued; the next tick retries
+            drainScheduled.set(false);
+            log.warn("Executor saturated, deferring {} {} updates", pending(), name);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            log.warn("Ignoring malformed {} broadcast: {}", name, body);
+            return;
+        }
+        if (nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (String id : body.substring(separator + 1).split(",")) {
+                if (!id.isEmpty()) {
+                    ids.add(Long.parseLong(id));
+                }
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed {} broadcast: {}", name, body);
+            return;
+        }
+        pendingRemote.addAll(ids);
+    }
+
+    private void drain() {
+        long started = System.currentTimeMillis();
+        try {
+            while (ready.getAsBoolean() && hasPending()) {
+                List<Long> local = take(pendingLocal);
+                if (!local.isEmpty()) {
+                    applyOrRequeue(local, pendingLocal, true);
+                    broadcast(local);
+                }
+                List<Long> remote = take(pendingRemote);
+                if (!remote.isEmpty()) {
+                    applyOrRequeue(remote, pendingRemote, false);
+                }
+            }
+            drained.accept(started);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply {} updates, will retry", name, e);
+        } finally {
+            drainScheduled.set(false);
+        }
+    }
+
+    private List<Long> take(Set<Long> pending) {
+        List<Long> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<Long> ids = pending.iterator();
+        while (ids.hasNext() && batch.size() < batchSize) {
+            Long id = ids.next();
+            if (pending.remove(id)) {
+                batch.add(id);
+            }
+        }
+        return batch;
+    }
+
+    private void applyOrRequeue(List<Long> ids, Set<Long> pending, boolean local) {
+        try {
+            applier.apply(ids, local);
+        } catch (RuntimeException e) {
+            pending.addAll(ids);
+            throw e;
+        }
+    }
+
+    private void broadcast(List<Long> ids) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            String body = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+            stringRedisTemplate.convertAndSend(channel, nodeId + SEPARATOR + body);
+        } catch (Exception e) {
+            // Peers converge at their next rebuild or restart catch-up
+            log.error("Failed to broadcast {} {} updates", ids.size(), name, e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.weddingmarketplace.cache.broadcast;
+
+import org.springframework.data.redis.connection.MessageListener;
+
+/**
+ * A Redis pub/sub listener that names its own channel, so a single listener container
+ * can subscribe every cross-node broadcast on one connection
+ *
+ * @author Wedding Marketplace Team
+ */
+public interface ChannelListener extends MessageListener {
+
+    String channel();
+}
@@ -0,0 +1,43 @@
+package com.weddingmarketplace.cache.compute;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Envelope stored by {@code CacheService.getOrCompute}. Besides the value it records
+ * how long the value took to compute and when it logically expires, which is what
+ * probabilistic early refresh (XFetch) needs to spread recomputation out before the
+ * entry actually disappears.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComputedEntry implements Serializable {
+
+    private Object value;
+
+    /**
+     * Wall-clock time the supplier took, in milliseconds (XFetch delta)
+     */
+    private long computeMillis;
+
+    /**
+     * Logical expiry in epoch milliseconds; the Redis TTL may extend past it for stale serving
+     */
+    private long expiresAtMillis;
+
+    public boolean isExpiredAt(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    public ComputedEntry withValue(Object newValue) {
+        return new ComputedEntry(newValue, computeMillis, expiresAtMillis);
+    }
+}
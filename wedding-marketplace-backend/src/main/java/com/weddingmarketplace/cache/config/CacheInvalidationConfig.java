@@ -0,0 +1,34 @@
+package com.weddingmarketplace.cache.config;
+
+import com.weddingmarketplace.cache.broadcast.ChannelListener;
+import com.weddingmarketplace.cache.near.NearCacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+
+/**
+ * Subscribes every cross-node broadcast listener, from near cache invalidation to the
+ * per-node index change feeds, to its Redis pub/sub channel on one listener container
+ *
+ * @author Wedding Marketplace Team
+ */
+@Configuration
+@EnableConfigurationProperties(NearCacheProperties.class)
+public class CacheInvalidationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       List<ChannelListener> listeners) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        for (ChannelListener listener : listeners) {
+            container.addMessageListener(listener, new ChannelTopic(listener.channel()));
+        }
+        return container;
+    }
+}
@@ -0,0 +1,33 @@
+package com.weddingmarketplace.cache.eviction;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+/**
+ * Pluggable bound for a namespace's L1 cache.
+ *
+ * Every policy runs on the same O(1) engine (W-TinyLFU admission over a segmented
+ * LRU, with reads recorded into lossy ring buffers and replayed in batches); a policy
+ * only decides what "full" means for its namespace.
+ *
+ * @author Wedding Marketplace Team
+ */
+@FunctionalInterface
+public interface EvictionPolicy {
+
+    Caffeine<Object, Object> configure(Caffeine<Object, Object> builder);
+
+    /**
+     * Bound by entry count
+     */
+    static EvictionPolicy sizeBounded(long maximumEntries) {
+        return builder -> builder.maximumSize(maximumEntries);
+    }
+
+    /**
+     * Bound by total weight, e.g. approximate bytes for namespaces with very uneven values
+     */
+    static EvictionPolicy weightBounded(long maximumWeight, Weigher<Object, Object> weigher) {
+        return builder -> builder.maximumWeight(maximumWeight).weigher(weigher);
+    }
+}
@@ -0,0 +1,122 @@
+package com.weddingmarketplace.cache.invalidation;
+
+import com.weddingmarketplace.cache.broadcast.ChannelListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Namespace generations for O(1) cache invalidation.
+ *
+ * Every cache entry key embeds the current generation of its namespace
+ * ({@code vendor_search:<generation>:<key>}). Invalidating a whole namespace is a
+ * single {@code INCR} on its generation counter: readers immediately start using the
+ * new prefix and the orphaned entries age out through their own TTL, so there is no
+ * need to enumerate keys with {@code KEYS} on the hot path.
+ *
+ * Generations are cached per node, updated eagerly through a pub/sub broadcast and
+ * re-read from Redis after {@code refreshInterval} in case a broadcast was missed.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheGenerationRegistry implements ChannelListener {
+
+    private static final String GENERATION_PREFIX = "generation:";
+    private static final String SEPARATOR = "|";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${app.cache.generation.channel:cache:generation}")
+    private String channel;
+
+    @Value("${app.cache.generation.refresh-interval:5s}")
+    private Duration refreshInterval;
+
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Current generation of a namespace, served locally between refreshes
+     */
+    public long currentGeneration(String cacheName) {
+        Generation cached = generations.get(cacheName);
+        if (cached != null && System.nanoTime() - cached.getLoadedAtNanos() < refreshInterval.toNanos()) {
+            return cached.getValue();
+        }
+        return reload(cacheName);
+    }
+
+    /**
+     * Atomically move a namespace to a new generation, orphaning every existing entry
+     */
+    public long bump(String cacheName) {
+        Long next = stringRedisTemplate.opsForValue().increment(GENERATION_PREFIX + cacheName);
+        long generation = next != null ? next : 0L;
+        advance(cacheName, generation);
+
+        try {
+            stringRedisTemplate.convertAndSend(channel, cacheName + SEPARATOR + generation);
+        } catch (Exception e) {
+            // Peers pick the new generation up on their next refresh
+            log.error("Failed to broadcast generation {} for cache: {}", generation, cacheName, e);
+        }
+        return generation;
+    }
+
+    @Override
+    public String channel() {
+        return channel;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(SEPARATOR);
+        if (separator <= 0) {
+            log.warn("Ignoring malformed generation broadcast: {}", body);
+            return;
+        }
+
+        try {
+            advance(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed generation broadcast: {}", body);
+        }
+    }
+
+    // Helper methods
+
+    private long reload(String cacheName) {
+        try {
+            String stored = stringRedisTemplate.opsForValue().get(GENERATION_PREFIX + cacheName);
+            long generation = stored != null ? Long.parseLong(stored) : 0L;
+            advance(cacheName, generation);
+            return generation;
+        } catch (Exception e) {
+            log.error("Failed to load cache generation for cache: {}", cacheName, e);
+            Generation cached = generations.get(cacheName);
+            return cached != null ? cached.getValue() : 0L;
+        }
+    }
+
+    /**
+     * Generations only move forward, so late or duplicated broadcasts are harmless
+     */
+    private void advance(String cacheName, long generation) {
+        long now = System.nanoTime();
+        generations.merge(cacheName, new Generation(generation, now),
+            (current, candidate) -> candidate.getValue() >= current.getValue() ? candidate : new Generation(current.getValue(), now));
+    }
+
+    @lombok.Value private static class Generation { long value; long loadedAtNanos; }
+}
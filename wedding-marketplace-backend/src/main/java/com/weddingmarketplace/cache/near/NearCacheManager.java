@@ -0,0 +1,259 @@
+package com.weddingmarketplace.cache.near;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weddingmarketplace.cache.broadcast.ChannelListener;
+import com.weddingmarketplace.cache.eviction.EvictionPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process L1 tier in front of the Redis-backed {@code CacheService}.
+ *
+ * Each configured namespace gets its own bounded Caffeine cache (W-TinyLFU
+ * admission) with a short write TTL. The bound is per namespace: {@code maximumSize}
+ * entries unless an {@link EvictionPolicy} was registered for it, so the tier as a
+ * whole holds up to the sum of the namespace bounds. Writes and evictions are broadcast on a Redis
+ * pub/sub channel so peer nodes drop their local copies and re-read from Redis.
+ *
+ * A per-namespace epoch guards against the read/invalidate race: a value read from
+ * Redis is only admitted to L1 if no invalidation for that namespace arrived while
+ * the read was in flight.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NearCacheManager implements ChannelListener {
+
+    private static final String SCOPE_KEY = "K";
+    private static final String SCOPE_ALL = "A";
+    private static final String SCOPE_MULTI = "M";
+    private static final String SEPARATOR = "|";
+    private static final String KEY_SEPARATOR = "\u001F";
+
+    private final NearCacheProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Cache<String, Object>> caches = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> epochs = new ConcurrentHashMap<>();
+    private final Map<String, EvictionPolicy> evictionPolicies = new ConcurrentHashMap<>();
+
+    public boolean isEnabled(String cacheName) {
+        return properties.isEnabled() && properties.getNamespaces().containsKey(cacheName);
+    }
+
+    public Optional<Object> get(String cacheName, String key) {
+        if (!isEnabled(cacheName)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cacheFor(cacheName).getIfPresent(key));
+    }
+
+    /**
+     * Snapshot of the namespace epoch; pass it to {@link #populate} after the Redis read
+     */
+    public long epoch(String cacheName) {
+        return epochFor(cacheName).get();
+    }
+
+    /**
+     * Admit a value read from Redis, unless the namespace was invalidated since {@code epoch}
+     */
+    public void populate(String cacheName, String key, Object value, long epoch) {
+        if (value == null || !isEnabled(cacheName)) {
+            return;
+        }
+        if (epochFor(cacheName).get() == epoch) {
+            cacheFor(cacheName).put(key, value);
+        }
+    }
+
+    /**
+     * Record a local write and tell peers to drop their now-stale copy
+     */
+    public void put(String cacheName, String key, Object value) {
+        if (!isEnabled(cacheName)) {
+            return;
+        }
+        epochFor(cacheName).incrementAndGet();
+        if (value != null) {
+            cacheFor(cacheName).put(key, value);
+        } else {
+            cacheFor(cacheName).invalidate(key);
+        }
+        publish(SCOPE_KEY, cacheName, key);
+    }
+
+    /**
+     * Bulk variant of {@link #put}: one broadcast for the whole batch
+     */
+    public void putAll(String cacheName, Map<String, ?> entries) {
+        if (!isEnabled(cacheName) || entries.isEmpty()) {
+            return;
+        }
+        epochFor(cacheName).incrementAndGet();
+        Cache<String, Object> cache = cacheFor(cacheName);
+        entries.forEach((key, value) -> {
+            if (value != null) {
+                cache.put(key, value);
+            } else {
+                cache.invalidate(key);
+            }
+        });
+        publish(SCOPE_MULTI, cacheName, String.join(KEY_SEPARATOR, entries.keySet()));
+    }
+
+    public void invalidate(String cacheName, String key) {
+        if (!isEnabled(cacheName)) {
+            return;
+        }
+        invalidateLocal(cacheName, key);
+        publish(SCOPE_KEY, cacheName, key);
+    }
+
+    public void invalidate(String cacheName, Collection<String> keys) {
+        if (!isEnabled(cacheName) || keys.isEmpty()) {
+            return;
+        }
+        epochFor(cacheName).incrementAndGet();
+        cacheFor(cacheName).invalidateAll(keys);
+        publish(SCOPE_MULTI, cacheName, String.join(KEY_SEPARATOR, keys));
+    }
+
+    public void invalidateAll(String cacheName) {
+        if (!isEnabled(cacheName)) {
+            return;
+        }
+        invalidateAllLocal(cacheName);
+        publish(SCOPE_ALL, cacheName, "");
+    }
+
+    /**
+     * Plug in a different bound for a namespace; its current local contents are dropped
+     */
+    public void registerEvictionPolicy(String cacheName, EvictionPolicy policy) {
+        evictionPolicies.put(cacheName, policy);
+        Cache<String, Object> previous = caches.remove(cacheName);
+        if (previous != null) {
+            previous.invalidateAll();
+        }
+    }
+
+    @Override
+    public String channel() {
+        return properties.getInvalidationChannel();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\" + SEPARATOR, 4);
+        if (parts.length < 4) {
+            log.warn("Ignoring malformed near cache invalidation: {}", body);
+            return;
+        }
+
+        String originNode = parts[0];
+        if (nodeId.equals(originNode)) {
+            return;
+        }
+
+        String scope = parts[1];
+        String cacheName = parts[2];
+        if (!isEnabled(cacheName)) {
+            return;
+        }
+
+        if (SCOPE_ALL.equals(scope)) {
+            invalidateAllLocal(cacheName);
+        } else if (SCOPE_MULTI.equals(scope)) {
+            epochFor(cacheName).incrementAndGet();
+            cacheFor(cacheName).invalidateAll(Arrays.asList(parts[3].split(KEY_SEPARATOR)));
+        } else {
+            invalidateLocal(cacheName, parts[3]);
+        }
+        log.debug("Applied near cache invalidation from node {}: {} {}", originNode, cacheName, parts[3]);
+    }
+
+    public Map<String, Object> getStatistics(String cacheName) {
+        if (!isEnabled(cacheName)) {
+            return Map.of("enabled", false);
+        }
+        Cache<String, Object> cache = cacheFor(cacheName);
+        // Settle pending evictions so size and evictionCount reflect the bound
+        cache.cleanUp();
+        var stats = cache.stats();
+        return Map.of(
+            "enabled", true,
+            "size", cache.estimatedSize(),
+            "hitCount", stats.hitCount(),
+            "missCount", stats.missCount(),
+            "evictionCount", stats.evictionCount(),
+            "hitRate", stats.hitRate()
+        );
+    }
+
+    // Helper methods
+
+    private void invalidateLocal(String cacheName, String key) {
+        epochFor(cacheName).incrementAndGet();
+        cacheFor(cacheName).invalidate(key);
+    }
+
+    private void invalidateAllLocal(String cacheName) {
+        epochFor(cacheName).incrementAndGet();
+        cacheFor(cacheName).invalidateAll();
+    }
+
+    private void publish(String scope, String cacheName, String key) {
+        try {
+            String body = String.join(SEPARATOR, nodeId, scope, cacheName, key);
+            stringRedisTemplate.convertAndSend(properties.getInvalidationChannel(), body);
+        } catch (Exception e) {
+            // Peers fall back to their L1 TTL if the broadcast is lost
+            log.error("Failed to publish near cache invalidation for cache: {}, key: {}", cacheName, key, e);
+        }
+    }
+
+    private AtomicLong epochFor(String cacheName) {
+        return epochs.computeIfAbsent(cacheName, name -> new AtomicLong());
+    }
+
+    private Cache<String, Object> cacheFor(String cacheName) {
+        return caches.computeIfAbsent(cacheName, this::buildCache);
+    }
+
+    private Cache<String, Object> buildCache(String cacheName) {
+        NearCacheProperties.Namespace config = properties.getNamespaces().get(cacheName);
+
+        EvictionPolicy policy = evictionPolicies.getOrDefault(cacheName, EvictionPolicy.sizeBounded(config.getMaximumSize()));
+
+        Cache<String, Object> cache = policy.configure(Caffeine.newBuilder())
+            .expireAfterWrite(config.getTtl())
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName, "tier", "l1");
+        log.info("Created near cache for {} (maximumSize={}, customPolicy={}, ttl={})", cacheName,
+            config.getMaximumSize(), evictionPolicies.containsKey(cacheName), config.getTtl());
+        return cache;
+    }
+}
@@ -0,0 +1,35 @@
+package com.weddingmarketplace.cache.near;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration for the in-process (L1) near cache that sits in front of Redis.
+ * Only namespaces listed under {@code namespaces} are cached locally; everything
+ * else goes straight to Redis.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache.near")
+public class NearCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Redis pub/sub channel used to broadcast invalidations between nodes
+     */
+    private String invalidationChannel = "cache:near:invalidation";
+
+    private Map<String, Namespace> namespaces = new HashMap<>();
+
+    @Data
+    public static class Namespace {
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+}
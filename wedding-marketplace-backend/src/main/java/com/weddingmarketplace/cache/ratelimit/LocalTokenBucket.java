@@ -0,0 +1,57 @@
+package com.weddingmarketplace.cache.ratelimit;
+
+/**
+ * Per-node token bucket used as a pre-filter in front of the shared Redis limiter.
+ *
+ * It refills at the same rate as the global limit, so a client that drains it has
+ * exceeded the global limit through this node alone and can be rejected without a
+ * round trip. Once Redis rejects a client the bucket also remembers the returned
+ * retry-after and rejects locally until it passes.
+ *
+ * @author Wedding Marketplace Team
+ */
+public class LocalTokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long blockedUntilNanos;
+
+    public LocalTokenBucket(long capacity, long windowNanos, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / windowNanos;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+        this.blockedUntilNanos = nowNanos;
+    }
+
+    /**
+     * Nanoseconds the caller must wait, or zero if a token was taken
+     */
+    public synchronized long tryConsume(long nowNanos) {
+        if (nowNanos - blockedUntilNanos < 0) {
+            return blockedUntilNanos - nowNanos;
+        }
+
+        tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = nowNanos;
+
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return 0;
+        }
+        return (long) Math.ceil((1.0 - tokens) / tokensPerNano);
+    }
+
+    public synchronized void blockUntil(long untilNanos) {
+        if (untilNanos - blockedUntilNanos > 0) {
+            blockedUntilNanos = untilNanos;
+        }
+    }
+
+    public boolean matches(long capacity, long windowNanos) {
+        return this.capacity == capacity && Double.compare(this.tokensPerNano, (double) capacity / windowNanos) == 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.weddingmarketplace.cache.ratelimit;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a single rate limit check
+ *
+ * @author Wedding Marketplace Team
+ */
+@Value
+@Builder
+public class RateLimitDecision {
+
+    boolean allowed;
+
+    /**
+     * Requests still available in the current window
+     */
+    long remaining;
+
+    /**
+     * How long the client should wait before retrying; zero when allowed
+     */
+    Duration retryAfter;
+
+    /**
+     * True when the decision was made by the local pre-filter without a Redis round trip
+     */
+    boolean local;
+
+    public static RateLimitDecision allowed(long remaining) {
+        return RateLimitDecision.builder().allowed(true).remaining(remaining).retryAfter(Duration.ZERO).build();
+    }
+
+    public static RateLimitDecision rejected(Duration retryAfter, boolean local) {
+        return RateLimitDecision.builder().allowed(false).remaining(0).retryAfter(retryAfter).local(local).build();
+    }
+}
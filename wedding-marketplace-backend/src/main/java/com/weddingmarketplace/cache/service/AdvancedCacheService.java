@@ -5,9 +5,24 @@ import com.weddingmarketplace.cache.strategy.CacheStrategy;
 import com.weddingmarketplace.cache.eviction.EvictionPolicy;
 import com.weddingmarketplace.cache.serialization.CacheSerializer;
 import com.weddingmarketplace.cache.metrics.CacheMetrics;
+import com.weddingmarketplace.cache.warming.HotKeyTracker;
+import com.weddingmarketplace.cache.writebehind.WriteBehindQueue;
+import com.weddingmarketplace.service.CacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -19,6 +34,8 @@ import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  * Advanced distributed caching service with sophisticated patterns:
@@ -40,22 +57,39 @@ public class AdvancedCacheService {
     private final CacheSerializer cacheSerializer;
     private final CacheMetrics cacheMetrics;
     private final DistributedLockService distributedLockService;
-
-    // Multi-level cache implementation
-    private final Map<String, CacheEntry> l1Cache = new ConcurrentHashMap<>();
+    private final WriteBehindQueue writeBehindQueue;
+    private final HotKeyTracker hotKeyTracker;
+    private final CacheService cacheService;
+    private final MeterRegistry meterRegistry;
+
+    // Multi-level cache implementation: one bounded L1 per namespace (MAX_L1_ENTRIES_PER_NAMESPACE each).
+    // The L1 that CacheServiceImpl reads through is NearCacheManager, which owns the configurable bounds
+    private final Map<String, Cache<String, CacheEntry>> l1Caches = new ConcurrentHashMap<>();
     private final Map<String, CacheStrategy> cacheStrategies = new ConcurrentHashMap<>();
-    private final Map<String, EvictionPolicy> evictionPolicies = new ConcurrentHashMap<>();
+    private final AtomicBoolean warmingInProgress = new AtomicBoolean();
+    private final AtomicBoolean warmingSentinelWritten = new AtomicBoolean();
+
+    @Value("${app.cache.warming.namespaces:vendors,vendor_search,featured_vendors,trending_vendors}")
+    private Set<String> warmingNamespaces;
+
+    @Value("${app.cache.warming.max-concurrency:4}")
+    private int warmingConcurrency;
 
     private static final String CACHE_LOCK_PREFIX = "cache:lock:";
     private static final String CACHE_VERSION_PREFIX = "cache:version:";
     private static final Duration DEFAULT_TTL = Duration.ofHours(1);
-    private static final int MAX_L1_CACHE_SIZE = 10000;
+    private static final int MAX_L1_ENTRIES_PER_NAMESPACE = 10000;
+    private static final EvictionPolicy DEFAULT_EVICTION_POLICY = EvictionPolicy.sizeBounded(MAX_L1_ENTRIES_PER_NAMESPACE);
+    private static final String HOT_KEYS_PREFIX = "cache:warming:hot:";
+    private static final String WARMING_SENTINEL_KEY = "cache:warming:sentinel";
+    private static final Duration HOT_KEYS_TTL = Duration.ofDays(1);
 
     /**
      * Advanced get operation with multi-level caching and cache warming
      */
     public <T> Mono<T> get(String namespace, String key, Class<T> type) {
         String fullKey = buildKey(namespace, key);
+        hotKeyTracker.record(namespace, key);
         
         return getFromL1Cache(fullKey, type)
             .switchIfEmpty(getFromL2Cache(fullKey, type))
@@ -94,7 +128,17 @@ public class AdvancedCacheService {
             .flatMap(this::validateWarmingRequest)
             .flatMap(this::generateWarmingPlan)
             .flatMap(this::executeWarmingPlan)
-            .doOnSuccess(result -> cacheMetrics.recordWarmingOperation(request.getNamespace(), result))
+            // No plan, e.g. no hot keys persisted yet, is an empty but successful warm-up
+            .defaultIfEmpty(CacheWarmingResult.success(0, Duration.ZERO))
+            .doOnSuccess(result -> {
+                cacheMetrics.recordWarmingOperation(request.getNamespace(), result);
+                meterRegistry.counter("cache.warming.keys", "namespace", request.getNamespace())
+                    .increment(result.getWarmedKeys());
+                if (result.getDuration() != null) {
+                    meterRegistry.timer("cache.warming.duration", "namespace", request.getNamespace())
+                        .record(result.getDuration());
+                }
+            })
             .timeout(Duration.ofMinutes(10))
             .onErrorResume(error -> {
                 log.error("Cache warming failed for namespace: {}", request.getNamespace(), error);
@@ -167,6 +211,31 @@ public class AdvancedCacheService {
             .timeout(Duration.ofMinutes(15));
     }
 
+    /**
+     * Replay the hot key list persisted by the previous run so a fresh node starts warm
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        rewarm(WarmingPriority.HIGH, "startup");
+    }
+
+    /**
+     * Persist each namespace's top-K hot keys and re-warm if Redis lost its data since the last run
+     */
+    @Scheduled(fixedDelayString = "${app.cache.warming.persist-interval-ms:60000}",
+               initialDelayString = "${app.cache.warming.persist-interval-ms:60000}")
+    public void persistHotKeys() {
+        detectRedisReset()
+            .thenMany(Flux.fromIterable(hotKeyTracker.namespaces()))
+            .flatMap(this::persistHotKeys)
+            .then()
+            .onErrorResume(error -> {
+                log.warn("Failed to persist hot cache keys", error);
+                return Mono.empty();
+            })
+            .block(Duration.ofSeconds(30));
+    }
+
     /**
      * Cache health monitoring and self-healing
      */
@@ -181,16 +250,16 @@ public class AdvancedCacheService {
     // Private implementation methods
 
     private <T> Mono<T> getFromL1Cache(String key, Class<T> type) {
+        // Lock-free O(1) lookup; expired entries are never returned, so no clock check here
         return Mono.fromCallable(() -> {
-            CacheEntry entry = l1Cache.get(key);
-            if (entry != null && !entry.isExpired()) {
+            CacheEntry entry = l1For(key).getIfPresent(key);
+            if (entry != null) {
                 cacheMetrics.recordL1Hit();
                 return type.cast(entry.getValue());
             }
             cacheMetrics.recordL1Miss();
             return null;
-        })
-        .subscribeOn(Schedulers.boundedElastic());
+        });
     }
 
     private <T> Mono<T> getFromL2Cache(String key, Class<T> type) {
@@ -235,36 +304,40 @@ public class AdvancedCacheService {
     }
 
     private void putInL1Cache(String key, Object value, Duration ttl) {
-        if (l1Cache.size() >= MAX_L1_CACHE_SIZE) {
-            evictFromL1Cache();
-        }
-        
-        CacheEntry entry = CacheEntry.builder()
-            .key(key)
-            .value(value)
-            .createdAt(LocalDateTime.now())
-            .ttl(ttl)
-            .accessCount(1)
-            .lastAccessed(LocalDateTime.now())
-            .build();
-        
-        l1Cache.put(key, entry);
+        // Capacity is enforced by the namespace's policy in amortized O(1); no scan at the bound
+        l1For(key).put(key, new CacheEntry(value, ttl.toNanos()));
     }
 
-    private void evictFromL1Cache() {
-        String keyToEvict = selectEvictionCandidate();
-        if (keyToEvict != null) {
-            l1Cache.remove(keyToEvict);
-            cacheMetrics.recordL1Eviction();
-        }
+    private Cache<String, CacheEntry> l1For(String fullKey) {
+        return l1Caches.computeIfAbsent(namespaceOf(fullKey), this::buildL1Cache);
     }
 
-    private String selectEvictionCandidate() {
-        // LRU eviction policy
-        return l1Cache.entrySet().stream()
-            .min(Comparator.comparing(entry -> entry.getValue().getLastAccessed()))
-            .map(Map.Entry::getKey)
-            .orElse(null);
+    private Cache<String, CacheEntry> buildL1Cache(String namespace) {
+        // Per-entry TTLs live on a hierarchical timer wheel driven by System.nanoTime
+        return DEFAULT_EVICTION_POLICY.configure(Caffeine.newBuilder())
+            .expireAfter(new Expiry<String, CacheEntry>() {
+                @Override
+                public long expireAfterCreate(String key, CacheEntry entry, long currentTime) {
+                    return entry.getTtlNanos();
+                }
+                
+                @Override
+                public long expireAfterUpdate(String key, CacheEntry entry, long currentTime, long currentDuration) {
+                    return entry.getTtlNanos();
+                }
+                
+                @Override
+                public long expireAfterRead(String key, CacheEntry entry, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .scheduler(Scheduler.systemScheduler())
+            .evictionListener((String key, CacheEntry entry, RemovalCause cause) -> {
+                if (cause == RemovalCause.SIZE) {
+                    cacheMetrics.recordL1Eviction();
+                }
+            })
+            .build();
     }
 
     private <T> void warmRelatedCaches(String namespace, String key, T value) {
@@ -287,41 +360,93 @@ public class AdvancedCacheService {
     }
 
     private Mono<WarmingPlan> generateWarmingPlan(CacheWarmingRequest request) {
-        return Mono.fromCallable(() -> {
-            WarmingStrategy strategy = determineWarmingStrategy(request);
-            List<String> keysToWarm = identifyKeysToWarm(request);
-            
-            return WarmingPlan.builder()
+        return identifyKeysToWarm(request)
+            .map(keysToWarm -> WarmingPlan.builder()
                 .namespace(request.getNamespace())
-                .strategy(strategy)
+                .strategy(determineWarmingStrategy(request))
                 .keysToWarm(keysToWarm)
                 .priority(request.getPriority())
                 .batchSize(calculateOptimalBatchSize(keysToWarm.size()))
-                .build();
-        })
-        .subscribeOn(Schedulers.boundedElastic());
+                .build());
     }
 
     private Mono<CacheWarmingResult> executeWarmingPlan(WarmingPlan plan) {
-        return Flux.fromIterable(plan.getKeysToWarm())
-            .buffer(plan.getBatchSize())
-            .flatMap(keyBatch -> warmKeyBatch(keyBatch, plan.getNamespace()))
-            .reduce(0, Integer::sum)
-            .map(totalWarmed -> CacheWarmingResult.success(totalWarmed))
-            .timeout(Duration.ofMinutes(5));
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            // At most warmingConcurrency batches in flight so warming never floods Redis or the database
+            return Flux.fromIterable(plan.getKeysToWarm())
+                .buffer(plan.getBatchSize())
+                .flatMap(keyBatch -> warmKeyBatch(keyBatch, plan.getNamespace()), warmingConcurrency)
+                .reduce(0, Integer::sum)
+                .map(totalWarmed -> CacheWarmingResult.success(totalWarmed, Duration.ofNanos(System.nanoTime() - startNanos)));
+        })
+        .timeout(Duration.ofMinutes(5));
     }
 
     private Mono<Integer> warmKeyBatch(List<String> keys, String namespace) {
-        return Flux.fromIterable(keys)
-            .flatMap(key -> warmSingleKey(key, namespace))
-            .reduce(0, Integer::sum);
+        // Through CacheService, which serves the reads being counted and scopes its keys by
+        // generation: one MGET per batch, and every entry still in Redis is admitted to its
+        // near cache. Entries Redis no longer holds are computed by their next read.
+        return Mono.fromCallable(() -> cacheService.getMultiple(namespace, keys, Object.class).size())
+            .subscribeOn(Schedulers.boundedElastic());
     }
 
-    private Mono<Integer> warmSingleKey(String key, String namespace) {
-        return loadDataForKey(key, namespace)
-            .flatMap(data -> put(namespace, key, data, DEFAULT_TTL))
-            .thenReturn(1)
-            .onErrorReturn(0);
+    private void rewarm(WarmingPriority priority, String reason) {
+        if (!warmingInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        log.info("Warming caches {} ({})", warmingNamespaces, reason);
+        
+        // Namespaces one after another so the concurrency cap holds across the whole replay
+        Flux.fromIterable(warmingNamespaces)
+            .concatMap(namespace -> warmCache(CacheWarmingRequest.builder()
+                .namespace(namespace)
+                .priority(priority)
+                .build()))
+            .doFinally(signal -> warmingInProgress.set(false))
+            .subscribe(result -> log.info("Cache warming ({}) finished: {} keys in {}",
+                reason, result.getWarmedKeys(), result.getDuration()));
+    }
+
+    private Mono<Void> detectRedisReset() {
+        // A missing sentinel after we wrote one means Redis failed over to an empty replica or was flushed
+        return redisTemplate.hasKey(WARMING_SENTINEL_KEY)
+            .flatMap(present -> {
+                if (!present && warmingSentinelWritten.get()) {
+                    log.warn("Cache warming sentinel missing, re-warming from local access statistics");
+                    rewarm(WarmingPriority.CRITICAL, "redis reset");
+                }
+                return redisTemplate.opsForValue().set(WARMING_SENTINEL_KEY, "1");
+            })
+            .doOnNext(written -> warmingSentinelWritten.set(true))
+            .then();
+    }
+
+    private Mono<Void> persistHotKeys(String namespace) {
+        Map<String, Long> hotKeys = hotKeyTracker.snapshot(namespace);
+        if (hotKeys.isEmpty()) {
+            return Mono.empty();
+        }
+        
+        String hotKeysKey = HOT_KEYS_PREFIX + namespace;
+        String stagingKey = hotKeysKey + ":staging";
+        Set<ZSetOperations.TypedTuple<Object>> tuples = hotKeys.entrySet().stream()
+            .map(entry -> ZSetOperations.TypedTuple.<Object>of(entry.getKey(), entry.getValue().doubleValue()))
+            .collect(Collectors.toSet());
+        
+        // Built aside and renamed into place so a starting node never replays a half-written list
+        return redisTemplate.delete(stagingKey)
+            .then(redisTemplate.opsForZSet().addAll(stagingKey, tuples))
+            .then(redisTemplate.rename(stagingKey, hotKeysKey))
+            .then(redisTemplate.expire(hotKeysKey, HOT_KEYS_TTL))
+            .then();
+    }
+
+    private Mono<List<String>> loadPersistedHotKeys(String namespace, int limit) {
+        return redisTemplate.opsForZSet()
+            .reverseRange(HOT_KEYS_PREFIX + namespace, Range.closed(0L, (long) limit - 1))
+            .map(Object::toString)
+            .collectList();
     }
 
     private Mono<InvalidationPlan> buildInvalidationPlan(InvalidationRequest request) {
@@ -353,7 +478,7 @@ public class AdvancedCacheService {
     }
 
     private Mono<Void> invalidateSingleKey(String key) {
-        return Mono.fromRunnable(() -> l1Cache.remove(key))
+        return Mono.fromRunnable(() -> l1For(key).invalidate(key))
             .then(redisTemplate.delete(key))
             .then();
     }
@@ -394,13 +519,23 @@ public class AdvancedCacheService {
     }
 
     private List<String> identifyHotKeys(String namespace, Duration window) {
-        // Identify frequently accessed keys
-        return new ArrayList<>();
+        // The sketch is decayed periodically, so its ranking already reflects the recent window
+        return hotKeyTracker.hotKeys(namespace, hotKeyTracker.getTopK());
     }
 
     private List<String> identifyColdKeys(String namespace, Duration window) {
-        // Identify rarely accessed keys
-        return new ArrayList<>();
+        // Resident L1 entries the eviction policy would drop first and that are rarely requested
+        Cache<String, CacheEntry> l1 = l1Caches.get(namespace);
+        if (l1 == null) {
+            return new ArrayList<>();
+        }
+        int prefixLength = namespace.length() + 1;
+        return l1.policy().eviction()
+            .map(eviction -> eviction.coldest(hotKeyTracker.getTopK()).keySet().stream()
+                .map(fullKey -> fullKey.substring(prefixLength))
+                .filter(key -> hotKeyTracker.estimate(namespace, key) <= 1)
+                .collect(Collectors.toList()))
+            .orElseGet(ArrayList::new);
     }
 
     private Mono<PreloadingStrategy> generatePreloadingStrategy(PreloadingRequest request) {
@@ -416,7 +551,7 @@ public class AdvancedCacheService {
 
     private Mono<PreloadingResult> executePreloadingStrategy(PreloadingStrategy strategy, PreloadingRequest request) {
         return Flux.fromIterable(strategy.getPredictedKeys())
-            .flatMap(key -> preloadKey(key, request.getNamespace()))
+            .flatMap(key -> preloadKey(key, request.getNamespace()), warmingConcurrency)
             .reduce(0, Integer::sum)
             .map(PreloadingResult::success);
     }
@@ -459,7 +594,7 @@ public class AdvancedCacheService {
     }
 
     private void triggerCacheRecovery(CacheHealthEvent event) {
-        // Implement cache recovery procedures
+        rewarm(WarmingPriority.CRITICAL, "health check");
     }
 
     // Utility methods
@@ -467,6 +602,11 @@ public class AdvancedCacheService {
         return namespace + ":" + key;
     }
 
+    private String namespaceOf(String fullKey) {
+        int separator = fullKey.indexOf(':');
+        return separator > 0 ? fullKey.substring(0, separator) : fullKey;
+    }
+
     private CacheStrategy getCacheStrategy(String namespace) {
         return cacheStrategies.getOrDefault(namespace, CacheStrategy.defaultStrategy());
     }
@@ -475,8 +615,26 @@ public class AdvancedCacheService {
         return WarmingStrategy.PREDICTIVE;
     }
 
-    private List<String> identifyKeysToWarm(CacheWarmingRequest request) {
-        return new ArrayList<>();
+    private Mono<List<String>> identifyKeysToWarm(CacheWarmingRequest request) {
+        int limit = warmingLimit(request.getPriority());
+        List<String> localHotKeys = hotKeyTracker.hotKeys(request.getNamespace(), limit);
+        if (!localHotKeys.isEmpty()) {
+            return Mono.just(localHotKeys);
+        }
+        // Fresh node: fall back to the list persisted by the cluster
+        return loadPersistedHotKeys(request.getNamespace(), limit);
+    }
+
+    private int warmingLimit(WarmingPriority priority) {
+        int topK = hotKeyTracker.getTopK();
+        if (priority == null) {
+            return topK;
+        }
+        return switch (priority) {
+            case LOW -> topK / 4;
+            case MEDIUM -> topK / 2;
+            case HIGH, CRITICAL -> topK;
+        };
     }
 
     private int calculateOptimalBatchSize(int totalKeys) {
@@ -504,7 +662,11 @@ public class AdvancedCacheService {
     }
 
     private List<String> predictKeysToPreload(PreloadingRequest request) {
-        return new ArrayList<>();
+        // Hot keys that are not resident in L1 are the ones the next requests will miss on
+        Cache<String, CacheEntry> l1 = l1Caches.get(request.getNamespace());
+        return hotKeyTracker.hotKeys(request.getNamespace(), hotKeyTracker.getTopK()).stream()
+            .filter(key -> l1 == null || l1.getIfPresent(buildKey(request.getNamespace(), key)) == null)
+            .collect(Collectors.toList());
     }
 
     private CacheHealthStatus determineHealthStatus(double l1HitRate, double l2HitRate, long memoryUsage) {
@@ -521,13 +683,21 @@ public class AdvancedCacheService {
     }
 
     private Mono<Void> scheduleAsyncPersistence(String key, Object value, String namespace) {
-        return Mono.empty(); // Placeholder
+        if (!writeBehindQueue.supports(namespace)) {
+            return persistToDatabase(key, value, namespace);
+        }
+        
+        // Enqueue never blocks; a namespace too full to take the key is written through instead
+        String entityKey = key.substring(namespace.length() + 1);
+        return Mono.defer(() -> writeBehindQueue.enqueue(namespace, entityKey, value)
+            ? Mono.<Void>empty()
+            : persistToDatabase(key, value, namespace));
     }
 
     // Data classes and enums
-    @lombok.Data @lombok.Builder private static class CacheEntry { private String key; private Object value; private LocalDateTime createdAt; private Duration ttl; private int accessCount; private LocalDateTime lastAccessed; public boolean isExpired() { return LocalDateTime.now().isAfter(createdAt.plus(ttl)); } }
+    @lombok.Value private static class CacheEntry { Object value; long ttlNanos; }
     @lombok.Data @lombok.Builder public static class CacheWarmingRequest { private String namespace; private WarmingPriority priority; }
-    @lombok.Data @lombok.Builder public static class CacheWarmingResult { private boolean success; private int warmedKeys; private String message; public static CacheWarmingResult success(int warmedKeys) { return CacheWarmingResult.builder().success(true).warmedKeys(warmedKeys).build(); } public static CacheWarmingResult failed(String message) { return CacheWarmingResult.builder().success(false).message(message).build(); } }
+    @lombok.Data @lombok.Builder public static class CacheWarmingResult { private boolean success; private int warmedKeys; private Duration duration; private String message; public static CacheWarmingResult success(int warmedKeys) { return CacheWarmingResult.builder().success(true).warmedKeys(warmedKeys).build(); } public static CacheWarmingResult success(int warmedKeys, Duration duration) { return CacheWarmingResult.builder().success(true).warmedKeys(warmedKeys).duration(duration).build(); } public static CacheWarmingResult failed(String message) { return CacheWarmingResult.builder().success(false).message(message).build(); } }
     @lombok.Data @lombok.Builder public static class InvalidationRequest { private String namespace; private String pattern; private boolean cascading; }
     @lombok.Data @lombok.Builder public static class InvalidationResult { private boolean success; private int invalidatedKeys; private String message; public static InvalidationResult success(int invalidatedKeys) { return InvalidationResult.builder().success(true).invalidatedKeys(invalidatedKeys).build(); } public static InvalidationResult failed(String message) { return InvalidationResult.builder().success(false).message(message).build(); } }
     @lombok.Data @lombok.Builder public static class SynchronizationResult { private boolean success; private String message; public static SynchronizationResult skipped(String message) { return SynchronizationResult.builder().success(false).message(message).build(); } public static SynchronizationResult success(String message) { return SynchronizationResult.builder().success(true).message(message).build(); } }
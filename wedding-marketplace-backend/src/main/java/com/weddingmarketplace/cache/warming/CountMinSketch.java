@@ -0,0 +1,87 @@
+package com.weddingmarketplace.cache.warming;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free frequency estimator.
+ *
+ * Estimates never undercount; they overcount by at most {@code e / width} of all
+ * recorded increments with probability {@code 1 - e^-depth}. Counters are halved by
+ * {@link #decay()} so the sketch tracks recent rather than all-time popularity.
+ *
+ * @author Wedding Marketplace Team
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int widthMask;
+    private final AtomicLongArray counters;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Width and depth must be positive");
+        }
+        this.depth = depth;
+        // Round up to a power of two so a row index is a mask rather than a modulo
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.widthMask = this.width - 1;
+        this.counters = new AtomicLongArray(this.width * depth);
+    }
+
+    /**
+     * Record one occurrence and return the updated estimate
+     */
+    public long increment(String item) {
+        long hash = hash64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long count = counters.incrementAndGet(index(row, h1, h2));
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    public long estimate(String item) {
+        long hash = hash64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, h1, h2)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halve every counter; concurrent increments may survive undecayed, which only errs towards hot
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    private int index(int row, int h1, int h2) {
+        // Kirsch-Mitzenmacher: derive one hash per row from two independent halves
+        return row * width + ((h1 + row * h2) & widthMask);
+    }
+
+    private static long hash64(String item) {
+        // FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 avalanche step
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
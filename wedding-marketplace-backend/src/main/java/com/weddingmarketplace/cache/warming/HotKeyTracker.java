@@ -0,0 +1,131 @@
+package com.weddingmarketplace.cache.warming;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-namespace access frequency tracking for cache warming.
+ *
+ * Every access is counted in a count-min sketch; keys whose estimate beats the
+ * current top-K threshold are kept as candidates, trimmed back to K when the
+ * candidate set doubles. Recording is lock-free apart from the occasional trim,
+ * which is skipped rather than waited for when another thread is already trimming.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+public class HotKeyTracker {
+
+    private static final int SKETCH_WIDTH = 1 << 14;
+    private static final int SKETCH_DEPTH = 4;
+
+    @Value("${app.cache.warming.top-k:1000}")
+    private int topK = 1000;
+
+    private final Map<String, NamespaceStats> namespaces = new ConcurrentHashMap<>();
+
+    public void record(String namespace, String key) {
+        namespaces.computeIfAbsent(namespace, ns -> new NamespaceStats()).record(key);
+    }
+
+    public long estimate(String namespace, String key) {
+        NamespaceStats stats = namespaces.get(namespace);
+        return stats != null ? stats.sketch.estimate(key) : 0;
+    }
+
+    /**
+     * Up to {@code limit} of the most frequently accessed keys, hottest first
+     */
+    public List<String> hotKeys(String namespace, int limit) {
+        return new ArrayList<>(snapshot(namespace, limit).keySet());
+    }
+
+    /**
+     * Current top-K keys with their estimated access counts, hottest first
+     */
+    public Map<String, Long> snapshot(String namespace) {
+        return snapshot(namespace, topK);
+    }
+
+    public Set<String> namespaces() {
+        return namespaces.keySet();
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Age all counts so popularity reflects the recent past
+     */
+    @Scheduled(fixedDelayString = "${app.cache.warming.decay-interval-ms:600000}")
+    public void decay() {
+        namespaces.values().forEach(NamespaceStats::decay);
+    }
+
+    private Map<String, Long> snapshot(String namespace, int limit) {
+        NamespaceStats stats = namespaces.get(namespace);
+        if (stats == null) {
+            return Map.of();
+        }
+        Map<String, Long> top = new LinkedHashMap<>();
+        stats.candidates.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+            .limit(Math.min(limit, topK))
+            .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    private final class NamespaceStats {
+        private final CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+        private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+        private final ReentrantLock trimLock = new ReentrantLock();
+        private volatile long admissionThreshold;
+
+        private void record(String key) {
+            long estimate = sketch.increment(key);
+            if (estimate <= admissionThreshold && !candidates.containsKey(key)) {
+                return;
+            }
+            candidates.put(key, estimate);
+            if (candidates.size() > 2 * topK && trimLock.tryLock()) {
+                try {
+                    trim();
+                } finally {
+                    trimLock.unlock();
+                }
+            }
+        }
+
+        private void trim() {
+            List<Map.Entry<String, Long>> ranked = new ArrayList<>(candidates.entrySet());
+            ranked.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+            for (int i = topK; i < ranked.size(); i++) {
+                candidates.remove(ranked.get(i).getKey());
+            }
+            admissionThreshold = ranked.get(Math.min(topK, ranked.size()) - 1).getValue();
+        }
+
+        private void decay() {
+            trimLock.lock();
+            try {
+                sketch.decay();
+                candidates.replaceAll((key, count) -> count >>> 1);
+                candidates.values().removeIf(count -> count == 0);
+                admissionThreshold >>>= 1;
+            } finally {
+                trimLock.unlock();
+            }
+        }
+    }
+}
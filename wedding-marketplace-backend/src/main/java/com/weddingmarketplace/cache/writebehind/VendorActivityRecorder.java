@@ -0,0 +1,40 @@
+package com.weddingmarketplace.cache.writebehind;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entry point for high-churn vendor counters; updates reach the database in batches
+ * through the {@link WriteBehindQueue} instead of one UPDATE per event.
+ *
+ * When a namespace is full the update is written on the caller's thread instead, so
+ * callers slow to the pace of the database rather than losing counts.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+public class VendorActivityRecorder {
+
+    private final WriteBehindQueue writeBehindQueue;
+
+    public void recordView(Long vendorId) {
+        record(VendorViewCountWriter.NAMESPACE, vendorId, 1L);
+    }
+
+    /**
+     * Record the outcome of one inquiry; the response time only counts when the vendor responded
+     */
+    public void recordResponse(Long vendorId, boolean responded, int responseTimeHours) {
+        record(VendorResponseStatsWriter.NAMESPACE, vendorId, responded
+            ? new VendorResponseStatsWriter.ResponseStats(1, 1, responseTimeHours)
+            : new VendorResponseStatsWriter.ResponseStats(1, 0, 0));
+    }
+
+    private <V> void record(String namespace, Long vendorId, V value) {
+        String key = vendorId.toString();
+        if (!writeBehindQueue.enqueue(namespace, key, value)) {
+            writeBehindQueue.writeThrough(namespace, key, value);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.weddingmarketplace.cache.writebehind;
+
+import com.weddingmarketplace.analytics.rollup.VendorStatsRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds inquiry outcomes into each vendor's response rate and response time as one JDBC
+ * batch per flush.
+ *
+ * Both figures are moving averages in which every inquiry moves the stored value
+ * {@code 1 - DECAY} of the way towards its outcome. Outcomes queued for one vendor
+ * between flushes are summed and applied together, so coalescing loses nothing and the
+ * update never depends on a value read before the flush.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+public class VendorResponseStatsWriter implements WriteBehindWriter<VendorResponseStatsWriter.ResponseStats> {
+
+    public static final String NAMESPACE = "vendor_response_stats";
+
+    static final double DECAY = 0.95;
+
+    private static final String UPDATE_SQL = """
+        UPDATE vendors
+        SET response_rate = ROUND(response_rate * ? + ?, 2),
+            response_time_hours = ROUND(response_time_hours * ? + ?)
+        WHERE id = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VendorStatsRollup vendorStatsRollup;
+
+    @Override
+    public String namespace() {
+        return NAMESPACE;
+    }
+
+    @Override
+    public ResponseStats merge(ResponseStats pending, ResponseStats incoming) {
+        return new ResponseStats(
+            pending.getInquiries() + incoming.getInquiries(),
+            pending.getResponses() + incoming.getResponses(),
+            pending.getResponseHours() + incoming.getResponseHours());
+    }
+
+    @Override
+    public void writeBatch(Map<String, ResponseStats> batch) {
+        // Rows are always locked in id order so concurrent flushes from several nodes cannot deadlock
+        List<Object[]> args = batch.entrySet().stream()
+            .map(entry -> toRow(Long.valueOf(entry.getKey()), entry.getValue()))
+            .sorted(Comparator.comparingLong(row -> (Long) row[4]))
+            .toList();
+        jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+        // Response figures feed the quality score
+        args.forEach(row -> vendorStatsRollup.enqueue((Long) row[4]));
+    }
+
+    /**
+     * Decay and increment for both averages: n outcomes averaging x move a value v to
+     * {@code v * DECAY^n + x * (1 - DECAY^n)}
+     */
+    static Object[] toRow(Long vendorId, ResponseStats stats) {
+        double rateDecay = Math.pow(DECAY, stats.getInquiries());
+        double respondedShare = stats.getInquiries() > 0 ? 100.0 * stats.getResponses() / stats.getInquiries() : 0;
+        double timeDecay = Math.pow(DECAY, stats.getResponses());
+        double meanHours = stats.getResponses() > 0 ? (double) stats.getResponseHours() / stats.getResponses() : 0;
+        return new Object[]{
+            rateDecay, respondedShare * (1 - rateDecay),
+            timeDecay, meanHours * (1 - timeDecay),
+            vendorId};
+    }
+
+    /**
+     * Inquiry outcomes for one vendor since the last flush
+     */
+    @lombok.Value
+    public static class ResponseStats {
+        int inquiries;
+        int responses;
+        long responseHours;
+    }
+}
@@ -0,0 +1,289 @@
+package com.weddingmarketplace.cache.writebehind;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalescing write-behind queue for high-churn values such as vendor view counters.
+ *
+ * Each namespace keeps a map of pending updates keyed by entity, so any number of
+ * updates to one key between flushes collapse into a single row in the next batch.
+ * A namespace is flushed to its {@link WriteBehindWriter} when it reaches
+ * {@code batchSize} pending keys or every {@code flushInterval}, whichever comes first.
+ *
+ * A namespace holding {@code maxPendingKeys} keys takes no new keys: updates to keys
+ * already pending still coalesce, while updates to other keys are rejected, so memory
+ * stays bounded while the database is slow or down. Producers hand rejected updates to
+ * {@link #writeThrough}, which writes them on their own thread; an update whose direct
+ * write fails as well is logged and counted as dropped. Failed batches are merged back
+ * and retried on the next flush. On shutdown the queue is drained and later updates are
+ * written through.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WriteBehindQueue {
+
+    private final List<WriteBehindWriter<?>> writers;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.cache.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.cache.write-behind.max-pending-keys:50000}")
+    private int maxPendingKeys;
+
+    @Value("${app.cache.write-behind.flush-interval:1s}")
+    private Duration flushInterval;
+
+    @Value("${app.cache.write-behind.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    private final Map<String, Buffer<?>> buffers = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    // JDBC flushes get their own thread instead of the shared @Scheduled one
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void start() {
+        for (WriteBehindWriter<?> writer : writers) {
+            buffers.put(writer.namespace(), new Buffer<>(writer));
+        }
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Write-behind queue started for namespaces {} (batch {}, interval {})",
+            buffers.keySet(), batchSize, flushInterval);
+    }
+
+    public boolean supports(String namespace) {
+        return buffers.containsKey(namespace);
+    }
+
+    /**
+     * Queue an update without waiting on the database; returns false when the namespace
+     * is full and the update was not taken
+     */
+    public <V> boolean enqueue(String namespace, String key, V value) {
+        Buffer<V> buffer = bufferFor(namespace);
+
+        if (closed) {
+            buffer.writer.writeBatch(Map.of(key, value));
+            return true;
+        }
+
+        boolean[] inserted = new boolean[1];
+        boolean[] full = new boolean[1];
+        buffer.pending.compute(key, (k, pendingValue) -> {
+            if (pendingValue != null) {
+                return buffer.writer.merge(pendingValue, value);
+            }
+            // Concurrent producers may overshoot the cap by at most one key each
+            if (buffer.depth.get() >= maxPendingKeys) {
+                full[0] = true;
+                return null;
+            }
+            inserted[0] = true;
+            return value;
+        });
+
+        if (full[0]) {
+            // A flush was requested when the namespace passed batchSize, or failed and is retried on the next tick
+            buffer.rejected.increment();
+            return false;
+        }
+        if (!inserted[0]) {
+            buffer.coalesced.increment();
+        } else if (buffer.depth.incrementAndGet() >= batchSize) {
+            requestFlush(buffer);
+        }
+        return true;
+    }
+
+    /**
+     * Write one update straight to its writer on the caller's thread, for updates the
+     * queue rejected; returns false when the write failed and the update was dropped
+     */
+    public <V> boolean writeThrough(String namespace, String key, V value) {
+        Buffer<V> buffer = bufferFor(namespace);
+        try {
+            buffer.writer.writeBatch(Map.of(key, value));
+            buffer.writtenThrough.increment();
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Write-behind namespace {} is full and the direct write of key {} failed, dropping the update: {}",
+                namespace, key, e.getMessage());
+            buffer.dropped.increment();
+            return false;
+        }
+    }
+
+    public int depth(String namespace) {
+        Buffer<?> buffer = buffers.get(namespace);
+        return buffer != null ? buffer.depth.get() : 0;
+    }
+
+    public void flushAll() {
+        buffers.values().forEach(this::flush);
+    }
+
+    @PreDestroy
+    void drain() {
+        closed = true;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Write-behind flusher did not stop within {}", shutdownTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flushAll();
+        buffers.forEach((namespace, buffer) -> {
+            if (buffer.depth.get() > 0) {
+                log.error("Write-behind shutdown left {} pending updates in namespace {}", buffer.depth.get(), namespace);
+            }
+        });
+    }
+
+    private void requestFlush(Buffer<?> buffer) {
+        if (buffer.flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> flush(buffer));
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the final drain picks these up
+                buffer.flushRequested.set(false);
+            }
+        }
+    }
+
+    private <V> void flush(Buffer<V> buffer) {
+        buffer.flushLock.lock();
+        try {
+            buffer.flushRequested.set(false);
+            Iterator<String> keys = buffer.pending.keySet().iterator();
+            while (keys.hasNext()) {
+                Map<String, V> batch = new LinkedHashMap<>();
+                while (keys.hasNext() && batch.size() < batchSize) {
+                    String key = keys.next();
+                    // Updates arriving after this remove start a fresh entry for the next flush
+                    V value = buffer.pending.remove(key);
+                    if (value != null) {
+                        buffer.depth.decrementAndGet();
+                        batch.put(key, value);
+                    }
+                }
+                if (!batch.isEmpty() && !writeBatch(buffer, batch)) {
+                    return;
+                }
+            }
+        } finally {
+            buffer.flushLock.unlock();
+        }
+    }
+
+    private <V> boolean writeBatch(Buffer<V> buffer, Map<String, V> batch) {
+        long start = System.nanoTime();
+        try {
+            buffer.writer.writeBatch(batch);
+            buffer.written.increment(batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Write-behind flush of {} keys failed for namespace {}, re-queueing",
+                batch.size(), buffer.writer.namespace(), e);
+            buffer.failed.increment(batch.size());
+            requeue(buffer, batch);
+            return false;
+        } finally {
+            buffer.flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private <V> void requeue(Buffer<V> buffer, Map<String, V> batch) {
+        batch.forEach((key, failedValue) -> {
+            boolean[] inserted = new boolean[1];
+            // The failed value is older than anything queued since, so it merges in first
+            buffer.pending.compute(key, (k, newer) -> {
+                if (newer == null) {
+                    inserted[0] = true;
+                    return failedValue;
+                }
+                return buffer.writer.merge(failedValue, newer);
+            });
+            if (inserted[0]) {
+                buffer.depth.incrementAndGet();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> Buffer<V> bufferFor(String namespace) {
+        Buffer<?> buffer = buffers.get(namespace);
+        if (buffer == null) {
+            throw new IllegalArgumentException("No write-behind writer registered for namespace: " + namespace);
+        }
+        return (Buffer<V>) buffer;
+    }
+
+    private final class Buffer<V> {
+        private final WriteBehindWriter<V> writer;
+        private final Map<String, V> pending = new ConcurrentHashMap<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean flushRequested = new AtomicBoolean();
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private final Timer flushTimer;
+        private final Counter coalesced;
+        private final Counter written;
+        private final Counter failed;
+        private final Counter rejected;
+        private final Counter writtenThrough;
+        private final Counter dropped;
+
+        private Buffer(WriteBehindWriter<V> writer) {
+            this.writer = writer;
+            String namespace = writer.namespace();
+            Gauge.builder("cache.write_behind.depth", depth, AtomicInteger::get)
+                .tag("namespace", namespace)
+                .register(meterRegistry);
+            this.flushTimer = Timer.builder("cache.write_behind.flush")
+                .tag("namespace", namespace)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+            this.coalesced = meterRegistry.counter("cache.write_behind.coalesced", "namespace", namespace);
+            this.written = meterRegistry.counter("cache.write_behind.written", "namespace", namespace);
+            this.failed = meterRegistry.counter("cache.write_behind.failed", "namespace", namespace);
+            this.rejected = meterRegistry.counter("cache.write_behind.rejected", "namespace", namespace);
+            this.writtenThrough = meterRegistry.counter("cache.write_behind.written_through", "namespace", namespace);
+            this.dropped = meterRegistry.counter("cache.write_behind.dropped", "namespace", namespace);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.weddingmarketplace.cache.writebehind;
+
+import java.util.Map;
+
+/**
+ * Persists one namespace of write-behind updates.
+ *
+ * Updates to the same key are coalesced with {@link #merge} while they wait in the
+ * queue, so {@link #writeBatch} sees at most one value per key per flush.
+ *
+ * @author Wedding Marketplace Team
+ */
+public interface WriteBehindWriter<V> {
+
+    String namespace();
+
+    /**
+     * Combine a pending value with a newer one for the same key; last write wins by default
+     */
+    default V merge(V pending, V incoming) {
+        return incoming;
+    }
+
+    /**
+     * Write a batch of coalesced updates; throwing re-queues the whole batch
+     */
+    void writeBatch(Map<String, V> batch);
+}
@@ -6,12 +6,14 @@ import com.weddingmarketplace.model.dto.response.UserResponse;
 import com.weddingmarketplace.model.dto.response.BookingResponse;
 import com.weddingmarketplace.model.enums.VendorStatus;
 import com.weddingmarketplace.model.enums.UserStatus;
+import com.weddingmarketplace.search.global.GlobalSearchResult;
 import com.weddingmarketplace.security.UserPrincipal;
 import com.weddingmarketplace.service.VendorService;
 import com.weddingmarketplace.service.UserService;
 import com.weddingmarketplace.service.BookingService;
 import com.weddingmarketplace.service.PaymentService;
 import com.weddingmarketplace.service.AnalyticsService;
+import com.weddingmarketplace.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -51,6 +53,7 @@ public class AdminController {
     private final BookingService bookingService;
     private final PaymentService paymentService;
     private final AnalyticsService analyticsService;
+    private final SearchService searchService;
 
     // Dashboard and Overview
 
@@ -353,6 +356,27 @@ public class AdminController {
             .build());
     }
 
+    @Operation(
+        summary = "Profile a global search",
+        description = "Run a global search uncached with Elasticsearch profiling and return per-shard timings for slow-query diagnosis"
+    )
+    @GetMapping("/search/profile")
+    public ResponseEntity<ApiResponse<GlobalSearchResult>> profileGlobalSearch(
+            @Parameter(description = "Search query") @RequestParam String query,
+            @Parameter(description = "Index to search: all, vendors, users or bookings") @RequestParam(defaultValue = "all") String type,
+            @PageableDefault(size = 20) Pageable pageable) {
+        
+        log.debug("Profiling global search for query: {}, type: {}", query, type);
+        
+        GlobalSearchResult result = searchService.globalSearchGrouped(query, type, pageable, true);
+        
+        return ResponseEntity.ok(ApiResponse.<GlobalSearchResult>builder()
+            .success(true)
+            .message("Global search profiled successfully")
+            .data(result)
+            .build());
+    }
+
     @Operation(
         summary = "Get platform statistics",
         description = "Get comprehensive platform usage and growth statistics"
@@ -5,6 +5,7 @@ import com.weddingmarketplace.model.dto.request.VendorSearchRequest;
 import com.weddingmarketplace.model.dto.response.ApiResponse;
 import com.weddingmarketplace.model.dto.response.VendorResponse;
 import com.weddingmarketplace.model.dto.response.VendorSearchResponse;
+import com.weddingmarketplace.search.paging.CursorPage;
 import com.weddingmarketplace.security.UserPrincipal;
 import com.weddingmarketplace.service.VendorService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -92,6 +93,27 @@ public class VendorController {
             .build());
     }
 
+    @Operation(
+        summary = "Search vendors by cursor",
+        description = "Search vendors with the same filters and sorting, paged by the opaque nextCursor of the previous page"
+    )
+    @PostMapping("/search/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<VendorResponse>>> searchVendorsByCursor(
+            @Valid @RequestBody VendorSearchRequest searchRequest,
+            @Parameter(description = "nextCursor of the previous page, omitted for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+        
+        log.debug("Searching vendors by cursor with request: {}", searchRequest);
+        
+        CursorPage<VendorResponse> page = vendorService.searchVendorsByCursor(searchRequest, cursor, size);
+        
+        return ResponseEntity.ok(ApiResponse.<CursorPage<VendorResponse>>builder()
+            .success(true)
+            .message("Vendors retrieved successfully")
+            .data(page)
+            .build());
+    }
+
     @Operation(
         summary = "Get vendor by ID",
         description = "Retrieve vendor details by ID with optional view count increment"
@@ -156,6 +178,29 @@ public class VendorController {
             .build());
     }
 
+    @Operation(
+        summary = "Browse vendors in a category by cursor",
+        description = "Retrieve vendors in a category, paged by the opaque nextCursor of the previous page"
+    )
+    @GetMapping("/category/{categoryId}/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<VendorResponse>>> getVendorsByCategoryCursor(
+            @Parameter(description = "Category ID") @PathVariable Long categoryId,
+            @Valid VendorSearchRequest filters,
+            @Parameter(description = "nextCursor of the previous page, omitted for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+        
+        log.debug("Browsing vendors in category {} by cursor", categoryId);
+        
+        filters.setCategoryId(categoryId);
+        CursorPage<VendorResponse> page = vendorService.searchVendorsByCursor(filters, cursor, size);
+        
+        return ResponseEntity.ok(ApiResponse.<CursorPage<VendorResponse>>builder()
+            .success(true)
+            .message("Vendors retrieved successfully")
+            .data(page)
+            .build());
+    }
+
     @Operation(
         summary = "Get featured vendors",
         description = "Retrieve featured vendors with rotation algorithm"
@@ -216,6 +261,29 @@ public class VendorController {
             .build());
     }
 
+    @Operation(
+        summary = "Get nearby vendors by cursor",
+        description = "Find vendors within a radius, nearest first, paged by the opaque nextCursor of the previous page"
+    )
+    @GetMapping("/nearby/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<VendorResponse>>> getNearbyVendorsCursor(
+            @Parameter(description = "Latitude") @RequestParam Double latitude,
+            @Parameter(description = "Longitude") @RequestParam Double longitude,
+            @Parameter(description = "Radius in kilometers") @RequestParam(defaultValue = "25.0") Double radiusKm,
+            @Parameter(description = "nextCursor of the previous page, omitted for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+        
+        log.debug("Getting nearby vendors by cursor for coordinates: {}, {} within {} km", latitude, longitude, radiusKm);
+        
+        CursorPage<VendorResponse> page = vendorService.getVendorsNearbyByCursor(latitude, longitude, radiusKm, cursor, size);
+        
+        return ResponseEntity.ok(ApiResponse.<CursorPage<VendorResponse>>builder()
+            .success(true)
+            .message("Nearby vendors retrieved successfully")
+            .data(page)
+            .build());
+    }
+
     @Operation(
         summary = "Get vendor analytics",
         description = "Retrieve comprehensive analytics for a vendor"
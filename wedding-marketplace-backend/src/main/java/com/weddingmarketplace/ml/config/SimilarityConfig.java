@@ -0,0 +1,32 @@
+package com.weddingmarketplace.ml.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor for vendor similarity index builds and updates. A single thread, so a build
+ * holds at most one copy of the interactions in memory and never races an update.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Configuration
+public class SimilarityConfig {
+
+    @Bean(name = "similarityExecutor")
+    public Executor similarityExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("similarity-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
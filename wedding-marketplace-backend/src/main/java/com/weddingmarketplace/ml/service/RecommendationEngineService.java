@@ -1,5 +1,7 @@
 package com.weddingmarketplace.ml.service;
 
+import com.weddingmarketplace.ml.similarity.CoBookingMatrix;
+import com.weddingmarketplace.ml.similarity.VendorSimilarityIndex;
 import com.weddingmarketplace.model.dto.response.VendorResponse;
 import com.weddingmarketplace.model.entity.User;
 import com.weddingmarketplace.model.entity.Vendor;
@@ -11,6 +13,9 @@ import com.weddingmarketplace.repository.BookingRepository;
 import com.weddingmarketplace.repository.ReviewRepository;
 import com.weddingmarketplace.service.CacheService;
 import com.weddingmarketplace.mapper.VendorMapper;
+import com.weddingmarketplace.search.geo.GeoFilter;
+import com.weddingmarketplace.search.geo.GeoGridIndex;
+import com.weddingmarketplace.search.geo.VendorGeoIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,6 +24,8 @@ import org.springframework.scheduling.annotation.Async;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 import java.util.concurrent.CompletableFuture;
 
@@ -41,9 +48,13 @@ public class RecommendationEngineService {
     private final VendorMapper vendorMapper;
     private final UserBehaviorAnalysisService userBehaviorService;
     private final VendorSimilarityService vendorSimilarityService;
+    private final VendorGeoIndex vendorGeoIndex;
+    private final VendorSimilarityIndex vendorSimilarityIndex;
 
     private static final String RECOMMENDATION_CACHE_PREFIX = "recommendations:";
     private static final Duration CACHE_DURATION = Duration.ofHours(6);
+    // Nearest vendors scored for location recommendations when served from the geo grid
+    private static final int MAX_LOCATION_CANDIDATES = 500;
 
     /**
      * Get personalized vendor recommendations using hybrid approach
@@ -101,51 +112,91 @@ public class RecommendationEngineService {
         log.debug("Generating collaborative filtering recommendations for user: {}", userId);
         
         try {
-            // Find similar users based on booking and review patterns
-            List<User> similarUsers = findSimilarUsers(userId, 50);
+            // One lookup in the precomputed co-booking matrix once it is built
+            Optional<List<CoBookingMatrix.Neighbour>> fromIndex = vendorSimilarityIndex.recommendFor(userId, limit * 2);
+            if (fromIndex.isPresent()) {
+                return toCollaborativeResponses(fromIndex.get(), limit);
+            }
+            return getCollaborativeFilteringFromSimilarUsers(userId, limit);
+                
+        } catch (Exception e) {
+            log.error("Error in collaborative filtering recommendations", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Collaborative filtering from the bookings and reviews of similar users, while the
+     * similarity index is not built yet
+     */
+    private List<VendorResponse> getCollaborativeFilteringFromSimilarUsers(Long userId, int limit) {
+        LongPredicate interacted = interactedVendors(userId);
+        // Find similar users based on booking and review patterns
+        List<User> similarUsers = findSimilarUsers(userId, 50);
+        
+        // Get vendors that similar users liked but current user hasn't interacted with
+        Map<Vendor, Double> vendorScores = new HashMap<>();
+        
+        for (User similarUser : similarUsers) {
+            List<Booking> similarUserBookings = bookingRepository.findByCustomerIdAndDeletedFalse(similarUser.getId());
+            List<Review> similarUserReviews = reviewRepository.findByCustomerIdAndDeletedFalse(similarUser.getId());
             
-            // Get vendors that similar users liked but current user hasn't interacted with
-            Map<Vendor, Double> vendorScores = new HashMap<>();
+            // Calculate similarity weight
+            double userSimilarity = calculateUserSimilarity(userId, similarUser.getId());
             
-            for (User similarUser : similarUsers) {
-                List<Booking> similarUserBookings = bookingRepository.findByCustomerIdAndDeletedFalse(similarUser.getId());
-                List<Review> similarUserReviews = reviewRepository.findByCustomerIdAndDeletedFalse(similarUser.getId());
-                
-                // Calculate similarity weight
-                double userSimilarity = calculateUserSimilarity(userId, similarUser.getId());
-                
-                // Score vendors based on similar user interactions
-                for (Booking booking : similarUserBookings) {
-                    if (!hasUserInteractedWithVendor(userId, booking.getVendor().getId())) {
-                        double score = userSimilarity * calculateBookingScore(booking);
-                        vendorScores.merge(booking.getVendor(), score, Double::sum);
-                    }
-                }
-                
-                for (Review review : similarUserReviews) {
-                    if (!hasUserInteractedWithVendor(userId, review.getVendor().getId())) {
-                        double score = userSimilarity * (review.getRating() / 5.0);
-                        vendorScores.merge(review.getVendor(), score, Double::sum);
-                    }
+            // Score vendors based on similar user interactions
+            for (Booking booking : similarUserBookings) {
+                if (!interacted.test(booking.getVendor().getId())) {
+                    double score = userSimilarity * calculateBookingScore(booking);
+                    vendorScores.merge(booking.getVendor(), score, Double::sum);
                 }
             }
             
-            // Sort by score and convert to response
-            return vendorScores.entrySet().stream()
-                .sorted(Map.Entry.<Vendor, Double>comparingByValue().reversed())
-                .limit(limit)
-                .map(entry -> {
-                    VendorResponse response = vendorMapper.toResponse(entry.getKey());
-                    response.setRecommendationScore(entry.getValue());
-                    response.setRecommendationReason("Users with similar preferences also liked this vendor");
-                    return response;
-                })
-                .collect(Collectors.toList());
-                
-        } catch (Exception e) {
-            log.error("Error in collaborative filtering recommendations", e);
+            for (Review review : similarUserReviews) {
+                if (!interacted.test(review.getVendor().getId())) {
+                    double score = userSimilarity * (review.getRating() / 5.0);
+                    vendorScores.merge(review.getVendor(), score, Double::sum);
+                }
+            }
+        }
+        
+        // Sort by score and convert to response
+        return vendorScores.entrySet().stream()
+            .sorted(Map.Entry.<Vendor, Double>comparingByValue().reversed())
+            .limit(limit)
+            .map(entry -> {
+                VendorResponse response = vendorMapper.toResponse(entry.getKey());
+                response.setRecommendationScore(entry.getValue());
+                response.setRecommendationReason("Users with similar preferences also liked this vendor");
+                return response;
+            })
+            .collect(Collectors.toList());
+    }
+
+    private List<VendorResponse> toCollaborativeResponses(List<CoBookingMatrix.Neighbour> recommended, int limit) {
+        if (recommended.isEmpty()) {
             return Collections.emptyList();
         }
+        Map<Long, Vendor> vendors = vendorRepository.findAllById(recommended.stream()
+                .map(CoBookingMatrix.Neighbour::getVendorId)
+                .collect(Collectors.toList())).stream()
+            .collect(Collectors.toMap(Vendor::getId, Function.identity()));
+        // Summed similarities are unbounded; scale them to the best one to weigh against other sources
+        double best = recommended.get(0).getScore();
+        
+        return recommended.stream()
+            .filter(neighbour -> {
+                Vendor vendor = vendors.get(neighbour.getVendorId());
+                return vendor != null && !Boolean.TRUE.equals(vendor.getDeleted()) && vendor.isApproved();
+            })
+            .limit(limit)
+            .map(neighbour -> {
+                VendorResponse response = vendorMapper.toResponse(vendors.get(neighbour.getVendorId()));
+                response.setRecommendationScore(neighbour.getScore() / best);
+                response.setRecommendationReason("Couples who booked your vendors also booked this vendor");
+                return response;
+            })
+            .collect(Collectors.toList());
     }
 
     /**
@@ -162,9 +213,10 @@ public class RecommendationEngineService {
                 com.weddingmarketplace.model.enums.VendorStatus.APPROVED);
             
             Map<Vendor, Double> vendorScores = new HashMap<>();
+            LongPredicate interacted = interactedVendors(userId);
             
             for (Vendor vendor : allVendors) {
-                if (!hasUserInteractedWithVendor(userId, vendor.getId())) {
+                if (!interacted.test(vendor.getId())) {
                     double score = calculateContentSimilarity(userProfile, vendor);
                     if (score > 0.3) { // Threshold for relevance
                         vendorScores.put(vendor, score);
@@ -236,11 +288,15 @@ public class RecommendationEngineService {
             UserProfile userProfile = buildUserProfile(userRepository.findByIdAndDeletedFalse(userId)
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId)));
             
-            List<Vendor> nearbyVendors = vendorRepository.findVendorsWithinRadius(
-                latitude, longitude, radiusKm);
+            List<Vendor> nearbyVendors = vendorGeoIndex.nearest(latitude, longitude, MAX_LOCATION_CANDIDATES, radiusKm, GeoFilter.NONE)
+                .map(hits -> vendorRepository.findAllById(hits.stream()
+                    .map(GeoGridIndex.Hit::getVendorId)
+                    .collect(Collectors.toList())))
+                .orElseGet(() -> vendorRepository.findVendorsWithinRadius(latitude, longitude, radiusKm));
             
+            LongPredicate interacted = interactedVendors(userId);
             return nearbyVendors.stream()
-                .filter(vendor -> !hasUserInteractedWithVendor(userId, vendor.getId()))
+                .filter(vendor -> !interacted.test(vendor.getId()))
                 .map(vendor -> {
                     VendorResponse response = vendorMapper.toResponse(vendor);
                     double distance = calculateDistance(latitude, longitude, 
@@ -347,6 +403,16 @@ public class RecommendationEngineService {
         return userBehaviorService.calculateUserSimilarity(userId1, userId2);
     }
 
+    /**
+     * Whether the user booked or reviewed a vendor: a lookup in the similarity index once
+     * it is built, otherwise two exists queries per vendor asked about
+     */
+    private LongPredicate interactedVendors(Long userId) {
+        return vendorSimilarityIndex.interactionsOf(userId)
+            .<LongPredicate>map(interactions -> interactions::contains)
+            .orElse(vendorId -> hasUserInteractedWithVendor(userId, vendorId));
+    }
+
     private boolean hasUserInteractedWithVendor(Long userId, Long vendorId) {
         return bookingRepository.existsByCustomerIdAndVendorIdAndDeletedFalse(userId, vendorId) ||
                reviewRepository.existsByCustomerIdAndVendorIdAndDeletedFalse(userId, vendorId);
@@ -0,0 +1,441 @@
+package com.weddingmarketplace.ml.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sparse item-item similarity between vendors, learned from which customers booked or
+ * reviewed which vendors, together with those customer-vendor interactions.
+ *
+ * Vendors are dense ordinals in id order. Each vendor keeps its top-N most similar
+ * vendors, overall and within its own category, as compressed sparse rows: one offsets
+ * array and parallel neighbour/score arrays, so a lookup is a slice of two primitive
+ * arrays. Customers keep their interacted vendors and interaction weights the same way.
+ *
+ * Similarity is the cosine of two vendors' customer-weight columns, damped by
+ * {@code shared / (shared + shrinkage)} so that a single shared customer between two
+ * rarely booked vendors does not read as a perfect match.
+ *
+ * Instances are immutable; {@link Builder} produces them.
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class CoBookingMatrix {
+
+    private final long[] vendorIds;
+    private final Rows similar;
+    private final Rows similarInCategory;
+    private final long[] customerIds;
+    private final Rows interactions;
+
+    private CoBookingMatrix(long[] vendorIds, Rows similar, Rows similarInCategory,
+                            long[] customerIds, Rows interactions) {
+        this.vendorIds = vendorIds;
+        this.similar = similar;
+        this.similarInCategory = similarInCategory;
+        this.customerIds = customerIds;
+        this.interactions = interactions;
+    }
+
+    public int vendorCount() {
+        return vendorIds.length;
+    }
+
+    public int customerCount() {
+        return customerIds.length;
+    }
+
+    /**
+     * Stored neighbour entries across both similarity tables
+     */
+    public int entryCount() {
+        return similar.columns.length + similarInCategory.columns.length;
+    }
+
+    /**
+     * The vendors most similar to the given one, best first; empty when the vendor was
+     * not listed when the matrix was built
+     */
+    public Optional<List<Neighbour>> similarTo(long vendorId, int limit, boolean sameCategory) {
+        int ordinal = Arrays.binarySearch(vendorIds, vendorId);
+        if (ordinal < 0) {
+            return Optional.empty();
+        }
+        Rows rows = sameCategory ? similarInCategory : similar;
+        int from = rows.offsets[ordinal];
+        int to = Math.min(rows.offsets[ordinal + 1], from + Math.max(0, limit));
+        List<Neighbour> neighbours = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            neighbours.add(new Neighbour(vendorIds[rows.columns[i]], rows.values[i]));
+        }
+        return Optional.of(neighbours);
+    }
+
+    /**
+     * The vendors a customer had interacted with when the matrix was built, in id order;
+     * empty for customers without interactions
+     */
+    public Interactions interactionsOf(long customerId) {
+        int customer = Arrays.binarySearch(customerIds, customerId);
+        if (customer < 0) {
+            return Interactions.NONE;
+        }
+        int from = interactions.offsets[customer];
+        int to = interactions.offsets[customer + 1];
+        long[] ids = new long[to - from];
+        float[] weights = new float[to - from];
+        for (int i = from; i < to; i++) {
+            ids[i - from] = vendorIds[interactions.columns[i]];
+            weights[i - from] = interactions.values[i];
+        }
+        return new Interactions(ids, weights);
+    }
+
+    /**
+     * Vendors to recommend to a customer with the given interactions: each interacted
+     * vendor's neighbours, scored by similarity times interaction weight and summed,
+     * leaving out vendors the customer already interacted with. Best first.
+     */
+    public List<Neighbour> recommend(Interactions interacted, int limit) {
+        if (interacted.size() == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        BitSet seen = new BitSet(vendorIds.length);
+        int[] ordinals = new int[interacted.size()];
+        int candidates = 0;
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = Arrays.binarySearch(vendorIds, interacted.vendorIds[i]);
+            if (ordinals[i] >= 0) {
+                seen.set(ordinals[i]);
+                candidates += similar.offsets[ordinals[i] + 1] - similar.offsets[ordinals[i]];
+            }
+        }
+
+        float[] totals = new float[vendorIds.length];
+        int[] touched = new int[Math.min(vendorIds.length, candidates)];
+        int touchedCount = 0;
+        for (int i = 0; i < ordinals.length; i++) {
+            float weight = interacted.weights[i];
+            // A zero weight would leave its neighbours' totals at zero and list them twice
+            if (ordinals[i] < 0 || weight <= 0f) {
+                continue;
+            }
+            for (int entry = similar.offsets[ordinals[i]]; entry < similar.offsets[ordinals[i] + 1]; entry++) {
+                int neighbour = similar.columns[entry];
+                if (seen.get(neighbour)) {
+                    continue;
+                }
+                if (totals[neighbour] == 0f) {
+                    touched[touchedCount++] = neighbour;
+                }
+                totals[neighbour] += weight * similar.values[entry];
+            }
+        }
+
+        long[] ranked = new long[touchedCount];
+        for (int i = 0; i < touchedCount; i++) {
+            ranked[i] = rankKey(totals[touched[i]], touched[i]);
+        }
+        Arrays.sort(ranked);
+        List<Neighbour> recommended = new ArrayList<>(Math.min(limit, touchedCount));
+        for (int i = touchedCount - 1; i >= 0 && recommended.size() < limit; i--) {
+            int ordinal = ordinalOf(ranked[i]);
+            recommended.add(new Neighbour(vendorIds[ordinal], totals[ordinal]));
+        }
+        return recommended;
+    }
+
+    /**
+     * Sorts ascending by score, then by descending ordinal, so reading from the end gives
+     * best first with ties in vendor id order. Scores are positive, and positive floats
+     * order the same as their bit patterns.
+     */
+    static long rankKey(float score, int ordinal) {
+        return ((long) Float.floatToIntBits(score) << 32) | (Integer.MAX_VALUE - ordinal);
+    }
+
+    static int ordinalOf(long rankKey) {
+        return Integer.MAX_VALUE - (int) rankKey;
+    }
+
+    @lombok.Value
+    public static class Neighbour {
+        long vendorId;
+        float score;
+    }
+
+    /**
+     * A customer's interacted vendors in id order, with one weight each
+     */
+    @lombok.Value
+    public static class Interactions {
+        public static final Interactions NONE = new Interactions(new long[0], new float[0]);
+
+        long[] vendorIds;
+        float[] weights;
+
+        public int size() {
+            return vendorIds.length;
+        }
+
+        public boolean contains(long vendorId) {
+            return Arrays.binarySearch(vendorIds, vendorId) >= 0;
+        }
+    }
+
+    /**
+     * Compressed sparse rows: row r spans [offsets[r], offsets[r + 1]) of columns and values
+     */
+    private static final class Rows {
+        final int[] offsets;
+        final int[] columns;
+        final float[] values;
+
+        Rows(int[] offsets, int[] columns, float[] values) {
+            this.offsets = offsets;
+            this.columns = columns;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Collects customer interactions and computes the similarity tables.
+     *
+     * Customers are added one at a time in increasing id order, each with all of their
+     * interactions; the caller streams them sorted by customer. Interactions with vendors
+     * that are not listed are dropped.
+     */
+    public static final class Builder {
+
+        private final long[] vendorIds;
+        private final long[] categoryIds;
+
+        private long[] customerIds = new long[1024];
+        private int customerCount;
+        private int[] offsets = new int[1025];
+        private int[] columns = new int[4096];
+        private float[] weights = new float[4096];
+
+        /**
+         * @param vendorIds   the listed vendors
+         * @param categoryIds their categories, in the same order
+         */
+        public Builder(long[] vendorIds, long[] categoryIds) {
+            if (vendorIds.length != categoryIds.length) {
+                throw new IllegalArgumentException("Expected one category per vendor");
+            }
+            Integer[] order = new Integer[vendorIds.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(vendorIds[a], vendorIds[b]));
+            this.vendorIds = new long[vendorIds.length];
+            this.categoryIds = new long[vendorIds.length];
+            for (int i = 0; i < order.length; i++) {
+                this.vendorIds[i] = vendorIds[order[i]];
+                this.categoryIds[i] = categoryIds[order[i]];
+                if (i > 0 && this.vendorIds[i] == this.vendorIds[i - 1]) {
+                    throw new IllegalArgumentException("Duplicate vendor " + this.vendorIds[i]);
+                }
+            }
+        }
+
+        /**
+         * Add one customer's interactions; a vendor listed twice keeps its highest weight
+         */
+        public Builder addCustomer(long customerId, long[] interactedVendorIds, float[] interactionWeights) {
+            if (customerCount > 0 && customerId <= customerIds[customerCount - 1]) {
+                throw new IllegalArgumentException("Customers must be added in increasing id order: " + customerId);
+            }
+
+            // Map to ordinals, then sort so duplicates sit next to each other
+            long[] packed = new long[interactedVendorIds.length];
+            int known = 0;
+            for (int i = 0; i < interactedVendorIds.length; i++) {
+                int ordinal = Arrays.binarySearch(vendorIds, interactedVendorIds[i]);
+                if (ordinal >= 0 && interactionWeights[i] > 0f) {
+                    packed[known++] = ((long) ordinal << 32) | Float.floatToIntBits(interactionWeights[i]);
+                }
+            }
+            if (known == 0) {
+                return this;
+            }
+            Arrays.sort(packed, 0, known);
+
+            int start = offsets[customerCount];
+            ensureEntries(start + known);
+            int end = start;
+            for (int i = 0; i < known; i++) {
+                int ordinal = (int) (packed[i] >>> 32);
+                float weight = Float.intBitsToFloat((int) packed[i]);
+                if (end > start && columns[end - 1] == ordinal) {
+                    // Sorted by weight within an ordinal, so the later one is the larger
+                    weights[end - 1] = weight;
+                } else {
+                    columns[end] = ordinal;
+                    weights[end] = weight;
+                    end++;
+                }
+            }
+
+            if (customerCount == customerIds.length) {
+                customerIds = Arrays.copyOf(customerIds, customerIds.length * 2);
+                offsets = Arrays.copyOf(offsets, customerIds.length + 1);
+            }
+            customerIds[customerCount++] = customerId;
+            offsets[customerCount] = end;
+            return this;
+        }
+
+        private void ensureEntries(int required) {
+            if (required > columns.length) {
+                int capacity = Math.max(required, columns.length * 2);
+                columns = Arrays.copyOf(columns, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+        }
+
+        /**
+         * @param neighbours             similar vendors kept per vendor, overall and within the category
+         * @param maxVendorsPerCustomer  customers with more interactions than this (planners,
+         *                               agencies, test accounts) do not count towards similarity,
+         *                               which also bounds the quadratic work per customer
+         * @param shrinkage              damping of similarities resting on few shared customers
+         */
+        public CoBookingMatrix build(int neighbours, int maxVendorsPerCustomer, float shrinkage) {
+            int vendors = vendorIds.length;
+            int entries = offsets[customerCount];
+
+            // Vendor columns: for each vendor, the contributing customers and their weights
+            int[] vendorOffsets = new int[vendors + 1];
+            double[] squaredNorms = new double[vendors];
+            for (int customer = 0; customer < customerCount; customer++) {
+                if (contributes(customer, maxVendorsPerCustomer)) {
+                    for (int i = offsets[customer]; i < offsets[customer + 1]; i++) {
+                        vendorOffsets[columns[i] + 1]++;
+                        squaredNorms[columns[i]] += (double) weights[i] * weights[i];
+                    }
+                }
+            }
+            for (int vendor = 0; vendor < vendors; vendor++) {
+                vendorOffsets[vendor + 1] += vendorOffsets[vendor];
+            }
+            int[] vendorCustomers = new int[vendorOffsets[vendors]];
+            float[] vendorWeights = new float[vendorOffsets[vendors]];
+            int[] fill = Arrays.copyOf(vendorOffsets, vendors);
+            for (int customer = 0; customer < customerCount; customer++) {
+                if (contributes(customer, maxVendorsPerCustomer)) {
+                    for (int i = offsets[customer]; i < offsets[customer + 1]; i++) {
+                        int slot = fill[columns[i]]++;
+                        vendorCustomers[slot] = customer;
+                        vendorWeights[slot] = weights[i];
+                    }
+                }
+            }
+
+            RowsBuilder similar = new RowsBuilder(vendors, neighbours);
+            RowsBuilder similarInCategory = new RowsBuilder(vendors, neighbours);
+            double[] dots = new double[vendors];
+            int[] shared = new int[vendors];
+            int[] touched = new int[vendors];
+            long[] ranked = new long[vendors];
+
+            for (int vendor = 0; vendor < vendors; vendor++) {
+                int touchedCount = 0;
+                for (int i = vendorOffsets[vendor]; i < vendorOffsets[vendor + 1]; i++) {
+                    int customer = vendorCustomers[i];
+                    double weight = vendorWeights[i];
+                    for (int j = offsets[customer]; j < offsets[customer + 1]; j++) {
+                        int other = columns[j];
+                        if (other == vendor) {
+                            continue;
+                        }
+                        if (shared[other]++ == 0) {
+                            touched[touchedCount++] = other;
+                        }
+                        dots[other] += weight * weights[j];
+                    }
+                }
+
+                for (int i = 0; i < touchedCount; i++) {
+                    int other = touched[i];
+                    double cosine = dots[other] / Math.sqrt(squaredNorms[vendor] * squaredNorms[other]);
+                    float score = (float) (cosine * shared[other] / (shared[other] + shrinkage));
+                    ranked[i] = rankKey(score, other);
+                    dots[other] = 0;
+                    shared[other] = 0;
+                }
+                Arrays.sort(ranked, 0, touchedCount);
+
+                for (int i = touchedCount - 1; i >= 0; i--) {
+                    int other = ordinalOf(ranked[i]);
+                    float score = Float.intBitsToFloat((int) (ranked[i] >>> 32));
+                    similar.offer(vendor, other, score);
+                    if (categoryIds[other] == categoryIds[vendor]) {
+                        similarInCategory.offer(vendor, other, score);
+                    }
+                    if (similar.full(vendor) && similarInCategory.full(vendor)) {
+                        break;
+                    }
+                }
+                similar.endRow(vendor);
+                similarInCategory.endRow(vendor);
+            }
+
+            return new CoBookingMatrix(vendorIds, similar.build(), similarInCategory.build(),
+                Arrays.copyOf(customerIds, customerCount),
+                new Rows(Arrays.copyOf(offsets, customerCount + 1),
+                    Arrays.copyOf(columns, entries), Arrays.copyOf(weights, entries)));
+        }
+
+        private boolean contributes(int customer, int maxVendorsPerCustomer) {
+            return offsets[customer + 1] - offsets[customer] <= maxVendorsPerCustomer;
+        }
+    }
+
+    /**
+     * Appends rows of at most {@code limit} entries in order
+     */
+    private static final class RowsBuilder {
+        private final int limit;
+        private final int[] offsets;
+        private int[] columns = new int[1024];
+        private float[] values = new float[1024];
+        private int size;
+
+        RowsBuilder(int rows, int limit) {
+            this.limit = limit;
+            this.offsets = new int[rows + 1];
+        }
+
+        boolean full(int row) {
+            return size - offsets[row] >= limit;
+        }
+
+        void offer(int row, int column, float value) {
+            if (full(row)) {
+                return;
+            }
+            if (size == columns.length) {
+                columns = Arrays.copyOf(columns, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            columns[size] = column;
+            values[size] = value;
+            size++;
+        }
+
+        void endRow(int row) {
+            offsets[row + 1] = size;
+        }
+
+        Rows build() {
+            return new Rows(offsets, Arrays.copyOf(columns, size), Arrays.copyOf(values, size));
+        }
+    }
+}
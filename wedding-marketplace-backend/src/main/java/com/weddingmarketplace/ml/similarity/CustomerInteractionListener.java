@@ -0,0 +1,59 @@
+package com.weddingmarketplace.ml.similarity;
+
+import com.weddingmarketplace.model.entity.Booking;
+import com.weddingmarketplace.model.entity.Review;
+import com.weddingmarketplace.model.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Re-reads a customer's interactions for the similarity index once a write to one of
+ * their bookings or reviews commits
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerInteractionListener {
+
+    // Looked up lazily: entity listeners are created with the entity manager factory,
+    // before the beans the index depends on exist
+    private final ObjectProvider<VendorSimilarityIndex> vendorSimilarityIndex;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onInteractionWritten(Object entity) {
+        User customer = customerOf(entity);
+        if (customer == null) {
+            return;
+        }
+        Long customerId = customer.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    vendorSimilarityIndex.ifAvailable(index -> index.enqueue(customerId));
+                }
+            });
+        } else {
+            vendorSimilarityIndex.ifAvailable(index -> index.enqueue(customerId));
+        }
+    }
+
+    private static User customerOf(Object entity) {
+        if (entity instanceof Booking booking) {
+            return booking.getCustomer();
+        }
+        if (entity instanceof Review review) {
+            return review.getCustomer();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,141 @@
+package com.weddingmarketplace.ml.similarity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * JDBC reads behind the co-booking matrix: the listed vendors, and each customer's
+ * interactions as one weight per vendor.
+ *
+ * A booking weighs by its status and fades over a year, as in collaborative filtering
+ * so far; a review weighs its rating out of five. A customer who both booked and
+ * reviewed a vendor keeps the larger of the two.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerInteractionStore {
+
+    private static final String LISTED_VENDORS_SQL =
+        "SELECT id, category_id FROM vendors WHERE deleted = false AND status = 'APPROVED'";
+
+    private static final String MAX_CUSTOMER_SQL = """
+        SELECT GREATEST(COALESCE((SELECT MAX(customer_id) FROM bookings), 0),
+                        COALESCE((SELECT MAX(customer_id) FROM reviews), 0))
+        """;
+
+    private static final String INTERACTIONS_SQL = """
+        SELECT customer_id, vendor_id, MAX(weight) AS weight
+        FROM (
+            SELECT customer_id, vendor_id,
+                   CASE status
+                       WHEN 'COMPLETED' THEN 1.0
+                       WHEN 'CONFIRMED' THEN 0.8
+                       WHEN 'IN_PROGRESS' THEN 0.6
+                       ELSE 0.3
+                   END * GREATEST(0.1, 1.0 - DATEDIFF(NOW(), created_at) / 365.0) AS weight
+            FROM bookings
+            WHERE deleted = false AND %1$s
+            UNION ALL
+            SELECT customer_id, vendor_id, rating / 5.0 AS weight
+            FROM reviews
+            WHERE deleted = false AND %1$s
+        ) interactions
+        GROUP BY customer_id, vendor_id
+        ORDER BY customer_id, vendor_id
+        """;
+
+    private static final String RANGE_SQL =
+        INTERACTIONS_SQL.formatted("customer_id > :afterId AND customer_id <= :upToId");
+
+    private static final String CUSTOMERS_SQL =
+        INTERACTIONS_SQL.formatted("customer_id IN (:customerIds)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public Listing listedVendors() {
+        List<long[]> rows = jdbcTemplate.query(LISTED_VENDORS_SQL,
+            (rs, rowNum) -> new long[]{rs.getLong("id"), rs.getLong("category_id")});
+        long[] vendorIds = new long[rows.size()];
+        long[] categoryIds = new long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            vendorIds[i] = rows.get(i)[0];
+            categoryIds[i] = rows.get(i)[1];
+        }
+        return new Listing(vendorIds, categoryIds);
+    }
+
+    public long maxCustomerId() {
+        Long max = jdbcTemplate.queryForObject(MAX_CUSTOMER_SQL, Long.class);
+        return max != null ? max : 0L;
+    }
+
+    /**
+     * Interactions of the customers with ids in (afterId, upToId], by customer id
+     */
+    public SortedMap<Long, CoBookingMatrix.Interactions> interactions(long afterId, long upToId) {
+        return read(RANGE_SQL, new MapSqlParameterSource("afterId", afterId).addValue("upToId", upToId));
+    }
+
+    /**
+     * Interactions of the given customers; customers without any are left out
+     */
+    public SortedMap<Long, CoBookingMatrix.Interactions> interactions(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return new TreeMap<>();
+        }
+        return read(CUSTOMERS_SQL, new MapSqlParameterSource("customerIds", customerIds));
+    }
+
+    private SortedMap<Long, CoBookingMatrix.Interactions> read(String sql, MapSqlParameterSource params) {
+        SortedMap<Long, CoBookingMatrix.Interactions> byCustomer = new TreeMap<>();
+        List<Long> vendorIds = new ArrayList<>();
+        List<Float> weights = new ArrayList<>();
+        long[] current = {-1L};
+        namedParameterJdbcTemplate.query(sql, params, rs -> {
+            long customerId = rs.getLong("customer_id");
+            if (customerId != current[0] && !vendorIds.isEmpty()) {
+                byCustomer.put(current[0], toInteractions(vendorIds, weights));
+                vendorIds.clear();
+                weights.clear();
+            }
+            current[0] = customerId;
+            vendorIds.add(rs.getLong("vendor_id"));
+            weights.add(rs.getFloat("weight"));
+        });
+        if (!vendorIds.isEmpty()) {
+            byCustomer.put(current[0], toInteractions(vendorIds, weights));
+        }
+        return byCustomer;
+    }
+
+    private static CoBookingMatrix.Interactions toInteractions(List<Long> vendorIds, List<Float> weights) {
+        long[] ids = new long[vendorIds.size()];
+        float[] values = new float[weights.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = vendorIds.get(i);
+            values[i] = weights.get(i);
+        }
+        return new CoBookingMatrix.Interactions(ids, values);
+    }
+
+    /**
+     * Approved vendors and their categories, as parallel arrays
+     */
+    @lombok.Value
+    public static class Listing {
+        long[] vendorIds;
+        long[] categoryIds;
+    }
+}
@@ -0,0 +1,224 @@
+package com.weddingmarketplace.ml.similarity;
+
+import com.weddingmarketplace.cache.broadcast.ChangeFanout;
+import com.weddingmarketplace.cache.broadcast.ChannelListener;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * In-process co-booking similarity between approved vendors, for similar-vendor lookups
+ * and collaborative filtering.
+ *
+ * The {@link CoBookingMatrix} is built on startup by paging through every customer's
+ * bookings and reviews, and rebuilt nightly. Similarity only moves with the rebuild, but
+ * what each customer has interacted with must not lag a day: customer ids arrive through
+ * {@link #enqueue} once one of their bookings or reviews commits, their interactions are
+ * re-read in coalesced batches on the similarity executor into an overlay consulted
+ * before the matrix, and the ids are broadcast so peers re-read the same customers. The
+ * overlay is cleared of entries the next build has caught up with.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VendorSimilarityIndex implements ChannelListener {
+
+    private final CustomerInteractionStore customerInteractionStore;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Executor similarityExecutor;
+
+    @Value("${app.ml.similarity.neighbours:50}")
+    private int neighbours;
+
+    @Value("${app.ml.similarity.max-vendors-per-customer:100}")
+    private int maxVendorsPerCustomer;
+
+    @Value("${app.ml.similarity.shrinkage:5}")
+    private float shrinkage;
+
+    @Value("${app.ml.similarity.customer-page-size:20000}")
+    private int customerPageSize;
+
+    @Value("${app.ml.similarity.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.ml.similarity.channel:ml:similarity:changes}")
+    private String channel;
+
+    private ChangeFanout changes;
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    // Interactions re-read since the matrix was built, by customer id
+    private final Map<Long, Fresh> recent = new ConcurrentHashMap<>();
+
+    private volatile CoBookingMatrix matrix;
+
+    @PostConstruct
+    void createChangeFanout() {
+        changes = ChangeFanout.builder()
+            .name("similarity index")
+            .channel(channel)
+            .batchSize(batchSize)
+            .executor(similarityExecutor)
+            .stringRedisTemplate(stringRedisTemplate)
+            .ready(() -> isReady() && !building.get())
+            .applier((customerIds, local) -> reread(customerIds))
+            .build();
+    }
+
+    public boolean isReady() {
+        return matrix != null;
+    }
+
+    /**
+     * Vendors of the same category most often booked by the same customers, best first;
+     * empty when the index cannot tell
+     */
+    public Optional<List<Long>> similarVendors(Long vendorId, int limit) {
+        CoBookingMatrix current = matrix;
+        if (current == null || vendorId == null) {
+            return Optional.empty();
+        }
+        return current.similarTo(vendorId, limit, true)
+            .map(similar -> similar.stream()
+                .map(CoBookingMatrix.Neighbour::getVendorId)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Vendors to recommend to a customer from the vendors they booked or reviewed, best
+     * first and never one they interacted with; empty when the index is not built yet
+     */
+    public Optional<List<CoBookingMatrix.Neighbour>> recommendFor(Long customerId, int limit) {
+        CoBookingMatrix current = matrix;
+        if (current == null || customerId == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.recommend(interactionsOf(current, customerId), limit));
+    }
+
+    /**
+     * The vendors a customer booked or reviewed; empty when the index is not built yet
+     */
+    public Optional<CoBookingMatrix.Interactions> interactionsOf(Long customerId) {
+        CoBookingMatrix current = matrix;
+        if (current == null || customerId == null) {
+            return Optional.empty();
+        }
+        return Optional.of(interactionsOf(current, customerId));
+    }
+
+    private CoBookingMatrix.Interactions interactionsOf(CoBookingMatrix current, long customerId) {
+        Fresh fresh = recent.get(customerId);
+        return fresh != null ? fresh.getInteractions() : current.interactionsOf(customerId);
+    }
+
+    /**
+     * Schedule a customer's interactions to be re-read; callers hand ids over once their
+     * transaction has committed
+     */
+    public void enqueue(Long customerId) {
+        changes.enqueue(customerId);
+    }
+
+    @Override
+    public String channel() {
+        return channel;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        changes.onMessage(message, pattern);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        requestBuild();
+    }
+
+    /**
+     * Recompute similarity from every interaction; until then the matrix keeps answering
+     * from yesterday's
+     */
+    @Scheduled(cron = "${app.ml.similarity.rebuild-cron:0 0 5 * * *}")
+    public void scheduledRebuild() {
+        requestBuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.ml.similarity.drain-interval-ms:2000}")
+    public void scheduledDrain() {
+        changes.drainPending();
+    }
+
+    // Building
+
+    private void requestBuild() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            similarityExecutor.execute(this::build);
+        } catch (RejectedExecutionException e) {
+            building.set(false);
+            log.error("Similarity executor saturated, vendor similarity index not rebuilt", e);
+        }
+    }
+
+    private void build() {
+        try {
+            long started = System.currentTimeMillis();
+            CustomerInteractionStore.Listing listing = customerInteractionStore.listedVendors();
+            CoBookingMatrix.Builder builder = new CoBookingMatrix.Builder(listing.getVendorIds(), listing.getCategoryIds());
+            long upToId = customerInteractionStore.maxCustomerId();
+            for (long afterId = 0; afterId < upToId; afterId += customerPageSize) {
+                customerInteractionStore.interactions(afterId, Math.min(afterId + customerPageSize, upToId))
+                    .forEach((customerId, interactions) ->
+                        builder.addCustomer(customerId, interactions.getVendorIds(), interactions.getWeights()));
+            }
+            CoBookingMatrix built = builder.build(neighbours, maxVendorsPerCustomer, shrinkage);
+
+            matrix = built;
+            // Customers re-read before the build started are now covered by the matrix
+            recent.values().removeIf(fresh -> fresh.getReadAt() < started);
+            log.info("Built vendor similarity index with {} vendors, {} customers and {} neighbour entries in {} ms",
+                built.vendorCount(), built.customerCount(), built.entryCount(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Failed to build vendor similarity index", e);
+        } finally {
+            building.set(false);
+        }
+        changes.requestDrain();
+    }
+
+    // Incremental updates
+
+    private void reread(List<Long> customerIds) {
+        long readAt = System.currentTimeMillis();
+        Map<Long, CoBookingMatrix.Interactions> interactions = customerInteractionStore.interactions(customerIds);
+        for (Long customerId : customerIds) {
+            recent.put(customerId, new Fresh(interactions.getOrDefault(customerId, CoBookingMatrix.Interactions.NONE), readAt));
+        }
+    }
+
+    @lombok.Value
+    private static class Fresh {
+        CoBookingMatrix.Interactions interactions;
+        long readAt;
+    }
+}
@@ -2,6 +2,7 @@ package com.weddingmarketplace.model.dto.request;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.weddingmarketplace.search.query.SearchQueryFingerprint;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
@@ -208,15 +209,8 @@ public class VendorSearchRequest {
 
     // Utility methods for search optimization
     public String generateCacheKey() {
-        return String.format("search_%s_%s_%s_%s_%s_%s_%s",
-            Objects.hashCode(keyword),
-            Objects.hashCode(categoryId),
-            Objects.hashCode(city),
-            Objects.hashCode(minPrice),
-            Objects.hashCode(maxPrice),
-            Objects.hashCode(minRating),
-            Objects.hashCode(sortBy)
-        );
+        // Canonical over every result-affecting field, see SearchQueryFingerprint
+        return "search_" + SearchQueryFingerprint.of(this);
     }
 
     public String cacheKey() {
@@ -228,6 +222,10 @@ public class VendorSearchRequest {
         return useCache && !personalizeResults && experimentId == null;
     }
 
+    public boolean hasDateConstraints() {
+        return eventDate != null || (availableDates != null && !availableDates.isEmpty());
+    }
+
     public boolean isLocationBased() {
         return (latitude != null && longitude != null) || 
                city != null || state != null || country != null;
@@ -1,7 +1,10 @@
 package com.weddingmarketplace.model.entity;
 
+import com.weddingmarketplace.analytics.rollup.VendorStatsListener;
+import com.weddingmarketplace.ml.similarity.CustomerInteractionListener;
 import com.weddingmarketplace.model.enums.BookingStatus;
 import com.weddingmarketplace.model.enums.PaymentStatus;
+import com.weddingmarketplace.search.availability.BookingAvailabilityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -30,6 +33,7 @@ import java.util.Set;
     @Index(name = "idx_booking_event_date", columnList = "event_date"),
     @Index(name = "idx_booking_created_at", columnList = "created_at")
 })
+@EntityListeners({BookingAvailabilityListener.class, VendorStatsListener.class, CustomerInteractionListener.class})
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
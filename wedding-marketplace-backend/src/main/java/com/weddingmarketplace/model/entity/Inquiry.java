@@ -1,5 +1,6 @@
 package com.weddingmarketplace.model.entity;
 
+import com.weddingmarketplace.analytics.rollup.VendorStatsListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -16,6 +17,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "inquiries")
+@EntityListeners(VendorStatsListener.class)
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
@@ -1,5 +1,7 @@
 package com.weddingmarketplace.model.entity;
 
+import com.weddingmarketplace.analytics.rollup.VendorStatsListener;
+import com.weddingmarketplace.ml.similarity.CustomerInteractionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -18,6 +20,7 @@ import java.time.LocalDateTime;
 @Table(name = "reviews", uniqueConstraints = {
     @UniqueConstraint(name = "unique_customer_booking_review", columnNames = {"customer_id", "booking_id"})
 })
+@EntityListeners({VendorStatsListener.class, CustomerInteractionListener.class})
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
@@ -28,7 +28,14 @@ import java.util.Set;
     @Index(name = "idx_vendor_rating", columnList = "average_rating"),
     @Index(name = "idx_vendor_location", columnList = "latitude, longitude"),
     @Index(name = "idx_vendor_business_name", columnList = "business_name"),
-    @Index(name = "idx_vendor_city", columnList = "business_city")
+    @Index(name = "idx_vendor_city", columnList = "business_city"),
+    @Index(name = "idx_vendor_keyset_rating", columnList = "status, deleted, average_rating, id"),
+    @Index(name = "idx_vendor_keyset_rating_reviews", columnList = "status, deleted, average_rating, total_reviews, id"),
+    @Index(name = "idx_vendor_keyset_price", columnList = "status, deleted, price_range_min, id"),
+    @Index(name = "idx_vendor_keyset_bookings", columnList = "status, deleted, total_bookings, id"),
+    @Index(name = "idx_vendor_keyset_reviews", columnList = "status, deleted, total_reviews, id"),
+    @Index(name = "idx_vendor_keyset_created_at", columnList = "status, deleted, created_at, id"),
+    @Index(name = "idx_vendor_keyset_category_rating", columnList = "category_id, status, deleted, average_rating, id")
 })
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
@@ -233,6 +240,10 @@ public class Vendor extends BaseEntity {
     @Builder.Default
     private BigDecimal responseRate = new BigDecimal("100.00");
 
+    // Maintained by batched write-behind increments; never written back by JPA
+    @Column(name = "view_count", insertable = false, updatable = false)
+    private Long viewCount;
+
     // Availability
     @Column(name = "availability_calendar", columnDefinition = "JSON")
     private String availabilityCalendar;
@@ -2,7 +2,9 @@ package com.weddingmarketplace.repository;
 
 import com.weddingmarketplace.model.entity.Vendor;
 import com.weddingmarketplace.model.entity.Category;
+import com.weddingmarketplace.model.enums.BookingStatus;
 import com.weddingmarketplace.model.enums.VendorStatus;
+import com.weddingmarketplace.search.geo.GeoBoundingBox;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,7 +15,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,23 +36,95 @@ public interface VendorRepository extends JpaRepository<Vendor, Long>, JpaSpecif
     
     Optional<Vendor> findByUserIdAndDeletedFalse(Long userId);
 
+    // Keyset paging for bulk indexing: cost per page stays flat however deep the scan gets.
+    // The category is fetched with the page, since indexers read it after the session closes.
+    @Query("""
+        SELECT v FROM Vendor v
+        LEFT JOIN FETCH v.category
+        WHERE v.id > :lastId
+        AND v.deleted = false
+        AND (:updatedSince IS NULL OR v.updatedAt >= :updatedSince)
+        ORDER BY v.id ASC
+        """)
+    List<Vendor> findIndexingPage(@Param("lastId") Long lastId,
+                                  @Param("updatedSince") LocalDateTime updatedSince,
+                                  Pageable pageable);
+
+    // findAllById with the category fetched, for indexers that read it outside a transaction
+    @Query("SELECT v FROM Vendor v LEFT JOIN FETCH v.category WHERE v.id IN :ids")
+    List<Vendor> findAllWithCategoryById(@Param("ids") Collection<Long> ids);
+
+    // Same keyset scan including soft-deleted rows, so catch-up passes can remove them
+    @Query("""
+        SELECT v FROM Vendor v
+        WHERE v.id > :lastId
+        AND v.updatedAt >= :updatedSince
+        ORDER BY v.id ASC
+        """)
+    List<Vendor> findChangedPage(@Param("lastId") Long lastId,
+                                 @Param("updatedSince") LocalDateTime updatedSince,
+                                 Pageable pageable);
+
     // Advanced geo-spatial queries
+
+    /**
+     * Approved vendors within {@code radiusKm} of a point, nearest first
+     */
+    default List<Vendor> findVendorsWithinRadius(Double latitude, Double longitude, Double radiusKm) {
+        GeoBoundingBox box = GeoBoundingBox.around(latitude, longitude, radiusKm);
+        return findVendorsWithinBox(GeoBoundingBox.pointWkt(latitude, longitude), box.toPolygonWkt(), radiusKm * 1000);
+    }
+
+    // The SPATIAL index on location answers the bounding-box MBRContains; the exact sphere
+    // distance is only computed for vendors inside the box. The box is required: an
+    // optional prefilter keeps MySQL from choosing the index.
     @Query(value = """
-        SELECT v.*, 
-               (6371 * acos(cos(radians(:latitude)) * cos(radians(v.latitude)) * 
-                cos(radians(v.longitude) - radians(:longitude)) + 
-                sin(radians(:latitude)) * sin(radians(v.latitude)))) AS distance
-        FROM vendors v 
-        WHERE v.deleted = false 
-        AND v.status = 'APPROVED' 
-        AND v.latitude IS NOT NULL 
+        SELECT v.*
+        FROM vendors v
+        WHERE MBRContains(ST_GeomFromText(:box, 4326, 'axis-order=long-lat'), v.location)
+        AND v.deleted = false
+        AND v.status = 'APPROVED'
+        AND v.latitude IS NOT NULL
         AND v.longitude IS NOT NULL
-        HAVING distance <= :radiusKm
-        ORDER BY distance
+        AND ST_Distance_Sphere(v.location, ST_GeomFromText(:center, 4326, 'axis-order=long-lat')) <= :radiusMeters
+        ORDER BY ST_Distance_Sphere(v.location, ST_GeomFromText(:center, 4326, 'axis-order=long-lat')), v.id
+        """, nativeQuery = true)
+    List<Vendor> findVendorsWithinBox(@Param("center") String center,
+                                      @Param("box") String box,
+                                      @Param("radiusMeters") Double radiusMeters);
+
+    // Keyset form: the next vendors after (afterDistance, afterId) by distance, as ids with
+    // their distance so the caller can carry the exact sort key into the next cursor
+    @Query(value = """
+        SELECT nearby.id AS id, nearby.distance_m AS distanceMeters
+        FROM (
+            SELECT v.id,
+                   ST_Distance_Sphere(v.location, ST_GeomFromText(:center, 4326, 'axis-order=long-lat')) AS distance_m
+            FROM vendors v
+            WHERE MBRContains(ST_GeomFromText(:box, 4326, 'axis-order=long-lat'), v.location)
+            AND v.deleted = false
+            AND v.status = 'APPROVED'
+            AND v.latitude IS NOT NULL
+            AND v.longitude IS NOT NULL
+        ) nearby
+        WHERE nearby.distance_m <= :radiusMeters
+        AND (:afterDistance IS NULL
+             OR nearby.distance_m > :afterDistance
+             OR (nearby.distance_m = :afterDistance AND nearby.id > :afterId))
+        ORDER BY nearby.distance_m, nearby.id
+        LIMIT :limit
         """, nativeQuery = true)
-    List<Vendor> findVendorsWithinRadius(@Param("latitude") Double latitude, 
-                                        @Param("longitude") Double longitude, 
-                                        @Param("radiusKm") Double radiusKm);
+    List<VendorDistance> findNearbyVendorIds(@Param("center") String center,
+                                             @Param("box") String box,
+                                             @Param("radiusMeters") Double radiusMeters,
+                                             @Param("afterDistance") Double afterDistance,
+                                             @Param("afterId") Long afterId,
+                                             @Param("limit") int limit);
+
+    interface VendorDistance {
+        Long getId();
+        Double getDistanceMeters();
+    }
 
     // Advanced search with full-text and ranking
     @Query(value = """
@@ -94,7 +170,7 @@ public interface VendorRepository extends JpaRepository<Vendor, Long>, JpaSpecif
         AND (:maxPrice IS NULL OR v.priceRangeMax <= :maxPrice)
         AND (:city IS NULL OR LOWER(v.businessCity) = LOWER(:city))
         AND (:featured IS NULL OR v.featured = :featured)
-        ORDER BY v.averageRating DESC, v.totalReviews DESC
+        ORDER BY v.averageRating DESC, v.totalReviews DESC, v.id DESC
         """)
     Page<Vendor> findWithAdvancedFilters(@Param("minRating") BigDecimal minRating,
                                         @Param("maxRating") BigDecimal maxRating,
@@ -127,17 +203,34 @@ public interface VendorRepository extends JpaRepository<Vendor, Long>, JpaSpecif
         """, nativeQuery = true)
     List<Vendor> findAvailableForInstantBooking(@Param("dateString") String dateString);
 
-    // Trending and popular vendors
+    // Days taken by bookings, read per vendor batch through idx_booking_vendor_event_date
+    @Query("""
+        SELECT b.vendor.id AS vendorId, b.eventDate AS eventDate
+        FROM Booking b
+        WHERE b.vendor.id IN :vendorIds
+        AND b.eventDate BETWEEN :fromDate AND :toDate
+        AND b.status IN :statuses
+        AND b.deleted = false
+        """)
+    List<BookedDay> findBookedDays(@Param("vendorIds") Collection<Long> vendorIds,
+                                   @Param("fromDate") LocalDate fromDate,
+                                   @Param("toDate") LocalDate toDate,
+                                   @Param("statuses") Collection<BookingStatus> statuses);
+
+    interface BookedDay {
+        Long getVendorId();
+        LocalDate getEventDate();
+    }
+
+    // Trending and popular vendors, from the vendor_stats rollup
     @Query(value = """
-        SELECT v.*, 
-               (SELECT COUNT(*) FROM bookings b WHERE b.vendor_id = v.id 
-                AND b.created_at >= DATE_SUB(NOW(), INTERVAL 30 DAY)) as recent_bookings,
-               (SELECT COUNT(*) FROM inquiries i WHERE i.vendor_id = v.id 
-                AND i.created_at >= DATE_SUB(NOW(), INTERVAL 7 DAY)) as recent_inquiries
-        FROM vendors v 
-        WHERE v.deleted = false 
+        SELECT v.*
+        FROM vendor_stats s
+        JOIN vendors v ON v.id = s.vendor_id
+        WHERE s.listed = true
+        AND v.deleted = false
         AND v.status = 'APPROVED'
-        ORDER BY recent_bookings DESC, recent_inquiries DESC, v.average_rating DESC
+        ORDER BY s.bookings_30d DESC, s.inquiries_7d DESC, s.average_rating DESC
         LIMIT :limit
         """, nativeQuery = true)
     List<Vendor> findTrendingVendors(@Param("limit") Integer limit);
@@ -245,35 +338,40 @@ public interface VendorRepository extends JpaRepository<Vendor, Long>, JpaSpecif
         """, nativeQuery = true)
     List<Vendor> findVendorsWithRichPortfolio();
 
-    // Competition analysis
+    // Autocomplete vocabulary: approved vendor names and the categories they offer
     @Query(value = """
-        SELECT 
-            v.*,
-            (SELECT COUNT(*) FROM vendors v2 
-             WHERE v2.category_id = v.category_id 
-             AND v2.business_city = v.business_city 
-             AND v2.deleted = false 
-             AND v2.status = 'APPROVED') as local_competition
-        FROM vendors v 
+        SELECT v.business_name FROM vendors v
+        WHERE v.deleted = false
+        AND v.status = 'APPROVED'
+        AND v.business_name IS NOT NULL
+        UNION
+        SELECT c.name FROM categories c
+        WHERE EXISTS (SELECT 1 FROM vendors v
+                      WHERE v.category_id = c.id
+                      AND v.deleted = false
+                      AND v.status = 'APPROVED')
+        """, nativeQuery = true)
+    List<String> findAllBusinessNamesAndServices();
+
+    // Competition analysis, from the vendor_stats rollup
+    @Query(value = """
+        SELECT v.*, COALESCE(s.local_competition, 0) as local_competition
+        FROM vendors v
+        LEFT JOIN vendor_stats s ON s.vendor_id = v.id
         WHERE v.id = :vendorId
         """, nativeQuery = true)
     Optional<Object[]> getVendorWithCompetitionAnalysis(@Param("vendorId") Long vendorId);
 
-    // Custom ranking algorithm
+    // Custom ranking algorithm; the score is computed by the vendor_stats rollup
     @Query(value = """
-        SELECT v.*,
-               (v.average_rating * 0.25 +
-                LEAST(v.total_reviews / 50.0, 1.0) * 0.20 +
-                v.response_rate / 100.0 * 0.15 +
-                (1.0 - LEAST(v.response_time_hours / 24.0, 1.0)) * 0.10 +
-                CASE WHEN v.featured THEN 0.15 ELSE 0.0 END +
-                CASE WHEN v.premium THEN 0.10 ELSE 0.0 END +
-                CASE WHEN v.instant_booking_enabled THEN 0.05 ELSE 0.0 END) as quality_score
-        FROM vendors v 
-        WHERE v.deleted = false 
+        SELECT v.*, s.quality_score
+        FROM vendor_stats s
+        JOIN vendors v ON v.id = s.vendor_id
+        WHERE s.listed = true
+        AND s.category_id = :categoryId
+        AND v.deleted = false
         AND v.status = 'APPROVED'
-        AND v.category_id = :categoryId
-        ORDER BY quality_score DESC
+        ORDER BY s.quality_score DESC
         """, nativeQuery = true)
     List<Object[]> findVendorsByQualityScore(@Param("categoryId") Long categoryId, Pageable pageable);
 }
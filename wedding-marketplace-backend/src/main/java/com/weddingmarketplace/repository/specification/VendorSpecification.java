@@ -1,14 +1,19 @@
 package com.weddingmarketplace.repository.specification;
 
+import com.weddingmarketplace.model.entity.Booking;
 import com.weddingmarketplace.model.entity.Vendor;
 import com.weddingmarketplace.model.entity.Category;
+import com.weddingmarketplace.model.enums.BookingStatus;
 import com.weddingmarketplace.model.enums.VendorStatus;
+import com.weddingmarketplace.search.geo.GeoBoundingBox;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -62,6 +67,21 @@ public class VendorSpecification {
                 return criteriaBuilder.conjunction();
             }
 
+            // Bounding-box prefilter: a range on idx_vendor_location, so the trigonometry
+            // below only runs for vendors that can possibly be inside the circle
+            GeoBoundingBox box = GeoBoundingBox.around(latitude, longitude, radiusKm);
+            Path<Double> latitudePath = root.get("latitude");
+            Path<Double> longitudePath = root.get("longitude");
+            Predicate inBox = criteriaBuilder.between(latitudePath, box.getMinLatitude(), box.getMaxLatitude());
+            if (box.crossesAntimeridian()) {
+                inBox = criteriaBuilder.and(inBox, criteriaBuilder.or(
+                    criteriaBuilder.greaterThanOrEqualTo(longitudePath, box.getMinLongitude()),
+                    criteriaBuilder.lessThanOrEqualTo(longitudePath, box.getMaxLongitude())));
+            } else if (!box.coversAllLongitudes()) {
+                inBox = criteriaBuilder.and(inBox,
+                    criteriaBuilder.between(longitudePath, box.getMinLongitude(), box.getMaxLongitude()));
+            }
+
             // Haversine formula for distance calculation
             Expression<Double> latDiff = criteriaBuilder.diff(
                 criteriaBuilder.literal(Math.toRadians(latitude)),
@@ -108,7 +128,7 @@ public class VendorSpecification {
                 )
             );
 
-            return criteriaBuilder.lessThanOrEqualTo(distance, radiusKm);
+            return criteriaBuilder.and(inBox, criteriaBuilder.lessThanOrEqualTo(distance, radiusKm));
         };
     }
 
@@ -235,6 +255,64 @@ public class VendorSpecification {
         };
     }
 
+    /**
+     * Leave out the given vendors, e.g. those the availability index reports as booked
+     */
+    public static Specification<Vendor> excludingIds(Collection<Long> vendorIds) {
+        return (root, query, criteriaBuilder) -> {
+            if (vendorIds == null || vendorIds.isEmpty()) return criteriaBuilder.conjunction();
+            
+            return criteriaBuilder.not(root.get("id").in(vendorIds));
+        };
+    }
+
+    /**
+     * Keep vendors free on the event date and on at least one of the acceptable dates,
+     * checked against their calendars and blocking bookings; used when the availability
+     * index cannot list the vendors to leave out
+     */
+    public static Specification<Vendor> availableOn(LocalDate eventDate, Collection<LocalDate> anyOf,
+                                                    Collection<BookingStatus> blockingStatuses) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (eventDate != null) {
+                predicates.add(freeOn(root, query, criteriaBuilder, eventDate, blockingStatuses));
+            }
+            if (anyOf != null && !anyOf.isEmpty()) {
+                predicates.add(criteriaBuilder.or(anyOf.stream()
+                    .map(date -> freeOn(root, query, criteriaBuilder, date, blockingStatuses))
+                    .toArray(Predicate[]::new)));
+            }
+            return predicates.isEmpty() ? criteriaBuilder.conjunction() : criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static Predicate freeOn(Root<Vendor> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+                                    LocalDate date, Collection<BookingStatus> blockingStatuses) {
+        Subquery<Long> booked = query.subquery(Long.class);
+        Root<Booking> booking = booked.from(Booking.class);
+        booked.select(booking.get("id"))
+              .where(criteriaBuilder.and(
+                  criteriaBuilder.equal(booking.get("vendor"), root),
+                  criteriaBuilder.equal(booking.get("eventDate"), date),
+                  booking.get("status").in(blockingStatuses),
+                  criteriaBuilder.equal(booking.get("deleted"), false)
+              ));
+
+        // The calendar is a JSON array of blocked ISO dates
+        Expression<Integer> calendarBlocks = criteriaBuilder.function("JSON_CONTAINS", Integer.class,
+            root.get("availabilityCalendar"),
+            criteriaBuilder.function("JSON_QUOTE", String.class, criteriaBuilder.literal(date.toString())));
+
+        return criteriaBuilder.and(
+            criteriaBuilder.not(criteriaBuilder.exists(booked)),
+            criteriaBuilder.or(
+                criteriaBuilder.isNull(root.get("availabilityCalendar")),
+                criteriaBuilder.equal(calendarBlocks, 0)
+            )
+        );
+    }
+
     /**
      * Filter by response time
      */
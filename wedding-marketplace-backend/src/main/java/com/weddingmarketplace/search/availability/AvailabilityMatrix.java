@@ -0,0 +1,273 @@
+package com.weddingmarketplace.search.availability;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Day-by-vendor availability bitmap over a fixed window of days.
+ *
+ * Every vendor gets a dense ordinal, and every day of the window a bit set over those
+ * ordinals with a bit per vendor that cannot take an event that day. "Who is free on
+ * D" is then the listed vendors minus one row, and "who is free on any of D1..Dn"
+ * the listed vendors minus the intersection of n rows: a handful of word-wide
+ * operations per 64 vendors rather than a calendar lookup per vendor. Days nobody is
+ * blocked on keep no row at all.
+ *
+ * Questions about days outside the window, or vendors the matrix does not list, are
+ * not answered, so callers can fall back to the database.
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class AvailabilityMatrix {
+
+    private final LocalDate firstDay;
+    private final int days;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final BitSet[] blocked;
+    private final BitSet listed = new BitSet();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<Integer> freeOrdinals = new ArrayList<>();
+    private long[] vendorIds = new long[64];
+    private int nextOrdinal;
+
+    /**
+     * @param firstDay first day of the window
+     * @param days     length of the window in days
+     */
+    public AvailabilityMatrix(LocalDate firstDay, int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("Availability window must cover at least one day: " + days);
+        }
+        this.firstDay = firstDay;
+        this.days = days;
+        this.blocked = new BitSet[days];
+    }
+
+    public LocalDate firstDay() {
+        return firstDay;
+    }
+
+    public LocalDate lastDay() {
+        return firstDay.plusDays(days - 1);
+    }
+
+    public boolean covers(LocalDate date) {
+        return dayIndex(date) >= 0;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Writes
+
+    /**
+     * List a vendor with exactly the given days blocked; days outside the window are ignored
+     */
+    public void put(long vendorId, Collection<LocalDate> blockedDays) {
+        BitSet vendorDays = new BitSet(days);
+        for (LocalDate day : blockedDays) {
+            int index = dayIndex(day);
+            if (index >= 0) {
+                vendorDays.set(index);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinalOf(vendorId);
+            for (int day = 0; day < days; day++) {
+                if (vendorDays.get(day)) {
+                    if (blocked[day] == null) {
+                        blocked[day] = new BitSet();
+                    }
+                    blocked[day].set(ordinal);
+                } else if (blocked[day] != null) {
+                    blocked[day].clear(ordinal);
+                }
+            }
+            listed.set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long vendorId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(vendorId);
+            if (ordinal == null) {
+                return false;
+            }
+            for (BitSet row : blocked) {
+                if (row != null) {
+                    row.clear(ordinal);
+                }
+            }
+            listed.clear(ordinal);
+            freeOrdinals.add(ordinal);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int ordinalOf(long vendorId) {
+        Integer existing = ordinals.get(vendorId);
+        if (existing != null) {
+            return existing;
+        }
+        // Reuse ordinals of removed vendors so rows stay as short as the catalogue
+        int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.remove(freeOrdinals.size() - 1);
+        if (ordinal >= vendorIds.length) {
+            vendorIds = Arrays.copyOf(vendorIds, vendorIds.length * 2);
+        }
+        vendorIds[ordinal] = vendorId;
+        ordinals.put(vendorId, ordinal);
+        return ordinal;
+    }
+
+    // Queries
+
+    /**
+     * Whether a listed vendor is free on the date; empty for unlisted vendors and days outside the window
+     */
+    public Optional<Boolean> isFree(long vendorId, LocalDate date) {
+        int day = dayIndex(date);
+        if (day < 0) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(vendorId);
+            if (ordinal == null) {
+                return Optional.empty();
+            }
+            return Optional.of(blocked[day] == null || !blocked[day].get(ordinal));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Those of the given vendors that are listed and free on at least one of the dates;
+     * empty when a date is outside the window
+     */
+    public Optional<List<Long>> freeOnAny(Collection<Long> candidates, Collection<LocalDate> dates) {
+        int[] dayIndexes = dayIndexes(dates);
+        if (dayIndexes == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet wanted = new BitSet();
+            for (Long vendorId : candidates) {
+                Integer ordinal = ordinals.get(vendorId);
+                if (ordinal != null) {
+                    wanted.set(ordinal);
+                }
+            }
+            wanted.andNot(blockedOnAll(dayIndexes));
+            return Optional.of(vendorIdsOf(wanted));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every listed vendor
+     */
+    public List<Long> listedVendorIds() {
+        lock.readLock().lock();
+        try {
+            return vendorIdsOf(listed);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Listed vendors blocked on every one of the dates, i.e. free on none of them;
+     * empty when a date is outside the window
+     */
+    public Optional<List<Long>> blockedOnAll(Collection<LocalDate> dates) {
+        int[] dayIndexes = dayIndexes(dates);
+        if (dayIndexes == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet busy = blockedOnAll(dayIndexes);
+            busy.and(listed);
+            return Optional.of(vendorIdsOf(busy));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet blockedOnAll(int[] dayIndexes) {
+        if (dayIndexes.length == 0) {
+            return new BitSet();
+        }
+        BitSet busy = null;
+        for (int day : dayIndexes) {
+            BitSet row = blocked[day];
+            if (row == null) {
+                // A day nobody is blocked on: nobody is blocked on all of them
+                return new BitSet();
+            }
+            if (busy == null) {
+                busy = (BitSet) row.clone();
+            } else {
+                busy.and(row);
+            }
+        }
+        return busy;
+    }
+
+    private List<Long> vendorIdsOf(BitSet ordinalSet) {
+        List<Long> ids = new ArrayList<>(ordinalSet.cardinality());
+        for (int ordinal = ordinalSet.nextSetBit(0); ordinal >= 0; ordinal = ordinalSet.nextSetBit(ordinal + 1)) {
+            ids.add(vendorIds[ordinal]);
+        }
+        return ids;
+    }
+
+    private int[] dayIndexes(Collection<LocalDate> dates) {
+        int[] indexes = new int[dates.size()];
+        int i = 0;
+        for (LocalDate date : dates) {
+            int index = dayIndex(date);
+            if (index < 0) {
+                return null;
+            }
+            indexes[i++] = index;
+        }
+        return indexes;
+    }
+
+    private int dayIndex(LocalDate date) {
+        if (date == null) {
+            return -1;
+        }
+        long index = ChronoUnit.DAYS.between(firstDay, date);
+        return index >= 0 && index < days ? (int) index : -1;
+    }
+}
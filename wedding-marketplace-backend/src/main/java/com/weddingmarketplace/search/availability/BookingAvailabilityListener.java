@@ -0,0 +1,46 @@
+package com.weddingmarketplace.search.availability;
+
+import com.weddingmarketplace.model.entity.Booking;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Re-reads a vendor's availability once a write to one of its bookings commits,
+ * whichever service made it: status changes, reschedules and cancellations all pass here
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingAvailabilityListener {
+
+    // Looked up lazily: entity listeners are created with the entity manager factory,
+    // before the repositories the index depends on exist
+    private final ObjectProvider<VendorAvailabilityIndex> vendorAvailabilityIndex;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onBookingWritten(Booking booking) {
+        if (booking.getVendor() == null) {
+            return;
+        }
+        Long vendorId = booking.getVendor().getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    vendorAvailabilityIndex.ifAvailable(index -> index.enqueue(vendorId));
+                }
+            });
+        } else {
+            vendorAvailabilityIndex.ifAvailable(index -> index.enqueue(vendorId));
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package com.weddingmarketplace.search.availability;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weddingmarketplace.cache.broadcast.ChangeFanout;
+import com.weddingmarketplace.cache.broadcast.ChannelListener;
+import com.weddingmarketplace.exception.BadRequestException;
+import com.weddingmarketplace.model.dto.request.VendorSearchRequest;
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.model.enums.BookingStatus;
+import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.search.cache.VendorSearchResultCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process availability of approved vendors, day by day over a rolling window.
+ *
+ * A vendor is unavailable on a day its availability calendar blocks, or on which it
+ * holds a booking that is confirmed or in progress. The matrix is built on startup by
+ * paging through the catalogue and reading bookings per page, and rebuilt nightly so
+ * the window moves with the calendar. In between, vendors are re-read whenever one of
+ * their bookings changes or the vendor itself does: ids arrive through {@link #enqueue}
+ * once the change commits, are applied in coalesced batches on the search
+ * indexing executor, and are broadcast so peers re-read the same vendors. Each applied
+ * batch flushes the cached search pages that carry date constraints.
+ *
+ * Searches receive their date constraints as a {@link DateFilter}. It lists the vendors
+ * to leave out only while they number at most {@code max-excluded-ids}; past that,
+ * the database checks the dates against bookings itself, and id-only candidate lists
+ * are filtered through {@link #keepAvailable}.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VendorAvailabilityIndex implements ChannelListener {
+
+    /** Booking statuses that take the vendor's day */
+    public static final Set<BookingStatus> BLOCKING_STATUSES = Collections.unmodifiableSet(Arrays.stream(BookingStatus.values())
+        .filter(BookingStatus::isActive)
+        .collect(Collectors.toCollection(() -> EnumSet.noneOf(BookingStatus.class))));
+
+    private final VendorRepository vendorRepository;
+    private final VendorSearchResultCache searchResultCache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Executor searchIndexingExecutor;
+
+    @Value("${app.search.availability.horizon-days:730}")
+    private int horizonDays;
+
+    @Value("${app.search.availability.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.search.availability.channel:search:availability:changes}")
+    private String channel;
+
+    @Value("${app.search.availability.max-excluded-ids:1000}")
+    private int maxExcludedIds;
+
+    private ChangeFanout changes;
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    private volatile AvailabilityMatrix matrix;
+
+    @PostConstruct
+    void createChangeFanout() {
+        changes = ChangeFanout.builder()
+            .name("availability index")
+            .channel(channel)
+            .batchSize(batchSize)
+            .executor(searchIndexingExecutor)
+            .stringRedisTemplate(stringRedisTemplate)
+            // While a build runs, changes wait for the new matrix rather than landing in the old one
+            .ready(() -> isReady() && !building.get())
+            .applier((vendorIds, local) -> {
+                applyChanges(vendorIds);
+                // Pages cached before these changes may list vendors that are now booked
+                searchResultCache.invalidateDateConstrained();
+            })
+            .build();
+    }
+
+    public boolean isReady() {
+        return matrix != null;
+    }
+
+    /**
+     * Whether the vendor can take an event on the date. Answered from the matrix where it
+     * can be, otherwise (not built yet, vendor approved since, or date beyond the window)
+     * from the vendor's calendar and bookings in the database.
+     */
+    public boolean isAvailable(Long vendorId, LocalDate date) {
+        AvailabilityMatrix current = matrix;
+        Optional<Boolean> indexed = current != null ? current.isFree(vendorId, date) : Optional.empty();
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+
+        Optional<Vendor> vendor = vendorRepository.findByIdAndDeletedFalse(vendorId);
+        if (vendor.isEmpty() || !vendor.get().isApproved() || calendarDays(vendor.get()).contains(date)) {
+            return false;
+        }
+        return vendorRepository.findBookedDays(List.of(vendorId), date, date, BLOCKING_STATUSES).isEmpty();
+    }
+
+    /**
+     * Those of the given vendors free on at least one of the dates, in no particular
+     * order; empty when the index cannot tell
+     */
+    public Optional<List<Long>> availableAmong(Collection<Long> vendorIds, Collection<LocalDate> dates) {
+        AvailabilityMatrix current = matrix;
+        if (current == null || dates.isEmpty()) {
+            return Optional.empty();
+        }
+        return current.freeOnAny(vendorIds, dates);
+    }
+
+    /**
+     * The date constraints of a search, with the vendors failing them listed when the
+     * index knows them and they are few enough to send along; empty when the search has
+     * no date constraint
+     */
+    public Optional<DateFilter> filterFor(VendorSearchRequest request) {
+        List<LocalDate> anyOf = parseDates(request.getAvailableDates());
+        LocalDate eventDate = request.getEventDate();
+        if (eventDate == null && anyOf.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Long> excluded = failing(eventDate, anyOf)
+            .filter(failing -> failing.size() <= maxExcludedIds)
+            .orElse(null);
+        return Optional.of(new DateFilter(eventDate, anyOf, excluded));
+    }
+
+    /**
+     * Whichever is shorter of the vendors failing the filter and the listed vendors
+     * meeting it, for queries that cannot check dates themselves; empty when the index
+     * cannot answer
+     */
+    public Optional<IdFilter> shortestIdFilter(DateFilter filter) {
+        if (filter.getExcludedIds() != null) {
+            return Optional.of(new IdFilter(false, filter.getExcludedIds()));
+        }
+        AvailabilityMatrix current = matrix;
+        Optional<List<Long>> failing = failing(filter.getEventDate(), filter.getAnyOf());
+        if (current == null || failing.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Long> listed = current.listedVendorIds();
+        if (failing.get().size() * 2 <= listed.size()) {
+            return Optional.of(new IdFilter(false, failing.get()));
+        }
+        Set<Long> excluded = new HashSet<>(failing.get());
+        listed.removeIf(excluded::contains);
+        return Optional.of(new IdFilter(true, listed));
+    }
+
+    /**
+     * Those of the given vendors that meet the filter, in their original order: from the
+     * matrix where it can answer, otherwise from their calendars and bookings in one read
+     */
+    public List<Long> keepAvailable(List<Long> vendorIds, DateFilter filter) {
+        AvailabilityMatrix current = matrix;
+        Map<Long, Boolean> verdicts = new HashMap<>();
+        List<Long> unanswered = new ArrayList<>();
+        for (Long vendorId : vendorIds) {
+            Optional<Boolean> verdict = current != null ? meets(current, vendorId, filter) : Optional.empty();
+            if (verdict.isPresent()) {
+                verdicts.put(vendorId, verdict.get());
+            } else {
+                unanswered.add(vendorId);
+            }
+        }
+        if (!unanswered.isEmpty()) {
+            verdicts.putAll(meetsFromDatabase(unanswered, filter));
+        }
+        return vendorIds.stream()
+            .filter(vendorId -> verdicts.getOrDefault(vendorId, false))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Listed vendors unavailable on the event date or on every one of the acceptable dates
+     */
+    private Optional<List<Long>> failing(LocalDate eventDate, List<LocalDate> anyOf) {
+        AvailabilityMatrix current = matrix;
+        if (current == null) {
+            return Optional.empty();
+        }
+        Set<Long> excluded = new HashSet<>();
+        if (eventDate != null) {
+            Optional<List<Long>> busy = current.blockedOnAll(List.of(eventDate));
+            if (busy.isEmpty()) {
+                return Optional.empty();
+            }
+            excluded.addAll(busy.get());
+        }
+        if (!anyOf.isEmpty()) {
+            Optional<List<Long>> busy = current.blockedOnAll(anyOf);
+            if (busy.isEmpty()) {
+                return Optional.empty();
+            }
+            excluded.addAll(busy.get());
+        }
+        return Optional.of(new ArrayList<>(excluded));
+    }
+
+    private static Optional<Boolean> meets(AvailabilityMatrix current, Long vendorId, DateFilter filter) {
+        if (filter.getEventDate() != null) {
+            Optional<Boolean> free = current.isFree(vendorId, filter.getEventDate());
+            if (free.isEmpty() || !free.get()) {
+                return free;
+            }
+        }
+        boolean anyFree = filter.getAnyOf().isEmpty();
+        for (LocalDate date : filter.getAnyOf()) {
+            Optional<Boolean> free = current.isFree(vendorId, date);
+            if (free.isEmpty()) {
+                return Optional.empty();
+            }
+            anyFree |= free.get();
+        }
+        return Optional.of(anyFree);
+    }
+
+    private Map<Long, Boolean> meetsFromDatabase(List<Long> vendorIds, DateFilter filter) {
+        List<LocalDate> dates = new ArrayList<>(filter.getAnyOf());
+        if (filter.getEventDate() != null) {
+            dates.add(filter.getEventDate());
+        }
+        Map<Long, Set<LocalDate>> blockedDays = new HashMap<>();
+        for (Vendor vendor : vendorRepository.findAllById(vendorIds)) {
+            if (!Boolean.TRUE.equals(vendor.getDeleted()) && vendor.isApproved()) {
+                blockedDays.put(vendor.getId(), new HashSet<>(calendarDays(vendor)));
+            }
+        }
+        if (!blockedDays.isEmpty()) {
+            for (VendorRepository.BookedDay booked : vendorRepository.findBookedDays(blockedDays.keySet(),
+                    Collections.min(dates), Collections.max(dates), BLOCKING_STATUSES)) {
+                blockedDays.get(booked.getVendorId()).add(booked.getEventDate());
+            }
+        }
+
+        Map<Long, Boolean> verdicts = new HashMap<>();
+        for (Long vendorId : vendorIds) {
+            Set<LocalDate> blocked = blockedDays.get(vendorId);
+            verdicts.put(vendorId, blocked != null
+                && (filter.getEventDate() == null || !blocked.contains(filter.getEventDate()))
+                && (filter.getAnyOf().isEmpty() || filter.getAnyOf().stream().anyMatch(date -> !blocked.contains(date))));
+        }
+        return verdicts;
+    }
+
+    private static List<LocalDate> parseDates(List<String> dates) {
+        if (dates == null || dates.isEmpty()) {
+            return List.of();
+        }
+        List<LocalDate> parsed = new ArrayList<>(dates.size());
+        for (String date : dates) {
+            try {
+                parsed.add(LocalDate.parse(date.trim()));
+            } catch (DateTimeParseException | NullPointerException e) {
+                throw new BadRequestException("Invalid available date: " + date);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Schedule a vendor's availability to be re-read; callers hand ids over once their
+     * transaction has committed
+     */
+    public void enqueue(Long vendorId) {
+        changes.enqueue(vendorId);
+    }
+
+    @Override
+    public String channel() {
+        return channel;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        changes.onMessage(message, pattern);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        requestBuild();
+    }
+
+    /**
+     * Rebuild onto a window starting today; until then the matrix keeps answering from yesterday's
+     */
+    @Scheduled(cron = "${app.search.availability.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        requestBuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.availability.drain-interval-ms:2000}")
+    public void scheduledDrain() {
+        changes.drainPending();
+    }
+
+    // Building
+
+    private void requestBuild() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            searchIndexingExecutor.execute(this::build);
+        } catch (RejectedExecutionException e) {
+            building.set(false);
+            log.error("Search indexing executor saturated, vendor availability index not rebuilt", e);
+        }
+    }
+
+    private void build() {
+        try {
+            long started = System.currentTimeMillis();
+            AvailabilityMatrix built = new AvailabilityMatrix(LocalDate.now(), horizonDays);
+            long lastId = 0;
+            List<Vendor> page;
+            do {
+                page = vendorRepository.findIndexingPage(lastId, null, PageRequest.of(0, batchSize));
+                Map<Long, Vendor> vendors = page.stream()
+                    .collect(Collectors.toMap(Vendor::getId, Function.identity()));
+                apply(built, new ArrayList<>(vendors.keySet()), vendors);
+                if (!page.isEmpty()) {
+                    lastId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == batchSize);
+
+            matrix = built;
+            searchResultCache.invalidateDateConstrained();
+            log.info("Built vendor availability index with {} vendors from {} to {} in {} ms",
+                built.size(), built.firstDay(), built.lastDay(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Failed to build vendor availability index", e);
+        } finally {
+            building.set(false);
+        }
+        // Changes that arrived during the build are re-read on top of it
+        changes.requestDrain();
+    }
+
+    // Incremental updates
+
+    private void applyChanges(List<Long> vendorIds) {
+        Map<Long, Vendor> vendors = vendorRepository.findAllById(vendorIds).stream()
+            .collect(Collectors.toMap(Vendor::getId, Function.identity()));
+        apply(matrix, vendorIds, vendors);
+    }
+
+    /**
+     * Re-read the blocked days of a batch of vendors, taking out those gone or unapproved
+     */
+    private void apply(AvailabilityMatrix target, List<Long> vendorIds, Map<Long, Vendor> vendors) {
+        Map<Long, List<LocalDate>> blockedDays = new HashMap<>();
+        List<Long> listed = new ArrayList<>(vendorIds.size());
+        for (Long vendorId : vendorIds) {
+            Vendor vendor = vendors.get(vendorId);
+            if (vendor == null || Boolean.TRUE.equals(vendor.getDeleted()) || !vendor.isApproved()) {
+                target.remove(vendorId);
+                continue;
+            }
+            listed.add(vendorId);
+            blockedDays.put(vendorId, calendarDays(vendor));
+        }
+        if (listed.isEmpty()) {
+            return;
+        }
+
+        for (VendorRepository.BookedDay booked : vendorRepository.findBookedDays(
+                listed, target.firstDay(), target.lastDay(), BLOCKING_STATUSES)) {
+            blockedDays.get(booked.getVendorId()).add(booked.getEventDate());
+        }
+        for (Long vendorId : listed) {
+            target.put(vendorId, blockedDays.get(vendorId));
+        }
+    }
+
+    /**
+     * Validate an availability calendar submitted by a vendor, a JSON array of ISO dates,
+     * and return it sorted and without duplicates
+     */
+    public String normalizeCalendar(String availabilityData) {
+        if (availabilityData == null || availabilityData.isBlank()) {
+            throw new BadRequestException("Availability calendar must be a JSON array of ISO dates");
+        }
+        List<String> days;
+        try {
+            days = objectMapper.readValue(availabilityData, new TypeReference<List<String>>() { });
+        } catch (IOException e) {
+            throw new BadRequestException("Availability calendar must be a JSON array of ISO dates");
+        }
+        if (days == null) {
+            throw new BadRequestException("Availability calendar must be a JSON array of ISO dates");
+        }
+
+        SortedSet<LocalDate> blocked = new TreeSet<>();
+        for (String day : days) {
+            try {
+                blocked.add(LocalDate.parse(day));
+            } catch (DateTimeParseException | NullPointerException e) {
+                throw new BadRequestException("Invalid availability date: " + day);
+            }
+        }
+        try {
+            return objectMapper.writeValueAsString(blocked.stream().map(LocalDate::toString).collect(Collectors.toList()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write availability calendar", e);
+        }
+    }
+
+    /**
+     * Days blocked on the vendor's availability calendar, a JSON array of ISO dates
+     */
+    private List<LocalDate> calendarDays(Vendor vendor) {
+        List<LocalDate> days = new ArrayList<>();
+        String calendar = vendor.getAvailabilityCalendar();
+        if (calendar == null || calendar.isBlank()) {
+            return days;
+        }
+        try {
+            for (String day : objectMapper.readValue(calendar, new TypeReference<List<String>>() { })) {
+                try {
+                    days.add(LocalDate.parse(day));
+                } catch (DateTimeParseException | NullPointerException e) {
+                    log.debug("Skipping unreadable calendar day {} of vendor {}", day, vendor.getId());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Unreadable availability calendar for vendor {}", vendor.getId());
+        }
+        return days;
+    }
+
+    /**
+     * Date constraints of a search: the event date, if any, must be free, and at least one
+     * of the acceptable dates if any are given. {@code excludedIds} lists the vendors
+     * failing them, or is null when the index cannot tell or they are too many to send
+     * and the dates have to be checked directly.
+     */
+    @lombok.Value
+    public static class DateFilter {
+        LocalDate eventDate;
+        List<LocalDate> anyOf;
+        List<Long> excludedIds;
+    }
+
+    /**
+     * Vendor ids a query keeps ({@code only}) or leaves out
+     */
+    @lombok.Value
+    public static class IdFilter {
+        boolean only;
+        List<Long> vendorIds;
+    }
+}
@@ -0,0 +1,30 @@
+package com.weddingmarketplace.search.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Compact cached form of one page of search results: the ordered vendor ids plus
+ * the totals needed for paging. Vendors themselves live in the per-vendor cache, so
+ * an entry is a few hundred bytes and never goes stale when a vendor is edited.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedSearchPage implements Serializable {
+
+    private long[] vendorIds;
+
+    private long totalElements;
+
+    private int totalPages;
+
+    public boolean hasNext(int pageNumber) {
+        return pageNumber + 1 < totalPages;
+    }
+}
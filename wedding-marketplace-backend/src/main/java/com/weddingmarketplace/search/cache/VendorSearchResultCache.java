@@ -0,0 +1,143 @@
+package com.weddingmarketplace.search.cache;
+
+import com.weddingmarketplace.mapper.VendorMapper;
+import com.weddingmarketplace.model.dto.response.VendorResponse;
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.model.enums.VendorStatus;
+import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.service.CacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Search result cache that stores id lists instead of response graphs.
+ *
+ * A page is cached under its {@code SearchQueryFingerprint} as a {@link CachedSearchPage}
+ * and hydrated through the {@code vendors} namespace with one MGET; only vendors missing
+ * there are loaded, in a single {@code findAllById}, and written back in one pipeline.
+ * Editing a vendor therefore only evicts that vendor's entry and every cached search
+ * picks the change up on its next read. Id lists are flushed as a whole only when
+ * membership can change (approval, rejection, edits to filtered fields) and otherwise
+ * age out through their short TTL. Hydration only ever returns approved vendors, so a
+ * vendor suspended since a page was cached drops out even before the flush. Pages of
+ * searches with date constraints live in a namespace of their own, flushed whenever the
+ * availability index applies booking or calendar changes.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VendorSearchResultCache {
+
+    private static final String SEARCH_NAMESPACE = "vendor_search";
+    private static final String DATED_SEARCH_NAMESPACE = "vendor_search_dated";
+    private static final String VENDOR_NAMESPACE = "vendors";
+
+    private final CacheService cacheService;
+    private final VendorRepository vendorRepository;
+    private final VendorMapper vendorMapper;
+
+    @Value("${app.search.result-cache.ttl:5m}")
+    private Duration ttl;
+
+    @Value("${app.search.result-cache.vendor-ttl:2h}")
+    private Duration vendorTtl;
+
+    public Optional<CachedSearchPage> get(String fingerprint, boolean dateConstrained) {
+        return cacheService.get(namespace(dateConstrained), fingerprint, CachedSearchPage.class);
+    }
+
+    /**
+     * Cache the ids of a freshly executed page and seed the vendor cache with its responses
+     */
+    public void put(String fingerprint, boolean dateConstrained, Page<Vendor> page, List<VendorResponse> responses) {
+        List<Vendor> vendors = page.getContent();
+        long[] ids = new long[vendors.size()];
+        Map<String, VendorResponse> byId = new LinkedHashMap<>(Math.max(16, vendors.size() * 2));
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = vendors.get(i).getId();
+            byId.put(Long.toString(ids[i]), responses.get(i));
+        }
+
+        cacheService.put(namespace(dateConstrained), fingerprint,
+            new CachedSearchPage(ids, page.getTotalElements(), page.getTotalPages()), ttl);
+        cacheService.putMultiple(VENDOR_NAMESPACE, byId, vendorTtl);
+    }
+
+    /**
+     * Resolve cached ids to vendors in their original order; vendors deleted or no longer
+     * approved since the page was cached are dropped
+     */
+    public List<VendorResponse> hydrate(CachedSearchPage page) {
+        return hydrate(page.getVendorIds() != null ? page.getVendorIds() : new long[0]);
+    }
+
+    /**
+     * Resolve vendor ids from any source to approved vendors in the same order, through the
+     * vendor cache
+     */
+    public List<VendorResponse> hydrate(long[] ids) {
+        List<String> keys = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            keys.add(Long.toString(id));
+        }
+
+        Map<String, VendorResponse> found = new HashMap<>(cacheService.getMultiple(VENDOR_NAMESPACE, keys, VendorResponse.class));
+        if (found.size() < keys.size()) {
+            List<Long> missing = new ArrayList<>(keys.size() - found.size());
+            for (long id : ids) {
+                if (!found.containsKey(Long.toString(id))) {
+                    missing.add(id);
+                }
+            }
+
+            Map<String, VendorResponse> loaded = new LinkedHashMap<>(Math.max(16, missing.size() * 2));
+            for (Vendor vendor : vendorRepository.findAllById(missing)) {
+                if (!Boolean.TRUE.equals(vendor.getDeleted())) {
+                    loaded.put(vendor.getId().toString(), vendorMapper.toResponse(vendor));
+                }
+            }
+            if (!loaded.isEmpty()) {
+                cacheService.putMultiple(VENDOR_NAMESPACE, loaded, vendorTtl);
+                found.putAll(loaded);
+            }
+            log.debug("Hydrated search page: {} cached, {} loaded, {} gone",
+                keys.size() - missing.size(), loaded.size(), missing.size() - loaded.size());
+        }
+
+        List<VendorResponse> vendors = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            VendorResponse vendor = found.get(key);
+            if (vendor != null && vendor.getStatus() == VendorStatus.APPROVED) {
+                vendors.add(vendor);
+            }
+        }
+        return vendors;
+    }
+
+    /**
+     * Drop every cached id list, for changes that can move vendors in or out of results
+     */
+    public void invalidateAll() {
+        cacheService.evictAll(SEARCH_NAMESPACE);
+        cacheService.evictAll(DATED_SEARCH_NAMESPACE);
+    }
+
+    /**
+     * Drop the id lists of searches with date constraints, once bookings or calendars change
+     */
+    public void invalidateDateConstrained() {
+        cacheService.evictAll(DATED_SEARCH_NAMESPACE);
+    }
+
+    private static String namespace(boolean dateConstrained) {
+        return dateConstrained ? DATED_SEARCH_NAMESPACE : SEARCH_NAMESPACE;
+    }
+}
@@ -0,0 +1,32 @@
+package com.weddingmarketplace.search.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor for the concurrent retrieval legs of hybrid search. The queue is short on
+ * purpose: a leg that would wait behind a backlog is rejected and the search is served
+ * from the remaining legs instead of blowing its latency budget.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Configuration
+public class HybridSearchConfig {
+
+    @Bean(name = "hybridSearchExecutor")
+    public Executor hybridSearchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(64);
+        executor.setThreadNamePrefix("hybrid-search-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,32 @@
+package com.weddingmarketplace.search.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor for search suggestion bookkeeping: per-query recording
+ * ({@code @Async("suggestionsExecutor")}) and autocomplete index rebuilds
+ *
+ * @author Wedding Marketplace Team
+ */
+@Configuration
+public class SuggestionsConfig {
+
+    @Bean(name = "suggestionsExecutor")
+    public Executor suggestionsExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("suggestions-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,261 @@
+package com.weddingmarketplace.search.embedding;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Client for the text embedding model that coalesces concurrent requests into batches.
+ *
+ * Callers get a future per text. A dispatcher thread takes the first waiting text, keeps
+ * collecting for at most {@code max-wait} or until {@code max-batch-size} texts are
+ * queued, and sends them as one {@code POST /embeddings/batch}. Under load batches fill
+ * instantly and no latency is added; when idle a lone query waits only the few
+ * milliseconds of the window. Identical texts inside a batch are sent once.
+ *
+ * At most {@code max-in-flight} batches are outstanding; beyond that the dispatcher
+ * blocks, texts accumulate in the queue and the next batch simply grows, which is the
+ * backpressure the model server needs. If the queue itself is full, {@link #embed} fails
+ * fast instead of queueing unbounded work. A failed call fails every future in its batch.
+ *
+ * Texts whose caller gave up are not sent: {@link #embedAll} cancels what is still
+ * outstanding at its deadline and drops it from the queue, and the dispatcher leaves out
+ * anything cancelled while its batch was forming or waiting for a slot.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingBatcher {
+
+    static final String BATCH_PATH = "/embeddings/batch";
+
+    private final RestTemplate restTemplate;
+    private final Executor embeddingClientExecutor;
+
+    @Value("${ml.embedding.api.url:http://localhost:8000}")
+    private String embeddingApiUrl;
+
+    @Value("${ml.embedding.model:sentence-transformers/all-MiniLM-L6-v2}")
+    private String embeddingModel;
+
+    @Value("${app.search.embedding.max-batch-size:32}")
+    private int maxBatchSize;
+
+    @Value("${app.search.embedding.max-wait:5ms}")
+    private Duration maxWait;
+
+    @Value("${app.search.embedding.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${app.search.embedding.max-queued:10000}")
+    private int maxQueued;
+
+    private BlockingQueue<Pending> queue;
+    private Semaphore inFlight;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(maxQueued);
+        inFlight = new Semaphore(maxInFlight);
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "embedding-batcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        dispatcher.interrupt();
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.future.completeExceptionally(new CancellationException("Embedding client stopped")));
+    }
+
+    /**
+     * Raw (unnormalized) embedding of {@code text} as returned by the model
+     */
+    public CompletableFuture<float[]> embed(String text) {
+        return enqueue(text).future;
+    }
+
+    /**
+     * Embeddings of {@code texts} in order, waiting at most {@code timeout} in total;
+     * texts whose batch failed or timed out map to null. Texts not embedded by the
+     * deadline are cancelled and never sent.
+     */
+    public List<float[]> embedAll(List<String> texts, Duration timeout) {
+        List<Pending> pendings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            pendings.add(enqueue(text));
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        List<Pending> abandoned = new ArrayList<>();
+        for (Pending pending : pendings) {
+            try {
+                embeddings.add(pending.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                embeddings.add(null);
+                abandoned.add(pending);
+            } catch (TimeoutException e) {
+                embeddings.add(null);
+                abandoned.add(pending);
+            } catch (ExecutionException | CancellationException e) {
+                embeddings.add(null);
+            }
+        }
+
+        if (!abandoned.isEmpty()) {
+            abandoned.forEach(pending -> pending.future.cancel(false));
+            // One pass over the queue, however many texts were abandoned
+            Set<Pending> dropped = Collections.newSetFromMap(new IdentityHashMap<>());
+            dropped.addAll(abandoned);
+            queue.removeIf(dropped::contains);
+            log.debug("Abandoned {} of {} texts after {} ms", abandoned.size(), texts.size(), timeout.toMillis());
+        }
+        return embeddings;
+    }
+
+    public String model() {
+        return embeddingModel;
+    }
+
+    private Pending enqueue(String text) {
+        Pending pending = new Pending(text);
+        if (!running || !queue.offer(pending)) {
+            pending.future.completeExceptionally(new RejectedExecutionException("Embedding queue is full"));
+        }
+        return pending;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                List<Pending> batch = new ArrayList<>(maxBatchSize);
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    // Whatever is already queued joins without waiting
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                inFlight.acquire();
+                // Callers may have given up while the batch was forming or waiting for a slot
+                batch.removeIf(pending -> pending.future.isDone());
+                if (batch.isEmpty()) {
+                    inFlight.release();
+                    continue;
+                }
+                try {
+                    embeddingClientExecutor.execute(() -> {
+                        try {
+                            send(batch);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    fail(batch, e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Embedding batcher loop error", e);
+            }
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        // One slot per distinct text; duplicates share the answer
+        Map<String, List<Pending>> byText = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            byText.computeIfAbsent(pending.text, text -> new ArrayList<>(1)).add(pending);
+        }
+        List<String> texts = new ArrayList<>(byText.keySet());
+
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            ResponseEntity<BatchEmbeddingResponse> response = restTemplate.postForEntity(embeddingApiUrl + BATCH_PATH,
+                new HttpEntity<>(new BatchEmbeddingRequest(texts, embeddingModel), headers), BatchEmbeddingResponse.class);
+
+            BatchEmbeddingResponse body = response.getBody();
+            if (!response.getStatusCode().is2xxSuccessful() || body == null || body.getEmbeddings() == null
+                || body.getEmbeddings().size() != texts.size()) {
+                throw new IllegalStateException("Embedding service returned " + response.getStatusCode()
+                    + " with " + (body != null && body.getEmbeddings() != null ? body.getEmbeddings().size() : 0)
+                    + " embeddings for " + texts.size() + " texts");
+            }
+
+            for (int i = 0; i < texts.size(); i++) {
+                float[] embedding = body.getEmbeddings().get(i);
+                for (Pending pending : byText.get(texts.get(i))) {
+                    pending.future.complete(embedding);
+                }
+            }
+            log.debug("Embedded batch of {} texts ({} distinct)", batch.size(), texts.size());
+        } catch (Exception e) {
+            log.warn("Embedding batch of {} texts failed: {}", texts.size(), e.getMessage());
+            fail(batch, e);
+        }
+    }
+
+    private static void fail(List<Pending> batch, Exception cause) {
+        for (Pending pending : batch) {
+            pending.future.completeExceptionally(cause);
+        }
+    }
+
+    private static final class Pending {
+        final String text;
+        final CompletableFuture<float[]> future = new CompletableFuture<>();
+
+        Pending(String text) {
+            this.text = text;
+        }
+    }
+
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    static class BatchEmbeddingRequest {
+        private List<String> texts;
+        private String model;
+    }
+
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    static class BatchEmbeddingResponse {
+        private List<float[]> embeddings;
+        private String model;
+        private int dimension;
+    }
+}
@@ -0,0 +1,147 @@
+package com.weddingmarketplace.search.embedding;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Content-addressed store of embeddings in Redis.
+ *
+ * An entry is keyed by the SHA-256 of the model name and the exact text that was
+ * embedded, so equal inputs share one entry however they were requested (query, vendor,
+ * term expansion) and an entry can never be served for different text or a different
+ * model. Nothing needs invalidating: edited text or a new model simply addresses a new
+ * key and the old one ages out.
+ *
+ * Values are raw little-endian float32 behind a one-byte format tag, 1537 bytes for a
+ * 384-dimension vector, instead of a Jackson-typed JSON array several times that size.
+ * Redis errors degrade to cache misses.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingCache {
+
+    private static final String KEY_PREFIX = "emb:";
+    private static final byte FORMAT_FLOAT32_LE = 1;
+    private static final int PIPELINE_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, byte[]> embeddingRedisTemplate;
+
+    @Value("${app.search.embedding.cache-ttl:7d}")
+    private Duration ttl;
+
+    /**
+     * Cache key for {@code text} as embedded by {@code model}; the text must already be
+     * in the exact form sent to the model
+     */
+    public static String key(String model, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            // A separator byte that cannot occur in UTF-8 keeps ("ab", "c") apart from ("a", "bc")
+            digest.update((byte) 0xff);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return KEY_PREFIX + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every JVM", e);
+        }
+    }
+
+    public Optional<float[]> get(String key) {
+        try {
+            return Optional.ofNullable(decode(embeddingRedisTemplate.opsForValue().get(key)));
+        } catch (Exception e) {
+            log.warn("Embedding cache read failed for {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Cached embeddings for {@code keys} in one MGET; misses are absent from the result
+     */
+    public Map<String, float[]> getAll(List<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            List<byte[]> values = embeddingRedisTemplate.opsForValue().multiGet(keys);
+            Map<String, float[]> found = new LinkedHashMap<>(Math.max(16, keys.size() * 2));
+            for (int i = 0; values != null && i < keys.size(); i++) {
+                float[] vector = decode(values.get(i));
+                if (vector != null) {
+                    found.put(keys.get(i), vector);
+                }
+            }
+            return found;
+        } catch (Exception e) {
+            log.warn("Embedding cache read failed for {} keys: {}", keys.size(), e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    public void put(String key, float[] vector) {
+        putAll(Map.of(key, vector));
+    }
+
+    /**
+     * Store embeddings with SET ... PX, one pipeline per batch of entries
+     */
+    public void putAll(Map<String, float[]> vectors) {
+        if (vectors.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, float[]>> entries = new ArrayList<>(vectors.entrySet());
+        try {
+            for (int from = 0; from < entries.size(); from += PIPELINE_BATCH_SIZE) {
+                List<Map.Entry<String, float[]>> batch = entries.subList(from, Math.min(from + PIPELINE_BATCH_SIZE, entries.size()));
+                embeddingRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                        for (Map.Entry<String, float[]> entry : batch) {
+                            ops.opsForValue().set(entry.getKey(), encode(entry.getValue()), ttl);
+                        }
+                        return null;
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.warn("Embedding cache write failed for {} entries: {}", vectors.size(), e.getMessage());
+        }
+    }
+
+    static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(FORMAT_FLOAT32_LE);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    /**
+     * Inverse of {@link #encode}; null for a miss or a value in an unknown format
+     */
+    static float[] decode(byte[] value) {
+        if (value == null || value.length < 1 || value[0] != FORMAT_FLOAT32_LE || (value.length - 1) % Float.BYTES != 0) {
+            return null;
+        }
+        float[] vector = new float[(value.length - 1) / Float.BYTES];
+        ByteBuffer.wrap(value, 1, value.length - 1).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
@@ -0,0 +1,120 @@
+package com.weddingmarketplace.search.geo;
+
+import java.util.Locale;
+
+/**
+ * Latitude/longitude rectangle that contains every point within a radius of a centre.
+ *
+ * Radius searches filter on the box first, which an index can answer as a range, and
+ * compute the exact great-circle distance only for the points inside it. The longitude
+ * half-width widens with latitude as meridians converge, following J. P. Matuschek's
+ * "Finding Points Within a Distance of a Latitude/Longitude Using Bounding
+ * Coordinates". A box that spans the 180th meridian has {@code minLongitude >
+ * maxLongitude}; one that reaches a pole spans every longitude.
+ *
+ * @author Wedding Marketplace Team
+ */
+@lombok.Value
+public class GeoBoundingBox {
+
+    /**
+     * Mean earth radius used by MySQL's ST_Distance_Sphere. Sizing the box with it, rather
+     * than the slightly larger 6371 km of the Haversine code, keeps the box a superset of
+     * either circle.
+     */
+    public static final double EARTH_RADIUS_KM = 6370.986;
+
+    private static final double WKT_SCALE = 1e8;
+
+    double minLatitude;
+    double maxLatitude;
+    double minLongitude;
+    double maxLongitude;
+
+    /**
+     * Smallest box containing the circle of {@code radiusKm} around the centre
+     */
+    public static GeoBoundingBox around(double latitude, double longitude, double radiusKm) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+        if (radiusKm < 0 || Double.isNaN(radiusKm)) {
+            throw new IllegalArgumentException("Radius must not be negative: " + radiusKm);
+        }
+        double angular = radiusKm / EARTH_RADIUS_KM;
+        double lat = Math.toRadians(latitude);
+        double minLat = lat - angular;
+        double maxLat = lat + angular;
+
+        if (minLat <= -Math.PI / 2 || maxLat >= Math.PI / 2) {
+            // The circle reaches a pole, and with it every meridian
+            return new GeoBoundingBox(Math.max(-90, Math.toDegrees(minLat)), Math.min(90, Math.toDegrees(maxLat)), -180, 180);
+        }
+        double ratio = Math.sin(angular) / Math.cos(lat);
+        if (ratio >= 1) {
+            return new GeoBoundingBox(Math.toDegrees(minLat), Math.toDegrees(maxLat), -180, 180);
+        }
+        double deltaLon = Math.toDegrees(Math.asin(ratio));
+        return new GeoBoundingBox(Math.toDegrees(minLat), Math.toDegrees(maxLat),
+            wrap(longitude - deltaLon), wrap(longitude + deltaLon));
+    }
+
+    public boolean crossesAntimeridian() {
+        return minLongitude > maxLongitude;
+    }
+
+    public boolean coversAllLongitudes() {
+        return minLongitude == -180 && maxLongitude == 180;
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude) {
+            return false;
+        }
+        return crossesAntimeridian()
+            ? longitude >= minLongitude || longitude <= maxLongitude
+            : longitude >= minLongitude && longitude <= maxLongitude;
+    }
+
+    /**
+     * The box as a WKT polygon in longitude-latitude order, or null when it cannot be
+     * written as one: on a geographic SRS polygon edges are geodesics, so a box that spans
+     * half the globe or touches a pole no longer means what it says. Callers then skip the
+     * prefilter; such a radius would select most vendors anyway.
+     */
+    public String toPolygonWkt() {
+        double span = crossesAntimeridian() ? maxLongitude + 360 - minLongitude : maxLongitude - minLongitude;
+        if (span >= 180 || minLatitude <= -90 || maxLatitude >= 90) {
+            return null;
+        }
+        // Rounded outwards to the stored 8 decimals so no point on the edge is lost
+        double west = Math.floor(minLongitude * WKT_SCALE) / WKT_SCALE;
+        double east = Math.ceil(maxLongitude * WKT_SCALE) / WKT_SCALE;
+        double south = Math.floor(minLatitude * WKT_SCALE) / WKT_SCALE;
+        double north = Math.ceil(maxLatitude * WKT_SCALE) / WKT_SCALE;
+        // Counter-clockwise, closed
+        return String.format(Locale.ROOT, "POLYGON((%s, %s, %s, %s, %s))",
+            lonLat(west, south), lonLat(east, south), lonLat(east, north), lonLat(west, north), lonLat(west, south));
+    }
+
+    /**
+     * A point as WKT in longitude-latitude order
+     */
+    public static String pointWkt(double latitude, double longitude) {
+        return "POINT(" + lonLat(longitude, latitude) + ")";
+    }
+
+    private static String lonLat(double longitude, double latitude) {
+        return String.format(Locale.ROOT, "%.8f %.8f", longitude, latitude);
+    }
+
+    private static double wrap(double longitude) {
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        if (longitude > 180) {
+            return longitude - 360;
+        }
+        return longitude;
+    }
+}
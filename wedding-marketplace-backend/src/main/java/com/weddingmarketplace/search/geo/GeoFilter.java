@@ -0,0 +1,26 @@
+package com.weddingmarketplace.search.geo;
+
+import lombok.Value;
+
+/**
+ * Conjunction of optional attribute constraints for nearby search on the geo grid;
+ * a {@code null} field matches everything
+ *
+ * @author Wedding Marketplace Team
+ */
+@Value
+public class GeoFilter {
+
+    public static final GeoFilter NONE = new GeoFilter(null, null, null);
+
+    Long categoryId;
+    Float minRating;
+    /** Highest acceptable {@link PriceBand}; vendors without a price only match when this is null */
+    Integer maxPriceBand;
+
+    public boolean test(long categoryId, float rating, byte priceBand) {
+        return (this.categoryId == null || this.categoryId == categoryId)
+            && (minRating == null || rating >= minRating)
+            && (maxPriceBand == null || (priceBand >= 0 && priceBand <= maxPriceBand));
+    }
+}
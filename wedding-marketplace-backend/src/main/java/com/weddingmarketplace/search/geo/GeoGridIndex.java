@@ -0,0 +1,565 @@
+package com.weddingmarketplace.search.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid of vendor locations bucketed by geohash cell.
+ *
+ * A geohash of {@code precision} characters is a plain latitude/longitude grid of
+ * 2^(5p/2) rows by 2^(5p/2) (rounded up) columns, so cells are addressed by row and
+ * column and neighbours are found by arithmetic rather than string manipulation. Each
+ * cell holds its vendors as parallel primitive arrays (id, position, category, rating,
+ * price band), which keeps a million vendors in a few tens of megabytes and lets a
+ * query filter and measure a cell without touching an object per vendor.
+ *
+ * Queries expand ring by ring around the query cell and stop as soon as no unvisited
+ * cell can hold anything closer than the current k-th hit, or anything within the
+ * radius, and never past {@code maxRings}; {@link #coverageKm} tells how far that
+ * reaches. Cells are immutable and replaced on write, so readers never lock; writers
+ * are serialized. A full build goes through a {@link Builder}, which fills every cell
+ * once instead of copying it per vendor.
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class GeoGridIndex {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private final int precision;
+    private final int maxRings;
+    private final int latCells;
+    private final int lonCells;
+    private final double cellLatDegrees;
+    private final double cellLonDegrees;
+
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+    // Guarded by this: the cell each vendor currently lives in
+    private final Map<Long, Long> cellOfVendor = new HashMap<>();
+    private volatile int size;
+
+    /**
+     * @param precision geohash length of a cell, 1 to 8; 5 gives cells of about 4.9 km
+     * @param maxRings  how far a query may expand before returning what it has
+     */
+    public GeoGridIndex(int precision, int maxRings) {
+        this(precision, maxRings, Map.of(), Map.of());
+    }
+
+    private GeoGridIndex(int precision, int maxRings, Map<Long, Cell> cells, Map<Long, Long> cellOfVendor) {
+        if (precision < 1 || precision > 8) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and 8: " + precision);
+        }
+        if (maxRings < 0) {
+            throw new IllegalArgumentException("Ring limit must not be negative: " + maxRings);
+        }
+        this.precision = precision;
+        this.maxRings = maxRings;
+        int bits = precision * 5;
+        this.latCells = 1 << (bits / 2);
+        this.lonCells = 1 << (bits - bits / 2);
+        this.cellLatDegrees = 180.0 / latCells;
+        this.cellLonDegrees = 360.0 / lonCells;
+        this.cells.putAll(cells);
+        this.cellOfVendor.putAll(cellOfVendor);
+        this.size = cellOfVendor.size();
+    }
+
+    /**
+     * Bulk loader for a grid of known vendors, each added once
+     */
+    public static Builder builder(int precision, int maxRings) {
+        return new Builder(new GeoGridIndex(precision, maxRings));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    // Writes
+
+    public synchronized void upsert(long vendorId, double latitude, double longitude,
+                                    long categoryId, float rating, byte priceBand) {
+        checkCoordinates(latitude, longitude);
+        long target = cellKey(row(latitude), column(longitude));
+        Long current = cellOfVendor.put(vendorId, target);
+        if (current != null && current != target) {
+            removeFromCell(current, vendorId);
+        }
+        Cell cell = cells.get(target);
+        Cell updated = (cell != null ? cell : Cell.EMPTY)
+            .with(vendorId, (float) latitude, (float) longitude, categoryId, rating, priceBand);
+        cells.put(target, updated);
+        if (current == null) {
+            size++;
+        }
+    }
+
+    public synchronized boolean remove(long vendorId) {
+        Long current = cellOfVendor.remove(vendorId);
+        if (current == null) {
+            return false;
+        }
+        removeFromCell(current, vendorId);
+        size--;
+        return true;
+    }
+
+    private void removeFromCell(long key, long vendorId) {
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            return;
+        }
+        Cell updated = cell.without(vendorId);
+        if (updated.ids.length == 0) {
+            cells.remove(key);
+        } else {
+            cells.put(key, updated);
+        }
+    }
+
+    // Queries
+
+    /**
+     * Up to {@code k} vendors nearest to the point and within {@code radiusKm}, nearest
+     * first with ties broken by id. Pass {@link Double#POSITIVE_INFINITY} for a plain
+     * k-nearest search, which still stops after {@code maxRings} rings.
+     */
+    public List<Hit> nearest(double latitude, double longitude, int k, double radiusKm, GeoFilter filter) {
+        checkCoordinates(latitude, longitude);
+        // Deep offset pages ask for more hits than there are vendors; size the heap to what can exist
+        int capacity = Math.min(k, size);
+        if (capacity <= 0 || radiusKm < 0) {
+            return List.of();
+        }
+        GeoFilter constraints = filter != null ? filter : GeoFilter.NONE;
+        int row0 = row(latitude);
+        int column0 = column(longitude);
+        NearestHeap heap = new NearestHeap(capacity);
+
+        // Rings are squares in rows and in columns measured around the globe; past the last
+        // one every cell has been visited
+        int lastRing = Math.min(maxRings, Math.max(Math.max(row0, latCells - 1 - row0), lonCells / 2));
+        for (int ring = 0; ring <= lastRing; ring++) {
+            if (ring > 0) {
+                double bound = lowerBoundKm(latitude, longitude, row0, column0, ring);
+                if (bound > radiusKm || (heap.isFull() && bound > heap.worstDistance())) {
+                    break;
+                }
+            }
+            for (int row = Math.max(0, row0 - ring); row <= Math.min(latCells - 1, row0 + ring); row++) {
+                boolean edgeRow = row == row0 - ring || row == row0 + ring;
+                if (edgeRow) {
+                    // The whole row band within the ring, each column once even when it wraps
+                    int reach = Math.min(ring, (lonCells - 1) / 2);
+                    int last = 2 * ring + 1 >= lonCells ? column0 - reach + lonCells - 1 : column0 + ring;
+                    for (int column = column0 - reach; column <= last; column++) {
+                        collect(row, column, latitude, longitude, radiusKm, constraints, heap);
+                    }
+                } else if (2 * ring < lonCells) {
+                    // Only the two columns exactly a ring away, or the one opposite column
+                    collect(row, column0 - ring, latitude, longitude, radiusKm, constraints, heap);
+                    collect(row, column0 + ring, latitude, longitude, radiusKm, constraints, heap);
+                } else if (2 * ring == lonCells) {
+                    collect(row, column0 + ring, latitude, longitude, radiusKm, constraints, heap);
+                }
+            }
+        }
+        return heap.drain();
+    }
+
+    /**
+     * Radius around the point within which {@link #nearest} sees every vendor despite
+     * its ring limit; unbounded when the rings reach around the whole globe
+     */
+    public double coverageKm(double latitude, double longitude) {
+        checkCoordinates(latitude, longitude);
+        int row0 = row(latitude);
+        int column0 = column(longitude);
+        if (maxRings >= Math.max(Math.max(row0, latCells - 1 - row0), lonCells / 2)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // Everything within maxRings is visited; anything else is at least this far
+        return lowerBoundKm(latitude, longitude, row0, column0, maxRings + 1);
+    }
+
+    private void collect(int row, int column, double latitude, double longitude, double radiusKm,
+                         GeoFilter filter, NearestHeap heap) {
+        Cell cell = cells.get(cellKey(row, Math.floorMod(column, lonCells)));
+        if (cell != null) {
+            cell.collect(latitude, longitude, radiusKm, filter, heap);
+        }
+    }
+
+    /**
+     * Lower bound on the distance from the point to anything outside the block of cells
+     * within {@code ring - 1} of its own: whatever is out there is either a whole row band
+     * or a whole column band away
+     */
+    private double lowerBoundKm(double latitude, double longitude, int row0, int column0, int ring) {
+        int inner = ring - 1;
+        double south = (row0 - inner) * cellLatDegrees - 90;
+        double north = (row0 + inner + 1) * cellLatDegrees - 90;
+        double latitudeGap = Math.min(latitude - south, north - latitude);
+        double byLatitude = Math.toRadians(latitudeGap) * EARTH_RADIUS_KM;
+
+        if (2 * inner + 1 >= lonCells) {
+            return byLatitude;
+        }
+        double west = (column0 - inner) * cellLonDegrees - 180;
+        double east = (column0 + inner + 1) * cellLonDegrees - 180;
+        double longitudeGap = Math.min(longitude - west, east - longitude);
+        // Across longitude, distance shrinks with the cosine of the highest latitude the other point may have
+        double highest = Math.min(90, Math.max(Math.abs(south), Math.abs(north)));
+        double cosine = Math.cos(Math.toRadians(highest));
+        double byLongitude = 2 * EARTH_RADIUS_KM
+            * Math.asin(Math.min(1, cosine * Math.sin(Math.toRadians(longitudeGap) / 2)));
+        return Math.min(byLatitude, byLongitude);
+    }
+
+    // Cells
+
+    /**
+     * Geohash of the cell containing the point, at this index's precision
+     */
+    public String geohash(double latitude, double longitude) {
+        return geohash(latitude, longitude, precision);
+    }
+
+    /**
+     * Standard base-32 geohash of the point
+     */
+    public static String geohash(double latitude, double longitude, int precision) {
+        checkCoordinates(latitude, longitude);
+        double[] lat = {-90, 90};
+        double[] lon = {-180, 180};
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int value = 0;
+        while (hash.length() < precision) {
+            double[] range = evenBit ? lon : lat;
+            double coordinate = evenBit ? longitude : latitude;
+            double middle = (range[0] + range[1]) / 2;
+            value <<= 1;
+            if (coordinate >= middle) {
+                value |= 1;
+                range[0] = middle;
+            } else {
+                range[1] = middle;
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(value));
+                bit = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Centre of the geohash cell of {@code precision} containing the point, as {latitude, longitude}
+     */
+    public static double[] cellCentre(double latitude, double longitude, int precision) {
+        checkCoordinates(latitude, longitude);
+        int bits = precision * 5;
+        int rows = 1 << (bits / 2);
+        int columns = 1 << (bits - bits / 2);
+        double height = 180.0 / rows;
+        double width = 360.0 / columns;
+        int row = Math.min(rows - 1, (int) ((latitude + 90) / height));
+        int column = Math.min(columns - 1, (int) ((longitude + 180) / width));
+        return new double[] {(row + 0.5) * height - 90, (column + 0.5) * width - 180};
+    }
+
+    private int row(double latitude) {
+        return Math.min(latCells - 1, (int) ((latitude + 90) / cellLatDegrees));
+    }
+
+    private int column(double longitude) {
+        return Math.min(lonCells - 1, (int) ((longitude + 180) / cellLonDegrees));
+    }
+
+    private long cellKey(int row, int column) {
+        return (long) row * lonCells + column;
+    }
+
+    private static void checkCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+    }
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+            * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Collects vendors per cell in growable arrays and publishes each cell once, so a
+     * build is linear in the number of vendors
+     */
+    public static final class Builder {
+
+        private final GeoGridIndex grid;
+        private final Map<Long, CellBuilder> cells = new HashMap<>();
+        private final Map<Long, Long> cellOfVendor = new HashMap<>();
+
+        private Builder(GeoGridIndex grid) {
+            this.grid = grid;
+        }
+
+        public Builder add(long vendorId, double latitude, double longitude, long categoryId, float rating, byte priceBand) {
+            checkCoordinates(latitude, longitude);
+            long key = grid.cellKey(grid.row(latitude), grid.column(longitude));
+            if (cellOfVendor.putIfAbsent(vendorId, key) != null) {
+                throw new IllegalArgumentException("Vendor added twice: " + vendorId);
+            }
+            cells.computeIfAbsent(key, ignored -> new CellBuilder())
+                .add(vendorId, (float) latitude, (float) longitude, categoryId, rating, priceBand);
+            return this;
+        }
+
+        public GeoGridIndex build() {
+            Map<Long, Cell> built = new HashMap<>(Math.max(16, cells.size() * 2));
+            cells.forEach((key, cell) -> built.put(key, cell.build()));
+            return new GeoGridIndex(grid.precision, grid.maxRings, built, cellOfVendor);
+        }
+    }
+
+    private static final class CellBuilder {
+
+        private long[] ids = new long[4];
+        private float[] latitudes = new float[4];
+        private float[] longitudes = new float[4];
+        private long[] categoryIds = new long[4];
+        private float[] ratings = new float[4];
+        private byte[] priceBands = new byte[4];
+        private int size;
+
+        void add(long id, float latitude, float longitude, long categoryId, float rating, byte priceBand) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                categoryIds = Arrays.copyOf(categoryIds, capacity);
+                ratings = Arrays.copyOf(ratings, capacity);
+                priceBands = Arrays.copyOf(priceBands, capacity);
+            }
+            ids[size] = id;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            categoryIds[size] = categoryId;
+            ratings[size] = rating;
+            priceBands[size] = priceBand;
+            size++;
+        }
+
+        Cell build() {
+            return new Cell(Arrays.copyOf(ids, size), Arrays.copyOf(latitudes, size), Arrays.copyOf(longitudes, size),
+                Arrays.copyOf(categoryIds, size), Arrays.copyOf(ratings, size), Arrays.copyOf(priceBands, size));
+        }
+    }
+
+    @lombok.Value
+    public static class Hit {
+        long vendorId;
+        double distanceKm;
+    }
+
+    /**
+     * The vendors of one cell as parallel arrays; never modified once published
+     */
+    private static final class Cell {
+
+        static final Cell EMPTY = new Cell(new long[0], new float[0], new float[0], new long[0], new float[0], new byte[0]);
+
+        final long[] ids;
+        final float[] latitudes;
+        final float[] longitudes;
+        final long[] categoryIds;
+        final float[] ratings;
+        final byte[] priceBands;
+
+        Cell(long[] ids, float[] latitudes, float[] longitudes, long[] categoryIds, float[] ratings, byte[] priceBands) {
+            this.ids = ids;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.categoryIds = categoryIds;
+            this.ratings = ratings;
+            this.priceBands = priceBands;
+        }
+
+        Cell with(long id, float latitude, float longitude, long categoryId, float rating, byte priceBand) {
+            int index = indexOf(id);
+            int length = index >= 0 ? ids.length : ids.length + 1;
+            int slot = index >= 0 ? index : ids.length;
+            Cell copy = new Cell(Arrays.copyOf(ids, length), Arrays.copyOf(latitudes, length),
+                Arrays.copyOf(longitudes, length), Arrays.copyOf(categoryIds, length),
+                Arrays.copyOf(ratings, length), Arrays.copyOf(priceBands, length));
+            copy.ids[slot] = id;
+            copy.latitudes[slot] = latitude;
+            copy.longitudes[slot] = longitude;
+            copy.categoryIds[slot] = categoryId;
+            copy.ratings[slot] = rating;
+            copy.priceBands[slot] = priceBand;
+            return copy;
+        }
+
+        Cell without(long id) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return this;
+            }
+            // Move the last entry into the gap; order within a cell carries no meaning
+            int last = ids.length - 1;
+            Cell copy = new Cell(Arrays.copyOf(ids, last), Arrays.copyOf(latitudes, last),
+                Arrays.copyOf(longitudes, last), Arrays.copyOf(categoryIds, last),
+                Arrays.copyOf(ratings, last), Arrays.copyOf(priceBands, last));
+            if (index < last) {
+                copy.ids[index] = ids[last];
+                copy.latitudes[index] = latitudes[last];
+                copy.longitudes[index] = longitudes[last];
+                copy.categoryIds[index] = categoryIds[last];
+                copy.ratings[index] = ratings[last];
+                copy.priceBands[index] = priceBands[last];
+            }
+            return copy;
+        }
+
+        void collect(double latitude, double longitude, double radiusKm, GeoFilter filter, NearestHeap heap) {
+            for (int i = 0; i < ids.length; i++) {
+                if (!filter.test(categoryIds[i], ratings[i], priceBands[i])) {
+                    continue;
+                }
+                double distance = haversineKm(latitude, longitude, latitudes[i], longitudes[i]);
+                if (distance <= radiusKm) {
+                    heap.offer(ids[i], distance);
+                }
+            }
+        }
+
+        private int indexOf(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Bounded max-heap on distance over primitive arrays, so the worst of the best
+     * {@code k} hits is always at the root
+     */
+    private static final class NearestHeap {
+
+        private final long[] ids;
+        private final double[] distances;
+        private int size;
+
+        NearestHeap(int k) {
+            this.ids = new long[k];
+            this.distances = new double[k];
+        }
+
+        boolean isFull() {
+            return size == ids.length;
+        }
+
+        double worstDistance() {
+            return distances[0];
+        }
+
+        void offer(long id, double distance) {
+            if (size < ids.length) {
+                ids[size] = id;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (worse(id, distance, ids[0], distances[0]) < 0) {
+                ids[0] = id;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        List<Hit> drain() {
+            List<Hit> hits = new ArrayList<>(size);
+            while (size > 0) {
+                hits.add(new Hit(ids[0], distances[0]));
+                size--;
+                ids[0] = ids[size];
+                distances[0] = distances[size];
+                siftDown(0);
+            }
+            // Drained worst first
+            Collections.reverse(hits);
+            return hits;
+        }
+
+        /**
+         * Positive when (id1, d1) ranks after (id2, d2): farther, or as far with a higher id
+         */
+        private static int worse(long id1, double d1, long id2, double d2) {
+            int byDistance = Double.compare(d1, d2);
+            return byDistance != 0 ? byDistance : Long.compare(id1, id2);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (worse(ids[index], distances[index], ids[parent], distances[parent]) <= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int largest = left;
+                int right = left + 1;
+                if (right < size && worse(ids[right], distances[right], ids[left], distances[left]) > 0) {
+                    largest = right;
+                }
+                if (worse(ids[largest], distances[largest], ids[index], distances[index]) <= 0) {
+                    return;
+                }
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.weddingmarketplace.search.geo;
+
+import java.math.BigDecimal;
+
+/**
+ * Coarse price band of a vendor's starting price, small enough to keep in a byte next
+ * to every vendor in the geo grid. Bands are ordered, so "up to mid-range" is a
+ * single comparison.
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class PriceBand {
+
+    public static final byte UNKNOWN = -1;
+    public static final byte BUDGET = 0;
+    public static final byte MODERATE = 1;
+    public static final byte MID_RANGE = 2;
+    public static final byte PREMIUM = 3;
+    public static final byte LUXURY = 4;
+
+    /** Upper bounds (exclusive) of every band but the last, in the marketplace currency */
+    private static final BigDecimal[] UPPER_BOUNDS = {
+        new BigDecimal("1000"), new BigDecimal("5000"), new BigDecimal("15000"), new BigDecimal("50000")
+    };
+
+    private PriceBand() {
+    }
+
+    public static byte of(BigDecimal startingPrice) {
+        if (startingPrice == null || startingPrice.signum() < 0) {
+            return UNKNOWN;
+        }
+        for (byte band = 0; band < UPPER_BOUNDS.length; band++) {
+            if (startingPrice.compareTo(UPPER_BOUNDS[band]) < 0) {
+                return band;
+            }
+        }
+        return LUXURY;
+    }
+}
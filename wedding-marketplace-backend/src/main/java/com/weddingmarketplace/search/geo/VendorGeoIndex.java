@@ -0,0 +1,266 @@
+package com.weddingmarketplace.search.geo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weddingmarketplace.cache.broadcast.ChangeFanout;
+import com.weddingmarketplace.cache.broadcast.ChannelListener;
+import com.weddingmarketplace.model.dto.request.VendorSearchRequest;
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.search.query.SearchQueryFingerprint;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process geo grid of approved vendors for nearby lookups without a datastore round trip.
+ *
+ * The grid is built on startup by paging through the catalogue and is then kept current
+ * from vendor changes: ids arrive through {@link #enqueue} once their transaction commits
+ * and are re-read and applied in coalesced batches on the search indexing executor. The
+ * node that saw a change broadcasts the ids so peers re-read the same vendors.
+ *
+ * {@link #nearestQuantized} serves anonymous "near me" traffic from a small result cache
+ * keyed by a fine geohash cell: the query is answered for the cell centre, so every
+ * client in the same few hundred metres shares one entry. Entries carry the grid
+ * generation in their key and stop matching as soon as any vendor changes.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VendorGeoIndex implements ChannelListener {
+
+    private final VendorRepository vendorRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Executor searchIndexingExecutor;
+
+    @Value("${app.search.geo.precision:5}")
+    private int precision;
+
+    @Value("${app.search.geo.max-rings:40}")
+    private int maxRings;
+
+    @Value("${app.search.geo.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.search.geo.channel:search:geo:changes}")
+    private String channel;
+
+    @Value("${app.search.geo.cache-precision:6}")
+    private int cachePrecision;
+
+    @Value("${app.search.geo.cache-size:20000}")
+    private long cacheSize;
+
+    @Value("${app.search.geo.cache-ttl:60s}")
+    private Duration cacheTtl;
+
+    private ChangeFanout changes;
+    private final AtomicLong generation = new AtomicLong();
+
+    private Cache<String, List<GeoGridIndex.Hit>> resultCache;
+    private volatile GeoGridIndex index;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void createResultCache() {
+        resultCache = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(cacheTtl)
+            .build();
+    }
+
+    @PostConstruct
+    void createChangeFanout() {
+        changes = ChangeFanout.builder()
+            .name("geo index")
+            .channel(channel)
+            .batchSize(batchSize)
+            .executor(searchIndexingExecutor)
+            .stringRedisTemplate(stringRedisTemplate)
+            .ready(() -> ready)
+            .applier((vendorIds, local) -> applyChanges(vendorIds))
+            .build();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        GeoGridIndex current = index;
+        return current != null ? current.size() : 0;
+    }
+
+    /**
+     * Up to {@code k} approved vendors within {@code radiusKm} of the point, nearest first;
+     * empty until the grid has been built, or when the radius reaches past the grid's ring
+     * limit, so callers can fall back to the database
+     */
+    public Optional<List<GeoGridIndex.Hit>> nearest(double latitude, double longitude, int k,
+                                                    double radiusKm, GeoFilter filter) {
+        GeoGridIndex current = index;
+        if (!ready || current == null || radiusKm > current.coverageKm(latitude, longitude)) {
+            return Optional.empty();
+        }
+        return Optional.of(current.nearest(latitude, longitude, k, radiusKm, filter));
+    }
+
+    /**
+     * As {@link #nearest}, answered for the centre of the point's cache cell and cached;
+     * distances are therefore off by up to half a cell diagonal
+     */
+    public Optional<List<GeoGridIndex.Hit>> nearestQuantized(double latitude, double longitude, int k,
+                                                             double radiusKm, GeoFilter filter) {
+        GeoGridIndex current = index;
+        if (!ready || current == null) {
+            return Optional.empty();
+        }
+        double[] centre = GeoGridIndex.cellCentre(latitude, longitude, cachePrecision);
+        if (radiusKm > current.coverageKm(centre[0], centre[1])) {
+            return Optional.empty();
+        }
+        GeoFilter constraints = filter != null ? filter : GeoFilter.NONE;
+        String key = generation.get() + ":" + GeoGridIndex.geohash(latitude, longitude, cachePrecision) + ":"
+            + radiusKm + ":" + k + ":" + constraints.getCategoryId() + ":" + constraints.getMinRating()
+            + ":" + constraints.getMaxPriceBand();
+        return Optional.of(resultCache.get(key, ignored -> current.nearest(centre[0], centre[1], k, radiusKm, constraints)));
+    }
+
+    /**
+     * The grid filter equivalent to a vendor search, or empty when the search constrains
+     * anything beyond location, category and minimum rating and has to go to a datastore
+     */
+    public static Optional<GeoFilter> filterFor(VendorSearchRequest request) {
+        if (request == null) {
+            return Optional.of(GeoFilter.NONE);
+        }
+        VendorSearchRequest servable = VendorSearchRequest.builder()
+            .latitude(request.getLatitude())
+            .longitude(request.getLongitude())
+            .radius(request.getRadius())
+            .categoryId(request.getCategoryId())
+            .minRating(request.getMinRating())
+            .build();
+        if (!SearchQueryFingerprint.of(servable).equals(SearchQueryFingerprint.of(request))) {
+            return Optional.empty();
+        }
+        return Optional.of(new GeoFilter(request.getCategoryId(),
+            request.getMinRating() != null ? request.getMinRating().floatValue() : null, null));
+    }
+
+    /**
+     * Schedule a vendor to be re-read into the grid
+     */
+    public void enqueue(Long vendorId) {
+        changes.enqueue(vendorId);
+    }
+
+    @Override
+    public String channel() {
+        return channel;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        changes.onMessage(message, pattern);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            searchIndexingExecutor.execute(this::build);
+        } catch (RejectedExecutionException e) {
+            log.error("Search indexing executor saturated, vendor geo index not initialized", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.geo.drain-interval-ms:2000}")
+    public void scheduledDrain() {
+        changes.drainPending();
+    }
+
+    // Building
+
+    private void build() {
+        long started = System.currentTimeMillis();
+        GeoGridIndex.Builder builder = GeoGridIndex.builder(precision, maxRings);
+        long lastId = 0;
+        List<Vendor> page;
+        do {
+            page = vendorRepository.findIndexingPage(lastId, null, PageRequest.of(0, batchSize));
+            for (Vendor vendor : page) {
+                if (isListed(vendor)) {
+                    builder.add(vendor.getId(), vendor.getLatitude(), vendor.getLongitude(), categoryOf(vendor),
+                        ratingOf(vendor), PriceBand.of(vendor.getPriceRangeMin()));
+                }
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == batchSize);
+
+        GeoGridIndex built = builder.build();
+        index = built;
+        ready = true;
+        generation.incrementAndGet();
+        log.info("Built vendor geo index with {} vendors in {} ms", built.size(), System.currentTimeMillis() - started);
+        // Changes that arrived during the build are re-read on top of it
+        changes.requestDrain();
+    }
+
+    // Incremental updates
+
+    private void applyChanges(List<Long> vendorIds) {
+        Map<Long, Vendor> vendors = vendorRepository.findAllById(vendorIds).stream()
+            .collect(Collectors.toMap(Vendor::getId, Function.identity()));
+        GeoGridIndex current = index;
+        for (Long vendorId : vendorIds) {
+            apply(current, vendorId, vendors.get(vendorId));
+        }
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Place a vendor in the grid, or take it out once it is gone, unapproved or unlocated
+     */
+    private static void apply(GeoGridIndex grid, Long vendorId, Vendor vendor) {
+        if (!isListed(vendor)) {
+            grid.remove(vendorId);
+            return;
+        }
+        grid.upsert(vendorId, vendor.getLatitude(), vendor.getLongitude(), categoryOf(vendor), ratingOf(vendor),
+            PriceBand.of(vendor.getPriceRangeMin()));
+    }
+
+    private static boolean isListed(Vendor vendor) {
+        return vendor != null && !Boolean.TRUE.equals(vendor.getDeleted()) && vendor.isApproved() && vendor.hasLocation()
+            && Math.abs(vendor.getLatitude()) <= 90 && Math.abs(vendor.getLongitude()) <= 180;
+    }
+
+    private static long categoryOf(Vendor vendor) {
+        return vendor.getCategory() != null ? vendor.getCategory().getId() : -1L;
+    }
+
+    private static float ratingOf(Vendor vendor) {
+        return vendor.getAverageRating() != null ? vendor.getAverageRating().floatValue() : 0f;
+    }
+}
@@ -0,0 +1,97 @@
+package com.weddingmarketplace.search.global;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Global search results grouped by index, in {@link GlobalSearchTarget} order. Each
+ * group is paged on its own quota, so a flood of vendor matches can no longer push every
+ * user and booking off the page. A group whose index timed out or failed is returned
+ * with whatever it had and flagged, and the whole result is then not cached.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlobalSearchResult implements Serializable {
+
+    private String query;
+
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    private long tookMillis;
+
+    private boolean cached;
+
+    /**
+     * A copy flagged as served from cache. Groups are shared with this result, which is
+     * never modified once cached.
+     */
+    public GlobalSearchResult asCached() {
+        return new GlobalSearchResult(query, groups, tookMillis, true);
+    }
+
+    public boolean isPartial() {
+        return groups.values().stream().anyMatch(group -> group.isTimedOut() || group.getError() != null);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group implements Serializable {
+
+        private String type;
+
+        private long totalHits;
+
+        private List<Map<String, Object>> hits = new ArrayList<>();
+
+        private boolean timedOut;
+
+        private String error;
+
+        /** Per-shard timings, only present when the search was profiled */
+        private List<ShardProfile> profile;
+    }
+
+    /**
+     * Where one shard spent its time on a profiled search, for slow-query diagnosis
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShardProfile implements Serializable {
+
+        /** Shard key as reported by Elasticsearch: [node][index][shard] */
+        private String shard;
+
+        private long queryNanos;
+
+        private long rewriteNanos;
+
+        private long collectorNanos;
+
+        /** Top-level query nodes with their own timings, slowest first */
+        private List<QueryTiming> queries;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QueryTiming implements Serializable {
+
+        private String type;
+
+        private String description;
+
+        private long timeNanos;
+    }
+}
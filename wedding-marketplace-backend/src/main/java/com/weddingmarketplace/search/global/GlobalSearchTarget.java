@@ -0,0 +1,113 @@
+package com.weddingmarketplace.search.global;
+
+import org.elasticsearch.index.query.MultiMatchQueryBuilder;
+import org.elasticsearch.index.query.Operator;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The indices global search spans, each with a query template shaped for its own
+ * documents. Vendors keep the boosted business-name match; users and bookings match
+ * on the fields people actually type for them (a name, an email, a booking number)
+ * instead of vendor fields they do not have.
+ *
+ * @author Wedding Marketplace Team
+ */
+public enum GlobalSearchTarget {
+
+    VENDORS("vendors", "id", "businessName", "businessCity", "businessState", "categoryId", "averageRating", "totalReviews") {
+        @Override
+        public QueryBuilder query(String text) {
+            return QueryBuilders.boolQuery()
+                .should(QueryBuilders.multiMatchQuery(text)
+                    .field("businessName", 3.0f)
+                    .field("description", 2.0f)
+                    .field("servicesOffered", 1.5f)
+                    .field("tags", 1.0f)
+                    .type(MultiMatchQueryBuilder.Type.BEST_FIELDS))
+                .should(QueryBuilders.fuzzyQuery("businessName", text).boost(0.5f))
+                .minimumShouldMatch(1)
+                .filter(QueryBuilders.termQuery("status", "APPROVED"))
+                .filter(QueryBuilders.termQuery("deleted", false));
+        }
+    },
+
+    // Users and bookings exclude deleted documents with mustNot so that documents
+    // indexed without the flag still match
+
+    USERS("users", "id", "firstName", "lastName", "city", "state") {
+        @Override
+        public QueryBuilder query(String text) {
+            return QueryBuilders.boolQuery()
+                .should(QueryBuilders.multiMatchQuery(text)
+                    .field("firstName", 2.0f)
+                    .field("lastName", 2.0f)
+                    .field("city", 0.5f)
+                    .type(MultiMatchQueryBuilder.Type.CROSS_FIELDS)
+                    .operator(Operator.AND))
+                .should(QueryBuilders.termQuery("email.keyword", text.toLowerCase(Locale.ROOT)).boost(4.0f))
+                .minimumShouldMatch(1)
+                .mustNot(QueryBuilders.termQuery("deleted", true));
+        }
+    },
+
+    BOOKINGS("bookings", "id", "bookingNumber", "serviceName", "eventDate", "eventLocation", "status") {
+        @Override
+        public QueryBuilder query(String text) {
+            return QueryBuilders.boolQuery()
+                .should(QueryBuilders.termQuery("bookingNumber.keyword", text.toUpperCase(Locale.ROOT)).boost(5.0f))
+                .should(QueryBuilders.multiMatchQuery(text)
+                    .field("serviceName", 2.0f)
+                    .field("eventLocation", 1.0f)
+                    .field("serviceDescription", 0.5f)
+                    .type(MultiMatchQueryBuilder.Type.BEST_FIELDS))
+                .minimumShouldMatch(1)
+                .mustNot(QueryBuilders.termQuery("deleted", true));
+        }
+    };
+
+    private final String index;
+
+    private final String[] sourceFields;
+
+    GlobalSearchTarget(String index, String... sourceFields) {
+        this.index = index;
+        this.sourceFields = sourceFields;
+    }
+
+    public String index() {
+        return index;
+    }
+
+    /**
+     * The only source fields a global search returns for this index: enough to render a
+     * result row and link to it, and nothing private such as a user's email
+     */
+    public String[] sourceFields() {
+        return sourceFields.clone();
+    }
+
+    /**
+     * Query for {@code text} against this index's documents
+     */
+    public abstract QueryBuilder query(String text);
+
+    /**
+     * Targets selected by a search type: "all" or null for every index, otherwise the
+     * singular or plural index name. Unknown types fall back to vendors, as before.
+     */
+    public static Set<GlobalSearchTarget> resolve(String type) {
+        if (type == null || type.isBlank() || "all".equalsIgnoreCase(type.trim())) {
+            return EnumSet.allOf(GlobalSearchTarget.class);
+        }
+        return switch (type.trim().toLowerCase(Locale.ROOT)) {
+            case "user", "users" -> EnumSet.of(USERS);
+            case "booking", "bookings" -> EnumSet.of(BOOKINGS);
+            default -> EnumSet.of(VENDORS);
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.weddingmarketplace.search.hybrid;
+
+/**
+ * Outcome of one retrieval leg of a hybrid search: its value when it finished within
+ * its budget, or why it did not. A missed leg contributes nothing and the search is
+ * served from the others, flagged as degraded.
+ *
+ * @author Wedding Marketplace Team
+ */
+@lombok.Value
+public class LegResult<T> {
+
+    public enum Status { OK, TIMEOUT, ERROR, REJECTED }
+
+    Status status;
+    T value;
+    long elapsedNanos;
+
+    public static <T> LegResult<T> ok(T value, long elapsedNanos) {
+        return new LegResult<>(Status.OK, value, elapsedNanos);
+    }
+
+    public static <T> LegResult<T> missed(Status status, long elapsedNanos) {
+        return new LegResult<>(status, null, elapsedNanos);
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+}
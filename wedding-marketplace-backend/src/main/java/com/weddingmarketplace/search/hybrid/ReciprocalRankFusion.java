@@ -0,0 +1,58 @@
+package com.weddingmarketplace.search.hybrid;
+
+import java.util.*;
+
+/**
+ * Reciprocal-rank fusion of ranked id lists.
+ *
+ * Each list contributes {@code 1 / (k + rank)} to every id it contains, rank starting at 1,
+ * and ids are ordered by the sum. Only ranks are used, so legs whose scores live on
+ * different scales (BM25, cosine similarity) fuse without any normalization, and an id
+ * found by several legs rises above one found by a single leg at a similar rank. A
+ * larger {@code k} flattens the advantage of the very top ranks; 60 is the usual choice.
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class ReciprocalRankFusion {
+
+    public static final int DEFAULT_K = 60;
+
+    private ReciprocalRankFusion() {
+    }
+
+    /**
+     * Fused ranking of all ids in {@code rankings}, best first; ties go to the lower id
+     */
+    public static List<Fused> fuse(Collection<? extends List<Long>> rankings, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1: " + k);
+        }
+        Map<Long, double[]> scores = new HashMap<>();
+        for (List<Long> ranking : rankings) {
+            if (ranking == null) {
+                continue;
+            }
+            Set<Long> seen = new HashSet<>(ranking.size() * 2);
+            int rank = 0;
+            for (Long id : ranking) {
+                // A duplicate within one leg keeps its best rank only
+                if (id == null || !seen.add(id)) {
+                    continue;
+                }
+                rank++;
+                scores.computeIfAbsent(id, key -> new double[1])[0] += 1.0 / (k + rank);
+            }
+        }
+
+        List<Fused> fused = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> fused.add(new Fused(id, score[0])));
+        fused.sort(Comparator.comparingDouble(Fused::getScore).reversed().thenComparingLong(Fused::getId));
+        return fused;
+    }
+
+    @lombok.Value
+    public static class Fused {
+        long id;
+        double score;
+    }
+}
@@ -0,0 +1,397 @@
+package com.weddingmarketplace.search.indexing;
+
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.repository.VendorRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.GetMappingsRequest;
+import org.elasticsearch.client.indices.GetMappingsResponse;
+import org.elasticsearch.cluster.metadata.MappingMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Streaming bulk indexing for the vendor index.
+ *
+ * Vendors are read by keyset ({@code id > lastId}) so every page costs the same, and
+ * written through a {@link BulkProcessor} that flushes on action count, byte size or
+ * interval with a bounded number of bulk requests in flight. Items rejected with 429
+ * are retried with exponential backoff; {@code add} blocks while all slots are busy,
+ * which throttles the database reads to the speed of the cluster.
+ *
+ * A full reindex builds a new versioned index with refresh and replicas disabled,
+ * catches up on vendors changed or deleted while it ran, pass after pass until one
+ * finds nothing new, and then moves the alias to it in one atomic aliases request, so
+ * searches never see a partial index. Writes that reached the old index between the
+ * last pass and the swap are replayed onto the new one before the old one is dropped.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BulkIndexingPipeline {
+
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final Duration CATCH_UP_SKEW = Duration.ofMinutes(1);
+    private static final int MAX_CATCH_UP_PASSES = 10;
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final RestHighLevelClient elasticsearchClient;
+    private final VendorRepository vendorRepository;
+
+    @Value("${app.search.bulk.actions:1000}")
+    private int bulkActions;
+
+    @Value("${app.search.bulk.size-mb:5}")
+    private int bulkSizeMb;
+
+    @Value("${app.search.bulk.flush-interval:5s}")
+    private Duration flushInterval;
+
+    @Value("${app.search.bulk.concurrent-requests:2}")
+    private int concurrentRequests;
+
+    @Value("${app.search.bulk.backoff-initial-delay:100ms}")
+    private Duration backoffInitialDelay;
+
+    @Value("${app.search.bulk.backoff-max-retries:8}")
+    private int backoffMaxRetries;
+
+    @Value("${app.search.bulk.page-size:1000}")
+    private int pageSize;
+
+    @Value("${app.search.bulk.replicas:1}")
+    private int replicas;
+
+    @Value("${app.search.bulk.close-timeout:10m}")
+    private Duration closeTimeout;
+
+    /**
+     * Index an in-memory batch of vendors into {@code indexName}
+     */
+    public IndexingReport indexVendors(String indexName, List<Vendor> vendors,
+                                       Function<Vendor, Map<String, Object>> documentBuilder) {
+        Progress progress = new Progress(indexName, vendors.size());
+        BulkProcessor processor = buildProcessor(progress);
+        try {
+            vendors.forEach(vendor -> processor.add(toIndexRequest(indexName, vendor, documentBuilder)));
+        } finally {
+            close(processor);
+        }
+        return progress.report();
+    }
+
+    /**
+     * Rebuild the index behind {@code alias} from the database without search downtime
+     */
+    public IndexingReport reindexVendors(String alias, Function<Vendor, Map<String, Object>> documentBuilder) throws IOException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        String newIndex = alias + "_v" + VERSION_FORMAT.format(startedAt);
+
+        Set<String> previousIndices = indicesBehind(alias);
+        boolean aliasIsConcreteIndex = previousIndices.isEmpty()
+            && elasticsearchClient.indices().exists(new GetIndexRequest(alias), RequestOptions.DEFAULT);
+        createLoadingIndex(newIndex, aliasIsConcreteIndex || !previousIndices.isEmpty() ? alias : null);
+        log.info("Reindexing {} into {}", alias, newIndex);
+
+        Progress progress = new Progress(newIndex, vendorRepository.count());
+        // Vendor id -> updatedAt of the version catch-up passes last wrote
+        Map<Long, LocalDateTime> caughtUp = new HashMap<>();
+        LocalDateTime lastPassStartedAt;
+        try {
+            streamVendors(newIndex, documentBuilder, progress);
+            // Vendors edited or deleted during the full pass were written to the old index; copy them across too
+            lastPassStartedAt = catchUp(newIndex, startedAt, caughtUp, documentBuilder, progress);
+        } catch (RuntimeException e) {
+            deleteQuietly(newIndex);
+            throw e;
+        }
+
+        if (progress.failed.get() > 0) {
+            deleteQuietly(newIndex);
+            throw new IllegalStateException(String.format("Reindex into %s aborted: %d documents failed",
+                newIndex, progress.failed.get()));
+        }
+
+        finishLoading(newIndex);
+        swapAlias(alias, newIndex, previousIndices, aliasIsConcreteIndex);
+        // Writes since the last pass went through the alias to the old index, which is about to go
+        long failedBeforeSwap = progress.failed.get();
+        streamChanges(newIndex, lastPassStartedAt, caughtUp, documentBuilder, progress);
+        if (progress.failed.get() > failedBeforeSwap) {
+            log.error("{} documents changed during the alias swap failed to reach {} and stay stale until their next update",
+                progress.failed.get() - failedBeforeSwap, newIndex);
+        }
+        for (String previousIndex : previousIndices) {
+            deleteQuietly(previousIndex);
+        }
+
+        IndexingReport report = progress.report();
+        log.info("Reindex of {} complete: {} documents in {} ({} docs/s)", alias,
+            report.getDocumentsIndexed(), report.getDuration(), String.format("%.0f", report.getDocumentsPerSecond()));
+        return report;
+    }
+
+    private void streamVendors(String indexName, Function<Vendor, Map<String, Object>> documentBuilder, Progress progress) {
+        BulkProcessor processor = buildProcessor(progress);
+        try {
+            long lastId = 0L;
+            while (true) {
+                List<Vendor> page = vendorRepository.findIndexingPage(lastId, null, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (Vendor vendor : page) {
+                    processor.add(toIndexRequest(indexName, vendor, documentBuilder));
+                }
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } finally {
+            close(processor);
+        }
+    }
+
+    /**
+     * Replay changes until a pass finds none it has not already written, or the pass limit
+     * is reached; returns when the last pass started
+     */
+    private LocalDateTime catchUp(String indexName, LocalDateTime since, Map<Long, LocalDateTime> caughtUp,
+                                  Function<Vendor, Map<String, Object>> documentBuilder, Progress progress) {
+        LocalDateTime passStartedAt = since;
+        for (int pass = 1; pass <= MAX_CATCH_UP_PASSES; pass++) {
+            LocalDateTime changedSince = passStartedAt;
+            passStartedAt = LocalDateTime.now();
+            long written = streamChanges(indexName, changedSince, caughtUp, documentBuilder, progress);
+            log.info("Catch-up pass {} into {} wrote {} changed vendors", pass, indexName, written);
+            if (written == 0) {
+                return passStartedAt;
+            }
+        }
+        log.warn("Vendors into {} still changing after {} catch-up passes; the post-swap pass takes the rest",
+            indexName, MAX_CATCH_UP_PASSES);
+        return passStartedAt;
+    }
+
+    /**
+     * Write vendors changed since {@code changedSince}, deleting the soft-deleted ones, and
+     * skip versions an earlier pass already wrote; returns how many were written
+     */
+    private long streamChanges(String indexName, LocalDateTime changedSince, Map<Long, LocalDateTime> caughtUp,
+                               Function<Vendor, Map<String, Object>> documentBuilder, Progress progress) {
+        LocalDateTime updatedSince = changedSince.minus(CATCH_UP_SKEW);
+        long written = 0;
+        BulkProcessor processor = buildProcessor(progress);
+        try {
+            long lastId = 0L;
+            while (true) {
+                List<Vendor> page = vendorRepository.findChangedPage(lastId, updatedSince, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (Vendor vendor : page) {
+                    if (Objects.equals(caughtUp.put(vendor.getId(), vendor.getUpdatedAt()), vendor.getUpdatedAt())) {
+                        continue;
+                    }
+                    processor.add(Boolean.TRUE.equals(vendor.getDeleted())
+                        ? new DeleteRequest(indexName, vendor.getId().toString())
+                        : toIndexRequest(indexName, vendor, documentBuilder));
+                    written++;
+                }
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } finally {
+            close(processor);
+        }
+        return written;
+    }
+
+    private BulkProcessor buildProcessor(Progress progress) {
+        return BulkProcessor.builder(
+                (request, listener) -> elasticsearchClient.bulkAsync(request, RequestOptions.DEFAULT, listener),
+                progress)
+            .setBulkActions(bulkActions)
+            .setBulkSize(new ByteSizeValue(bulkSizeMb, ByteSizeUnit.MB))
+            .setFlushInterval(TimeValue.timeValueMillis(flushInterval.toMillis()))
+            .setConcurrentRequests(concurrentRequests)
+            .setBackoffPolicy(BackoffPolicy.exponentialBackoff(
+                TimeValue.timeValueMillis(backoffInitialDelay.toMillis()), backoffMaxRetries))
+            .build();
+    }
+
+    private IndexRequest toIndexRequest(String indexName, Vendor vendor, Function<Vendor, Map<String, Object>> documentBuilder) {
+        return new IndexRequest(indexName)
+            .id(vendor.getId().toString())
+            .source(documentBuilder.apply(vendor), XContentType.JSON);
+    }
+
+    private void close(BulkProcessor processor) {
+        try {
+            if (!processor.awaitClose(closeTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Bulk processor did not drain within {}", closeTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while flushing bulk requests", e);
+        }
+    }
+
+    private Set<String> indicesBehind(String alias) throws IOException {
+        return new HashSet<>(elasticsearchClient.indices()
+            .getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT)
+            .getAliases()
+            .keySet());
+    }
+
+    private void createLoadingIndex(String indexName, String mappingSource) throws IOException {
+        CreateIndexRequest request = new CreateIndexRequest(indexName)
+            .settings(Settings.builder()
+                .put("index.refresh_interval", "-1")
+                .put("index.number_of_replicas", 0));
+
+        if (mappingSource != null) {
+            GetMappingsResponse mappings = elasticsearchClient.indices()
+                .getMapping(new GetMappingsRequest().indices(mappingSource), RequestOptions.DEFAULT);
+            mappings.mappings().values().stream()
+                .findFirst()
+                .map(MappingMetadata::sourceAsMap)
+                .ifPresent(request::mapping);
+        }
+
+        elasticsearchClient.indices().create(request, RequestOptions.DEFAULT);
+    }
+
+    private void finishLoading(String indexName) throws IOException {
+        elasticsearchClient.indices().putSettings(new UpdateSettingsRequest(indexName)
+            .settings(Settings.builder()
+                .put("index.refresh_interval", "1s")
+                .put("index.number_of_replicas", replicas)), RequestOptions.DEFAULT);
+        elasticsearchClient.indices().refresh(new RefreshRequest(indexName), RequestOptions.DEFAULT);
+    }
+
+    private void swapAlias(String alias, String newIndex, Set<String> previousIndices, boolean aliasIsConcreteIndex) throws IOException {
+        IndicesAliasesRequest request = new IndicesAliasesRequest();
+        if (aliasIsConcreteIndex) {
+            // First run after the index was created directly under the alias name
+            request.addAliasAction(AliasActions.removeIndex().index(alias));
+        }
+        for (String previousIndex : previousIndices) {
+            request.addAliasAction(AliasActions.remove().index(previousIndex).alias(alias));
+        }
+        request.addAliasAction(AliasActions.add().index(newIndex).alias(alias));
+
+        elasticsearchClient.indices().updateAliases(request, RequestOptions.DEFAULT);
+        log.info("Alias {} now points to {}", alias, newIndex);
+    }
+
+    private void deleteQuietly(String indexName) {
+        try {
+            elasticsearchClient.indices().delete(new DeleteIndexRequest(indexName), RequestOptions.DEFAULT);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete index {}", indexName, e);
+        }
+    }
+
+    /**
+     * Counts outcomes as bulk responses arrive and logs progress and throughput periodically
+     */
+    private static class Progress implements BulkProcessor.Listener {
+
+        private final String indexName;
+        private final long expectedDocuments;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong indexed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong lastLogNanos = new AtomicLong(startNanos);
+
+        private Progress(String indexName, long expectedDocuments) {
+            this.indexName = indexName;
+            this.expectedDocuments = expectedDocuments;
+        }
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            long failures = 0;
+            if (response.hasFailures()) {
+                for (BulkItemResponse item : response.getItems()) {
+                    if (item.isFailed()) {
+                        failures++;
+                    }
+                }
+                log.warn("Bulk request {} into {} had {} failed items: {}", executionId, indexName,
+                    failures, response.buildFailureMessage());
+            }
+            indexed.addAndGet(request.numberOfActions() - failures);
+            failed.addAndGet(failures);
+            logProgress();
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            log.error("Bulk request {} into {} failed after retries", executionId, indexName, failure);
+            failed.addAndGet(request.numberOfActions());
+        }
+
+        private void logProgress() {
+            long now = System.nanoTime();
+            long last = lastLogNanos.get();
+            if (now - last < PROGRESS_LOG_INTERVAL_NANOS || !lastLogNanos.compareAndSet(last, now)) {
+                return;
+            }
+            long done = indexed.get();
+            double seconds = (now - startNanos) / 1e9;
+            log.info("Indexing {}: {}/{} documents ({} failed), {} docs/s", indexName, done, expectedDocuments,
+                failed.get(), String.format("%.0f", done / Math.max(seconds, 0.001)));
+        }
+
+        private IndexingReport report() {
+            return IndexingReport.builder()
+                .indexName(indexName)
+                .documentsIndexed(indexed.get())
+                .documentsFailed(failed.get())
+                .duration(Duration.ofNanos(System.nanoTime() - startNanos))
+                .build();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.weddingmarketplace.search.indexing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a bulk indexing or reindex run
+ *
+ * @author Wedding Marketplace Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexingReport {
+
+    private String indexName;
+    private long documentsIndexed;
+    private long documentsFailed;
+    private Duration duration;
+
+    public double getDocumentsPerSecond() {
+        long millis = duration != null ? duration.toMillis() : 0;
+        return millis > 0 ? documentsIndexed * 1000.0 / millis : documentsIndexed;
+    }
+
+    public boolean isSuccessful() {
+        return documentsFailed == 0;
+    }
+}
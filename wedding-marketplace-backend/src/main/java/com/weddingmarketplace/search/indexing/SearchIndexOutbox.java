@@ -0,0 +1,88 @@
+package com.weddingmarketplace.search.indexing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to the {@code search_index_outbox} table.
+ *
+ * Rows are written in the caller's transaction, so an index update is recorded if
+ * and only if the vendor change commits, and deleted once Elasticsearch has the
+ * new document.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchIndexOutbox {
+
+    private static final String RECORD_SQL = """
+        INSERT INTO search_index_outbox (vendor_id, version, created_at)
+        VALUES (?, 1, CURRENT_TIMESTAMP(3))
+        ON DUPLICATE KEY UPDATE version = version + 1
+        """;
+
+    private static final String VERSIONS_SQL =
+        "SELECT vendor_id, version FROM search_index_outbox WHERE vendor_id IN (:vendorIds)";
+
+    private static final String PENDING_SQL = """
+        SELECT vendor_id FROM search_index_outbox
+        WHERE created_at < CURRENT_TIMESTAMP(3) - INTERVAL ? MICROSECOND
+        ORDER BY created_at
+        LIMIT ?
+        """;
+
+    private static final String ACKNOWLEDGE_SQL =
+        "DELETE FROM search_index_outbox WHERE vendor_id = ? AND version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public void record(Long vendorId) {
+        jdbcTemplate.update(RECORD_SQL, vendorId);
+    }
+
+    /**
+     * Current outbox version per vendor; vendors without a row are absent
+     */
+    public Map<Long, Long> versions(Collection<Long> vendorIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        if (vendorIds.isEmpty()) {
+            return versions;
+        }
+        namedParameterJdbcTemplate.query(VERSIONS_SQL, new MapSqlParameterSource("vendorIds", vendorIds),
+            rs -> {
+                versions.put(rs.getLong("vendor_id"), rs.getLong("version"));
+            });
+        return versions;
+    }
+
+    /**
+     * Vendors whose update has been waiting longer than {@code minAge}, oldest first
+     */
+    public List<Long> pending(Duration minAge, int limit) {
+        return jdbcTemplate.queryForList(PENDING_SQL, Long.class, minAge.toNanos() / 1000, limit);
+    }
+
+    /**
+     * Remove rows whose version has not moved since it was read
+     */
+    public void acknowledge(Map<Long, Long> versions) {
+        if (versions.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = versions.entrySet().stream()
+            .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+            .toList();
+        jdbcTemplate.batchUpdate(ACKNOWLEDGE_SQL, args);
+    }
+}
@@ -0,0 +1,57 @@
+package com.weddingmarketplace.search.indexing;
+
+import com.weddingmarketplace.model.entity.Vendor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the Elasticsearch source document for a vendor; shared by single-document
+ * writes, the index update queue and bulk reindexing so they cannot drift apart
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+public class VendorDocumentBuilder {
+
+    public Map<String, Object> build(Vendor vendor) {
+        Map<String, Object> doc = new HashMap<>();
+        doc.put("id", vendor.getId());
+        doc.put("businessName", vendor.getBusinessName());
+        doc.put("description", vendor.getDescription());
+        doc.put("categoryId", vendor.getCategory().getId());
+        doc.put("businessCity", vendor.getBusinessCity());
+        doc.put("businessState", vendor.getBusinessState());
+        doc.put("averageRating", vendor.getAverageRating());
+        doc.put("totalReviews", vendor.getTotalReviews());
+        doc.put("totalBookings", vendor.getTotalBookings());
+        doc.put("featured", vendor.getFeatured());
+        doc.put("verified", vendor.getVerificationStatus() == Vendor.VerificationStatus.VERIFIED);
+        doc.put("instantBookingEnabled", vendor.getInstantBookingEnabled());
+        doc.put("status", vendor.getStatus().name());
+        doc.put("deleted", vendor.getDeleted());
+        doc.put("createdAt", vendor.getCreatedAt());
+
+        // Add location for geo queries
+        if (vendor.getLatitude() != null && vendor.getLongitude() != null) {
+            Map<String, Double> location = new HashMap<>();
+            location.put("lat", vendor.getLatitude());
+            location.put("lon", vendor.getLongitude());
+            doc.put("location", location);
+        }
+
+        // Add suggest field for autocomplete
+        List<String> suggestions = new ArrayList<>();
+        suggestions.add(vendor.getBusinessName());
+        if (vendor.getServicesOffered() != null) {
+            suggestions.addAll(Arrays.asList(vendor.getServicesOffered().split(",")));
+        }
+        doc.put("suggest", suggestions);
+
+        return doc;
+    }
+}
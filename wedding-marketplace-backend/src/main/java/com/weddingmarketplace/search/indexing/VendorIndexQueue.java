@@ -0,0 +1,254 @@
+package com.weddingmarketplace.search.indexing;
+
+import com.weddingmarketplace.analytics.rollup.VendorStatsRollup;
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.search.availability.VendorAvailabilityIndex;
+import com.weddingmarketplace.search.geo.VendorGeoIndex;
+import com.weddingmarketplace.search.vector.VendorVectorIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Coalescing queue of vendor search index updates.
+ *
+ * Only vendor ids are queued: the document is rebuilt from the database when the
+ * batch is flushed, so five edits in a second cost one write carrying the latest
+ * state. Batches go out as a single bulk request on the bounded indexing executor.
+ *
+ * Every update is first recorded in {@link SearchIndexOutbox} within the caller's
+ * transaction and only queued in memory once that transaction commits. A row is
+ * removed after Elasticsearch acknowledges the document, and a periodic relay
+ * re-queues rows that have waited too long, so updates survive crashes and restarts.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VendorIndexQueue {
+
+    private static final String VENDOR_INDEX = "vendors";
+
+    private final RestHighLevelClient elasticsearchClient;
+    private final VendorRepository vendorRepository;
+    private final VendorDocumentBuilder vendorDocumentBuilder;
+    private final SearchIndexOutbox searchIndexOutbox;
+    private final VendorVectorIndex vendorVectorIndex;
+    private final VendorGeoIndex vendorGeoIndex;
+    private final VendorAvailabilityIndex vendorAvailabilityIndex;
+    private final VendorStatsRollup vendorStatsRollup;
+    private final Executor searchIndexingExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.search.index-queue.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.search.index-queue.relay-delay:30s}")
+    private Duration relayDelay;
+
+    // Vendor id -> nanoTime of the oldest update not yet in the index
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private Timer flushTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("search.index.queue.depth", pending, Map::size)
+            .register(meterRegistry);
+        Gauge.builder("search.index.queue.lag", this, queue -> queue.oldestPendingAge().toMillis() / 1000.0)
+            .description("Age in seconds of the oldest update not yet indexed")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        flushTimer = Timer.builder("search.index.queue.flush")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    /**
+     * Schedule a vendor for (re)indexing once the current transaction commits
+     */
+    public void enqueue(Long vendorId) {
+        searchIndexOutbox.record(vendorId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(vendorId, System.nanoTime());
+                }
+            });
+        } else {
+            offer(vendorId, System.nanoTime());
+        }
+    }
+
+    public Duration oldestPendingAge() {
+        long now = System.nanoTime();
+        long oldest = now;
+        for (long enqueuedAt : pending.values()) {
+            if (enqueuedAt - oldest < 0) {
+                oldest = enqueuedAt;
+            }
+        }
+        return Duration.ofNanos(now - oldest);
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.index-queue.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if (!pending.isEmpty()) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Re-queue outbox rows that no node has delivered, e.g. after a crash before flushing
+     */
+    @Scheduled(fixedDelayString = "${app.search.index-queue.relay-interval-ms:30000}")
+    public void relayStaleOutboxEntries() {
+        List<Long> stale = searchIndexOutbox.pending(relayDelay, batchSize * 10);
+        if (!stale.isEmpty()) {
+            log.info("Re-queueing {} undelivered search index updates from the outbox", stale.size());
+            long now = System.nanoTime();
+            stale.forEach(vendorId -> pending.putIfAbsent(vendorId, now));
+            requestFlush();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void relayOnStartup() {
+        List<Long> undelivered = searchIndexOutbox.pending(Duration.ZERO, Integer.MAX_VALUE);
+        if (!undelivered.isEmpty()) {
+            log.info("Replaying {} undelivered search index updates", undelivered.size());
+            long now = System.nanoTime();
+            undelivered.forEach(vendorId -> pending.putIfAbsent(vendorId, now));
+            requestFlush();
+        }
+    }
+
+    private void offer(Long vendorId, long enqueuedAt) {
+        // Keep the first timestamp: lag is measured from the oldest unindexed change
+        pending.putIfAbsent(vendorId, enqueuedAt);
+        vendorVectorIndex.enqueue(vendorId);
+        vendorGeoIndex.enqueue(vendorId);
+        vendorAvailabilityIndex.enqueue(vendorId);
+        vendorStatsRollup.enqueue(vendorId);
+        if (pending.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    private void requestFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            searchIndexingExecutor.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            // The outbox still holds these updates; the next tick or relay retries
+            flushScheduled.set(false);
+            log.warn("Search indexing executor saturated, deferring {} index updates", pending.size());
+        }
+    }
+
+    private void flush() {
+        try {
+            boolean delivered = true;
+            while (delivered && !pending.isEmpty()) {
+                Map<Long, Long> batch = takeBatch();
+                // Stop on failure instead of spinning; the next tick retries
+                delivered = flushTimer.record(() -> indexBatch(batch));
+            }
+        } finally {
+            flushScheduled.set(false);
+        }
+    }
+
+    private Map<Long, Long> takeBatch() {
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        Iterator<Map.Entry<Long, Long>> entries = pending.entrySet().iterator();
+        while (entries.hasNext() && batch.size() < batchSize) {
+            Map.Entry<Long, Long> entry = entries.next();
+            Long enqueuedAt = pending.remove(entry.getKey());
+            if (enqueuedAt != null) {
+                batch.put(entry.getKey(), enqueuedAt);
+            }
+        }
+        return batch;
+    }
+
+    private boolean indexBatch(Map<Long, Long> batch) {
+        // Versions are read before the vendors, so a change committed after this point keeps its outbox row
+        Map<Long, Long> versions = searchIndexOutbox.versions(batch.keySet());
+        Map<Long, Vendor> vendors = vendorRepository.findAllById(batch.keySet()).stream()
+            .collect(Collectors.toMap(Vendor::getId, Function.identity()));
+
+        BulkRequest request = new BulkRequest();
+        List<Long> order = new ArrayList<>(batch.keySet());
+        for (Long vendorId : order) {
+            Vendor vendor = vendors.get(vendorId);
+            if (vendor == null || Boolean.TRUE.equals(vendor.getDeleted())) {
+                request.add(new DeleteRequest(VENDOR_INDEX, vendorId.toString()));
+            } else {
+                request.add(new IndexRequest(VENDOR_INDEX)
+                    .id(vendorId.toString())
+                    .source(vendorDocumentBuilder.build(vendor), XContentType.JSON));
+            }
+        }
+
+        try {
+            BulkResponse response = elasticsearchClient.bulk(request, RequestOptions.DEFAULT);
+            BulkItemResponse[] items = response.getItems();
+            boolean allDelivered = true;
+            for (int i = 0; i < items.length; i++) {
+                if (items[i].isFailed()) {
+                    Long vendorId = order.get(i);
+                    log.warn("Indexing vendor {} failed: {}", vendorId, items[i].getFailureMessage());
+                    versions.remove(vendorId);
+                    pending.putIfAbsent(vendorId, batch.get(vendorId));
+                    allDelivered = false;
+                }
+            }
+            searchIndexOutbox.acknowledge(versions);
+            log.debug("Indexed {} vendor updates", batch.size());
+            return allDelivered;
+        } catch (IOException | RuntimeException e) {
+            log.error("Bulk index of {} vendor updates failed, will retry", batch.size(), e);
+            batch.forEach(pending::putIfAbsent);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.weddingmarketplace.search.paging;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paged listing. {@code nextCursor} is passed back to fetch the
+ * following page and is null on the last one; there is no total count, which is what
+ * keeps deep pages as cheap as the first.
+ *
+ * @author Wedding Marketplace Team
+ */
+@lombok.Value
+public class CursorPage<T> {
+
+    List<T> items;
+
+    int size;
+
+    String nextCursor;
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
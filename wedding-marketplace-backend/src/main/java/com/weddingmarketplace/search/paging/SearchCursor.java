@@ -0,0 +1,76 @@
+package com.weddingmarketplace.search.paging;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weddingmarketplace.exception.BadRequestException;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Opaque position in a sorted result list, handed to clients as the next-page token.
+ *
+ * Holds the sort values of the last row served (the keyset, always ending with the id
+ * as tie-breaker), the fingerprint of the filters and sort it was issued for, and for
+ * Elasticsearch the point-in-time id the listing reads from. The token is URL-safe
+ * Base64 of a small JSON object; clients must treat it as opaque.
+ *
+ * A cursor only continues the listing it came from: decoding against a different
+ * fingerprint is rejected, so changing a filter or the sort restarts from the top
+ * instead of silently skipping or repeating rows.
+ *
+ * @author Wedding Marketplace Team
+ */
+@lombok.Value
+public class SearchCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> FIELDS = new TypeReference<>() {};
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    /** Fingerprint of the filters and sort the cursor belongs to */
+    String scope;
+    /** Sort values of the last row served, in sort order */
+    List<Object> after;
+    /** Elasticsearch point-in-time id, null for database listings */
+    String pointInTimeId;
+
+    public String encode() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("s", scope);
+        fields.put("a", after);
+        if (pointInTimeId != null) {
+            fields.put("p", pointInTimeId);
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(fields));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    /**
+     * Decode a client token, accepting it only for the listing identified by {@code expectedScope}
+     */
+    public static SearchCursor decode(String token, String expectedScope) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+        Map<String, Object> fields;
+        try {
+            fields = MAPPER.readValue(Base64.getUrlDecoder().decode(token), FIELDS);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+
+        if (!(fields.get("s") instanceof String scope) || !(fields.get("a") instanceof List<?> after) || after.isEmpty()) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+        if (!scope.equals(expectedScope)) {
+            throw new BadRequestException("Page cursor does not match the search filters or sort");
+        }
+        Object pointInTimeId = fields.get("p");
+        return new SearchCursor(scope, Collections.unmodifiableList(new ArrayList<>(after)),
+            pointInTimeId instanceof String ? (String) pointInTimeId : null);
+    }
+}
@@ -0,0 +1,140 @@
+package com.weddingmarketplace.search.paging;
+
+import com.weddingmarketplace.exception.BadRequestException;
+import com.weddingmarketplace.model.entity.Vendor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over vendors for one sort of the search API.
+ *
+ * Rows are ordered by (sort key, id), both in the requested direction, so the position
+ * after the last row served is just its two values and the next page is a range scan of
+ * the (..., sort key, id) index from there, whatever the depth. OFFSET, by contrast,
+ * reads and discards every earlier row.
+ *
+ * Database listings have no relevance score, so relevance and distance fall back to
+ * rating, the same default order the offset listing uses. A nullable key (price) is
+ * treated as lower than every value, which is how MySQL orders NULLs.
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class VendorKeyset {
+
+    private final String attribute;
+    private final Sort.Direction direction;
+    private final boolean nullable;
+    private final Function<Vendor, Comparable<?>> extractor;
+    private final Function<String, Comparable<?>> parser;
+
+    private VendorKeyset(String attribute, Sort.Direction direction, boolean nullable,
+                         Function<Vendor, Comparable<?>> extractor, Function<String, Comparable<?>> parser) {
+        this.attribute = attribute;
+        this.direction = direction;
+        this.nullable = nullable;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    /**
+     * Keyset for the {@code sortBy} / {@code sortDirection} of a vendor search request
+     */
+    public static VendorKeyset of(String sortBy, String sortDirection) {
+        Sort.Direction direction = "asc".equalsIgnoreCase(sortDirection) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        String sort = sortBy != null ? sortBy.toLowerCase(Locale.ROOT) : "relevance";
+        return switch (sort) {
+            case "price" -> new VendorKeyset("priceRangeMin", direction, true, Vendor::getPriceRangeMin, BigDecimal::new);
+            case "popularity" -> new VendorKeyset("totalBookings", direction, false, Vendor::getTotalBookings, Integer::valueOf);
+            case "newest" -> new VendorKeyset("createdAt", direction, false, Vendor::getCreatedAt, LocalDateTime::parse);
+            case "reviews" -> new VendorKeyset("totalReviews", direction, false, Vendor::getTotalReviews, Integer::valueOf);
+            case "rating" -> new VendorKeyset("averageRating", direction, false, Vendor::getAverageRating, BigDecimal::new);
+            // No score in the database: relevance and distance list by rating, best first
+            default -> new VendorKeyset("averageRating", Sort.Direction.DESC, false, Vendor::getAverageRating, BigDecimal::new);
+        };
+    }
+
+    /**
+     * Page order: the sort key, then the id as a unique tie-breaker
+     */
+    public Sort sort() {
+        return Sort.by(direction, attribute).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Cursor values of a row: its sort key (as text, null kept) and its id
+     */
+    public List<Object> valuesOf(Vendor vendor) {
+        Comparable<?> key = extractor.apply(vendor);
+        String text = key instanceof BigDecimal decimal ? decimal.toPlainString() : key != null ? key.toString() : null;
+        return Arrays.asList(text, vendor.getId());
+    }
+
+    /**
+     * Rows strictly after the row whose cursor values are {@code after}
+     */
+    public Specification<Vendor> after(List<Object> after) {
+        if (after.size() != 2 || !(after.get(1) instanceof Number lastId)) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+        Comparable<?> lastKey = parse(after.get(0));
+        long id = lastId.longValue();
+
+        return (root, query, criteriaBuilder) -> {
+            Path<Comparable<Object>> key = root.get(attribute);
+            Path<Long> idPath = root.get("id");
+            boolean descending = direction.isDescending();
+
+            if (lastKey == null) {
+                // Among the NULL keys, which sort lowest
+                Predicate sameKey = criteriaBuilder.and(criteriaBuilder.isNull(key), idBeyond(criteriaBuilder, idPath, id, descending));
+                return descending ? sameKey : criteriaBuilder.or(sameKey, criteriaBuilder.isNotNull(key));
+            }
+
+            // key <= last AND (key < last OR id < lastId) for descending, mirrored for ascending;
+            // the outer bound keeps the index range tight
+            Predicate bounded = criteriaBuilder.and(
+                keyBeyond(criteriaBuilder, key, lastKey, descending, false),
+                criteriaBuilder.or(keyBeyond(criteriaBuilder, key, lastKey, descending, true),
+                    idBeyond(criteriaBuilder, idPath, id, descending)));
+            return nullable && descending ? criteriaBuilder.or(bounded, criteriaBuilder.isNull(key)) : bounded;
+        };
+    }
+
+    private Comparable<?> parse(Object value) {
+        if (value == null) {
+            if (!nullable) {
+                throw new BadRequestException("Invalid page cursor");
+            }
+            return null;
+        }
+        try {
+            return parser.apply(value.toString());
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate keyBeyond(CriteriaBuilder criteriaBuilder, Path<Comparable<Object>> key, Comparable value,
+                                       boolean descending, boolean strict) {
+        if (descending) {
+            return strict ? criteriaBuilder.lessThan((Path) key, value) : criteriaBuilder.lessThanOrEqualTo((Path) key, value);
+        }
+        return strict ? criteriaBuilder.greaterThan((Path) key, value) : criteriaBuilder.greaterThanOrEqualTo((Path) key, value);
+    }
+
+    private static Predicate idBeyond(CriteriaBuilder criteriaBuilder, Path<Long> id, long lastId, boolean descending) {
+        return descending ? criteriaBuilder.lessThan(id, lastId) : criteriaBuilder.greaterThan(id, lastId);
+    }
+}
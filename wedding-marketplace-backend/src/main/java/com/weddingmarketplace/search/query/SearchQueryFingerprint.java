@@ -0,0 +1,317 @@
+package com.weddingmarketplace.search.query;
+
+import com.weddingmarketplace.model.dto.request.VendorSearchRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Canonical, collision-resistant fingerprint of a vendor search.
+ *
+ * Every field that can change the result set is normalized (trimmed, lower-cased,
+ * de-duplicated and sorted where order carries no meaning, decimals stripped of
+ * trailing zeros, coordinates snapped to a grid cell) and written in a fixed order
+ * before being hashed with 128-bit MurmurHash3. Two requests that select the same
+ * vendors therefore share a key regardless of list order or number formatting,
+ * while requests that differ in any filter do not. Telemetry and cache-control
+ * fields (user agent, referrer, UTM parameters, TTL overrides) are deliberately left out.
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class SearchQueryFingerprint {
+
+    /** Bumped whenever the canonical form changes so old entries are never misread */
+    private static final String VERSION = "v1";
+
+    /** Coordinates are snapped to 1/1000 of a degree, roughly 110 m at the equator */
+    private static final double GEO_CELLS_PER_DEGREE = 1_000d;
+
+    /** Radius and fuzziness are compared at 0.1 precision */
+    private static final double TENTHS = 10d;
+
+    private SearchQueryFingerprint() {
+    }
+
+    /**
+     * Fingerprint of the filters alone, as 32 lower-case hex characters
+     */
+    public static String of(VendorSearchRequest request) {
+        return hash(canonicalForm(request, null));
+    }
+
+    /**
+     * Fingerprint of the filters together with the requested page, size and sort
+     */
+    public static String of(VendorSearchRequest request, Pageable pageable) {
+        return hash(canonicalForm(request, pageable));
+    }
+
+    /**
+     * Fingerprint of a global search: the query text, the page, and the indices searched
+     * with the number of hits requested from each
+     */
+    public static String ofGlobal(String query, Map<String, Integer> sizeByIndex, int page) {
+        Map<String, String> fields = new TreeMap<>();
+        put(fields, "query", text(query));
+        put(fields, "sizes", value(sizeByIndex));
+        put(fields, "page", page);
+        return hash(canonical("global-" + VERSION, fields));
+    }
+
+    static String canonicalForm(VendorSearchRequest request, Pageable pageable) {
+        Map<String, String> fields = new TreeMap<>();
+
+        put(fields, "keyword", text(request.getKeyword()));
+        put(fields, "categoryId", request.getCategoryId());
+        put(fields, "city", text(request.getCity()));
+        put(fields, "state", text(request.getState()));
+        put(fields, "country", text(request.getCountry()));
+
+        put(fields, "latCell", snap(request.getLatitude(), GEO_CELLS_PER_DEGREE));
+        put(fields, "lonCell", snap(request.getLongitude(), GEO_CELLS_PER_DEGREE));
+        put(fields, "radius", snap(request.getRadius(), TENTHS));
+
+        put(fields, "minPrice", decimal(request.getMinPrice()));
+        put(fields, "maxPrice", decimal(request.getMaxPrice()));
+        put(fields, "currency", request.getCurrency() != null ? request.getCurrency().trim().toUpperCase(Locale.ROOT) : null);
+        put(fields, "minRating", decimal(request.getMinRating()));
+        put(fields, "maxRating", decimal(request.getMaxRating()));
+        put(fields, "minReviews", request.getMinReviews());
+
+        put(fields, "featured", request.getFeatured());
+        put(fields, "premium", request.getPremium());
+        put(fields, "verified", request.getVerified());
+        put(fields, "instantBooking", request.getInstantBooking());
+        put(fields, "minExperience", request.getMinExperience());
+        put(fields, "minTeamSize", request.getMinTeamSize());
+        put(fields, "maxTeamSize", request.getMaxTeamSize());
+        put(fields, "minResponseRate", decimal(request.getMinResponseRate()));
+        put(fields, "maxResponseTime", request.getMaxResponseTime());
+
+        put(fields, "eventDate", request.getEventDate());
+        put(fields, "eventTime", text(request.getEventTime()));
+        put(fields, "availableDates", textSet(request.getAvailableDates()));
+
+        put(fields, "services", textSet(request.getServices()));
+        put(fields, "specializations", textSet(request.getSpecializations()));
+        put(fields, "languages", textSet(request.getLanguages()));
+        put(fields, "tags", textSet(request.getTags()));
+        put(fields, "customFilters", value(request.getCustomFilters()));
+
+        put(fields, "sortBy", text(request.getSortBy()));
+        put(fields, "sortDirection", text(request.getSortDirection()));
+        put(fields, "multipleSorts", sorts(request.getMultipleSorts()));
+
+        put(fields, "fuzzySearch", flag(request.getFuzzySearch(), false));
+        put(fields, "fuzziness", snap(request.getFuzziness(), TENTHS));
+        put(fields, "includeInactive", flag(request.getIncludeInactive(), false));
+        put(fields, "boostPopular", flag(request.getBoostPopular(), true));
+        put(fields, "personalizeResults", flag(request.getPersonalizeResults(), true));
+        put(fields, "explainScoring", flag(request.getExplainScoring(), false));
+
+        put(fields, "experimentId", text(request.getExperimentId()));
+        put(fields, "variant", text(request.getVariant()));
+
+        put(fields, "facets", textSet(request.getFacets()));
+        put(fields, "includeFacets", request.getIncludeFacets());
+        put(fields, "maxFacetValues", request.getMaxFacetValues());
+
+        if (pageable != null && pageable.isPaged()) {
+            put(fields, "page", pageable.getPageNumber());
+            put(fields, "size", pageable.getPageSize());
+        }
+        if (pageable != null && pageable.getSort().isSorted()) {
+            put(fields, "pageSort", pageSort(pageable.getSort()));
+        }
+
+        return canonical(VERSION, fields);
+    }
+
+    private static String canonical(String version, Map<String, String> fields) {
+        // Length-prefix every value so no combination of values can spell another
+        StringBuilder canonical = new StringBuilder(version);
+        fields.forEach((name, value) -> canonical.append(';').append(name).append('=')
+            .append(value.length()).append(':').append(value));
+        return canonical.toString();
+    }
+
+    // Normalization helpers
+
+    private static void put(Map<String, String> fields, String name, Object value) {
+        if (value != null) {
+            fields.put(name, value.toString());
+        }
+    }
+
+    private static String text(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static String textSet(Collection<String> values) {
+        if (values == null) {
+            return null;
+        }
+        SortedSet<String> normalized = new TreeSet<>();
+        for (String value : values) {
+            String text = text(value);
+            if (text != null) {
+                normalized.add(text);
+            }
+        }
+        return normalized.isEmpty() ? null : String.join(",", normalized);
+    }
+
+    private static String decimal(BigDecimal value) {
+        return value != null ? value.stripTrailingZeros().toPlainString() : null;
+    }
+
+    private static Long snap(Double value, double cellsPerUnit) {
+        return value != null ? Math.round(value * cellsPerUnit) : null;
+    }
+
+    private static Boolean flag(Boolean value, boolean defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static String sorts(List<VendorSearchRequest.SortCriteria> criteria) {
+        if (criteria == null || criteria.isEmpty()) {
+            return null;
+        }
+        // Sort precedence is meaningful, so the original order is kept
+        StringJoiner joiner = new StringJoiner(",");
+        for (VendorSearchRequest.SortCriteria sort : criteria) {
+            joiner.add(text(sort.getField()) + " " + text(sort.getDirection()) + " "
+                + snap(sort.getBoost(), TENTHS) + " " + value(sort.getParameters()));
+        }
+        return joiner.toString();
+    }
+
+    private static String pageSort(Sort sort) {
+        StringJoiner joiner = new StringJoiner(",");
+        sort.forEach(order -> joiner.add(order.getProperty() + " " + order.getDirection().name().toLowerCase(Locale.ROOT)));
+        return joiner.toString();
+    }
+
+    /**
+     * Order-independent rendering of free-form filter values (maps by key, collections as sets)
+     */
+    private static String value(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Map<?, ?> map) {
+            if (map.isEmpty()) {
+                return null;
+            }
+            Map<String, String> sorted = new TreeMap<>();
+            map.forEach((key, nested) -> sorted.put(String.valueOf(key).trim().toLowerCase(Locale.ROOT), value(nested)));
+            StringJoiner joiner = new StringJoiner(",", "{", "}");
+            sorted.forEach((key, nested) -> joiner.add(key + "=" + nested));
+            return joiner.toString();
+        }
+        if (value instanceof Collection<?> collection) {
+            SortedSet<String> sorted = new TreeSet<>();
+            collection.forEach(nested -> sorted.add(String.valueOf(value(nested))));
+            return "[" + String.join(",", sorted) + "]";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal(decimal);
+        }
+        if (value instanceof String string) {
+            return text(string);
+        }
+        return value.toString();
+    }
+
+    // Hashing
+
+    /**
+     * Hex of the two 64-bit halves of the digest, h1 first
+     */
+    static String hash(String canonical) {
+        long[] hash = murmur3x64128(canonical.getBytes(StandardCharsets.UTF_8));
+        return String.format("%016x%016x", hash[0], hash[1]);
+    }
+
+    /**
+     * MurmurHash3 x64 128-bit variant with a zero seed
+     */
+    private static long[] murmur3x64128(byte[] data) {
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        long h1 = 0;
+        long h2 = 0;
+
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        int blocks = data.length / 16;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = buffer.getLong(i * 16);
+            long k2 = buffer.getLong(i * 16 + 8);
+
+            h1 ^= mixK1(k1, c1, c2);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2, c1, c2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int tail = blocks * 16;
+        int remaining = data.length & 15;
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = remaining - 1; i >= 0; i--) {
+            long b = data[tail + i] & 0xffL;
+            if (i >= 8) {
+                k2 ^= b << ((i - 8) * 8);
+            } else {
+                k1 ^= b << (i * 8);
+            }
+        }
+        if (remaining > 8) {
+            h2 ^= mixK2(k2, c1, c2);
+        }
+        if (remaining > 0) {
+            h1 ^= mixK1(k1, c1, c2);
+        }
+
+        h1 ^= data.length;
+        h2 ^= data.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[] {h1, h2};
+    }
+
+    private static long mixK1(long k1, long c1, long c2) {
+        return Long.rotateLeft(k1 * c1, 31) * c2;
+    }
+
+    private static long mixK2(long k2, long c1, long c2) {
+        return Long.rotateLeft(k2 * c2, 33) * c1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -1,11 +1,12 @@
 package com.weddingmarketplace.search.service;
 
 import com.weddingmarketplace.service.CacheService;
-import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.search.suggest.AutocompleteIndex;
+import com.weddingmarketplace.search.suggest.CompletionIndex;
+import com.weddingmarketplace.search.suggest.PrefixSuggestionIndex;
+import com.weddingmarketplace.search.trending.TrendingQueryTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
 import org.springframework.scheduling.annotation.Async;
 
@@ -17,7 +18,7 @@ import java.util.concurrent.CompletableFuture;
 
 /**
  * Real-time search suggestions service with autocomplete, trending queries,
- * and intelligent query completion using trie data structures and analytics
+ * and intelligent query completion using a precomputed completion index and analytics
  * 
  * @author Wedding Marketplace Team
  */
@@ -27,21 +28,15 @@ import java.util.concurrent.CompletableFuture;
 public class RealTimeSearchSuggestionsService {
 
     private final CacheService cacheService;
-    private final VendorRepository vendorRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final SearchAnalyticsService searchAnalyticsService;
     private final NaturalLanguageProcessingService nlpService;
+    private final AutocompleteIndex autocompleteIndex;
+    private final PrefixSuggestionIndex prefixSuggestionIndex;
+    private final TrendingQueryTracker trendingQueryTracker;
 
     private static final String SUGGESTIONS_CACHE_PREFIX = "suggestions:";
-    private static final String QUERY_FREQUENCY_KEY = "query_frequency";
-    private static final String TRENDING_QUERIES_KEY = "trending_queries";
-    private static final String USER_QUERIES_PREFIX = "user_queries:";
     private static final Duration CACHE_DURATION = Duration.ofMinutes(30);
     private static final int MAX_SUGGESTIONS = 10;
 
-    // Trie data structure for efficient prefix matching
-    private final TrieNode suggestionTrie = new TrieNode();
-
     /**
      * Get real-time autocomplete suggestions for partial query
      */
@@ -108,31 +103,15 @@ public class RealTimeSearchSuggestionsService {
         }
         
         try {
-            // Get trending queries from Redis sorted set
-            Set<ZSetOperations.TypedTuple<Object>> trendingSet = redisTemplate.opsForZSet()
-                .reverseRangeWithScores(TRENDING_QUERIES_KEY, 0, maxQueries - 1);
-            
+            // Merged heavy-hitter sketches of all nodes, with short vs long horizon momentum
             List<TrendingQuery> trendingQueries = new ArrayList<>();
-            
-            if (trendingSet != null) {
-                for (ZSetOperations.TypedTuple<Object> tuple : trendingSet) {
-                    String query = (String) tuple.getValue();
-                    Double score = tuple.getScore();
-                    
-                    if (query != null && score != null) {
-                        // Calculate trend momentum
-                        double momentum = calculateTrendMomentum(query, timeWindow);
-                        
-                        TrendingQuery trendingQuery = TrendingQuery.builder()
-                            .query(query)
-                            .frequency(score.longValue())
-                            .momentum(momentum)
-                            .category(categorizeQuery(query))
-                            .build();
-                        
-                        trendingQueries.add(trendingQuery);
-                    }
-                }
+            for (TrendingQueryTracker.Trend trend : trendingQueryTracker.trending(timeWindow, maxQueries)) {
+                trendingQueries.add(TrendingQuery.builder()
+                    .query(trend.getQuery())
+                    .frequency(trend.getFrequency())
+                    .momentum(trend.getMomentum())
+                    .category(categorizeQuery(trend.getQuery()))
+                    .build());
             }
             
             // Sort by momentum and frequency
@@ -164,19 +143,14 @@ public class RealTimeSearchSuggestionsService {
         try {
             String normalizedQuery = normalizeQuery(query);
             
-            // Update query frequency
-            updateQueryFrequency(normalizedQuery);
+            // Update query frequency, its prefix index and the user's query history
+            prefixSuggestionIndex.record(normalizedQuery, userId);
             
-            // Update trending queries
-            updateTrendingQueries(normalizedQuery);
+            // Count in this node's trending sketch; published to Redis periodically
+            trendingQueryTracker.record(normalizedQuery);
             
-            // Update user query history
-            if (userId != null) {
-                updateUserQueryHistory(userId, normalizedQuery);
-            }
-            
-            // Update suggestion trie
-            updateSuggestionTrie(normalizedQuery);
+            // Count towards the next autocomplete index rebuild
+            autocompleteIndex.record(normalizedQuery);
             
             // Extract and record query terms
             recordQueryTerms(normalizedQuery);
@@ -198,7 +172,7 @@ public class RealTimeSearchSuggestionsService {
         try {
             String normalizedQuery = normalizeQuery(partialQuery);
             
-            // Get completions from trie
+            // Get completions from the autocomplete index
             List<String> trieCompletions = getTrieCompletions(normalizedQuery, maxCompletions);
             
             // Get popular completions from analytics
@@ -240,7 +214,7 @@ public class RealTimeSearchSuggestionsService {
             
             // Filter and rank suggestions based on category relevance
             List<SearchSuggestion> suggestions = categoryTerms.stream()
-                .filter(term -> term.toLowerCase().contains(partialQuery.toLowerCase()))
+                .filter(term -> term.toLowerCase(Locale.ROOT).contains(partialQuery.toLowerCase(Locale.ROOT)))
                 .map(term -> SearchSuggestion.builder()
                     .text(term)
                     .type(SuggestionType.CATEGORY_SPECIFIC)
@@ -262,44 +236,11 @@ public class RealTimeSearchSuggestionsService {
         }
     }
 
-    /**
-     * Initialize suggestion system with existing data
-     */
-    @Async("suggestionsExecutor")
-    public CompletableFuture<Void> initializeSuggestionSystem() {
-        log.info("Initializing suggestion system");
-        
-        try {
-            // Load popular queries from analytics
-            List<String> popularQueries = searchAnalyticsService.getPopularQueries(Duration.ofDays(30), 1000);
-            
-            // Build suggestion trie
-            for (String query : popularQueries) {
-                updateSuggestionTrie(normalizeQuery(query));
-            }
-            
-            // Load vendor names and services for suggestions
-            List<String> vendorTerms = getVendorTermsForSuggestions();
-            for (String term : vendorTerms) {
-                updateSuggestionTrie(normalizeQuery(term));
-            }
-            
-            log.info("Suggestion system initialized with {} queries and {} vendor terms", 
-                popularQueries.size(), vendorTerms.size());
-            
-            return CompletableFuture.completedFuture(null);
-            
-        } catch (Exception e) {
-            log.error("Error initializing suggestion system", e);
-            return CompletableFuture.failedFuture(e);
-        }
-    }
-
     // Private helper methods
 
     private String normalizeQuery(String query) {
         if (query == null) return "";
-        return query.toLowerCase().trim().replaceAll("\\s+", " ");
+        return query.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
     }
 
     private List<SearchSuggestion> getTrieBasedSuggestions(String prefix, int maxSuggestions) {
@@ -316,25 +257,14 @@ public class RealTimeSearchSuggestionsService {
 
     private List<SearchSuggestion> getFrequencyBasedSuggestions(String prefix, int maxSuggestions) {
         try {
-            // Get frequent queries that start with prefix
-            Set<ZSetOperations.TypedTuple<Object>> frequentQueries = redisTemplate.opsForZSet()
-                .reverseRangeWithScores(QUERY_FREQUENCY_KEY, 0, 100);
-            
-            if (frequentQueries == null) {
-                return Collections.emptyList();
-            }
-            
-            return frequentQueries.stream()
-                .filter(tuple -> tuple.getValue() != null && 
-                        ((String) tuple.getValue()).startsWith(prefix))
-                .map(tuple -> SearchSuggestion.builder()
-                    .text((String) tuple.getValue())
+            // The prefix index holds exactly the most frequent queries for each prefix
+            return prefixSuggestionIndex.topForPrefix(prefix, maxSuggestions).stream()
+                .map(query -> SearchSuggestion.builder()
+                    .text(query.getQuery())
                     .type(SuggestionType.POPULAR)
-                    .relevanceScore(tuple.getScore() != null ? tuple.getScore() / 1000.0 : 0.0)
-                    .frequency(tuple.getScore() != null ? tuple.getScore().longValue() : 0L)
+                    .relevanceScore(query.getScore() / 1000.0)
+                    .frequency((long) query.getScore())
                     .build())
-                .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-                .limit(maxSuggestions)
                 .collect(Collectors.toList());
                 
         } catch (Exception e) {
@@ -346,24 +276,12 @@ public class RealTimeSearchSuggestionsService {
     private List<SearchSuggestion> getPersonalizedAutocompleteSuggestions(String prefix, Long userId, 
                                                                          int maxSuggestions) {
         try {
-            String userQueriesKey = USER_QUERIES_PREFIX + userId;
-            Set<ZSetOperations.TypedTuple<Object>> userQueries = redisTemplate.opsForZSet()
-                .reverseRangeWithScores(userQueriesKey, 0, 50);
-            
-            if (userQueries == null) {
-                return Collections.emptyList();
-            }
-            
-            return userQueries.stream()
-                .filter(tuple -> tuple.getValue() != null && 
-                        ((String) tuple.getValue()).startsWith(prefix))
-                .map(tuple -> SearchSuggestion.builder()
-                    .text((String) tuple.getValue())
+            return prefixSuggestionIndex.topForUser(userId, prefix, maxSuggestions).stream()
+                .map(query -> SearchSuggestion.builder()
+                    .text(query.getQuery())
                     .type(SuggestionType.PERSONALIZED)
-                    .relevanceScore(tuple.getScore() != null ? tuple.getScore() / 100.0 : 0.0)
+                    .relevanceScore(query.getScore() / 100.0)
                     .build())
-                .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-                .limit(maxSuggestions)
                 .collect(Collectors.toList());
                 
         } catch (Exception e) {
@@ -410,85 +328,13 @@ public class RealTimeSearchSuggestionsService {
             .collect(Collectors.toList());
     }
 
-    private void updateQueryFrequency(String query) {
-        redisTemplate.opsForZSet().incrementScore(QUERY_FREQUENCY_KEY, query, 1.0);
-    }
-
-    private void updateTrendingQueries(String query) {
-        // Use time-based scoring for trending
-        double timeScore = System.currentTimeMillis() / 1000.0;
-        redisTemplate.opsForZSet().incrementScore(TRENDING_QUERIES_KEY, query, timeScore);
-    }
-
-    private void updateUserQueryHistory(Long userId, String query) {
-        String userQueriesKey = USER_QUERIES_PREFIX + userId;
-        redisTemplate.opsForZSet().incrementScore(userQueriesKey, query, 1.0);
-        
-        // Keep only recent queries (limit to 100)
-        redisTemplate.opsForZSet().removeRange(userQueriesKey, 0, -101);
-    }
-
-    private synchronized void updateSuggestionTrie(String query) {
-        String[] words = query.split("\\s+");
-        for (String word : words) {
-            if (word.length() >= 2) {
-                insertIntoTrie(word);
-            }
-        }
-        insertIntoTrie(query); // Also insert full query
-    }
-
-    private void insertIntoTrie(String word) {
-        TrieNode current = suggestionTrie;
-        for (char c : word.toCharArray()) {
-            current.children.putIfAbsent(c, new TrieNode());
-            current = current.children.get(c);
-        }
-        current.isEndOfWord = true;
-        current.frequency++;
-    }
-
     private List<String> getTrieCompletions(String prefix, int maxCompletions) {
-        TrieNode current = suggestionTrie;
-        
-        // Navigate to prefix
-        for (char c : prefix.toCharArray()) {
-            if (!current.children.containsKey(c)) {
-                return Collections.emptyList();
-            }
-            current = current.children.get(c);
-        }
-        
-        // Collect completions
-        List<TrieCompletion> completions = new ArrayList<>();
-        collectCompletions(current, prefix, completions, maxCompletions * 2);
-        
-        // Sort by frequency and return
-        return completions.stream()
-            .sorted((a, b) -> Integer.compare(b.frequency, a.frequency))
-            .limit(maxCompletions)
-            .map(completion -> completion.word)
+        return autocompleteIndex.complete(prefix, maxCompletions).stream()
+            .map(CompletionIndex.Completion::getText)
             .collect(Collectors.toList());
     }
 
-    private void collectCompletions(TrieNode node, String prefix, List<TrieCompletion> completions, int maxCompletions) {
-        if (completions.size() >= maxCompletions) return;
-        
-        if (node.isEndOfWord) {
-            completions.add(new TrieCompletion(prefix, node.frequency));
-        }
-        
-        for (Map.Entry<Character, TrieNode> entry : node.children.entrySet()) {
-            collectCompletions(entry.getValue(), prefix + entry.getKey(), completions, maxCompletions);
-        }
-    }
-
     // Utility methods
-    private double calculateTrendMomentum(String query, Duration timeWindow) {
-        // Calculate trend momentum based on recent vs historical frequency
-        return 1.0; // Placeholder implementation
-    }
-
     private String categorizeQuery(String query) {
         // Categorize query based on content
         return "general"; // Placeholder implementation
@@ -499,7 +345,9 @@ public class RealTimeSearchSuggestionsService {
     }
 
     private List<String> getPopularCompletions(String prefix, int maxCompletions) {
-        return Collections.emptyList(); // Placeholder implementation
+        return prefixSuggestionIndex.topForPrefix(prefix, maxCompletions).stream()
+            .map(PrefixSuggestionIndex.ScoredQuery::getQuery)
+            .collect(Collectors.toList());
     }
 
     private List<String> getCategorySpecificTerms(Long categoryId) {
@@ -518,24 +366,7 @@ public class RealTimeSearchSuggestionsService {
         return 0.7; // Placeholder implementation
     }
 
-    private List<String> getVendorTermsForSuggestions() {
-        return vendorRepository.findAllBusinessNamesAndServices();
-    }
-
     // Data classes
-    private static class TrieNode {
-        Map<Character, TrieNode> children = new HashMap<>();
-        boolean isEndOfWord = false;
-        int frequency = 0;
-    }
-
-    @lombok.Data
-    @lombok.AllArgsConstructor
-    private static class TrieCompletion {
-        String word;
-        int frequency;
-    }
-
     @lombok.Data
     @lombok.Builder
     public static class SearchSuggestion {
@@ -4,18 +4,35 @@ import com.weddingmarketplace.model.dto.request.VendorSearchRequest;
 import com.weddingmarketplace.model.dto.response.VendorResponse;
 import com.weddingmarketplace.model.dto.response.SearchResponse;
 import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.model.enums.VendorStatus;
 import com.weddingmarketplace.repository.VendorRepository;
 import com.weddingmarketplace.service.CacheService;
 import com.weddingmarketplace.mapper.VendorMapper;
+import com.weddingmarketplace.search.hybrid.LegResult;
+import com.weddingmarketplace.search.hybrid.ReciprocalRankFusion;
+import com.weddingmarketplace.search.vector.HnswIndex;
+import com.weddingmarketplace.search.vector.VectorFilter;
+import com.weddingmarketplace.search.vector.VendorVectorIndex;
+import com.weddingmarketplace.service.SearchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.scheduling.annotation.Async;
 
+import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
 import java.time.Duration;
 
 /**
@@ -33,51 +50,110 @@ public class SemanticSearchService {
     private final CacheService cacheService;
     private final VendorMapper vendorMapper;
     private final VectorEmbeddingService vectorEmbeddingService;
+    private final VendorVectorIndex vendorVectorIndex;
     private final NaturalLanguageProcessingService nlpService;
     private final SearchAnalyticsService searchAnalyticsService;
     private final QueryExpansionService queryExpansionService;
+    private final SearchService searchService;
+    private final Executor hybridSearchExecutor;
+    private final MeterRegistry meterRegistry;
 
     private static final String SEMANTIC_CACHE_PREFIX = "semantic_search:";
     private static final Duration CACHE_DURATION = Duration.ofMinutes(30);
     private static final double SEMANTIC_SIMILARITY_THRESHOLD = 0.7;
 
+    private static final String KEYWORD_LEG = "keyword";
+    private static final String VECTOR_LEG = "vector";
+    private static final String PERSONALIZATION_LEG = "personalization";
+
+    @Value("${app.search.hybrid.keyword-budget:300ms}")
+    private Duration keywordBudget;
+
+    @Value("${app.search.hybrid.vector-budget:200ms}")
+    private Duration vectorBudget;
+
+    @Value("${app.search.hybrid.personalization-budget:100ms}")
+    private Duration personalizationBudget;
+
+    @Value("${app.search.hybrid.rrf-k:60}")
+    private int rrfK;
+
+    @Value("${app.search.hybrid.max-candidates:300}")
+    private int maxCandidates;
+
+    private final Map<String, Timer> legTimers = new ConcurrentHashMap<>();
+
     /**
-     * Perform semantic search using vector embeddings and NLP
+     * Perform semantic search using vector embeddings and NLP.
+     *
+     * The keyword, vector and personalization legs run concurrently, each within its own
+     * budget. A leg that misses its budget or fails is left out and named in the response's
+     * degraded legs; the search is served from the others. Ranked ids are fused by
+     * reciprocal rank and only the requested page is loaded and mapped.
      */
     public SearchResponse performSemanticSearch(String query, Map<String, Object> filters, 
                                               Pageable pageable, Long userId) {
         log.info("Performing semantic search for query: '{}' with filters: {}", query, filters);
         
+        Set<String> degradedLegs = new TreeSet<>();
         try {
-            // Preprocess and analyze the query
-            QueryAnalysis queryAnalysis = nlpService.analyzeQuery(query);
-            
-            // Generate vector embedding for the query
-            float[] queryEmbedding = vectorEmbeddingService.generateQueryEmbedding(query, queryAnalysis);
-            
-            // Expand query with synonyms and related terms
-            ExpandedQuery expandedQuery = queryExpansionService.expandQuery(query, queryAnalysis);
-            
-            // Perform vector similarity search
-            List<VendorSimilarityResult> similarityResults = performVectorSimilaritySearch(
-                queryEmbedding, filters, pageable.getPageSize() * 3);
-            
-            // Combine with traditional keyword search
-            List<VendorResponse> keywordResults = performEnhancedKeywordSearch(
-                expandedQuery, filters, pageable);
+            // Enough candidates per leg to fill the requested page after fusion
+            int candidates = (int) Math.min(maxCandidates,
+                Math.max(pageable.getOffset() + pageable.getPageSize(), pageable.getPageSize() * 3L));
+            
+            CompletableFuture<LegResult<KeywordHits>> keywordLeg = runLeg(KEYWORD_LEG, keywordBudget,
+                deadline -> performEnhancedKeywordSearch(query, filters, candidates, deadline));
+            CompletableFuture<LegResult<List<HnswIndex.Neighbor>>> vectorLeg = runLeg(VECTOR_LEG, vectorBudget,
+                deadline -> performVectorSimilaritySearch(query, filters, candidates, deadline));
+            CompletableFuture<LegResult<UserSearchProfile>> personalizationLeg = userId != null
+                ? runLeg(PERSONALIZATION_LEG, personalizationBudget, deadline -> getUserSearchProfile(userId))
+                : CompletableFuture.completedFuture(null);
+            
+            // Never longer than the largest budget: every leg completes, on time or as missed
+            CompletableFuture.allOf(keywordLeg, vectorLeg, personalizationLeg).join();
+            
+            LegResult<KeywordHits> keyword = keywordLeg.join();
+            LegResult<List<HnswIndex.Neighbor>> vector = vectorLeg.join();
+            LegResult<UserSearchProfile> personalization = personalizationLeg.join();
+            boolean keywordServed = served(KEYWORD_LEG, keyword, degradedLegs);
+            boolean vectorServed = served(VECTOR_LEG, vector, degradedLegs);
+            boolean personalized = personalization != null && served(PERSONALIZATION_LEG, personalization, degradedLegs);
+            
+            if (!keywordServed && !vectorServed) {
+                return performFallbackSearch(query, filters, pageable, degradedLegs);
+            }
             
-            // Merge and rank results using hybrid scoring
-            List<VendorResponse> mergedResults = mergeAndRankResults(
-                similarityResults, keywordResults, queryAnalysis, pageable);
+            List<List<Long>> rankings = new ArrayList<>(2);
+            QueryAnalysis queryAnalysis = null;
+            if (keywordServed) {
+                rankings.add(keyword.getValue().getVendorIds());
+                queryAnalysis = keyword.getValue().getQueryAnalysis();
+            }
+            Map<Long, Double> similarities = new HashMap<>();
+            if (vectorServed) {
+                List<Long> vectorIds = new ArrayList<>(vector.getValue().size());
+                for (HnswIndex.Neighbor neighbor : vector.getValue()) {
+                    vectorIds.add(neighbor.getId());
+                    similarities.put(neighbor.getId(), (double) neighbor.getSimilarity());
+                }
+                rankings.add(vectorIds);
+            }
             
-            // Apply personalization if user is provided
-            if (userId != null) {
-                mergedResults = applyPersonalization(mergedResults, userId, queryAnalysis);
+            // Merge and rank by reciprocal rank, then the personal boost
+            List<ReciprocalRankFusion.Fused> fused = ReciprocalRankFusion.fuse(rankings, rrfK);
+            Map<Long, Double> personalizationScores = new HashMap<>();
+            if (personalized) {
+                fused = applyPersonalization(fused, personalization.getValue(), personalizationScores);
             }
             
+            // Hydrate the requested page only
+            int from = (int) Math.min(pageable.getOffset(), fused.size());
+            List<VendorResponse> page = hydratePage(fused.subList(from, fused.size()), pageable.getPageSize(),
+                similarities, personalizationScores);
+            
             // Build search response
             SearchResponse response = buildSemanticSearchResponse(
-                mergedResults, query, queryAnalysis, pageable);
+                page, fused.size(), query, queryAnalysis, pageable, degradedLegs);
             
             // Track search analytics
             trackSemanticSearch(query, queryAnalysis, response, userId);
@@ -87,7 +163,7 @@ public class SemanticSearchService {
         } catch (Exception e) {
             log.error("Error performing semantic search for query: '{}'", query, e);
             // Fallback to traditional search
-            return performFallbackSearch(query, filters, pageable);
+            return performFallbackSearch(query, filters, pageable, degradedLegs);
         }
     }
 
@@ -279,106 +355,180 @@ public class SemanticSearchService {
 
     // Private helper methods
 
-    private List<VendorSimilarityResult> performVectorSimilaritySearch(float[] queryEmbedding, 
-                                                                      Map<String, Object> filters, 
-                                                                      int maxResults) {
-        // Get all vendor embeddings and calculate similarities
-        List<Vendor> vendors = vendorRepository.findActiveVendorsWithEmbeddings();
+    private List<HnswIndex.Neighbor> performVectorSimilaritySearch(String query, Map<String, Object> filters,
+                                                                  int maxResults, long deadline) {
+        float[] queryEmbedding = vectorEmbeddingService.generateQueryEmbedding(query, null, remaining(deadline));
         
-        return vendors.stream()
-            .map(vendor -> {
-                float[] vendorEmbedding = vectorEmbeddingService.getVendorEmbedding(vendor.getId());
-                double similarity = vectorEmbeddingService.calculateCosineSimilarity(
-                    queryEmbedding, vendorEmbedding);
-                return new VendorSimilarityResult(vendor, similarity);
-            })
-            .filter(result -> result.getSimilarityScore() >= SEMANTIC_SIMILARITY_THRESHOLD)
-            .sorted((a, b) -> Double.compare(b.getSimilarityScore(), a.getSimilarityScore()))
-            .limit(maxResults)
-            .collect(Collectors.toList());
+        // Approximate top-k from the in-process HNSW index, filtered inside the graph walk
+        List<HnswIndex.Neighbor> neighbors = vendorVectorIndex.search(queryEmbedding, maxResults, buildVectorFilter(filters));
+        
+        List<HnswIndex.Neighbor> similar = new ArrayList<>(neighbors.size());
+        for (HnswIndex.Neighbor neighbor : neighbors) {
+            if (neighbor.getSimilarity() >= SEMANTIC_SIMILARITY_THRESHOLD) {
+                similar.add(neighbor);
+            }
+        }
+        return similar;
     }
 
-    private List<VendorResponse> performEnhancedKeywordSearch(ExpandedQuery expandedQuery, 
-                                                            Map<String, Object> filters, 
-                                                            Pageable pageable) {
+    private VectorFilter buildVectorFilter(Map<String, Object> filters) {
+        Object categoryId = filters != null ? filters.get("categoryId") : null;
+        Object city = filters != null ? filters.get("city") : null;
+        return VectorFilter.of(
+            categoryId != null ? Long.valueOf(categoryId.toString()) : null,
+            city != null ? city.toString() : null,
+            VendorStatus.APPROVED.name());
+    }
+
+    private KeywordHits performEnhancedKeywordSearch(String query, Map<String, Object> filters, int maxResults,
+                                                     long deadline) {
+        // Preprocess and analyze the query, then expand it with synonyms and related terms
+        QueryAnalysis queryAnalysis = nlpService.analyzeQuery(query);
+        ExpandedQuery expandedQuery = queryExpansionService.expandQuery(query, queryAnalysis);
+        String expanded = expandedQuery != null ? expandedQuery.getExpandedQuery() : null;
+        
         // Perform traditional keyword search with expanded terms
         VendorSearchRequest searchRequest = VendorSearchRequest.builder()
-            .keyword(expandedQuery.getExpandedQuery())
+            .keyword(expanded != null && !expanded.isBlank() ? expanded : query)
             .build();
         
         // Apply filters to search request
         applyFiltersToSearchRequest(searchRequest, filters);
         
-        // Execute search (this would use existing search service)
-        return Collections.emptyList(); // Placeholder
+        return new KeywordHits(queryAnalysis, searchService.searchVendorIds(searchRequest, maxResults, remaining(deadline)));
     }
 
-    private List<VendorResponse> mergeAndRankResults(List<VendorSimilarityResult> semanticResults,
-                                                   List<VendorResponse> keywordResults,
-                                                   QueryAnalysis queryAnalysis,
-                                                   Pageable pageable) {
-        Map<Long, VendorResponse> mergedResults = new HashMap<>();
-        
-        // Add semantic results with semantic score
-        for (VendorSimilarityResult result : semanticResults) {
-            VendorResponse response = vendorMapper.toResponse(result.getVendor());
-            response.setSemanticScore(result.getSimilarityScore());
-            response.setRelevanceScore(result.getSimilarityScore() * 0.7); // Weight semantic score
-            mergedResults.put(response.getId(), response);
+    private List<ReciprocalRankFusion.Fused> applyPersonalization(List<ReciprocalRankFusion.Fused> fused,
+                                                                UserSearchProfile userProfile,
+                                                                Map<Long, Double> personalizationScores) {
+        // Apply personalization scoring
+        List<ReciprocalRankFusion.Fused> adjusted = new ArrayList<>(fused.size());
+        for (ReciprocalRankFusion.Fused result : fused) {
+            double personalizationScore = calculatePersonalizationScore(result.getId(), userProfile);
+            personalizationScores.put(result.getId(), personalizationScore);
+            adjusted.add(new ReciprocalRankFusion.Fused(result.getId(), result.getScore() * (1 + personalizationScore * 0.3)));
         }
-        
-        // Merge keyword results
-        for (VendorResponse keywordResult : keywordResults) {
-            VendorResponse existing = mergedResults.get(keywordResult.getId());
-            if (existing != null) {
-                // Combine scores
-                double combinedScore = (existing.getRelevanceScore() + keywordResult.getRelevanceScore()) / 2;
-                existing.setRelevanceScore(combinedScore);
-                existing.setKeywordScore(keywordResult.getRelevanceScore());
-            } else {
-                keywordResult.setKeywordScore(keywordResult.getRelevanceScore());
-                keywordResult.setRelevanceScore(keywordResult.getRelevanceScore() * 0.6); // Weight keyword score
-                mergedResults.put(keywordResult.getId(), keywordResult);
+        adjusted.sort(Comparator.comparingDouble(ReciprocalRankFusion.Fused::getScore).reversed()
+            .thenComparingLong(ReciprocalRankFusion.Fused::getId));
+        return adjusted;
+    }
+
+    /**
+     * Load up to {@code pageSize} of the ranked candidates in order. Vendors deleted or
+     * deactivated since they were indexed drop out, and the page is topped up from the
+     * candidates after it, over-fetching twice what is still missing.
+     */
+    private List<VendorResponse> hydratePage(List<ReciprocalRankFusion.Fused> ranked, int pageSize,
+                                             Map<Long, Double> similarities, Map<Long, Double> personalizationScores) {
+        List<VendorResponse> results = new ArrayList<>(pageSize);
+        int next = 0;
+        int batch = pageSize;
+        while (results.size() < pageSize && next < ranked.size()) {
+            List<ReciprocalRankFusion.Fused> candidates = ranked.subList(next, Math.min(next + batch, ranked.size()));
+            next += candidates.size();
+            
+            // One query per batch
+            List<Long> vendorIds = candidates.stream().map(ReciprocalRankFusion.Fused::getId).collect(Collectors.toList());
+            Map<Long, Vendor> vendors = vendorRepository.findAllById(vendorIds).stream()
+                .filter(vendor -> !Boolean.TRUE.equals(vendor.getDeleted()) && vendor.getStatus() == VendorStatus.APPROVED)
+                .collect(Collectors.toMap(Vendor::getId, vendor -> vendor));
+            
+            for (ReciprocalRankFusion.Fused result : candidates) {
+                Vendor vendor = vendors.get(result.getId());
+                if (vendor == null || results.size() == pageSize) {
+                    continue;
+                }
+                VendorResponse response = vendorMapper.toResponse(vendor);
+                response.setRelevanceScore(result.getScore());
+                Double similarity = similarities.get(result.getId());
+                if (similarity != null) {
+                    response.setSemanticScore(similarity);
+                }
+                Double personalizationScore = personalizationScores.get(result.getId());
+                if (personalizationScore != null) {
+                    response.setPersonalizationScore(personalizationScore);
+                }
+                results.add(response);
             }
+            batch = 2 * (pageSize - results.size());
         }
-        
-        // Sort by relevance score and apply pagination
-        return mergedResults.values().stream()
-            .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-            .skip(pageable.getOffset())
-            .limit(pageable.getPageSize())
-            .collect(Collectors.toList());
+        return results;
     }
 
-    private List<VendorResponse> applyPersonalization(List<VendorResponse> results, Long userId, 
-                                                    QueryAnalysis queryAnalysis) {
-        // Get user preferences and behavior
-        UserSearchProfile userProfile = getUserSearchProfile(userId);
+    // Retrieval legs
+
+    /**
+     * Run one leg on the hybrid search executor. The retrieval is handed its deadline, in
+     * {@link System#nanoTime()} terms, so the remote calls it makes give up when the
+     * search stops waiting for it; time spent queued counts against the budget. A leg
+     * still running past its budget is cancelled, interrupting whatever it blocks on, so
+     * it gives its thread back instead of holding it until the remote call returns.
+     */
+    private <T> CompletableFuture<LegResult<T>> runLeg(String leg, Duration budget, LongFunction<T> retrieval) {
+        long started = System.nanoTime();
+        long deadline = started + budget.toNanos();
+        CompletableFuture<LegResult<T>> result = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+            try {
+                result.complete(LegResult.ok(retrieval.apply(deadline), System.nanoTime() - started));
+            } catch (RuntimeException e) {
+                if (!result.isDone()) {
+                    log.warn("Hybrid search {} leg failed: {}", leg, e.getMessage());
+                }
+                result.complete(LegResult.missed(LegResult.Status.ERROR, System.nanoTime() - started));
+            }
+        }, null);
         
-        // Apply personalization scoring
-        return results.stream()
-            .map(vendor -> {
-                double personalizationScore = calculatePersonalizationScore(vendor, userProfile);
-                double adjustedScore = vendor.getRelevanceScore() * (1 + personalizationScore * 0.3);
-                vendor.setRelevanceScore(adjustedScore);
-                vendor.setPersonalizationScore(personalizationScore);
-                return vendor;
-            })
-            .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-            .collect(Collectors.toList());
+        try {
+            hybridSearchExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(LegResult.missed(LegResult.Status.REJECTED, 0));
+        }
+        result.completeOnTimeout(LegResult.missed(LegResult.Status.TIMEOUT, budget.toNanos()),
+            budget.toMillis(), TimeUnit.MILLISECONDS);
+        result.thenAccept(outcome -> {
+            if (outcome.getStatus() == LegResult.Status.TIMEOUT) {
+                task.cancel(true);
+            }
+        });
+        return result;
     }
 
-    private SearchResponse buildSemanticSearchResponse(List<VendorResponse> results, String query,
-                                                     QueryAnalysis queryAnalysis, Pageable pageable) {
+    private static Duration remaining(long deadline) {
+        return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+
+    private boolean served(String leg, LegResult<?> result, Set<String> degradedLegs) {
+        String outcome = result.getStatus().name().toLowerCase(Locale.ROOT);
+        legTimers.computeIfAbsent(leg + ":" + outcome, key -> Timer.builder("search.hybrid.leg")
+                .description("Latency of one hybrid search retrieval leg, capped at its budget")
+                .tag("leg", leg)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+            .record(result.getElapsedNanos(), TimeUnit.NANOSECONDS);
+        if (!result.isOk()) {
+            degradedLegs.add(leg);
+        }
+        return result.isOk();
+    }
+
+    private SearchResponse buildSemanticSearchResponse(List<VendorResponse> results, int totalResults, String query,
+                                                     QueryAnalysis queryAnalysis, Pageable pageable,
+                                                     Set<String> degradedLegs) {
         return SearchResponse.builder()
             .vendors(results)
-            .totalElements((long) results.size())
-            .totalPages((int) Math.ceil((double) results.size() / pageable.getPageSize()))
+            .totalElements((long) totalResults)
+            .totalPages((int) Math.ceil((double) totalResults / pageable.getPageSize()))
             .currentPage(pageable.getPageNumber())
             .pageSize(pageable.getPageSize())
             .query(query)
             .queryAnalysis(queryAnalysis)
             .searchType("SEMANTIC")
+            .degradedLegs(new ArrayList<>(degradedLegs))
             .executionTime(System.currentTimeMillis())
             .build();
     }
@@ -420,15 +570,28 @@ public class SemanticSearchService {
     }
 
     private void applyFiltersToSearchRequest(VendorSearchRequest request, Map<String, Object> filters) {
-        // Apply filters to search request
+        // The inverse of buildFiltersMap
+        if (filters == null) {
+            return;
+        }
+        Object categoryId = filters.get("categoryId");
+        Object city = filters.get("city");
+        Object minPrice = filters.get("minPrice");
+        Object maxPrice = filters.get("maxPrice");
+        if (categoryId != null) request.setCategoryId(Long.valueOf(categoryId.toString()));
+        if (city != null) request.setCity(city.toString());
+        if (minPrice != null) request.setMinPrice(new BigDecimal(minPrice.toString()));
+        if (maxPrice != null) request.setMaxPrice(new BigDecimal(maxPrice.toString()));
     }
 
-    private SearchResponse performFallbackSearch(String query, Map<String, Object> filters, Pageable pageable) {
+    private SearchResponse performFallbackSearch(String query, Map<String, Object> filters, Pageable pageable,
+                                                 Set<String> degradedLegs) {
         // Fallback to traditional search
         return SearchResponse.builder()
             .vendors(Collections.emptyList())
             .totalElements(0L)
             .searchType("FALLBACK")
+            .degradedLegs(new ArrayList<>(degradedLegs))
             .build();
     }
 
@@ -446,7 +609,7 @@ public class SemanticSearchService {
     private List<VendorSimilarityResult> performImageSimilaritySearch(float[] embedding, Map<String, Object> filters, int maxResults) { return new ArrayList<>(); }
     private Map<String, Double> calculateTrendMomentum(List<TrendingQuery> queries) { return new HashMap<>(); }
     private UserSearchProfile getUserSearchProfile(Long userId) { return new UserSearchProfile(); }
-    private double calculatePersonalizationScore(VendorResponse vendor, UserSearchProfile profile) { return 0.1; }
+    private double calculatePersonalizationScore(Long vendorId, UserSearchProfile profile) { return 0.1; }
     private List<SearchSuggestion> generatePersonalizedSuggestions(String query, UserSearchProfile profile, int max) { return new ArrayList<>(); }
 
     // Data classes
@@ -456,6 +619,12 @@ public class SemanticSearchService {
         private double similarityScore;
     }
 
+    @lombok.Value
+    private static class KeywordHits {
+        QueryAnalysis queryAnalysis;
+        List<Long> vendorIds;
+    }
+
     @lombok.Data @lombok.AllArgsConstructor
     private static class EnhancedQuery {
         private String query;
@@ -2,7 +2,9 @@ package com.weddingmarketplace.search.service;
 
 import com.weddingmarketplace.model.entity.Vendor;
 import com.weddingmarketplace.repository.VendorRepository;
-import com.weddingmarketplace.service.CacheService;
+import com.weddingmarketplace.search.embedding.EmbeddingBatcher;
+import com.weddingmarketplace.search.embedding.EmbeddingCache;
+import com.weddingmarketplace.search.vector.VectorMath;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,56 +29,49 @@ import java.util.stream.IntStream;
 @Slf4j
 public class VectorEmbeddingService {
 
-    private final CacheService cacheService;
     private final VendorRepository vendorRepository;
     private final RestTemplate restTemplate;
+    private final EmbeddingBatcher embeddingBatcher;
+    private final EmbeddingCache embeddingCache;
 
     @Value("${ml.embedding.api.url:http://localhost:8000}")
     private String embeddingApiUrl;
 
-    @Value("${ml.embedding.model:sentence-transformers/all-MiniLM-L6-v2}")
-    private String embeddingModel;
-
     @Value("${ml.embedding.dimension:384}")
     private int embeddingDimension;
 
-    private static final String EMBEDDING_CACHE_PREFIX = "embeddings:";
-    private static final Duration CACHE_DURATION = Duration.ofDays(7);
+    @Value("${app.search.embedding.timeout:2s}")
+    private Duration embeddingTimeout;
+
+    /** Index builds and backfills embed whole catalogues behind live queries, so they may wait far longer */
+    @Value("${app.search.embedding.bulk-timeout:5m}")
+    private Duration bulkEmbeddingTimeout;
+
+    /** Image embeddings come from a separate model; its entries are addressed under this name */
+    private static final String IMAGE_MODEL_KEY = "image-embeddings";
+    private static final int VENDOR_CHUNK_SIZE = 256;
 
     /**
      * Generate vector embedding for a text query
      */
     public float[] generateQueryEmbedding(String query, Object queryAnalysis) {
+        return generateQueryEmbedding(query, queryAnalysis, embeddingTimeout);
+    }
+
+    /**
+     * Generate vector embedding for a text query, waiting for the model at most {@code timeout}
+     */
+    public float[] generateQueryEmbedding(String query, Object queryAnalysis, Duration timeout) {
         log.debug("Generating query embedding for: '{}'", query);
         
-        String cacheKey = EMBEDDING_CACHE_PREFIX + "query:" + query.hashCode();
-        Optional<float[]> cached = cacheService.get("embeddings", cacheKey, float[].class);
-        
-        if (cached.isPresent()) {
-            log.debug("Returning cached query embedding");
-            return cached.get();
-        }
-        
-        try {
-            // Preprocess query for better embeddings
-            String processedQuery = preprocessTextForEmbedding(query);
-            
-            // Generate embedding using transformer model
-            float[] embedding = generateTextEmbedding(processedQuery);
-            
-            // Normalize embedding vector
-            float[] normalizedEmbedding = normalizeVector(embedding);
-            
-            // Cache the embedding
-            cacheService.put("embeddings", cacheKey, normalizedEmbedding, CACHE_DURATION);
-            
-            return normalizedEmbedding;
-            
-        } catch (Exception e) {
-            log.error("Error generating query embedding for: '{}'", query, e);
-            // Return zero vector as fallback
-            return new float[embeddingDimension];
+        // Preprocess query for better embeddings
+        String processedQuery = preprocessTextForEmbedding(query);
+        float[] embedding = embedTexts(List.of(processedQuery), timeout).get(0);
+        if (embedding == null) {
+            // Keeps search working while the model is unavailable; never cached
+            return generateFallbackEmbedding(processedQuery);
         }
+        return embedding;
     }
 
     /**
@@ -85,32 +80,12 @@ public class VectorEmbeddingService {
     public float[] generateVendorEmbedding(Vendor vendor) {
         log.debug("Generating vendor embedding for vendor: {}", vendor.getId());
         
-        String cacheKey = EMBEDDING_CACHE_PREFIX + "vendor:" + vendor.getId();
-        Optional<float[]> cached = cacheService.get("embeddings", cacheKey, float[].class);
-        
-        if (cached.isPresent()) {
-            return cached.get();
-        }
-        
-        try {
-            // Combine vendor information into searchable text
-            String vendorText = buildVendorSearchText(vendor);
-            
-            // Generate embedding
-            float[] embedding = generateTextEmbedding(vendorText);
-            
-            // Normalize embedding
-            float[] normalizedEmbedding = normalizeVector(embedding);
-            
-            // Cache the embedding
-            cacheService.put("embeddings", cacheKey, normalizedEmbedding, CACHE_DURATION);
-            
-            return normalizedEmbedding;
-            
-        } catch (Exception e) {
-            log.error("Error generating vendor embedding for vendor: {}", vendor.getId(), e);
+        float[] embedding = embedTexts(List.of(buildVendorSearchText(vendor))).get(0);
+        if (embedding == null) {
+            log.error("Error generating vendor embedding for vendor: {}", vendor.getId());
             return new float[embeddingDimension];
         }
+        return embedding;
     }
 
     /**
@@ -119,22 +94,25 @@ public class VectorEmbeddingService {
     public float[] generateImageEmbedding(String imageUrl) {
         log.debug("Generating image embedding for URL: {}", imageUrl);
         
-        String cacheKey = EMBEDDING_CACHE_PREFIX + "image:" + imageUrl.hashCode();
-        Optional<float[]> cached = cacheService.get("embeddings", cacheKey, float[].class);
+        String cacheKey = EmbeddingCache.key(IMAGE_MODEL_KEY, imageUrl);
+        Optional<float[]> cached = embeddingCache.get(cacheKey);
         
         if (cached.isPresent()) {
             return cached.get();
         }
         
         try {
-            // Generate image embedding using vision transformer
+            // Generate image embedding using vision transformer; failures are not cached
             float[] embedding = generateImageEmbeddingFromUrl(imageUrl);
+            if (embedding == null) {
+                return new float[embeddingDimension];
+            }
             
             // Normalize embedding
             float[] normalizedEmbedding = normalizeVector(embedding);
             
             // Cache the embedding
-            cacheService.put("embeddings", cacheKey, normalizedEmbedding, CACHE_DURATION);
+            embeddingCache.put(cacheKey, normalizedEmbedding);
             
             return normalizedEmbedding;
             
@@ -148,14 +126,7 @@ public class VectorEmbeddingService {
      * Get cached vendor embedding or generate if not exists
      */
     public float[] getVendorEmbedding(Long vendorId) {
-        String cacheKey = EMBEDDING_CACHE_PREFIX + "vendor:" + vendorId;
-        Optional<float[]> cached = cacheService.get("embeddings", cacheKey, float[].class);
-        
-        if (cached.isPresent()) {
-            return cached.get();
-        }
-        
-        // Generate embedding if not cached
+        // Entries are addressed by content, so the vendor's current text is needed either way
         Vendor vendor = vendorRepository.findById(vendorId).orElse(null);
         if (vendor != null) {
             return generateVendorEmbedding(vendor);
@@ -165,28 +136,14 @@ public class VectorEmbeddingService {
     }
 
     /**
-     * Calculate cosine similarity between two vectors
+     * Cosine similarity of two embeddings produced by this service, which are always
+     * normalized, so it is the dot product alone
      */
-    public double calculateCosineSimilarity(float[] vector1, float[] vector2) {
-        if (vector1.length != vector2.length) {
+    public double calculateCosineSimilarity(float[] unitVector1, float[] unitVector2) {
+        if (unitVector1.length != unitVector2.length) {
             throw new IllegalArgumentException("Vectors must have the same dimension");
         }
-        
-        double dotProduct = 0.0;
-        double norm1 = 0.0;
-        double norm2 = 0.0;
-        
-        for (int i = 0; i < vector1.length; i++) {
-            dotProduct += vector1[i] * vector2[i];
-            norm1 += vector1[i] * vector1[i];
-            norm2 += vector2[i] * vector2[i];
-        }
-        
-        if (norm1 == 0.0 || norm2 == 0.0) {
-            return 0.0;
-        }
-        
-        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+        return VectorMath.dot(unitVector1, unitVector2);
     }
 
     /**
@@ -197,31 +154,41 @@ public class VectorEmbeddingService {
             throw new IllegalArgumentException("Vectors must have the same dimension");
         }
         
-        double sum = 0.0;
-        for (int i = 0; i < vector1.length; i++) {
-            double diff = vector1[i] - vector2[i];
-            sum += diff * diff;
-        }
-        
-        return Math.sqrt(sum);
+        return Math.sqrt(VectorMath.squaredL2(vector1, vector2));
     }
 
     /**
-     * Find most similar vectors using approximate nearest neighbor search
+     * Exact top-k by cosine similarity over an explicit candidate list; for the vendor
+     * catalogue use {@code VendorVectorIndex}, which does not scan every vector.
+     * Candidates are embeddings from this service and therefore unit length; only the
+     * query is normalized here.
      */
     public List<SimilarityResult> findSimilarVectors(float[] queryVector, 
                                                     List<VectorWithId> candidateVectors, 
                                                     int topK) {
         log.debug("Finding {} most similar vectors from {} candidates", topK, candidateVectors.size());
+        if (topK <= 0) {
+            return Collections.emptyList();
+        }
         
-        return candidateVectors.parallelStream()
-            .map(candidate -> {
-                double similarity = calculateCosineSimilarity(queryVector, candidate.getVector());
-                return new SimilarityResult(candidate.getId(), similarity);
-            })
-            .sorted((a, b) -> Double.compare(b.getSimilarity(), a.getSimilarity()))
-            .limit(topK)
-            .collect(java.util.stream.Collectors.toList());
+        float[] query = normalizeVector(queryVector);
+        
+        // Bounded min-heap: O(n log k) instead of sorting every candidate
+        PriorityQueue<SimilarityResult> best = new PriorityQueue<>(topK + 1,
+            Comparator.comparingDouble(SimilarityResult::getSimilarity));
+        for (VectorWithId candidate : candidateVectors) {
+            double similarity = calculateCosineSimilarity(query, candidate.getVector());
+            if (best.size() < topK) {
+                best.add(new SimilarityResult(candidate.getId(), similarity));
+            } else if (similarity > best.peek().getSimilarity()) {
+                best.poll();
+                best.add(new SimilarityResult(candidate.getId(), similarity));
+            }
+        }
+        
+        List<SimilarityResult> results = new ArrayList<>(best);
+        results.sort(Comparator.comparingDouble(SimilarityResult::getSimilarity).reversed());
+        return results;
     }
 
     /**
@@ -234,20 +201,10 @@ public class VectorEmbeddingService {
         Map<Long, float[]> embeddings = new HashMap<>();
         
         try {
-            // Process vendors in batches to avoid overwhelming the embedding service
-            int batchSize = 10;
-            for (int i = 0; i < vendors.size(); i += batchSize) {
-                int endIndex = Math.min(i + batchSize, vendors.size());
-                List<Vendor> batch = vendors.subList(i, endIndex);
-                
-                // Generate embeddings for batch
-                for (Vendor vendor : batch) {
-                    float[] embedding = generateVendorEmbedding(vendor);
-                    embeddings.put(vendor.getId(), embedding);
-                }
-                
-                // Small delay to avoid rate limiting
-                Thread.sleep(100);
+            // The batcher bounds concurrent model calls, so chunks only cap memory per round trip
+            for (int i = 0; i < vendors.size(); i += VENDOR_CHUNK_SIZE) {
+                int endIndex = Math.min(i + VENDOR_CHUNK_SIZE, vendors.size());
+                embeddings.putAll(getVendorEmbeddings(vendors.subList(i, endIndex)));
             }
             
             log.info("Successfully generated embeddings for {} vendors", embeddings.size());
@@ -259,6 +216,39 @@ public class VectorEmbeddingService {
         }
     }
 
+    /**
+     * Embeddings for a batch of vendors: one MGET, the misses embedded through the
+     * batching client and a single pipelined write-back. Vendors whose generation fails
+     * are left out. Meant for index builds and backfills, so the model is given the bulk
+     * timeout rather than the per-query one.
+     */
+    public Map<Long, float[]> getVendorEmbeddings(List<Vendor> vendors) {
+        List<String> texts = new ArrayList<>(vendors.size());
+        for (Vendor vendor : vendors) {
+            texts.add(buildVendorSearchText(vendor));
+        }
+        List<float[]> vectors = embedTexts(texts, bulkEmbeddingTimeout);
+        
+        Map<Long, float[]> embeddings = new LinkedHashMap<>();
+        for (int j = 0; j < vendors.size(); j++) {
+            if (vectors.get(j) != null) {
+                embeddings.put(vendors.get(j).getId(), vectors.get(j));
+            } else {
+                log.error("Error generating vendor embedding for vendor: {}", vendors.get(j).getId());
+            }
+        }
+        return embeddings;
+    }
+
+    /**
+     * Embeddings for vendors whose content changed. Entries are addressed by content, so
+     * changed text already misses the cache and unchanged text is rightly reused; there
+     * is nothing to evict.
+     */
+    public Map<Long, float[]> refreshVendorEmbeddings(List<Vendor> vendors) {
+        return getVendorEmbeddings(vendors);
+    }
+
     /**
      * Update vendor embedding when vendor data changes
      */
@@ -267,11 +257,7 @@ public class VectorEmbeddingService {
         log.info("Updating embedding for vendor: {}", vendorId);
         
         try {
-            // Invalidate cached embedding
-            String cacheKey = EMBEDDING_CACHE_PREFIX + "vendor:" + vendorId;
-            cacheService.evict("embeddings", cacheKey);
-            
-            // Generate new embedding
+            // Embedding the new text warms the entry its content addresses
             Vendor vendor = vendorRepository.findById(vendorId).orElse(null);
             if (vendor != null) {
                 generateVendorEmbedding(vendor);
@@ -294,7 +280,10 @@ public class VectorEmbeddingService {
         
         try {
             // Generate embedding for the term
-            float[] termEmbedding = generateTextEmbedding(term);
+            float[] termEmbedding = embedTexts(List.of(preprocessTextForEmbedding(term))).get(0);
+            if (termEmbedding == null) {
+                return Collections.emptyList();
+            }
             
             // Find similar terms using pre-computed vocabulary embeddings
             // This would typically use a pre-trained word embedding model
@@ -358,30 +347,54 @@ public class VectorEmbeddingService {
         return preprocessTextForEmbedding(searchText.toString());
     }
 
-    private float[] generateTextEmbedding(String text) {
-        try {
-            // Call external embedding service (e.g., Hugging Face, OpenAI, or local model)
-            EmbeddingRequest request = new EmbeddingRequest(text, embeddingModel);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            HttpEntity<EmbeddingRequest> entity = new HttpEntity<>(request, headers);
-            
-            ResponseEntity<EmbeddingResponse> response = restTemplate.postForEntity(
-                embeddingApiUrl + "/embeddings", entity, EmbeddingResponse.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return response.getBody().getEmbedding();
-            } else {
-                log.warn("Embedding service returned non-OK status: {}", response.getStatusCode());
-                return generateFallbackEmbedding(text);
+    /**
+     * Normalized embeddings of already preprocessed texts, in order. Cached entries are
+     * read with one MGET; the distinct misses go to the model through the batching
+     * client and are written back in one pipeline. Failed texts map to null and are not
+     * cached, so they are retried on the next request.
+     */
+    private List<float[]> embedTexts(List<String> texts) {
+        return embedTexts(texts, embeddingTimeout);
+    }
+
+    private List<float[]> embedTexts(List<String> texts, Duration timeout) {
+        String model = embeddingBatcher.model();
+        List<String> keys = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            keys.add(EmbeddingCache.key(model, text));
+        }
+        Map<String, float[]> found = new HashMap<>(embeddingCache.getAll(keys));
+        
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            if (!found.containsKey(keys.get(i))) {
+                missing.putIfAbsent(keys.get(i), texts.get(i));
             }
-            
-        } catch (Exception e) {
-            log.error("Error calling embedding service for text: '{}'", text, e);
-            return generateFallbackEmbedding(text);
         }
+        
+        if (!missing.isEmpty()) {
+            List<String> missingKeys = new ArrayList<>(missing.keySet());
+            List<float[]> generated = embeddingBatcher.embedAll(new ArrayList<>(missing.values()), timeout);
+            Map<String, float[]> toCache = new LinkedHashMap<>();
+            for (int i = 0; i < missingKeys.size(); i++) {
+                float[] embedding = generated.get(i);
+                if (embedding != null && embedding.length == embeddingDimension) {
+                    toCache.put(missingKeys.get(i), normalizeVector(embedding));
+                } else if (embedding != null) {
+                    log.warn("Embedding service returned dimension {} instead of {}", embedding.length, embeddingDimension);
+                }
+            }
+            embeddingCache.putAll(toCache);
+            found.putAll(toCache);
+            log.debug("Embedded {} texts: {} cached, {} generated, {} failed", texts.size(),
+                texts.size() - missing.size(), toCache.size(), missing.size() - toCache.size());
+        }
+        
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String key : keys) {
+            embeddings.add(found.get(key));
+        }
+        return embeddings;
     }
 
     private float[] generateImageEmbeddingFromUrl(String imageUrl) {
@@ -401,29 +414,25 @@ public class VectorEmbeddingService {
                 return response.getBody().getEmbedding();
             } else {
                 log.warn("Image embedding service returned non-OK status: {}", response.getStatusCode());
-                return new float[embeddingDimension];
+                return null;
             }
             
         } catch (Exception e) {
             log.error("Error calling image embedding service for URL: {}", imageUrl, e);
-            return new float[embeddingDimension];
+            return null;
         }
     }
 
     private float[] normalizeVector(float[] vector) {
-        double norm = 0.0;
-        for (float value : vector) {
-            norm += value * value;
-        }
-        norm = Math.sqrt(norm);
-        
-        if (norm == 0.0) {
+        float norm = VectorMath.norm(vector);
+        if (norm == 0.0f) {
             return vector;
         }
         
+        float inverse = 1.0f / norm;
         float[] normalized = new float[vector.length];
         for (int i = 0; i < vector.length; i++) {
-            normalized[i] = (float) (vector[i] / norm);
+            normalized[i] = vector[i] * inverse;
         }
         
         return normalized;
@@ -449,13 +458,6 @@ public class VectorEmbeddingService {
 
     // Data classes for API communication
 
-    @lombok.Data
-    @lombok.AllArgsConstructor
-    private static class EmbeddingRequest {
-        private String text;
-        private String model;
-    }
-
     @lombok.Data
     @lombok.AllArgsConstructor
     private static class ImageEmbeddingRequest {
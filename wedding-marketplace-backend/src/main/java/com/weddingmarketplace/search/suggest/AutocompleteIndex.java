@@ -0,0 +1,194 @@
+package com.weddingmarketplace.search.suggest;
+
+import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.search.service.SearchAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holder of the live {@link CompletionIndex} behind prefix autocomplete.
+ *
+ * Lookups read whatever index is current and never block. The index is rebuilt on the
+ * suggestions executor at startup and every {@code rebuild-interval-ms}, from the popular
+ * queries of the last {@code popular-window}, vendor business names and services, and the
+ * queries recorded on this node, then published with a single reference swap. Queries
+ * recorded between rebuilds show up in the next one; the Redis frequency index covers
+ * them in the meantime.
+ *
+ * Like the trie it replaces, every entry is indexed as a whole and word by word, so
+ * "rustic barn venue" also completes "bar".
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AutocompleteIndex {
+
+    private static final int MIN_WORD_LENGTH = 2;
+
+    private final VendorRepository vendorRepository;
+    private final SearchAnalyticsService searchAnalyticsService;
+    private final Executor suggestionsExecutor;
+
+    @Value("${app.search.suggest.top-k:20}")
+    private int topK;
+
+    @Value("${app.search.suggest.popular-queries:1000}")
+    private int popularQueries;
+
+    @Value("${app.search.suggest.popular-window:30d}")
+    private Duration popularWindow;
+
+    @Value("${app.search.suggest.max-recorded-queries:50000}")
+    private int maxRecordedQueries;
+
+    private final AtomicReference<CompletionIndex> current = new AtomicReference<>(CompletionIndex.EMPTY);
+    private final Map<String, LongAdder> recordedQueries = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    /**
+     * Completions of a normalized prefix, heaviest first
+     */
+    public List<CompletionIndex.Completion> complete(String prefix, int limit) {
+        return current.get().complete(prefix, limit);
+    }
+
+    /**
+     * Count a normalized query towards the next rebuild. New queries are dropped once
+     * {@code max-recorded-queries} distinct ones are pending; known ones are still counted.
+     */
+    public void record(String query) {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        LongAdder count = recordedQueries.get(query);
+        if (count == null) {
+            if (recordedQueries.size() >= maxRecordedQueries) {
+                return;
+            }
+            count = recordedQueries.computeIfAbsent(query, q -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    public CompletionIndex current() {
+        return current.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        requestRebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.suggest.rebuild-interval-ms:600000}",
+        initialDelayString = "${app.search.suggest.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        requestRebuild();
+    }
+
+    /**
+     * Rebuild on the suggestions executor unless a rebuild is already pending
+     */
+    public void requestRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            suggestionsExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    rebuildScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuildScheduled.set(false);
+            log.warn("Suggestions executor saturated, autocomplete index rebuild skipped");
+        }
+    }
+
+    /**
+     * Build a fresh index from the sources and publish it; on failure the current index
+     * stays in place
+     */
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            CompletionIndex.Builder builder = CompletionIndex.builder();
+
+            // Popular queries arrive most popular first; rank sets the weight
+            List<String> popular = searchAnalyticsService.getPopularQueries(popularWindow, popularQueries);
+            for (int rank = 0; rank < popular.size(); rank++) {
+                addEntry(builder, normalize(popular.get(rank)), popular.size() - rank);
+            }
+
+            List<String> vendorTerms = vendorRepository.findAllBusinessNamesAndServices();
+            for (String term : vendorTerms) {
+                addEntry(builder, normalize(term), 1);
+            }
+
+            recordedQueries.forEach((query, count) -> addEntry(builder, query, count.sum()));
+
+            CompletionIndex index = builder.build(topK);
+            current.set(index);
+            trimRecordedQueries();
+
+            log.info("Autocomplete index rebuilt in {} ms: {} terms, {} nodes, ~{} KB ({} popular queries, {} vendor terms)",
+                System.currentTimeMillis() - started, index.size(), index.nodeCount(), index.memoryBytes() / 1024,
+                popular.size(), vendorTerms.size());
+        } catch (Exception e) {
+            log.error("Autocomplete index rebuild failed, keeping the current index", e);
+        }
+    }
+
+    private static void addEntry(CompletionIndex.Builder builder, String entry, long weight) {
+        if (entry.isEmpty()) {
+            return;
+        }
+        builder.add(entry, weight);
+        if (entry.indexOf(' ') > 0) {
+            for (String word : entry.split(" ")) {
+                if (word.length() >= MIN_WORD_LENGTH) {
+                    builder.add(word, weight);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recorded counts accumulate across rebuilds; past the cap, keep the heavier half so
+     * newer queries have room again
+     */
+    private void trimRecordedQueries() {
+        if (recordedQueries.size() < maxRecordedQueries) {
+            return;
+        }
+        List<Map.Entry<String, LongAdder>> entries = new ArrayList<>(recordedQueries.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().sum()));
+        for (int i = 0; i < entries.size() - maxRecordedQueries / 2; i++) {
+            recordedQueries.remove(entries.get(i).getKey());
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,302 @@
+package com.weddingmarketplace.search.suggest;
+
+import java.util.*;
+
+/**
+ * Immutable, read-optimized prefix completion index.
+ *
+ * A radix trie over the distinct terms, flattened into primitive arrays: nodes are
+ * numbered breadth first so the children of a node are contiguous and sorted by the first
+ * character of their edge label, and every edge label is a slice of the term it was cut
+ * from, so no characters are stored twice. Each node carries its best {@code topK}
+ * completions, chosen at build time by weight, which makes a lookup a walk down the
+ * prefix (a binary search over the children at each branch) followed by a copy of the
+ * precomputed list: O(prefix length), independent of how many terms share the prefix.
+ *
+ * Instances are never modified; a new index is built from scratch and swapped in.
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class CompletionIndex {
+
+    public static final CompletionIndex EMPTY = builder().build(1);
+
+    private final int topK;
+
+    // Terms in sorted order, concatenated; term i is termChars[termOffsets[i], termOffsets[i + 1])
+    private final char[] termChars;
+    private final int[] termOffsets;
+    private final long[] termWeights;
+
+    // Children of node n are firstChild[n] .. firstChild[n + 1] - 1
+    private final int[] firstChild;
+    // Label of the edge into node n, as a slice of termChars
+    private final int[] labelOffset;
+    private final int[] labelLength;
+    // Best completions of node n are term ids topTerms[topOffset[n], topOffset[n + 1])
+    private final int[] topOffset;
+    private final int[] topTerms;
+
+    private CompletionIndex(int topK, char[] termChars, int[] termOffsets, long[] termWeights, int[] firstChild,
+                            int[] labelOffset, int[] labelLength, int[] topOffset, int[] topTerms) {
+        this.topK = topK;
+        this.termChars = termChars;
+        this.termOffsets = termOffsets;
+        this.termWeights = termWeights;
+        this.firstChild = firstChild;
+        this.labelOffset = labelOffset;
+        this.labelLength = labelLength;
+        this.topOffset = topOffset;
+        this.topTerms = topTerms;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Up to {@code limit} (capped at the build-time top-K) terms starting with
+     * {@code prefix}, heaviest first, ties in lexicographic order
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        int node = find(prefix);
+        if (node < 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int from = topOffset[node];
+        int to = Math.min(topOffset[node + 1], from + limit);
+        List<Completion> completions = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            int term = topTerms[i];
+            completions.add(new Completion(term(term), termWeights[term]));
+        }
+        return completions;
+    }
+
+    /**
+     * Number of distinct terms
+     */
+    public int size() {
+        return termWeights.length;
+    }
+
+    public int nodeCount() {
+        return labelOffset.length;
+    }
+
+    public int topK() {
+        return topK;
+    }
+
+    /**
+     * Approximate heap footprint of the index arrays
+     */
+    public long memoryBytes() {
+        long arrayHeader = 16;
+        return 9 * arrayHeader
+            + (long) termChars.length * Character.BYTES
+            + (long) (termOffsets.length + firstChild.length + labelOffset.length + labelLength.length
+                + topOffset.length + topTerms.length) * Integer.BYTES
+            + (long) termWeights.length * Long.BYTES;
+    }
+
+    // Node lookup
+
+    private int find(String prefix) {
+        int node = 0;
+        int matched = 0;
+        int length = prefix.length();
+        while (matched < length) {
+            int child = findChild(node, prefix.charAt(matched));
+            if (child < 0) {
+                return -1;
+            }
+            // The first character matched in findChild; the prefix may end inside the label
+            int offset = labelOffset[child];
+            int common = Math.min(labelLength[child], length - matched);
+            for (int i = 1; i < common; i++) {
+                if (termChars[offset + i] != prefix.charAt(matched + i)) {
+                    return -1;
+                }
+            }
+            matched += common;
+            node = child;
+        }
+        return node;
+    }
+
+    private int findChild(int node, char c) {
+        int low = firstChild[node];
+        int high = firstChild[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = termChars[labelOffset[mid]];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private String term(int term) {
+        int offset = termOffsets[term];
+        return new String(termChars, offset, termOffsets[term + 1] - offset);
+    }
+
+    @lombok.Value
+    public static class Completion {
+        String text;
+        long weight;
+    }
+
+    /**
+     * Accumulates term weights; adding a term again adds to its weight
+     */
+    public static final class Builder {
+
+        private final Map<String, Long> weights = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String term, long weight) {
+            if (term != null && !term.isEmpty()) {
+                weights.merge(term, weight, Long::sum);
+            }
+            return this;
+        }
+
+        public int size() {
+            return weights.size();
+        }
+
+        public CompletionIndex build(int topK) {
+            if (topK < 1) {
+                throw new IllegalArgumentException("topK must be at least 1: " + topK);
+            }
+
+            String[] terms = weights.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            int[] termOffsets = new int[terms.length + 1];
+            long[] termWeights = new long[terms.length];
+            int chars = 0;
+            for (int i = 0; i < terms.length; i++) {
+                termOffsets[i] = chars;
+                termWeights[i] = weights.get(terms[i]);
+                chars += terms[i].length();
+            }
+            termOffsets[terms.length] = chars;
+            char[] termChars = new char[chars];
+            for (int i = 0; i < terms.length; i++) {
+                terms[i].getChars(0, terms[i].length(), termChars, termOffsets[i]);
+            }
+
+            Comparator<Integer> heaviestFirst = (a, b) -> termWeights[a] != termWeights[b]
+                ? Long.compare(termWeights[b], termWeights[a])
+                : Integer.compare(a, b);
+            Node root = terms.length == 0
+                ? new Node(0, 0, new int[0])
+                : build(terms, termOffsets, 0, terms.length, 0, 0, 0, topK, heaviestFirst);
+
+            // Flatten breadth first, so siblings get consecutive numbers
+            List<Node> nodes = new ArrayList<>();
+            nodes.add(root);
+            int topCount = 0;
+            for (int i = 0; i < nodes.size(); i++) {
+                Node node = nodes.get(i);
+                nodes.addAll(node.children);
+                topCount += node.top.length;
+            }
+
+            int count = nodes.size();
+            int[] firstChild = new int[count + 1];
+            int[] labelOffset = new int[count];
+            int[] labelLength = new int[count];
+            int[] topOffset = new int[count + 1];
+            int[] topTerms = new int[topCount];
+            int nextChild = 1;
+            int nextTop = 0;
+            for (int i = 0; i < count; i++) {
+                Node node = nodes.get(i);
+                firstChild[i] = nextChild;
+                nextChild += node.children.size();
+                labelOffset[i] = node.labelOffset;
+                labelLength[i] = node.labelLength;
+                topOffset[i] = nextTop;
+                System.arraycopy(node.top, 0, topTerms, nextTop, node.top.length);
+                nextTop += node.top.length;
+            }
+            firstChild[count] = nextChild;
+            topOffset[count] = nextTop;
+
+            return new CompletionIndex(topK, termChars, termOffsets, termWeights, firstChild, labelOffset,
+                labelLength, topOffset, topTerms);
+        }
+
+        /**
+         * Node for the sorted terms [from, to), which share their first {@code depth}
+         * characters; the edge into it is {@code labelLength} characters ending at depth
+         */
+        private static Node build(String[] terms, int[] termOffsets, int from, int to, int depth,
+                                  int labelOffset, int labelLength, int topK, Comparator<Integer> heaviestFirst) {
+            List<Node> children = new ArrayList<>();
+            List<Integer> candidates = new ArrayList<>();
+
+            int i = from;
+            // A term equal to the shared prefix sorts first and ends here
+            if (terms[i].length() == depth) {
+                candidates.add(i);
+                i++;
+            }
+            while (i < to) {
+                char c = terms[i].charAt(depth);
+                int end = i + 1;
+                while (end < to && terms[end].charAt(depth) == c) {
+                    end++;
+                }
+                // In sorted order the common prefix of a run is that of its first and last term
+                String first = terms[i];
+                String last = terms[end - 1];
+                int limit = Math.min(first.length(), last.length());
+                int split = depth + 1;
+                while (split < limit && first.charAt(split) == last.charAt(split)) {
+                    split++;
+                }
+
+                Node child = build(terms, termOffsets, i, end, split, termOffsets[i] + depth, split - depth,
+                    topK, heaviestFirst);
+                children.add(child);
+                for (int term : child.top) {
+                    candidates.add(term);
+                }
+                i = end;
+            }
+
+            candidates.sort(heaviestFirst);
+            int[] top = new int[Math.min(topK, candidates.size())];
+            for (int t = 0; t < top.length; t++) {
+                top[t] = candidates.get(t);
+            }
+            Node node = new Node(labelOffset, labelLength, top);
+            node.children.addAll(children);
+            return node;
+        }
+    }
+
+    private static final class Node {
+        final int labelOffset;
+        final int labelLength;
+        final int[] top;
+        final List<Node> children = new ArrayList<>();
+
+        Node(int labelOffset, int labelLength, int[] top) {
+            this.labelOffset = labelOffset;
+            this.labelLength = labelLength;
+            this.top = top;
+        }
+    }
+}
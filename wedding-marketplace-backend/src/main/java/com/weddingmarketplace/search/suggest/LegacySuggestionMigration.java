@@ -0,0 +1,165 @@
+package com.weddingmarketplace.search.suggest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * One-time carry-over of query counts and user histories kept before the
+ * {@link PrefixSuggestionIndex}, so suggestions do not start from zero.
+ *
+ * Counts come from the {@code query_frequency} set and from the untagged
+ * {@code suggest:freq} set of the first prefix index release; histories come from the
+ * {@code user_queries:<userId>} sets. Counts are added to those recorded since, most
+ * popular first and up to {@code max-tracked-queries}, and written into their prefix
+ * sets on the way. Members are removed from the old sets as they are carried over, so a
+ * run cut short resumes where it stopped; a page in flight may be counted twice.
+ *
+ * One node runs it after startup, under a SETNX lease, and a marker key stops every
+ * later start from running it again. The untagged {@code suggest:prefix:*} sets are left
+ * to expire through their TTL.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LegacySuggestionMigration {
+
+    static final String LEGACY_FREQUENCY_KEY = "query_frequency";
+    static final String UNTAGGED_FREQUENCY_KEY = "suggest:freq";
+    static final String LEGACY_USER_KEY_PREFIX = "user_queries:";
+    static final String MIGRATED_KEY = "{suggest}:migrated";
+    private static final String LOCK_KEY = "{suggest}:migration:lock";
+    private static final Duration LOCK_LEASE = Duration.ofMinutes(30);
+    private static final int PAGE_SIZE = 500;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final PrefixSuggestionIndex prefixSuggestionIndex;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.search.suggest.prefix.max-tracked-queries:200000}")
+    private long maxTrackedQueries;
+
+    @Value("${app.search.suggest.prefix.user-history:100}")
+    private int userHistory;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Async("suggestionsExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(MIGRATED_KEY))) {
+                return;
+            }
+            Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, nodeId, LOCK_LEASE);
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+
+            try {
+                long started = System.currentTimeMillis();
+                long queries = migrateCounts(LEGACY_FREQUENCY_KEY) + migrateCounts(UNTAGGED_FREQUENCY_KEY);
+                long users = migrateHistories();
+                stringRedisTemplate.opsForValue().set(MIGRATED_KEY, Instant.now().toString());
+                log.info("Carried {} query counts and {} user histories over to the suggestion prefix index in {} ms",
+                    queries, users, System.currentTimeMillis() - started);
+            } finally {
+                stringRedisTemplate.delete(LOCK_KEY);
+            }
+        } catch (Exception e) {
+            // Progress is kept in the old sets, so the next start picks up from here
+            log.warn("Suggestion key migration failed: {}", e.getMessage());
+        }
+    }
+
+    long migrateCounts(String legacyKey) {
+        long migrated = 0;
+        while (migrated < maxTrackedQueries) {
+            Set<ZSetOperations.TypedTuple<String>> page = stringRedisTemplate.opsForZSet()
+                .reverseRangeWithScores(legacyKey, 0, PAGE_SIZE - 1);
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            prefixSuggestionIndex.importCounts(decode(page));
+            stringRedisTemplate.opsForZSet().remove(legacyKey, page.stream().map(ZSetOperations.TypedTuple::getValue).toArray());
+            migrated += page.size();
+        }
+        // Whatever is left ranks below what compaction would keep
+        stringRedisTemplate.delete(legacyKey);
+        return migrated;
+    }
+
+    long migrateHistories() {
+        long migrated = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_USER_KEY_PREFIX + "*").count(PAGE_SIZE).build();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                Long userId = parseUserId(key);
+                if (userId != null) {
+                    Set<ZSetOperations.TypedTuple<String>> history = stringRedisTemplate.opsForZSet()
+                        .reverseRangeWithScores(key, 0, userHistory - 1);
+                    if (history != null && !history.isEmpty()) {
+                        prefixSuggestionIndex.importHistory(userId, decode(history));
+                        migrated++;
+                    }
+                }
+                stringRedisTemplate.delete(key);
+            }
+        }
+        return migrated;
+    }
+
+    private List<PrefixSuggestionIndex.ScoredQuery> decode(Set<ZSetOperations.TypedTuple<String>> tuples) {
+        List<PrefixSuggestionIndex.ScoredQuery> queries = new ArrayList<>(tuples.size());
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            String query = decodeMember(tuple.getValue());
+            if (query != null && tuple.getScore() != null) {
+                queries.add(new PrefixSuggestionIndex.ScoredQuery(query, tuple.getScore()));
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * The plain query behind a member written by the object-valued template, which stores
+     * strings as JSON; members that are not text are skipped
+     */
+    String decodeMember(String member) {
+        if (member == null || member.isEmpty()) {
+            return null;
+        }
+        if (member.length() >= 2 && member.startsWith("\"") && member.endsWith("\"")) {
+            try {
+                return objectMapper.readValue(member, String.class);
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+        return member.chars().anyMatch(Character::isISOControl) ? null : member;
+    }
+
+    private static Long parseUserId(String key) {
+        try {
+            return Long.valueOf(key.substring(LEGACY_USER_KEY_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.weddingmarketplace.search.suggest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Redis prefix index of search query popularity, for autocomplete.
+ *
+ * Every recorded query bumps its count in a global sorted set and is written, with that
+ * count, into one capped sorted set per prefix ({@code min-length} to {@code max-length}
+ * characters), all in a single script call. A keystroke is then one {@code ZREVRANGE} of
+ * the prefix's set, which already holds exactly its top completions. Prefixes longer than
+ * {@code max-length} read the longest prefix set and filter it, which is still bounded.
+ *
+ * Memory is bounded three ways: each prefix set keeps at most {@code per-prefix} members,
+ * prefix sets expire after {@code ttl} without writes, and compaction trims the global set
+ * to {@code max-tracked-queries}, removing the dropped queries from their prefix sets too.
+ * Compaction also rewrites the {@code reseed-top} most popular queries into their prefix
+ * sets, which heals sets that expired or evicted a query that has since grown.
+ *
+ * The global and prefix sets share the {@code {suggest}} hash tag, so the record script
+ * touching all of them runs within one Redis Cluster slot. The whole index therefore
+ * lives on one shard, which its bounds keep small.
+ *
+ * A user's recent queries live in one small set capped at {@code user-history}; their
+ * prefix matches are filtered server-side so only the matches come back.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PrefixSuggestionIndex {
+
+    static final String FREQUENCY_KEY = "{suggest}:freq";
+    static final String PREFIX_KEY_PREFIX = "{suggest}:prefix:";
+    static final String USER_KEY_PREFIX = "suggest:user:";
+    private static final String COMPACTION_LOCK_KEY = "{suggest}:compaction:lock";
+    private static final int COMPACTION_BATCH_SIZE = 500;
+    private static final int RESEED_BATCH_SIZE = 100;
+
+    private static final RedisScript<Long> RECORD_SCRIPT = loadScript("scripts/suggest_record.lua", Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> PREFIX_TOP_SCRIPT = loadScript("scripts/suggest_prefix_top.lua", List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${app.search.suggest.prefix.min-length:1}")
+    private int minPrefixLength;
+
+    @Value("${app.search.suggest.prefix.max-length:16}")
+    private int maxPrefixLength;
+
+    @Value("${app.search.suggest.prefix.per-prefix:20}")
+    private int perPrefix;
+
+    @Value("${app.search.suggest.prefix.ttl:30d}")
+    private Duration prefixTtl;
+
+    @Value("${app.search.suggest.prefix.max-query-length:100}")
+    private int maxQueryLength;
+
+    @Value("${app.search.suggest.prefix.max-tracked-queries:200000}")
+    private long maxTrackedQueries;
+
+    @Value("${app.search.suggest.prefix.reseed-top:1000}")
+    private int reseedTop;
+
+    @Value("${app.search.suggest.prefix.user-history:100}")
+    private int userHistory;
+
+    @Value("${app.search.suggest.prefix.user-history-ttl:90d}")
+    private Duration userHistoryTtl;
+
+    @Value("${app.search.suggest.prefix.compaction-interval-ms:3600000}")
+    private long compactionIntervalMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Count a normalized query globally and, when {@code userId} is given, in that user's history
+     */
+    public void record(String query, Long userId) {
+        if (!isIndexable(query)) {
+            return;
+        }
+
+        count(query, 1.0);
+        if (userId != null) {
+            addToHistory(userId, List.of(new ScoredQuery(query, 1.0)));
+        }
+    }
+
+    /**
+     * Add counts carried over from elsewhere, writing each query into its prefix sets
+     * with its new total
+     */
+    void importCounts(List<ScoredQuery> queries) {
+        for (ScoredQuery query : queries) {
+            if (isIndexable(query.getQuery()) && query.getScore() > 0) {
+                count(query.getQuery(), query.getScore());
+            }
+        }
+    }
+
+    /**
+     * Add queries carried over from elsewhere to a user's history
+     */
+    void importHistory(Long userId, List<ScoredQuery> queries) {
+        List<ScoredQuery> indexable = queries.stream()
+            .filter(query -> isIndexable(query.getQuery()))
+            .toList();
+        if (!indexable.isEmpty()) {
+            addToHistory(userId, indexable);
+        }
+    }
+
+    /**
+     * Most searched queries starting with a normalized prefix, best first
+     */
+    public List<ScoredQuery> topForPrefix(String prefix, int limit) {
+        if (prefix == null || prefix.length() < minPrefixLength || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        if (prefix.length() <= maxPrefixLength) {
+            return toScoredQueries(stringRedisTemplate.opsForZSet()
+                .reverseRangeWithScores(PREFIX_KEY_PREFIX + prefix, 0, limit - 1));
+        }
+
+        // Beyond the indexed lengths, narrow the longest indexed prefix
+        List<ScoredQuery> candidates = toScoredQueries(stringRedisTemplate.opsForZSet()
+            .reverseRangeWithScores(PREFIX_KEY_PREFIX + prefix.substring(0, maxPrefixLength), 0, -1));
+        List<ScoredQuery> matches = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (ScoredQuery candidate : candidates) {
+            if (candidate.getQuery().startsWith(prefix)) {
+                matches.add(candidate);
+                if (matches.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * A user's most frequent recent queries starting with a normalized prefix, best first
+     */
+    public List<ScoredQuery> topForUser(Long userId, String prefix, int limit) {
+        if (userId == null || prefix == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<?> flat = stringRedisTemplate.execute(PREFIX_TOP_SCRIPT, List.of(USER_KEY_PREFIX + userId),
+            prefix, String.valueOf(limit));
+        if (flat == null || flat.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ScoredQuery> matches = new ArrayList<>(flat.size() / 2);
+        for (int i = 0; i + 1 < flat.size(); i += 2) {
+            matches.add(new ScoredQuery(String.valueOf(flat.get(i)), Double.parseDouble(String.valueOf(flat.get(i + 1)))));
+        }
+        return matches;
+    }
+
+    /**
+     * Trim the tracked queries and reseed the popular ones, on one node per interval
+     */
+    @Scheduled(fixedDelayString = "${app.search.suggest.prefix.compaction-interval-ms:3600000}",
+        initialDelayString = "${app.search.suggest.prefix.compaction-interval-ms:3600000}")
+    public void compact() {
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                .setIfAbsent(COMPACTION_LOCK_KEY, nodeId, Duration.ofMillis(compactionIntervalMs / 2));
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+
+            long started = System.currentTimeMillis();
+            long trimmed = trimTrackedQueries();
+            int reseeded = reseedPopularQueries();
+            log.info("Suggestion prefix index compacted in {} ms: {} queries trimmed, {} reseeded",
+                System.currentTimeMillis() - started, trimmed, reseeded);
+        } catch (Exception e) {
+            log.warn("Suggestion prefix index compaction failed: {}", e.getMessage());
+        }
+    }
+
+    // Compaction
+
+    private long trimTrackedQueries() {
+        Long size = stringRedisTemplate.opsForZSet().zCard(FREQUENCY_KEY);
+        long excess = size != null ? size - maxTrackedQueries : 0;
+        long trimmed = 0;
+        while (excess > 0) {
+            // Lowest counts first
+            Set<String> victims = stringRedisTemplate.opsForZSet()
+                .range(FREQUENCY_KEY, 0, Math.min(excess, COMPACTION_BATCH_SIZE) - 1);
+            if (victims == null || victims.isEmpty()) {
+                break;
+            }
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    ops.opsForZSet().remove(FREQUENCY_KEY, victims.toArray());
+                    for (String victim : victims) {
+                        for (String prefixKey : prefixKeys(victim)) {
+                            ops.opsForZSet().remove(prefixKey, victim);
+                        }
+                    }
+                    return null;
+                }
+            });
+            trimmed += victims.size();
+            excess -= victims.size();
+        }
+        return trimmed;
+    }
+
+    private int reseedPopularQueries() {
+        List<ScoredQuery> popular = toScoredQueries(stringRedisTemplate.opsForZSet()
+            .reverseRangeWithScores(FREQUENCY_KEY, 0, reseedTop - 1));
+        for (int from = 0; from < popular.size(); from += RESEED_BATCH_SIZE) {
+            List<ScoredQuery> batch = popular.subList(from, Math.min(from + RESEED_BATCH_SIZE, popular.size()));
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (ScoredQuery query : batch) {
+                        if (query.getQuery().length() > maxQueryLength) {
+                            continue;
+                        }
+                        for (String prefixKey : prefixKeys(query.getQuery())) {
+                            ops.opsForZSet().add(prefixKey, query.getQuery(), query.getScore());
+                            ops.opsForZSet().removeRange(prefixKey, 0, -(perPrefix + 1));
+                            ops.expire(prefixKey, prefixTtl);
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        return popular.size();
+    }
+
+    // Helpers
+
+    private boolean isIndexable(String query) {
+        return query != null && query.length() >= minPrefixLength && query.length() <= maxQueryLength;
+    }
+
+    private void count(String query, double increment) {
+        List<String> keys = new ArrayList<>();
+        keys.add(FREQUENCY_KEY);
+        keys.addAll(prefixKeys(query));
+        stringRedisTemplate.execute(RECORD_SCRIPT, keys, query, String.valueOf(perPrefix),
+            String.valueOf(prefixTtl.toSeconds()), String.valueOf(increment));
+    }
+
+    private void addToHistory(Long userId, List<ScoredQuery> queries) {
+        String userKey = USER_KEY_PREFIX + userId;
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (ScoredQuery query : queries) {
+                    ops.opsForZSet().incrementScore(userKey, query.getQuery(), query.getScore());
+                }
+                ops.opsForZSet().removeRange(userKey, 0, -(userHistory + 1));
+                ops.expire(userKey, userHistoryTtl);
+                return null;
+            }
+        });
+    }
+
+    List<String> prefixKeys(String query) {
+        int longest = Math.min(query.length(), maxPrefixLength);
+        List<String> keys = new ArrayList<>(Math.max(0, longest - minPrefixLength + 1));
+        for (int length = minPrefixLength; length <= longest; length++) {
+            // Never cut a surrogate pair in half
+            if (length < query.length() && Character.isHighSurrogate(query.charAt(length - 1))) {
+                continue;
+            }
+            keys.add(PREFIX_KEY_PREFIX + query.substring(0, length));
+        }
+        return keys;
+    }
+
+    private static List<ScoredQuery> toScoredQueries(Set<ZSetOperations.TypedTuple<String>> tuples) {
+        if (tuples == null || tuples.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ScoredQuery> queries = new ArrayList<>(tuples.size());
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            if (tuple.getValue() != null) {
+                queries.add(new ScoredQuery(tuple.getValue(), tuple.getScore() != null ? tuple.getScore() : 0.0));
+            }
+        }
+        return queries;
+    }
+
+    private static <T> RedisScript<T> loadScript(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+
+    @lombok.Value
+    public static class ScoredQuery {
+        String query;
+        double score;
+    }
+}
@@ -0,0 +1,197 @@
+package com.weddingmarketplace.search.trending;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Space-Saving heavy-hitter sketch with exponential time decay.
+ *
+ * Tracks at most {@code capacity} items. An untracked item replaces the one with the
+ * smallest count and inherits that count as its possible overestimate, so every item
+ * whose true count exceeds 1/capacity of the total is guaranteed to be tracked, and
+ * {@code count - error} is a lower bound on its true count.
+ *
+ * Counts decay with the given half-life: an event {@code h} ago counts 1/2, one {@code 2h}
+ * ago counts 1/4. Rather than touching every counter as time passes, events are weighted
+ * up by {@code 2^(age of the landmark / h)} (forward decay), which keeps the heap order
+ * intact; the landmark moves forward and all counters are rescaled once the weights grow
+ * large. A steady stream of {@code r} events per second settles at a decayed count of
+ * {@code r / lambda} with {@code lambda = ln 2 / h}, which is what {@link #rate} inverts.
+ *
+ * Thread-safe; offers are O(log capacity).
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class DecayingHeavyHitters {
+
+    // e^64 is far from overflow and still leaves plenty of double precision for new events
+    private static final double MAX_EXPONENT = 64.0;
+
+    private final int capacity;
+    private final double lambdaPerMilli;
+    private final Map<String, Integer> slots;
+    private final String[] items;
+    private final double[] counts;
+    private final double[] errors;
+    // Min-heap of slots by count, and each slot's position in it
+    private final int[] heap;
+    private final int[] position;
+    private int size;
+    private long landmark;
+
+    public DecayingHeavyHitters(int capacity, Duration halfLife, long nowMillis) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        if (halfLife.isZero() || halfLife.isNegative()) {
+            throw new IllegalArgumentException("halfLife must be positive: " + halfLife);
+        }
+        this.capacity = capacity;
+        this.lambdaPerMilli = Math.log(2) / halfLife.toMillis();
+        this.slots = new HashMap<>(capacity * 2);
+        this.items = new String[capacity];
+        this.counts = new double[capacity];
+        this.errors = new double[capacity];
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.landmark = nowMillis;
+    }
+
+    public synchronized void offer(String item, long nowMillis) {
+        double weight = weight(nowMillis);
+        Integer slot = slots.get(item);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(position[slot]);
+            return;
+        }
+
+        if (size < capacity) {
+            slot = size;
+            items[slot] = item;
+            counts[slot] = weight;
+            errors[slot] = 0;
+            heap[size] = slot;
+            position[slot] = size;
+            size++;
+            siftUp(size - 1);
+        } else {
+            slot = heap[0];
+            slots.remove(items[slot]);
+            double evicted = counts[slot];
+            items[slot] = item;
+            counts[slot] = evicted + weight;
+            errors[slot] = evicted;
+            siftDown(0);
+        }
+        slots.put(item, slot);
+    }
+
+    /**
+     * Guaranteed decayed count of {@code item} at {@code nowMillis}; 0 if untracked
+     */
+    public synchronized double count(String item, long nowMillis) {
+        Integer slot = slots.get(item);
+        return slot != null ? (counts[slot] - errors[slot]) * decay(nowMillis) : 0.0;
+    }
+
+    /**
+     * Events per second implied by a decayed count of this sketch
+     */
+    public double rate(double decayedCount) {
+        return decayedCount * lambdaPerMilli * 1000.0;
+    }
+
+    /**
+     * Up to {@code limit} items by guaranteed decayed count at {@code nowMillis}, highest first
+     */
+    public synchronized List<Estimate> top(int limit, long nowMillis) {
+        double decay = decay(nowMillis);
+        List<Estimate> estimates = new ArrayList<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            estimates.add(new Estimate(items[slot], (counts[slot] - errors[slot]) * decay, errors[slot] * decay));
+        }
+        estimates.sort(Comparator.comparingDouble(Estimate::getCount).reversed());
+        return estimates.size() > limit ? new ArrayList<>(estimates.subList(0, limit)) : estimates;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Forward decay
+
+    private double weight(long nowMillis) {
+        double exponent = lambdaPerMilli * (nowMillis - landmark);
+        if (exponent > MAX_EXPONENT) {
+            rescale(nowMillis);
+            exponent = 0;
+        }
+        return Math.exp(exponent);
+    }
+
+    private double decay(long nowMillis) {
+        return Math.exp(-lambdaPerMilli * (nowMillis - landmark));
+    }
+
+    private void rescale(long nowMillis) {
+        double decay = decay(nowMillis);
+        for (int slot = 0; slot < size; slot++) {
+            counts[slot] *= decay;
+            errors[slot] *= decay;
+        }
+        landmark = nowMillis;
+    }
+
+    // Indexed min-heap
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[heap[index]]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[heap[left]] < counts[heap[smallest]]) {
+                smallest = left;
+            }
+            if (right < size && counts[heap[right]] < counts[heap[smallest]]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int slotA = heap[a];
+        int slotB = heap[b];
+        heap[a] = slotB;
+        heap[b] = slotA;
+        position[slotB] = a;
+        position[slotA] = b;
+    }
+
+    @lombok.Value
+    public static class Estimate {
+        String item;
+        double count;
+        double error;
+    }
+}
@@ -0,0 +1,244 @@
+package com.weddingmarketplace.search.trending;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Trending search queries from per-node decaying heavy-hitter sketches.
+ *
+ * Each node counts its own queries in two {@link DecayingHeavyHitters} sketches, one with
+ * a short and one with a long half-life; recording a query touches no shared state beyond
+ * them. Every {@code publish-interval-ms} the node writes the head of its sketches to its
+ * own Redis hash, swapped in with a rename, and stamps the time in {@code trending:nodes}.
+ *
+ * Decayed counts from disjoint streams simply add, so a reader merges the snapshots of all
+ * nodes, decaying each from its stamp to now. Snapshots of nodes that have gone away keep
+ * contributing at their decayed weight until they expire after {@code retention}, so a
+ * rolling restart does not wipe the trend history.
+ *
+ * Momentum is the short-horizon rate over the long-horizon rate, smoothed by one event
+ * per long half-life: 1 is steady, above 1 is accelerating.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingQueryTracker {
+
+    static final String NODES_KEY = "trending:nodes";
+    static final String NODE_KEY_PREFIX = "trending:node:";
+    private static final String SEPARATOR = "|";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${app.search.trending.capacity:5000}")
+    private int capacity;
+
+    @Value("${app.search.trending.short-half-life:1h}")
+    private Duration shortHalfLife;
+
+    @Value("${app.search.trending.long-half-life:24h}")
+    private Duration longHalfLife;
+
+    @Value("${app.search.trending.publish-top:1000}")
+    private int publishTop;
+
+    @Value("${app.search.trending.retention:5d}")
+    private Duration retention;
+
+    @Value("${app.search.trending.min-count:3}")
+    private double minCount;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private DecayingHeavyHitters shortTerm;
+    private DecayingHeavyHitters longTerm;
+
+    @PostConstruct
+    public void init() {
+        long now = System.currentTimeMillis();
+        shortTerm = new DecayingHeavyHitters(capacity, shortHalfLife, now);
+        longTerm = new DecayingHeavyHitters(capacity, longHalfLife, now);
+    }
+
+    /**
+     * Count a normalized query on this node
+     */
+    public void record(String query) {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        shortTerm.offer(query, now);
+        longTerm.offer(query, now);
+    }
+
+    /**
+     * Top trending queries across all nodes. {@code window} picks the horizon the
+     * frequency is estimated over; queries with fewer than {@code min-count} recent
+     * searches are left out, so a single search cannot trend.
+     */
+    public List<Trend> trending(Duration window, int limit) {
+        long now = System.currentTimeMillis();
+        Map<String, double[]> merged = mergedCounts(now);
+
+        boolean shortHorizon = window.toMillis() <= Math.sqrt((double) shortHalfLife.toMillis() * longHalfLife.toMillis());
+        double smoothing = longTerm.rate(1.0);
+        double windowSeconds = window.toMillis() / 1000.0;
+
+        List<Trend> trends = new ArrayList<>();
+        for (Map.Entry<String, double[]> entry : merged.entrySet()) {
+            double shortCount = entry.getValue()[0];
+            double longCount = entry.getValue()[1];
+            if (shortCount < minCount) {
+                continue;
+            }
+            double shortRate = shortTerm.rate(shortCount);
+            double longRate = longTerm.rate(longCount);
+            double rate = shortHorizon ? shortRate : longRate;
+            trends.add(new Trend(entry.getKey(), Math.round(rate * windowSeconds), rate,
+                (shortRate + smoothing) / (longRate + smoothing)));
+        }
+        trends.sort(Comparator.comparingDouble(Trend::getRate).reversed());
+        return trends.size() > limit ? new ArrayList<>(trends.subList(0, limit)) : trends;
+    }
+
+    /**
+     * Publish this node's snapshot; one pipelined write per interval
+     */
+    @Scheduled(fixedDelayString = "${app.search.trending.publish-interval-ms:30000}")
+    public void publish() {
+        long now = System.currentTimeMillis();
+        Map<String, String> snapshot = new HashMap<>();
+        localCounts(now).forEach((query, counts) -> snapshot.put(query, counts[0] + SEPARATOR + counts[1]));
+        if (snapshot.isEmpty()) {
+            return;
+        }
+
+        String nodeKey = NODE_KEY_PREFIX + nodeId;
+        String stagingKey = nodeKey + ":staging";
+        try {
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    ops.delete(stagingKey);
+                    ops.opsForHash().putAll(stagingKey, snapshot);
+                    ops.expire(stagingKey, retention);
+                    // Readers see either the previous snapshot or this one, never a partial write
+                    ops.rename(stagingKey, nodeKey);
+                    ops.opsForZSet().add(NODES_KEY, nodeId, now);
+                    ops.opsForZSet().removeRangeByScore(NODES_KEY, Double.NEGATIVE_INFINITY, now - retention.toMillis());
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to publish trending query sketch: {}", e.getMessage());
+        }
+    }
+
+    // Merging
+
+    /**
+     * Short and long decayed counts per query at {@code now}: this node's live sketches
+     * plus every other node's last snapshot, decayed from its stamp
+     */
+    private Map<String, double[]> mergedCounts(long now) {
+        Map<String, double[]> merged = localCounts(now);
+        try {
+            Set<ZSetOperations.TypedTuple<String>> nodes = stringRedisTemplate.opsForZSet()
+                .rangeByScoreWithScores(NODES_KEY, now - retention.toMillis(), Double.POSITIVE_INFINITY);
+            if (nodes == null || nodes.isEmpty()) {
+                return merged;
+            }
+
+            List<ZSetOperations.TypedTuple<String>> peers = new ArrayList<>();
+            for (ZSetOperations.TypedTuple<String> node : nodes) {
+                if (node.getValue() != null && node.getScore() != null && !nodeId.equals(node.getValue())) {
+                    peers.add(node);
+                }
+            }
+            List<Object> snapshots = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (ZSetOperations.TypedTuple<String> peer : peers) {
+                        ops.opsForHash().entries(NODE_KEY_PREFIX + peer.getValue());
+                    }
+                    return null;
+                }
+            });
+
+            for (int i = 0; i < peers.size(); i++) {
+                double age = Math.max(0, now - peers.get(i).getScore());
+                mergeSnapshot(merged, (Map<?, ?>) snapshots.get(i),
+                    Math.pow(0.5, age / shortHalfLife.toMillis()), Math.pow(0.5, age / longHalfLife.toMillis()));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read peer trending sketches, using this node only: {}", e.getMessage());
+        }
+        return merged;
+    }
+
+    private Map<String, double[]> localCounts(long now) {
+        Map<String, double[]> counts = new HashMap<>();
+        // The long sketch is looked up for short-term heads too, and vice versa, so a
+        // query's momentum is never computed against a missing half
+        for (DecayingHeavyHitters.Estimate estimate : shortTerm.top(publishTop, now)) {
+            counts.computeIfAbsent(estimate.getItem(), query -> new double[] {
+                estimate.getCount(), longTerm.count(query, now)});
+        }
+        for (DecayingHeavyHitters.Estimate estimate : longTerm.top(publishTop, now)) {
+            counts.computeIfAbsent(estimate.getItem(), query -> new double[] {
+                shortTerm.count(query, now), estimate.getCount()});
+        }
+        return counts;
+    }
+
+    static void mergeSnapshot(Map<String, double[]> merged, Map<?, ?> snapshot, double shortDecay, double longDecay) {
+        if (snapshot == null) {
+            return;
+        }
+        for (Map.Entry<?, ?> entry : snapshot.entrySet()) {
+            String value = String.valueOf(entry.getValue());
+            int separator = value.indexOf(SEPARATOR);
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                double shortCount = Double.parseDouble(value.substring(0, separator)) * shortDecay;
+                double longCount = Double.parseDouble(value.substring(separator + 1)) * longDecay;
+                double[] counts = merged.computeIfAbsent(String.valueOf(entry.getKey()), query -> new double[2]);
+                counts[0] += shortCount;
+                counts[1] += longCount;
+            } catch (NumberFormatException e) {
+                // Skip a malformed entry rather than the whole snapshot
+            }
+        }
+    }
+
+    @lombok.Value
+    public static class Trend {
+        String query;
+        /** Estimated searches over the requested window */
+        long frequency;
+        /** Searches per second over the chosen horizon */
+        double rate;
+        double momentum;
+    }
+}
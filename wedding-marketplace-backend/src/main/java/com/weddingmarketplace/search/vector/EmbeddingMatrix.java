@@ -0,0 +1,130 @@
+package com.weddingmarketplace.search.vector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Row-major float32 embeddings in one contiguous array, scored one-against-all by
+ * {@link VectorMath#dotAll}.
+ *
+ * Rows are expected to be unit length, so the dot product is the cosine similarity.
+ * Keeping every row in a single array instead of one {@code float[]} per vendor removes
+ * a header and a pointer chase per row and lets a scan stream memory sequentially.
+ * The matrix is deliberately on-heap: the Vector API can only load from arrays on every
+ * JDK this service builds and runs on (buffer loads changed to memory segments in
+ * JDK 20), and a scan that cannot be vectorized would give back everything gained.
+ *
+ * Not thread-safe; a single writer must be synchronized with readers externally.
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class EmbeddingMatrix {
+
+    private final int dimension;
+    private float[] data;
+    private int rows;
+
+    public EmbeddingMatrix(int dimension, int initialCapacity) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Dimension must be positive");
+        }
+        this.dimension = dimension;
+        this.data = new float[Math.max(1, initialCapacity) * dimension];
+    }
+
+    /**
+     * Append a row and return its index
+     */
+    public int add(float[] vector) {
+        checkDimension(vector);
+        if ((rows + 1) * (long) dimension > data.length) {
+            long grown = Math.max((long) data.length * 2, (rows + 1L) * dimension);
+            if (grown > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Embedding matrix is full at " + rows + " rows");
+            }
+            data = Arrays.copyOf(data, (int) grown);
+        }
+        System.arraycopy(vector, 0, data, rows * dimension, dimension);
+        return rows++;
+    }
+
+    public void set(int row, float[] vector) {
+        checkDimension(vector);
+        checkRow(row);
+        System.arraycopy(vector, 0, data, row * dimension, dimension);
+    }
+
+    public float[] get(int row) {
+        checkRow(row);
+        return Arrays.copyOfRange(data, row * dimension, (row + 1) * dimension);
+    }
+
+    public float dot(int row, float[] query) {
+        checkRow(row);
+        return VectorMath.kernel().dot(query, 0, data, row * dimension, dimension);
+    }
+
+    /**
+     * Similarity of two rows
+     */
+    float dot(int rowA, int rowB) {
+        return VectorMath.kernel().dot(data, rowA * dimension, data, rowB * dimension, dimension);
+    }
+
+    /**
+     * Similarity of {@code query} to every row; {@code scores} must hold {@link #rows()} values
+     */
+    public void dotAll(float[] query, float[] scores) {
+        checkDimension(query);
+        VectorMath.dotAll(query, data, rows, scores);
+    }
+
+    /**
+     * Exact top-k rows accepted by {@code accept} (all rows when null), best first
+     */
+    public List<Match> search(float[] query, int k, IntPredicate accept) {
+        checkDimension(query);
+        TopK best = new TopK(Math.max(0, k));
+        VectorKernel kernel = VectorMath.kernel();
+        for (int row = 0, offset = 0; row < rows; row++, offset += dimension) {
+            if (accept == null || accept.test(row)) {
+                best.offer(row, kernel.dot(query, 0, data, offset, dimension));
+            }
+        }
+        return best.drainBestFirst();
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Bytes held by the rows in use
+     */
+    public long memoryBytes() {
+        return (long) rows * dimension * Float.BYTES;
+    }
+
+    private void checkDimension(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + vector.length);
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+    }
+
+    @lombok.Value
+    public static class Match {
+        int row;
+        float score;
+    }
+}
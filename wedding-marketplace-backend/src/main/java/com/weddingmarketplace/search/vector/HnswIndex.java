@@ -0,0 +1,641 @@
+package com.weddingmarketplace.search.vector;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Hierarchical Navigable Small World graph for approximate nearest-neighbour search
+ * over unit-length vectors (cosine similarity is the dot product).
+ *
+ * {@code m} bounds the links per node on the upper layers (twice that on layer 0) and
+ * trades memory and build time for recall; {@code efConstruction} and the per-query
+ * {@code efSearch} are the candidate list sizes used while linking and searching.
+ * Deletes and vector updates leave a tombstone that still routes searches but is never
+ * returned; callers rebuild once {@link #tombstones()} grows too large. Attribute-only
+ * updates are applied in place.
+ *
+ * Vectors live in a row store indexed like the nodes: a float32 {@link EmbeddingMatrix}
+ * by default, or a {@link QuantizedEmbeddingMatrix} whose int8 codes drive every graph
+ * distance while the full-precision rows, possibly memory-mapped, only re-rank the best
+ * {@code k * rerankFactor} matches of a search.
+ *
+ * Searches run concurrently under a read lock; mutations take the write lock.
+ *
+ * @author Wedding Marketplace Team
+ */
+public class HnswIndex implements Closeable {
+
+    private static final int MAGIC = 0x484e5357; // "HNSW"
+    private static final int FORMAT_VERSION = 1;
+
+    private final int dimension;
+    private final int m;
+    private final int maxLinksLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+    private final EmbeddingMatrix vectors;
+    private final QuantizedEmbeddingMatrix quantized;
+    private final int rerankFactor;
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Long, Integer> nodeById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int tombstones;
+
+    public HnswIndex(int dimension, int m, int efConstruction, long seed) {
+        this(dimension, m, efConstruction, seed, null, 1);
+    }
+
+    /**
+     * Index scoring on the int8 codes of {@code quantized}, an empty store the index owns
+     * and closes; searches re-rank {@code k * rerankFactor} matches at full precision
+     */
+    public HnswIndex(int dimension, int m, int efConstruction, long seed, QuantizedEmbeddingMatrix quantized, int rerankFactor) {
+        if (dimension <= 0 || m < 2 || efConstruction < 1) {
+            throw new IllegalArgumentException("Dimension must be positive, m at least 2 and efConstruction positive");
+        }
+        if (quantized != null && (quantized.dimension() != dimension || quantized.rows() != 0 || rerankFactor < 1)) {
+            throw new IllegalArgumentException("Quantized store must be empty with dimension " + dimension
+                + " and the rerank factor positive");
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxLinksLayer0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new Random(seed);
+        this.quantized = quantized;
+        this.vectors = quantized == null ? new EmbeddingMatrix(dimension, 1024) : null;
+        this.rerankFactor = quantized == null ? 1 : rerankFactor;
+    }
+
+    /**
+     * Insert a vector or replace the one stored for {@code id}
+     */
+    public void upsert(long id, float[] vector, VectorAttributes attributes) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + vector.length);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodeById.get(id);
+            if (existing != null) {
+                if (Arrays.equals(vectorOf(existing), vector)) {
+                    nodes.get(existing).attributes = attributes;
+                    return;
+                }
+            }
+            insert(id, vector, attributes);
+            if (existing != null) {
+                // Graph links depend on the old position, so the node is retired rather than moved
+                nodes.get(existing).deleted = true;
+                tombstones++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean updateAttributes(long id, VectorAttributes attributes) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodeById.get(id);
+            if (existing == null) {
+                return false;
+            }
+            nodes.get(existing).attributes = attributes;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodeById.remove(id);
+            if (existing == null) {
+                return false;
+            }
+            nodes.get(existing).deleted = true;
+            tombstones++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return nodeById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Live vectors
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retired nodes still held in the graph
+     */
+    public int tombstones() {
+        lock.readLock().lock();
+        try {
+            return tombstones;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Up to {@code k} live vectors most similar to {@code query} whose attributes pass
+     * {@code filter}, best first. When the filter rejects most of the first candidate
+     * list the search is repeated with a wider one, degrading towards an exact scan for
+     * very selective filters rather than returning too few results.
+     */
+    public List<Neighbor> search(float[] query, int k, int efSearch, Predicate<VectorAttributes> filter) {
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + query.length);
+        }
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return Collections.emptyList();
+            }
+
+            Probe probe = probe(query);
+            int entry = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                entry = greedyClosest(probe, entry, level);
+            }
+
+            int wanted = k * rerankFactor;
+            int ef = Math.max(efSearch, wanted);
+            while (true) {
+                List<Scored> matches = searchBaseLayer(probe, entry, wanted, ef, filter);
+                if (matches.size() >= wanted || ef >= nodes.size()) {
+                    return rank(query, matches, k);
+                }
+                ef = Math.min(nodes.size(), ef * 4);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit every live vector, e.g. to rebuild the index without its tombstones
+     */
+    public void forEachLive(BiConsumer<Long, Entry> consumer) {
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < nodes.size(); i++) {
+                Node node = nodes.get(i);
+                if (!node.deleted) {
+                    consumer.accept(node.id, new Entry(vectorOf(i), node.attributes));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Release the row store; a mapped store keeps serving searches already running
+     * until its mapping is garbage collected
+     */
+    @Override
+    public void close() throws IOException {
+        if (quantized != null) {
+            quantized.close();
+        }
+    }
+
+    // Construction
+
+    private void insert(long id, float[] vector, VectorAttributes attributes) {
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        Node node = new Node(id, attributes, level);
+        int index = addRow(vector);
+        nodes.add(node);
+        nodeById.put(id, index);
+
+        if (entryPoint < 0) {
+            entryPoint = index;
+            maxLevel = level;
+            return;
+        }
+
+        Probe probe = probe(index);
+        int entry = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            entry = greedyClosest(probe, entry, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            PriorityQueue<Scored> candidates = searchLayer(probe, entry, efConstruction, l);
+            List<Scored> sorted = new ArrayList<>(candidates);
+            sorted.sort(Scored.CLOSEST_FIRST);
+
+            int maxLinks = l == 0 ? maxLinksLayer0 : m;
+            int[] selected = selectNeighbors(sorted, m);
+            node.links[l] = selected;
+            for (int neighbor : selected) {
+                link(neighbor, index, l, maxLinks);
+            }
+            entry = sorted.get(0).node;
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = index;
+        }
+    }
+
+    private void link(int from, int to, int level, int maxLinks) {
+        Node node = nodes.get(from);
+        int[] current = node.links[level];
+        int[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = to;
+        if (extended.length <= maxLinks) {
+            node.links[level] = extended;
+            return;
+        }
+
+        // Over capacity: keep the most diverse subset, judged from this node's position
+        List<Scored> scored = new ArrayList<>(extended.length);
+        for (int neighbor : extended) {
+            scored.add(new Scored(neighbor, distance(from, neighbor)));
+        }
+        scored.sort(Scored.CLOSEST_FIRST);
+        node.links[level] = selectNeighbors(scored, maxLinks);
+    }
+
+    /**
+     * Neighbour selection heuristic: a candidate is kept only if it is closer to the base
+     * than to any neighbour already kept, which preserves links towards distant clusters.
+     * Remaining slots are filled with the closest pruned candidates.
+     */
+    private int[] selectNeighbors(List<Scored> closestFirst, int limit) {
+        int[] selected = new int[Math.min(limit, closestFirst.size())];
+        int count = 0;
+        List<Scored> pruned = new ArrayList<>();
+        for (Scored candidate : closestFirst) {
+            if (count == selected.length) {
+                break;
+            }
+            boolean diverse = true;
+            for (int i = 0; i < count && diverse; i++) {
+                diverse = distance(candidate.node, selected[i]) > candidate.distance;
+            }
+            if (diverse) {
+                selected[count++] = candidate.node;
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; i < pruned.size() && count < selected.length; i++) {
+            selected[count++] = pruned.get(i).node;
+        }
+        return selected;
+    }
+
+    // Search
+
+    private int greedyClosest(Probe probe, int entry, int level) {
+        int current = entry;
+        float currentDistance = probe.distanceTo(current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : nodes.get(current).linksAt(level)) {
+                float d = probe.distanceTo(neighbor);
+                if (d < currentDistance) {
+                    current = neighbor;
+                    currentDistance = d;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on one layer; returns up to {@code ef} closest nodes as a farthest-first heap
+     */
+    private PriorityQueue<Scored> searchLayer(Probe probe, int entry, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Scored> candidates = new PriorityQueue<>(Scored.CLOSEST_FIRST);
+        PriorityQueue<Scored> results = new PriorityQueue<>(Scored.FARTHEST_FIRST);
+
+        Scored start = new Scored(entry, probe.distanceTo(entry));
+        visited.set(entry);
+        candidates.add(start);
+        results.add(start);
+
+        while (!candidates.isEmpty()) {
+            Scored closest = candidates.poll();
+            if (closest.distance > results.peek().distance && results.size() >= ef) {
+                break;
+            }
+            for (int neighbor : nodes.get(closest.node).linksAt(level)) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float d = probe.distanceTo(neighbor);
+                if (results.size() < ef || d < results.peek().distance) {
+                    Scored scored = new Scored(neighbor, d);
+                    candidates.add(scored);
+                    results.add(scored);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Layer-0 beam search that routes through every node but only collects live nodes
+     * accepted by the filter; returns up to {@code k} of them closest first
+     */
+    private List<Scored> searchBaseLayer(Probe probe, int entry, int k, int ef, Predicate<VectorAttributes> filter) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Scored> candidates = new PriorityQueue<>(Scored.CLOSEST_FIRST);
+        PriorityQueue<Scored> frontier = new PriorityQueue<>(Scored.FARTHEST_FIRST);
+        PriorityQueue<Scored> matches = new PriorityQueue<>(Scored.FARTHEST_FIRST);
+
+        Scored start = new Scored(entry, probe.distanceTo(entry));
+        visited.set(entry);
+        candidates.add(start);
+        frontier.add(start);
+        collect(start, k, filter, matches);
+
+        while (!candidates.isEmpty()) {
+            Scored closest = candidates.poll();
+            if (closest.distance > frontier.peek().distance && frontier.size() >= ef) {
+                break;
+            }
+            for (int neighbor : nodes.get(closest.node).linksAt(0)) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float d = probe.distanceTo(neighbor);
+                if (frontier.size() < ef || d < frontier.peek().distance) {
+                    Scored scored = new Scored(neighbor, d);
+                    candidates.add(scored);
+                    frontier.add(scored);
+                    if (frontier.size() > ef) {
+                        frontier.poll();
+                    }
+                    collect(scored, k, filter, matches);
+                }
+            }
+        }
+
+        List<Scored> results = new ArrayList<>(matches);
+        results.sort(Scored.CLOSEST_FIRST);
+        return results;
+    }
+
+    /**
+     * The best {@code k} matches as neighbours; quantized matches are re-scored on their
+     * full-precision rows first, so reported similarities are always exact
+     */
+    private List<Neighbor> rank(float[] query, List<Scored> closestFirst, int k) {
+        List<Neighbor> results = new ArrayList<>(closestFirst.size());
+        for (Scored scored : closestFirst) {
+            float similarity = quantized == null ? 1 - scored.distance : quantized.dot(scored.node, query);
+            results.add(new Neighbor(nodes.get(scored.node).id, similarity));
+        }
+        if (quantized != null) {
+            results.sort(Comparator.comparingDouble(Neighbor::getSimilarity).reversed());
+        }
+        return results.size() > k ? new ArrayList<>(results.subList(0, k)) : results;
+    }
+
+    private void collect(Scored scored, int k, Predicate<VectorAttributes> filter, PriorityQueue<Scored> matches) {
+        Node node = nodes.get(scored.node);
+        if (node.deleted || (filter != null && !filter.test(node.attributes))) {
+            return;
+        }
+        if (matches.size() < k) {
+            matches.add(scored);
+        } else if (scored.distance < matches.peek().distance) {
+            matches.poll();
+            matches.add(scored);
+        }
+    }
+
+    // Scoring
+
+    /**
+     * Distances from a fixed point, a query or a node, to nodes
+     */
+    private interface Probe {
+        float distanceTo(int node);
+    }
+
+    private Probe probe(float[] query) {
+        if (quantized == null) {
+            return node -> 1 - vectors.dot(node, query);
+        }
+        byte[] codes = new byte[dimension];
+        float scale = QuantizedEmbeddingMatrix.quantize(query, codes, 0);
+        return node -> 1 - quantized.quantizedDot(codes, scale, node);
+    }
+
+    private Probe probe(int from) {
+        return node -> distance(from, node);
+    }
+
+    private float distance(int a, int b) {
+        return 1 - (quantized == null ? vectors.dot(a, b) : quantized.quantizedDot(a, b));
+    }
+
+    private float[] vectorOf(int node) {
+        return quantized == null ? vectors.get(node) : quantized.get(node);
+    }
+
+    /**
+     * Store the vector of the node about to be appended; rows and nodes share indices
+     */
+    private int addRow(float[] vector) {
+        if (quantized == null) {
+            return vectors.add(vector);
+        }
+        try {
+            return quantized.add(vector);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to grow the quantized vector store", e);
+        }
+    }
+
+    // Persistence
+
+    /**
+     * Serialize the graph, tombstones included so the snapshot routes exactly like the original
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(dimension);
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            out.writeInt(nodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                Node node = nodes.get(i);
+                out.writeLong(node.id);
+                out.writeBoolean(node.deleted);
+                for (float value : vectorOf(i)) {
+                    out.writeFloat(value);
+                }
+                VectorAttributes.write(node.attributes, out);
+                out.writeInt(node.links.length);
+                for (int[] links : node.links) {
+                    out.writeInt(links.length);
+                    for (int link : links) {
+                        out.writeInt(link);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static HnswIndex readFrom(DataInput in, long seed) throws IOException {
+        return readFrom(in, seed, null, 1);
+    }
+
+    /**
+     * Restore a snapshot into an index scoring on {@code quantized} (float32 when null);
+     * the snapshot format does not depend on the store it is read into
+     */
+    public static HnswIndex readFrom(DataInput in, long seed, QuantizedEmbeddingMatrix quantized, int rerankFactor) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an HNSW snapshot");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported HNSW snapshot version " + version);
+        }
+
+        int dimension = in.readInt();
+        if (quantized != null && quantized.dimension() != dimension) {
+            throw new IOException("Snapshot dimension " + dimension + " does not match the quantized store");
+        }
+        HnswIndex index = new HnswIndex(dimension, in.readInt(), in.readInt(), seed, quantized, rerankFactor);
+        index.entryPoint = in.readInt();
+        index.maxLevel = in.readInt();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            long id = in.readLong();
+            boolean deleted = in.readBoolean();
+            float[] vector = new float[index.dimension];
+            for (int d = 0; d < vector.length; d++) {
+                vector[d] = in.readFloat();
+            }
+            index.addRow(vector);
+            VectorAttributes attributes = VectorAttributes.read(in);
+            int levels = in.readInt();
+            Node node = new Node(id, attributes, levels - 1);
+            for (int l = 0; l < levels; l++) {
+                int[] links = new int[in.readInt()];
+                for (int j = 0; j < links.length; j++) {
+                    links[j] = in.readInt();
+                }
+                node.links[l] = links;
+            }
+            node.deleted = deleted;
+            index.nodes.add(node);
+            if (deleted) {
+                index.tombstones++;
+            } else {
+                index.nodeById.put(id, i);
+            }
+        }
+        return index;
+    }
+
+    // Data classes
+
+    private static final class Node {
+        private static final int[] NO_LINKS = new int[0];
+
+        final long id;
+        final int[][] links;
+        VectorAttributes attributes;
+        boolean deleted;
+
+        Node(long id, VectorAttributes attributes, int level) {
+            this.id = id;
+            this.attributes = attributes;
+            this.links = new int[level + 1][];
+            Arrays.fill(this.links, NO_LINKS);
+        }
+
+        int[] linksAt(int level) {
+            return level < links.length ? links[level] : NO_LINKS;
+        }
+    }
+
+    private static final class Scored {
+        static final Comparator<Scored> CLOSEST_FIRST = (a, b) -> Float.compare(a.distance, b.distance);
+        static final Comparator<Scored> FARTHEST_FIRST = CLOSEST_FIRST.reversed();
+
+        final int node;
+        final float distance;
+
+        Scored(int node, float distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+
+    @lombok.Value
+    public static class Neighbor {
+        long id;
+        float similarity;
+    }
+
+    @lombok.Value
+    public static class Entry {
+        float[] vector;
+        VectorAttributes attributes;
+    }
+}
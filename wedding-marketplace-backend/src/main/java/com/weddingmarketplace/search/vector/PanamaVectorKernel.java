@@ -0,0 +1,111 @@
+package com.weddingmarketplace.search.vector;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels on the JDK Vector API ({@code jdk.incubator.vector}).
+ *
+ * Only {@link VectorMath} refers to this class, reflectively, after checking that the
+ * module is resolved, so a JVM started without {@code --add-modules jdk.incubator.vector}
+ * never loads it and falls back to {@link ScalarVectorKernel}. Everything loads from
+ * arrays ({@code fromArray}), the one part of the API that has not changed between the
+ * JDK 17 build target and the JDK 21 runtime image.
+ *
+ * Multiplies and adds are kept separate instead of using {@code fma}, which the API
+ * emulates very slowly on CPUs without FMA units.
+ *
+ * @author Wedding Marketplace Team
+ */
+final class PanamaVectorKernel implements VectorKernel {
+
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    /** Bytes are loaded at least 64 bits at a time and widened to ints in {@link #INT_PARTS} steps */
+    private static final VectorSpecies<Byte> BYTES =
+        VectorSpecies.of(byte.class, VectorShape.forBitSize(Math.max(64, INTS.length() * Byte.SIZE)));
+    private static final int INT_PARTS = BYTES.length() / INTS.length();
+
+    PanamaVectorKernel() {
+        if (FLOATS.vectorBitSize() < 128) {
+            // No usable SIMD registers; the scalar loops are faster than emulated vectors
+            throw new UnsupportedOperationException("Preferred vector size is only " + FLOATS.vectorBitSize() + " bits");
+        }
+    }
+
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int step = FLOATS.length();
+        int i = 0;
+        FloatVector acc0 = FloatVector.zero(FLOATS);
+        FloatVector acc1 = FloatVector.zero(FLOATS);
+        int unrolledBound = length - 2 * step;
+        for (; i <= unrolledBound; i += 2 * step) {
+            acc0 = FloatVector.fromArray(FLOATS, a, aOffset + i)
+                .mul(FloatVector.fromArray(FLOATS, b, bOffset + i)).add(acc0);
+            acc1 = FloatVector.fromArray(FLOATS, a, aOffset + i + step)
+                .mul(FloatVector.fromArray(FLOATS, b, bOffset + i + step)).add(acc1);
+        }
+        int bound = FLOATS.loopBound(length);
+        for (; i < bound; i += step) {
+            acc0 = FloatVector.fromArray(FLOATS, a, aOffset + i)
+                .mul(FloatVector.fromArray(FLOATS, b, bOffset + i)).add(acc0);
+        }
+        float sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float squaredL2(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int step = FLOATS.length();
+        int i = 0;
+        FloatVector acc = FloatVector.zero(FLOATS);
+        int bound = FLOATS.loopBound(length);
+        for (; i < bound; i += step) {
+            FloatVector diff = FloatVector.fromArray(FLOATS, a, aOffset + i)
+                .sub(FloatVector.fromArray(FLOATS, b, bOffset + i));
+            acc = diff.mul(diff).add(acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            float diff = a[aOffset + i] - b[bOffset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public int dotInt8(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        int step = BYTES.length();
+        int i = 0;
+        IntVector acc = IntVector.zero(INTS);
+        int bound = BYTES.loopBound(length);
+        for (; i < bound; i += step) {
+            ByteVector va = ByteVector.fromArray(BYTES, a, aOffset + i);
+            ByteVector vb = ByteVector.fromArray(BYTES, b, bOffset + i);
+            for (int part = 0; part < INT_PARTS; part++) {
+                IntVector wa = (IntVector) va.convertShape(VectorOperators.B2I, INTS, part);
+                IntVector wb = (IntVector) vb.convertShape(VectorOperators.B2I, INTS, part);
+                acc = wa.mul(wb).add(acc);
+            }
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "panama-" + FLOATS.vectorBitSize() + "bit";
+    }
+}
@@ -0,0 +1,271 @@
+package com.weddingmarketplace.search.vector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Embedding store that scans int8 codes and re-ranks with the original float32 vectors.
+ *
+ * Each row is quantized symmetrically with its own scale ({@code max|x| / 127}), so a
+ * 384-dimension embedding takes 388 bytes on the scanning path instead of 1536. A search
+ * scores every row on the codes, keeps the best {@code candidates}, and re-scores only
+ * those against the full-precision rows, which restores the exact order of the top k as
+ * long as the true neighbours survive the first pass.
+ *
+ * The full-precision rows live either in a heap buffer or, via {@link #mapped}, in a
+ * memory-mapped file outside the heap that the OS pages in only for the handful of rows
+ * each query re-ranks; that is what takes the resident footprint down by roughly 4x.
+ * The mapped file is limited to 2 GB (1.4M rows at 384 dimensions).
+ *
+ * Not thread-safe; a single writer must be synchronized with readers externally.
+ *
+ * @author Wedding Marketplace Team
+ */
+public final class QuantizedEmbeddingMatrix implements Closeable {
+
+    private static final float MAX_CODE = 127f;
+
+    private final int dimension;
+    private final FileChannel channel;
+    private byte[] codes;
+    private float[] scales;
+    private FloatBuffer vectors;
+    private int capacity;
+    private int rows;
+
+    private QuantizedEmbeddingMatrix(int dimension, int initialCapacity, FileChannel channel) throws IOException {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Dimension must be positive");
+        }
+        this.dimension = dimension;
+        this.channel = channel;
+        this.codes = new byte[0];
+        this.scales = new float[0];
+        grow(Math.max(1, initialCapacity));
+    }
+
+    /**
+     * Full-precision rows kept on the heap; mostly useful for tests and small catalogues
+     */
+    public static QuantizedEmbeddingMatrix inMemory(int dimension, int initialCapacity) {
+        try {
+            return new QuantizedEmbeddingMatrix(dimension, initialCapacity, null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Heap buffers do not perform I/O", e);
+        }
+    }
+
+    /**
+     * Full-precision rows kept in {@code file}, which is truncated and owned by this matrix until closed
+     */
+    public static QuantizedEmbeddingMatrix mapped(int dimension, int initialCapacity, Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            return new QuantizedEmbeddingMatrix(dimension, initialCapacity, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Full-precision rows kept in a new file under {@code directory}, deleted when the matrix is closed
+     */
+    public static QuantizedEmbeddingMatrix mappedTemporary(int dimension, int initialCapacity, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "vectors-", ".f32");
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+        try {
+            return new QuantizedEmbeddingMatrix(dimension, initialCapacity, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a row and return its index
+     */
+    public int add(float[] vector) throws IOException {
+        checkDimension(vector);
+        if (rows == capacity) {
+            grow(capacity * 2);
+        }
+        write(rows, vector);
+        return rows++;
+    }
+
+    public void set(int row, float[] vector) {
+        checkDimension(vector);
+        checkRow(row);
+        write(row, vector);
+    }
+
+    /**
+     * The full-precision row as stored
+     */
+    public float[] get(int row) {
+        checkRow(row);
+        float[] vector = new float[dimension];
+        vectors.get(row * dimension, vector);
+        return vector;
+    }
+
+    /**
+     * Exact similarity of {@code query} to the full-precision row
+     */
+    public float dot(int row, float[] query) {
+        return VectorMath.kernel().dot(query, 0, get(row), 0, dimension);
+    }
+
+    /**
+     * Approximate similarity of a query quantized by {@link #quantize} to a row
+     */
+    float quantizedDot(byte[] queryCodes, float queryScale, int row) {
+        return queryScale * scales[row] * VectorMath.kernel().dotInt8(queryCodes, 0, codes, row * dimension, dimension);
+    }
+
+    /**
+     * Approximate similarity of two rows
+     */
+    float quantizedDot(int rowA, int rowB) {
+        return scales[rowA] * scales[rowB]
+            * VectorMath.kernel().dotInt8(codes, rowA * dimension, codes, rowB * dimension, dimension);
+    }
+
+    /**
+     * Approximate similarity of {@code query} to every row, from the int8 codes alone
+     */
+    public void quantizedDotAll(float[] query, float[] scores) {
+        checkDimension(query);
+        byte[] queryCodes = new byte[dimension];
+        float queryScale = quantize(query, queryCodes, 0);
+        VectorKernel kernel = VectorMath.kernel();
+        for (int row = 0, offset = 0; row < rows; row++, offset += dimension) {
+            scores[row] = queryScale * scales[row] * kernel.dotInt8(queryCodes, 0, codes, offset, dimension);
+        }
+    }
+
+    /**
+     * Top-k rows accepted by {@code accept} (all rows when null), best first. The int8
+     * pass keeps {@code candidates} rows (at least k) whose exact similarities decide the result.
+     */
+    public List<EmbeddingMatrix.Match> search(float[] query, int k, int candidates, IntPredicate accept) {
+        checkDimension(query);
+        if (k <= 0) {
+            return List.of();
+        }
+
+        byte[] queryCodes = new byte[dimension];
+        float queryScale = quantize(query, queryCodes, 0);
+        VectorKernel kernel = VectorMath.kernel();
+        TopK approximate = new TopK(Math.max(k, candidates));
+        for (int row = 0, offset = 0; row < rows; row++, offset += dimension) {
+            if (accept == null || accept.test(row)) {
+                approximate.offer(row, queryScale * scales[row] * kernel.dotInt8(queryCodes, 0, codes, offset, dimension));
+            }
+        }
+
+        TopK exact = new TopK(k);
+        float[] vector = new float[dimension];
+        for (EmbeddingMatrix.Match candidate : approximate.drainBestFirst()) {
+            vectors.get(candidate.getRow() * dimension, vector);
+            exact.offer(candidate.getRow(), kernel.dot(query, 0, vector, 0, dimension));
+        }
+        return exact.drainBestFirst();
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Heap bytes held by the codes and scales of the rows in use; full-precision rows
+     * are excluded when they are memory-mapped
+     */
+    public long memoryBytes() {
+        long quantized = (long) rows * (dimension + Float.BYTES);
+        return channel != null ? quantized : quantized + (long) rows * dimension * Float.BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Symmetric per-vector quantization into {@code target}; returns the scale that maps codes back
+     */
+    static float quantize(float[] vector, byte[] target, int offset) {
+        float maxAbs = 0;
+        for (float value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        if (maxAbs == 0) {
+            Arrays.fill(target, offset, offset + vector.length, (byte) 0);
+            return 0;
+        }
+        float inverse = MAX_CODE / maxAbs;
+        for (int i = 0; i < vector.length; i++) {
+            target[offset + i] = (byte) Math.round(vector[i] * inverse);
+        }
+        return maxAbs / MAX_CODE;
+    }
+
+    private void write(int row, float[] vector) {
+        scales[row] = quantize(vector, codes, row * dimension);
+        vectors.put(row * dimension, vector);
+    }
+
+    private void grow(int newCapacity) throws IOException {
+        long floats = (long) newCapacity * dimension;
+        if (floats * Float.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Quantized embedding matrix is full at " + rows + " rows");
+        }
+        codes = Arrays.copyOf(codes, newCapacity * dimension);
+        scales = Arrays.copyOf(scales, newCapacity);
+
+        if (channel != null) {
+            // Mapping past the end extends the file; the previous mapping covers a prefix of the same pages
+            vectors = channel.map(FileChannel.MapMode.READ_WRITE, 0, floats * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        } else {
+            FloatBuffer grown = FloatBuffer.allocate((int) floats);
+            if (vectors != null) {
+                grown.put(0, vectors, 0, rows * dimension);
+            }
+            vectors = grown;
+        }
+        capacity = newCapacity;
+    }
+
+    private void checkDimension(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + vector.length);
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+    }
+}
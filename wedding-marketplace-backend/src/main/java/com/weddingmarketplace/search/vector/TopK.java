@@ -0,0 +1,96 @@
+package com.weddingmarketplace.search.vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded min-heap of (row, score) pairs on primitive arrays, so a full scan keeps the
+ * best {@code k} rows without boxing a candidate per row
+ *
+ * @author Wedding Marketplace Team
+ */
+final class TopK {
+
+    private final int[] rows;
+    private final float[] scores;
+    private int size;
+
+    TopK(int k) {
+        this.rows = new int[k];
+        this.scores = new float[k];
+    }
+
+    void offer(int row, float score) {
+        if (size < rows.length) {
+            rows[size] = row;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (rows.length > 0 && score > scores[0]) {
+            rows[0] = row;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Drain the heap into a best-first list; the heap is empty afterwards
+     */
+    List<EmbeddingMatrix.Match> drainBestFirst() {
+        EmbeddingMatrix.Match[] ordered = new EmbeddingMatrix.Match[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ordered[i] = new EmbeddingMatrix.Match(rows[0], scores[0]);
+            size--;
+            rows[0] = rows[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        List<EmbeddingMatrix.Match> matches = new ArrayList<>(ordered.length);
+        for (EmbeddingMatrix.Match match : ordered) {
+            matches.add(match);
+        }
+        return matches;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[parent] <= scores[index]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+        float score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
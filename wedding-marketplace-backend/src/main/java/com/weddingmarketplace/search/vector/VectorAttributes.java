@@ -0,0 +1,52 @@
+package com.weddingmarketplace.search.vector;
+
+import lombok.Value;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Filterable attributes stored next to each vector so filtered searches never have
+ * to leave the index. City is kept lower-cased; status is the {@code VendorStatus} name.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Value
+public class VectorAttributes {
+
+    Long categoryId;
+    String city;
+    String status;
+
+    public static VectorAttributes of(Long categoryId, String city, String status) {
+        return new VectorAttributes(categoryId, city != null ? city.trim().toLowerCase(Locale.ROOT) : null, status);
+    }
+
+    static void write(VectorAttributes attributes, DataOutput out) throws IOException {
+        VectorAttributes value = attributes != null ? attributes : new VectorAttributes(null, null, null);
+        out.writeBoolean(value.categoryId != null);
+        if (value.categoryId != null) {
+            out.writeLong(value.categoryId);
+        }
+        writeNullable(value.city, out);
+        writeNullable(value.status, out);
+    }
+
+    static VectorAttributes read(DataInput in) throws IOException {
+        Long categoryId = in.readBoolean() ? in.readLong() : null;
+        return new VectorAttributes(categoryId, readNullable(in), readNullable(in));
+    }
+
+    private static void writeNullable(String value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.weddingmarketplace.search.vector;
+
+import lombok.Value;
+
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Conjunction of optional attribute constraints for filtered vector search;
+ * a {@code null} field matches everything
+ *
+ * @author Wedding Marketplace Team
+ */
+@Value
+public class VectorFilter implements Predicate<VectorAttributes> {
+
+    public static final VectorFilter NONE = new VectorFilter(null, null, null);
+
+    Long categoryId;
+    String city;
+    String status;
+
+    public static VectorFilter of(Long categoryId, String city, String status) {
+        return new VectorFilter(categoryId, city != null ? city.trim().toLowerCase(Locale.ROOT) : null, status);
+    }
+
+    @Override
+    public boolean test(VectorAttributes attributes) {
+        return (categoryId == null || categoryId.equals(attributes.getCategoryId()))
+            && (city == null || city.equals(attributes.getCity()))
+            && (status == null || status.equals(attributes.getStatus()));
+    }
+}
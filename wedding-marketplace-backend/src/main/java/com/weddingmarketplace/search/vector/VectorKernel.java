@@ -0,0 +1,25 @@
+package com.weddingmarketplace.search.vector;
+
+/**
+ * Primitive similarity kernels over slices of flat arrays.
+ *
+ * Offsets let row-major matrices be scored in place without copying rows out.
+ * Implementations are stateless and safe to share between threads; obtain one through
+ * {@link VectorMath#kernel()} rather than instantiating it.
+ *
+ * @author Wedding Marketplace Team
+ */
+public interface VectorKernel {
+
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    float squaredL2(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * Integer dot product of two int8 code slices; exact for any realistic embedding
+     * dimension (127 * 127 * length stays far below {@code Integer.MAX_VALUE})
+     */
+    int dotInt8(byte[] a, int aOffset, byte[] b, int bOffset, int length);
+
+    String name();
+}
@@ -0,0 +1,83 @@
+package com.weddingmarketplace.search.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Allocation-free vector kernels shared by the ANN index and exact scoring.
+ *
+ * Delegates to SIMD kernels on the JDK Vector API when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector} (the Docker image, Helm chart and Maven
+ * test/benchmark runs all pass it) and to plain loops otherwise, so the incubator module
+ * is an optimization and never a startup requirement. {@code -Dvector.simd=false}
+ * forces the scalar kernels.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Slf4j
+public final class VectorMath {
+
+    private static final String SIMD_MODULE = "jdk.incubator.vector";
+    private static final String SIMD_KERNEL = "com.weddingmarketplace.search.vector.PanamaVectorKernel";
+
+    private static final VectorKernel SCALAR = new ScalarVectorKernel();
+    private static final VectorKernel KERNEL = loadKernel();
+
+    private VectorMath() {
+    }
+
+    public static float dot(float[] a, float[] b) {
+        return KERNEL.dot(a, 0, b, 0, a.length);
+    }
+
+    public static float squaredL2(float[] a, float[] b) {
+        return KERNEL.squaredL2(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * Score {@code query} against {@code rows} consecutive row-major vectors of
+     * {@code matrix}; the query stays hot in cache while the matrix streams through once
+     */
+    public static void dotAll(float[] query, float[] matrix, int rows, float[] scores) {
+        int dimension = query.length;
+        for (int row = 0, offset = 0; row < rows; row++, offset += dimension) {
+            scores[row] = KERNEL.dot(query, 0, matrix, offset, dimension);
+        }
+    }
+
+    public static float norm(float[] vector) {
+        return (float) Math.sqrt(dot(vector, vector));
+    }
+
+    /**
+     * The kernel in use, for components that score slices of their own storage
+     */
+    public static VectorKernel kernel() {
+        return KERNEL;
+    }
+
+    /**
+     * The portable kernel, regardless of SIMD availability (benchmarks and tests)
+     */
+    public static VectorKernel scalarKernel() {
+        return SCALAR;
+    }
+
+    private static VectorKernel loadKernel() {
+        if (!Boolean.parseBoolean(System.getProperty("vector.simd", "true"))) {
+            log.info("Vector kernels: scalar (disabled by -Dvector.simd=false)");
+            return SCALAR;
+        }
+        if (ModuleLayer.boot().findModule(SIMD_MODULE).isEmpty()) {
+            log.info("Vector kernels: scalar (start the JVM with --add-modules {} to enable SIMD)", SIMD_MODULE);
+            return SCALAR;
+        }
+        try {
+            VectorKernel kernel = (VectorKernel) Class.forName(SIMD_KERNEL).getDeclaredConstructor().newInstance();
+            log.info("Vector kernels: {}", kernel.name());
+            return kernel;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            log.warn("Vector kernels: scalar, SIMD kernels unavailable: {}", e.toString());
+            return SCALAR;
+        }
+    }
+}
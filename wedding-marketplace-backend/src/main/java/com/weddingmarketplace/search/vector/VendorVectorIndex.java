@@ -0,0 +1,489 @@
+package com.weddingmarketplace.search.vector;
+
+import com.weddingmarketplace.cache.broadcast.ChangeFanout;
+import com.weddingmarketplace.cache.broadcast.ChannelListener;
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.search.service.VectorEmbeddingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process HNSW index over vendor embeddings.
+ *
+ * On startup the index is restored from its snapshot file and caught up with vendors
+ * changed since it was written; without a usable snapshot it is built by paging through
+ * the catalogue, reading embeddings from the cache in batches. Vendor changes arrive
+ * through {@link #enqueue} once their transaction commits and are applied in coalesced
+ * batches on the search indexing executor. The node that saw the change regenerates the
+ * embedding and then broadcasts the ids, so peers only re-read the cached vector.
+ *
+ * An embedding that fails to generate leaves the vendor's previous vector in place (its
+ * filter attributes are still refreshed) and is retried on later drains, up to
+ * {@code max-embedding-attempts}. Snapshots are stamped with the instant the index had
+ * applied every change committed before, so a restore catches up from there.
+ *
+ * Updated and deleted vendors leave tombstones behind; the graph is rebuilt from its
+ * live vectors once they exceed {@code rebuild-tombstone-ratio}. Snapshots are written
+ * atomically every {@code snapshot-interval-ms} when the index has changed.
+ *
+ * With {@code quantized.enabled} the graph is walked on int8 codes and only the best
+ * {@code k * rerank-factor} matches are re-scored on float32 rows kept in a memory-mapped
+ * file under {@code quantized.directory}, which takes the resident size of the vectors
+ * down by roughly 4x. Snapshots hold float32 vectors either way, so the switch can be
+ * flipped without rebuilding.
+ *
+ * @author Wedding Marketplace Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VendorVectorIndex implements ChannelListener {
+
+    private static final long INDEX_SEED = 42L;
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+
+    private final VendorRepository vendorRepository;
+    private final VectorEmbeddingService vectorEmbeddingService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Executor searchIndexingExecutor;
+
+    @Value("${app.search.vector.m:16}")
+    private int m;
+
+    @Value("${app.search.vector.ef-construction:200}")
+    private int efConstruction;
+
+    @Value("${app.search.vector.ef-search:64}")
+    private int efSearch;
+
+    @Value("${app.search.vector.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.search.vector.rebuild-tombstone-ratio:0.2}")
+    private double rebuildTombstoneRatio;
+
+    @Value("${app.search.vector.snapshot-path:data/vendor-vectors.hnsw}")
+    private String snapshotPath;
+
+    @Value("${app.search.vector.channel:search:vector:changes}")
+    private String channel;
+
+    @Value("${app.search.vector.max-embedding-attempts:5}")
+    private int maxEmbeddingAttempts;
+
+    @Value("${app.search.vector.quantized.enabled:false}")
+    private boolean quantizedEnabled;
+
+    @Value("${app.search.vector.quantized.rerank-factor:4}")
+    private int rerankFactor;
+
+    @Value("${app.search.vector.quantized.directory:data/vendor-vectors}")
+    private String quantizedDirectory;
+
+    @Value("${ml.embedding.model:sentence-transformers/all-MiniLM-L6-v2}")
+    private String embeddingModel;
+
+    @Value("${ml.embedding.dimension:384}")
+    private int embeddingDimension;
+
+    // Embeddings are regenerated for changes seen on this node; peers only re-read them
+    private ChangeFanout changes;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    // Vendors whose embedding failed to generate, with the attempts made so far
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    // Every change committed before this instant has been applied to the index
+    private volatile long caughtUpAt;
+
+    private volatile HnswIndex index;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void createChangeFanout() {
+        changes = ChangeFanout.builder()
+            .name("vector index")
+            .channel(channel)
+            .batchSize(batchSize)
+            .executor(searchIndexingExecutor)
+            .stringRedisTemplate(stringRedisTemplate)
+            .ready(() -> ready)
+            .applier(this::applyChanges)
+            .drained(this::drained)
+            .build();
+    }
+
+    /**
+     * Nearest vendors to a normalized query embedding, best first. Returns nothing until
+     * the index has been loaded or built.
+     */
+    public List<HnswIndex.Neighbor> search(float[] queryEmbedding, int k, VectorFilter filter) {
+        return search(queryEmbedding, k, efSearch, filter);
+    }
+
+    public List<HnswIndex.Neighbor> search(float[] queryEmbedding, int k, int ef, VectorFilter filter) {
+        HnswIndex current = index;
+        if (!ready || current == null) {
+            log.debug("Vendor vector index not ready, skipping vector search");
+            return Collections.emptyList();
+        }
+        return current.search(queryEmbedding, k, ef, filter);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        HnswIndex current = index;
+        return current != null ? current.size() : 0;
+    }
+
+    /**
+     * Schedule a vendor for re-embedding and re-indexing
+     */
+    public void enqueue(Long vendorId) {
+        changes.enqueue(vendorId);
+    }
+
+    @Override
+    public String channel() {
+        return channel;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        changes.onMessage(message, pattern);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            searchIndexingExecutor.execute(this::loadOrBuild);
+        } catch (RejectedExecutionException e) {
+            log.error("Search indexing executor saturated, vendor vector index not initialized", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.vector.drain-interval-ms:2000}")
+    public void scheduledDrain() {
+        if (ready && !failedAttempts.isEmpty()) {
+            changes.enqueueAll(failedAttempts.keySet(), true);
+        }
+        changes.drainPending();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.vector.snapshot-interval-ms:300000}")
+    public void scheduledSnapshot() {
+        if (ready && dirty.getAndSet(false)) {
+            writeSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ready && dirty.getAndSet(false)) {
+            writeSnapshot();
+        }
+        synchronized (writeLock) {
+            close(index);
+        }
+    }
+
+    // Loading and building
+
+    private void loadOrBuild() {
+        long started = System.currentTimeMillis();
+        if (quantizedEnabled) {
+            deleteStaleVectorFiles();
+        }
+        Optional<Instant> restoredAt = readSnapshot();
+        if (restoredAt.isPresent()) {
+            caughtUpAt = restoredAt.get().toEpochMilli();
+            ready = true;
+            // The margin covers changes still in flight when the snapshot was taken; their
+            // embeddings were regenerated by the node that saw them, so only re-read them.
+            // Deleted vendors are included so the drain removes them.
+            LocalDateTime since = LocalDateTime.ofInstant(restoredAt.get().minus(CATCH_UP_MARGIN), ZoneId.systemDefault());
+            int changed = forEachPage(since, true, page -> changes.enqueueAll(
+                page.stream().map(Vendor::getId).collect(Collectors.toList()), false));
+            log.info("Restored vendor vector index with {} vectors in {} ms, {} vendors changed since the snapshot",
+                index.size(), System.currentTimeMillis() - started, changed);
+            changes.requestDrain();
+            return;
+        }
+
+        synchronized (writeLock) {
+            index = newIndex();
+            forEachPage(null, false, this::apply);
+            // Changes committed during the build were queued and are applied by the next drain
+            caughtUpAt = started;
+            ready = true;
+            dirty.set(true);
+        }
+        log.info("Built vendor vector index with {} vectors in {} ms", index.size(), System.currentTimeMillis() - started);
+        scheduledSnapshot();
+    }
+
+    private int forEachPage(LocalDateTime updatedSince, boolean includeDeleted, java.util.function.Consumer<List<Vendor>> consumer) {
+        long lastId = 0;
+        int total = 0;
+        List<Vendor> page;
+        do {
+            page = includeDeleted
+                ? vendorRepository.findChangedPage(lastId, updatedSince, PageRequest.of(0, batchSize))
+                : vendorRepository.findIndexingPage(lastId, updatedSince, PageRequest.of(0, batchSize));
+            if (!page.isEmpty()) {
+                consumer.accept(page);
+                total += page.size();
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == batchSize);
+        return total;
+    }
+
+    private HnswIndex newIndex() {
+        if (!quantizedEnabled) {
+            return new HnswIndex(embeddingDimension, m, efConstruction, INDEX_SEED);
+        }
+        try {
+            return new HnswIndex(embeddingDimension, m, efConstruction, INDEX_SEED, newQuantizedStore(), rerankFactor);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create the quantized vector store in " + quantizedDirectory, e);
+        }
+    }
+
+    private QuantizedEmbeddingMatrix newQuantizedStore() throws IOException {
+        return QuantizedEmbeddingMatrix.mappedTemporary(embeddingDimension, batchSize, Paths.get(quantizedDirectory));
+    }
+
+    /**
+     * Vector files are deleted when their index is closed; remove any left by a process that did not shut down cleanly
+     */
+    private void deleteStaleVectorFiles() {
+        Path directory = Paths.get(quantizedDirectory);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "vectors-*.f32")) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete stale vector files in {}", directory, e);
+        }
+    }
+
+    private static void close(HnswIndex retired) {
+        if (retired == null) {
+            return;
+        }
+        try {
+            // Searches still holding the retired index keep reading its mapping until it is collected
+            retired.close();
+        } catch (IOException e) {
+            log.warn("Failed to release a retired vendor vector index", e);
+        }
+    }
+
+    // Incremental updates
+
+    /**
+     * After a drain: the index has applied every change committed before it started once
+     * nothing is left to apply or retry
+     */
+    private void drained(long started) {
+        if (!changes.hasPending() && failedAttempts.isEmpty()) {
+            caughtUpAt = Math.max(caughtUpAt, started);
+        }
+        compactIfNeeded();
+    }
+
+    private void applyChanges(List<Long> vendorIds, boolean regenerate) {
+        // Embedding text includes the category name, and these vendors outlive their session
+        Map<Long, Vendor> vendors = vendorRepository.findAllWithCategoryById(vendorIds).stream()
+            .collect(Collectors.toMap(Vendor::getId, Function.identity()));
+
+        List<Vendor> live = new ArrayList<>(vendors.size());
+        synchronized (writeLock) {
+            for (Long vendorId : vendorIds) {
+                Vendor vendor = vendors.get(vendorId);
+                if (vendor == null || Boolean.TRUE.equals(vendor.getDeleted())) {
+                    failedAttempts.remove(vendorId);
+                    if (index.remove(vendorId)) {
+                        dirty.set(true);
+                    }
+                } else {
+                    live.add(vendor);
+                }
+            }
+        }
+
+        if (!live.isEmpty()) {
+            Map<Long, float[]> embeddings = regenerate
+                ? vectorEmbeddingService.refreshVendorEmbeddings(live)
+                : vectorEmbeddingService.getVendorEmbeddings(live);
+            synchronized (writeLock) {
+                upsert(live, embeddings);
+            }
+        }
+    }
+
+    private void apply(List<Vendor> vendors) {
+        upsert(vendors, vectorEmbeddingService.getVendorEmbeddings(vendors));
+    }
+
+    private void upsert(List<Vendor> vendors, Map<Long, float[]> embeddings) {
+        for (Vendor vendor : vendors) {
+            float[] embedding = embeddings.get(vendor.getId());
+            if (embedding == null || embedding.length != embeddingDimension || isZero(embedding)) {
+                // Never indexed as noise: the previous vector, if any, stays until a retry succeeds
+                index.updateAttributes(vendor.getId(), attributesOf(vendor));
+                retryLater(vendor.getId());
+                continue;
+            }
+            failedAttempts.remove(vendor.getId());
+            index.upsert(vendor.getId(), embedding, attributesOf(vendor));
+        }
+        dirty.set(true);
+    }
+
+    private void retryLater(Long vendorId) {
+        int attempts = failedAttempts.merge(vendorId, 1, Integer::sum);
+        if (attempts >= maxEmbeddingAttempts) {
+            failedAttempts.remove(vendorId);
+            log.warn("Giving up on the embedding of vendor {} after {} attempts, keeping its previous vector",
+                vendorId, attempts);
+        }
+    }
+
+    private void compactIfNeeded() {
+        synchronized (writeLock) {
+            HnswIndex current = index;
+            if (current.tombstones() <= rebuildTombstoneRatio * Math.max(1, current.size())) {
+                return;
+            }
+            long started = System.currentTimeMillis();
+            HnswIndex rebuilt = newIndex();
+            current.forEachLive((id, entry) -> rebuilt.upsert(id, entry.getVector(), entry.getAttributes()));
+            index = rebuilt;
+            close(current);
+            dirty.set(true);
+            log.info("Rebuilt vendor vector index without {} tombstones in {} ms",
+                current.tombstones(), System.currentTimeMillis() - started);
+        }
+    }
+
+    private static VectorAttributes attributesOf(Vendor vendor) {
+        return VectorAttributes.of(
+            vendor.getCategory() != null ? vendor.getCategory().getId() : null,
+            vendor.getBusinessCity(),
+            vendor.getStatus() != null ? vendor.getStatus().name() : null);
+    }
+
+    private static boolean isZero(float[] vector) {
+        for (float value : vector) {
+            if (value != 0f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Snapshots
+
+    private void writeSnapshot() {
+        Path target = Paths.get(snapshotPath);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long started = System.currentTimeMillis();
+        // Read before the graph: changes applied while it is written are simply caught up again
+        long appliedThrough = caughtUpAt;
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeUTF(embeddingModel);
+                out.writeLong(appliedThrough);
+                index.writeTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote vendor vector snapshot with {} vectors in {} ms", index.size(), System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("Failed to write vendor vector snapshot to {}", target, e);
+        }
+    }
+
+    private HnswIndex readIndex(DataInput in) throws IOException {
+        if (!quantizedEnabled) {
+            return HnswIndex.readFrom(in, INDEX_SEED);
+        }
+        QuantizedEmbeddingMatrix store = newQuantizedStore();
+        try {
+            return HnswIndex.readFrom(in, INDEX_SEED, store, rerankFactor);
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Restore the index from its snapshot; returns the instant it had applied every change committed before
+     */
+    private Optional<Instant> readSnapshot() {
+        Path source = Paths.get(snapshotPath);
+        if (!Files.isRegularFile(source)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            String model = in.readUTF();
+            Instant appliedThrough = Instant.ofEpochMilli(in.readLong());
+            if (!embeddingModel.equals(model)) {
+                log.info("Ignoring vendor vector snapshot built with model {}", model);
+                return Optional.empty();
+            }
+            HnswIndex restored = readIndex(in);
+            if (restored.dimension() != embeddingDimension) {
+                log.info("Ignoring vendor vector snapshot with dimension {}", restored.dimension());
+                close(restored);
+                return Optional.empty();
+            }
+            index = restored;
+            return Optional.of(appliedThrough);
+        } catch (IOException e) {
+            log.warn("Failed to read vendor vector snapshot from {}, rebuilding", source, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.weddingmarketplace.security.service;
 
+import com.weddingmarketplace.cache.ratelimit.RateLimitDecision;
 import com.weddingmarketplace.model.entity.User;
 import com.weddingmarketplace.model.entity.TwoFactorAuth;
 import com.weddingmarketplace.repository.UserRepository;
@@ -165,9 +166,11 @@ public class TwoFactorAuthenticationService {
         log.debug("Verifying TOTP for authentication - user: {}", userId);
         
         try {
-            // Check rate limiting
-            if (isRateLimited(userId)) {
-                log.warn("TOTP verification rate limited for user: {}", userId);
+            // Every attempt takes a token, so concurrent guesses cannot slip past the limit
+            RateLimitDecision decision = cacheService.tryAcquireRateLimit(
+                TOTP_CACHE_PREFIX + userId, MAX_ATTEMPTS, LOCKOUT_DURATION);
+            if (!decision.isAllowed()) {
+                log.warn("TOTP verification rate limited for user: {}, retry after {}", userId, decision.getRetryAfter());
                 return false;
             }
             
@@ -189,16 +192,13 @@ public class TwoFactorAuthenticationService {
                 isValid = true;
             }
             
-            // Track attempt
-            trackVerificationAttempt(userId, isValid);
-            
             if (isValid) {
                 // Update last used timestamp
                 twoFactorAuth.setLastUsedAt(LocalDateTime.now());
                 twoFactorAuthRepository.save(twoFactorAuth);
                 
                 // Clear rate limiting
-                clearRateLimit(userId);
+                cacheService.resetRateLimit(TOTP_CACHE_PREFIX + userId);
             }
             
             return isValid;
@@ -468,29 +468,6 @@ public class TwoFactorAuthenticationService {
         return String.format("%06d", ThreadLocalRandom.current().nextInt(100000, 1000000));
     }
 
-    private boolean isRateLimited(Long userId) {
-        String cacheKey = TOTP_CACHE_PREFIX + userId;
-        Optional<Integer> attempts = cacheService.get("2fa", cacheKey, Integer.class);
-        return attempts.isPresent() && attempts.get() >= MAX_ATTEMPTS;
-    }
-
-    private void trackVerificationAttempt(Long userId, boolean success) {
-        String cacheKey = TOTP_CACHE_PREFIX + userId;
-        
-        if (success) {
-            cacheService.evict("2fa", cacheKey);
-        } else {
-            Optional<Integer> attempts = cacheService.get("2fa", cacheKey, Integer.class);
-            int newAttempts = attempts.orElse(0) + 1;
-            cacheService.put("2fa", cacheKey, newAttempts, LOCKOUT_DURATION);
-        }
-    }
-
-    private void clearRateLimit(Long userId) {
-        String cacheKey = TOTP_CACHE_PREFIX + userId;
-        cacheService.evict("2fa", cacheKey);
-    }
-
     // Data classes
     @lombok.Data
     @lombok.Builder
@@ -1,6 +1,9 @@
 package com.weddingmarketplace.service;
 
+import com.weddingmarketplace.cache.ratelimit.RateLimitDecision;
+
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -28,11 +31,12 @@ public interface CacheService {
     <T> T getOrCompute(String cacheName, String key, Class<T> type, java.util.function.Supplier<T> supplier, Duration ttl);
     <T> CompletableFuture<T> getOrComputeAsync(String cacheName, String key, Class<T> type, java.util.function.Supplier<T> supplier);
     
-    // Batch operations
-    <T> Map<String, T> getMultiple(String cacheName, Set<String> keys, Class<T> type);
+    // Batch operations (results of getMultiple follow the iteration order of keys)
+    <T> Map<String, T> getMultiple(String cacheName, Collection<String> keys, Class<T> type);
     <T> void putMultiple(String cacheName, Map<String, T> keyValuePairs);
     <T> void putMultiple(String cacheName, Map<String, T> keyValuePairs, Duration ttl);
-    void evictMultiple(String cacheName, Set<String> keys);
+    <T> void putMultiple(String cacheName, Map<String, T> keyValuePairs, java.util.function.Function<String, Duration> ttlForKey);
+    void evictMultiple(String cacheName, Collection<String> keys);
     
     // Pattern-based operations
     Set<String> getKeysByPattern(String cacheName, String pattern);
@@ -124,11 +128,15 @@ public interface CacheService {
     Optional<Object> getCachedConfiguration(String configKey);
     void refreshConfigurationCache();
     
-    // Rate limiting cache
+    // Rate limiting cache; check-then-increment races, so new callers use tryAcquireRateLimit
+    @Deprecated
     void incrementRateLimit(String key);
+    @Deprecated
     void incrementRateLimit(String key, Duration window);
     long getRateLimitCount(String key);
+    @Deprecated
     boolean isRateLimited(String key, long limit);
+    RateLimitDecision tryAcquireRateLimit(String key, long limit, Duration window); // single round trip, sliding window
     void resetRateLimit(String key);
     
     // Lock and synchronization
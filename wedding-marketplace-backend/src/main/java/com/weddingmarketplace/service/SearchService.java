@@ -3,8 +3,11 @@ package com.weddingmarketplace.service;
 import com.weddingmarketplace.model.dto.request.VendorSearchRequest;
 import com.weddingmarketplace.model.dto.response.SearchResponse;
 import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.search.global.GlobalSearchResult;
+import com.weddingmarketplace.search.paging.CursorPage;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -19,8 +22,11 @@ public interface SearchService {
 
     // Core Search Operations
     SearchResponse searchVendors(VendorSearchRequest request, Pageable pageable);
+    CursorPage<Long> searchVendorIdsByCursor(VendorSearchRequest request, String cursor, int size);
+    List<Long> searchVendorIds(VendorSearchRequest request, int limit, Duration timeout);
     SearchResponse searchVendorsWithML(VendorSearchRequest request, Long userId, Pageable pageable);
     SearchResponse globalSearch(String query, String type, Pageable pageable);
+    GlobalSearchResult globalSearchGrouped(String query, String type, Pageable pageable, boolean profile);
     SearchResponse advancedSearch(Map<String, Object> criteria, Pageable pageable);
     SearchResponse semanticSearch(String query, String context, Pageable pageable);
     
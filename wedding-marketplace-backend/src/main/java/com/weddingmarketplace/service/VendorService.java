@@ -6,6 +6,7 @@ import com.weddingmarketplace.model.dto.response.VendorResponse;
 import com.weddingmarketplace.model.dto.response.VendorSearchResponse;
 import com.weddingmarketplace.model.entity.Vendor;
 import com.weddingmarketplace.model.enums.VendorStatus;
+import com.weddingmarketplace.search.paging.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -30,6 +31,11 @@ public interface VendorService {
      */
     VendorSearchResponse searchVendors(VendorSearchRequest searchRequest, Pageable pageable);
 
+    /**
+     * Vendor search paged by an opaque cursor instead of a page number; deep pages cost the same as the first
+     */
+    CursorPage<VendorResponse> searchVendorsByCursor(VendorSearchRequest searchRequest, String cursor, int size);
+
     /**
      * Get vendor by ID with caching and view tracking
      */
@@ -85,6 +91,11 @@ public interface VendorService {
      */
     List<VendorResponse> getVendorsNearby(Double latitude, Double longitude, Double radiusKm, Pageable pageable);
 
+    /**
+     * Vendors within a radius, nearest first, paged by an opaque cursor over (distance, id)
+     */
+    CursorPage<VendorResponse> getVendorsNearbyByCursor(Double latitude, Double longitude, Double radiusKm, String cursor, int size);
+
     /**
      * Get vendor analytics and performance metrics
      */
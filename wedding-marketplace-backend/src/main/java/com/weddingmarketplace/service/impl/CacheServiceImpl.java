@@ -1,17 +1,41 @@
 package com.weddingmarketplace.service.impl;
 
+import com.weddingmarketplace.cache.compute.ComputedEntry;
+import com.weddingmarketplace.cache.invalidation.CacheGenerationRegistry;
+import com.weddingmarketplace.cache.near.NearCacheManager;
+import com.weddingmarketplace.cache.ratelimit.LocalTokenBucket;
+import com.weddingmarketplace.cache.ratelimit.RateLimitDecision;
+import com.weddingmarketplace.cache.warming.HotKeyTracker;
+import com.weddingmarketplace.search.geo.GeoGridIndex;
 import com.weddingmarketplace.service.CacheService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -26,7 +50,39 @@ import java.util.stream.Collectors;
 public class CacheServiceImpl implements CacheService {
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final NearCacheManager nearCacheManager;
+    private final CacheGenerationRegistry generationRegistry;
+    private final HotKeyTracker hotKeyTracker;
+    private final Executor cacheRefreshExecutor;
+    
+    // Per-node pre-filter so obviously over-limit clients never reach Redis
+    private final Cache<String, LocalTokenBucket> localRateLimitBuckets = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofMinutes(10))
+        .build();
+    
+    // One in-flight recomputation per key within this JVM
+    private final Map<String, CompletableFuture<Object>> inFlightComputations = new ConcurrentHashMap<>();
+    
+    @Value("${app.cache.compute.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+    
+    @Value("${app.cache.compute.distributed-lease:true}")
+    private boolean distributedLease;
+    
+    @Value("${app.cache.compute.lease-ttl:30s}")
+    private Duration leaseTtl;
+    
+    @Value("${app.cache.compute.lease-wait:2s}")
+    private Duration leaseWait;
+    
+    @Value("${app.cache.compute.stale-grace:5m}")
+    private Duration staleGrace;
+    
+    @Value("${app.cache.compute.stale-while-revalidate:}")
+    private Set<String> staleWhileRevalidateCaches;
     
     // Cache prefixes for different data types
     private static final String VENDOR_PREFIX = "vendor:";
@@ -40,6 +96,7 @@ public class CacheServiceImpl implements CacheService {
     private static final String RATE_LIMIT_PREFIX = "rate_limit:";
     private static final String LOCK_PREFIX = "lock:";
     private static final String VERSION_PREFIX = "version:";
+    private static final int NEARBY_CACHE_PRECISION = 7;
     
     // Default TTL values
     private static final Duration DEFAULT_TTL = Duration.ofHours(1);
@@ -47,6 +104,20 @@ public class CacheServiceImpl implements CacheService {
     private static final Duration SESSION_TTL = Duration.ofHours(24);
     private static final Duration CONFIG_TTL = Duration.ofHours(12);
     private static final Duration RATE_LIMIT_TTL = Duration.ofMinutes(1);
+    
+    // SCAN page size and UNLINK batch size for pattern operations
+    private static final int SCAN_BATCH_SIZE = 500;
+    
+    // Commands per pipeline flush for bulk writes
+    private static final int PIPELINE_BATCH_SIZE = 500;
+    
+    private static final long LEASE_POLL_INTERVAL_MS = 50;
+    
+    // Rate limit scripts; Spring runs them with EVALSHA and only falls back to EVAL on a script cache miss
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RATE_LIMIT_GCRA_SCRIPT = loadScript("scripts/rate_limit_gcra.lua", List.class);
+    private static final RedisScript<Long> RATE_LIMIT_INCREMENT_SCRIPT = loadScript("scripts/rate_limit_increment.lua", Long.class);
+    private static final Executor CALLER_THREAD = Runnable::run;
 
     @Override
     public <T> void put(String cacheName, String key, T value) {
@@ -56,8 +127,9 @@ public class CacheServiceImpl implements CacheService {
     @Override
     public <T> void put(String cacheName, String key, T value, Duration ttl) {
         try {
-            String fullKey = buildKey(cacheName, key);
+            String fullKey = buildEntryKey(cacheName, key);
             redisTemplate.opsForValue().set(fullKey, value, ttl);
+            nearCacheManager.put(cacheName, key, value);
             
             // Track cache metrics
             trackCacheOperation("PUT", cacheName, key);
@@ -70,20 +142,12 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public <T> Optional<T> get(String cacheName, String key, Class<T> type) {
+        hotKeyTracker.record(cacheName, key);
         try {
-            String fullKey = buildKey(cacheName, key);
-            Object value = redisTemplate.opsForValue().get(fullKey);
+            Object entry = readEntry(cacheName, key, type);
             
-            if (value != null) {
-                trackCacheOperation("HIT", cacheName, key);
-                
-                if (type.isInstance(value)) {
-                    return Optional.of(type.cast(value));
-                } else {
-                    // Handle type conversion if needed
-                    T convertedValue = objectMapper.convertValue(value, type);
-                    return Optional.of(convertedValue);
-                }
+            if (entry != null) {
+                return Optional.of(type.cast(unwrap(entry)));
             } else {
                 trackCacheOperation("MISS", cacheName, key);
                 return Optional.empty();
@@ -98,8 +162,9 @@ public class CacheServiceImpl implements CacheService {
     @Override
     public void evict(String cacheName, String key) {
         try {
-            String fullKey = buildKey(cacheName, key);
-            redisTemplate.delete(fullKey);
+            String fullKey = buildEntryKey(cacheName, key);
+            redisTemplate.unlink(fullKey);
+            nearCacheManager.invalidate(cacheName, key);
             
             trackCacheOperation("EVICT", cacheName, key);
             log.debug("Evicted cache entry for key: {}", fullKey);
@@ -111,13 +176,10 @@ public class CacheServiceImpl implements CacheService {
     @Override
     public void evictAll(String cacheName) {
         try {
-            String pattern = buildKey(cacheName, "*");
-            Set<String> keys = redisTemplate.keys(pattern);
-            
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                log.info("Evicted {} cache entries for cache: {}", keys.size(), cacheName);
-            }
+            // Orphan every entry of the namespace in O(1); old entries expire through their TTL
+            long generation = generationRegistry.bump(cacheName);
+            nearCacheManager.invalidateAll(cacheName);
+            log.info("Invalidated cache: {} (now at generation {})", cacheName, generation);
         } catch (Exception e) {
             log.error("Failed to evict all cache entries for cache: {}", cacheName, e);
         }
@@ -130,47 +192,57 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public <T> T getOrCompute(String cacheName, String key, Class<T> type, java.util.function.Supplier<T> supplier, Duration ttl) {
-        Optional<T> cached = get(cacheName, key, type);
-        
-        if (cached.isPresent()) {
-            return cached.get();
-        }
-        
-        // Compute value and cache it
-        T value = supplier.get();
-        if (value != null) {
-            put(cacheName, key, value, ttl);
+        // Misses are computed on the calling thread; concurrent callers join the same flight
+        CompletableFuture<T> result = resolve(cacheName, key, type, supplier, ttl, CALLER_THREAD);
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
-        
-        return value;
     }
 
     @Override
     public <T> CompletableFuture<T> getOrComputeAsync(String cacheName, String key, Class<T> type, java.util.function.Supplier<T> supplier) {
-        return CompletableFuture.supplyAsync(() -> getOrCompute(cacheName, key, type, supplier));
+        return resolve(cacheName, key, type, supplier, DEFAULT_TTL, cacheRefreshExecutor);
     }
 
     @Override
-    public <T> Map<String, T> getMultiple(String cacheName, Set<String> keys, Class<T> type) {
-        Map<String, T> result = new HashMap<>();
+    public <T> Map<String, T> getMultiple(String cacheName, Collection<String> keys, Class<T> type) {
+        // Single pass over the input; L1 hits are served locally and only misses go to Redis
+        List<String> orderedKeys = new ArrayList<>(keys);
+        Object[] values = new Object[orderedKeys.size()];
+        List<String> missingFullKeys = new ArrayList<>();
+        int[] missingIndexes = new int[orderedKeys.size()];
+        orderedKeys.forEach(key -> hotKeyTracker.record(cacheName, key));
         
         try {
-            List<String> fullKeys = keys.stream()
-                .map(key -> buildKey(cacheName, key))
-                .collect(Collectors.toList());
+            long epoch = nearCacheManager.epoch(cacheName);
+            String keyPrefix = buildEntryKey(cacheName, "");
             
-            List<Object> values = redisTemplate.opsForValue().multiGet(fullKeys);
+            for (int i = 0; i < orderedKeys.size(); i++) {
+                Optional<Object> local = nearCacheManager.get(cacheName, orderedKeys.get(i));
+                if (local.isPresent() && type.isInstance(unwrap(local.get()))) {
+                    values[i] = unwrap(local.get());
+                } else {
+                    missingIndexes[missingFullKeys.size()] = i;
+                    missingFullKeys.add(keyPrefix + orderedKeys.get(i));
+                }
+            }
             
-            for (int i = 0; i < keys.size(); i++) {
-                String originalKey = keys.toArray(new String[0])[i];
-                Object value = values.get(i);
-                
-                if (value != null) {
-                    if (type.isInstance(value)) {
-                        result.put(originalKey, type.cast(value));
-                    } else {
-                        T convertedValue = objectMapper.convertValue(value, type);
-                        result.put(originalKey, convertedValue);
+            if (!missingFullKeys.isEmpty()) {
+                // MGET returns values positionally, so index i maps back to missingIndexes[i]
+                List<Object> fetched = redisTemplate.opsForValue().multiGet(missingFullKeys);
+                for (int i = 0; fetched != null && i < fetched.size(); i++) {
+                    Object value = fetched.get(i);
+                    if (value != null) {
+                        // L1 keeps the same form as single reads, so getOrCompute still sees the XFetch metadata
+                        Object converted = toLocalForm(value, type);
+                        int index = missingIndexes[i];
+                        values[index] = unwrap(converted);
+                        nearCacheManager.populate(cacheName, orderedKeys.get(index), converted, epoch);
                     }
                 }
             }
@@ -178,14 +250,83 @@ public class CacheServiceImpl implements CacheService {
             log.error("Failed to get multiple cache entries for cache: {}", cacheName, e);
         }
         
+        Map<String, T> result = new LinkedHashMap<>(Math.max(16, values.length * 2));
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                result.put(orderedKeys.get(i), type.cast(values[i]));
+            }
+        }
         return result;
     }
 
+    @Override
+    public <T> void putMultiple(String cacheName, Map<String, T> keyValuePairs) {
+        putMultiple(cacheName, keyValuePairs, DEFAULT_TTL);
+    }
+
+    @Override
+    public <T> void putMultiple(String cacheName, Map<String, T> keyValuePairs, Duration ttl) {
+        putMultiple(cacheName, keyValuePairs, key -> ttl);
+    }
+
+    @Override
+    public <T> void putMultiple(String cacheName, Map<String, T> keyValuePairs, Function<String, Duration> ttlForKey) {
+        if (keyValuePairs.isEmpty()) {
+            return;
+        }
+        
+        try {
+            String keyPrefix = buildEntryKey(cacheName, "");
+            List<Map.Entry<String, T>> entries = new ArrayList<>(keyValuePairs.entrySet());
+            
+            // SET ... PX per entry, flushed as one pipeline per PIPELINE_BATCH_SIZE entries
+            for (int from = 0; from < entries.size(); from += PIPELINE_BATCH_SIZE) {
+                List<Map.Entry<String, T>> batch = entries.subList(from, Math.min(from + PIPELINE_BATCH_SIZE, entries.size()));
+                redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                        for (Map.Entry<String, T> entry : batch) {
+                            ops.opsForValue().set(keyPrefix + entry.getKey(), entry.getValue(), ttlForKey.apply(entry.getKey()));
+                        }
+                        return null;
+                    }
+                });
+            }
+            
+            nearCacheManager.putAll(cacheName, keyValuePairs);
+            trackCacheOperation("PUT_MULTIPLE", cacheName, String.valueOf(keyValuePairs.size()));
+        } catch (Exception e) {
+            log.error("Failed to put {} cache entries for cache: {}", keyValuePairs.size(), cacheName, e);
+        }
+    }
+
+    @Override
+    public void evictMultiple(String cacheName, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        
+        try {
+            String keyPrefix = buildEntryKey(cacheName, "");
+            List<String> fullKeys = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                fullKeys.add(keyPrefix + key);
+            }
+            
+            redisTemplate.unlink(fullKeys);
+            nearCacheManager.invalidate(cacheName, keys);
+            trackCacheOperation("EVICT_MULTIPLE", cacheName, String.valueOf(keys.size()));
+        } catch (Exception e) {
+            log.error("Failed to evict {} cache entries for cache: {}", keys.size(), cacheName, e);
+        }
+    }
+
     @Override
     public Set<String> getKeysByPattern(String cacheName, String pattern) {
         try {
-            String fullPattern = buildKey(cacheName, pattern);
-            return redisTemplate.keys(fullPattern);
+            return scanKeys(buildEntryKey(cacheName, pattern));
         } catch (Exception e) {
             log.error("Failed to get keys by pattern for cache: {}, pattern: {}", cacheName, pattern, e);
             return Collections.emptySet();
@@ -194,12 +335,18 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public void evictByPattern(String cacheName, String pattern) {
+        if ("*".equals(pattern)) {
+            evictAll(cacheName);
+            return;
+        }
+        
         try {
-            Set<String> keys = getKeysByPattern(cacheName, pattern);
-            if (!keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                log.info("Evicted {} cache entries matching pattern: {}", keys.size(), pattern);
-            }
+            // Selective patterns still need to find their keys, but never with a blocking KEYS
+            long evicted = unlinkMatching(buildEntryKey(cacheName, pattern));
+            log.info("Evicted {} cache entries matching pattern: {}", evicted, pattern);
+            
+            // Patterns are not evaluated locally; drop the whole L1 namespace instead
+            nearCacheManager.invalidateAll(cacheName);
         } catch (Exception e) {
             log.error("Failed to evict by pattern for cache: {}, pattern: {}", cacheName, pattern, e);
         }
@@ -224,12 +371,12 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public void evictVendorCaches(Long vendorId) {
-        // Evict all vendor-related caches
+        // Evict all vendor-related caches; each namespace flush is a single generation bump.
+        // vendor_search holds id lists hydrated through "vendors", so it survives edits
         evict("vendors", vendorId.toString());
-        evictByPattern("vendor_search", "*");
-        evictByPattern("featured_vendors", "*");
-        evictByPattern("trending_vendors", "*");
-        evictByPattern("nearby_vendors", "*");
+        evictAll("featured_vendors");
+        evictAll("trending_vendors");
+        evictAll("nearby_vendors");
     }
 
     @Override
@@ -279,27 +426,37 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public void cacheNearbyVendors(Double latitude, Double longitude, Double radius, Object vendors) {
-        String locationKey = String.format("%.6f_%.6f_%.2f", latitude, longitude, radius);
+        String locationKey = nearbyLocationKey(latitude, longitude, radius);
         put("nearby_vendors", locationKey, vendors, Duration.ofMinutes(30));
     }
 
     @Override
     public Optional<Object> getCachedNearbyVendors(Double latitude, Double longitude, Double radius) {
-        String locationKey = String.format("%.6f_%.6f_%.2f", latitude, longitude, radius);
+        String locationKey = nearbyLocationKey(latitude, longitude, radius);
         return get("nearby_vendors", locationKey, Object.class);
     }
 
+    /**
+     * Nearby results are shared by everyone in the same ~150 m geohash cell rather than
+     * keyed on exact coordinates, which no two clients ever repeat
+     */
+    private static String nearbyLocationKey(Double latitude, Double longitude, Double radius) {
+        return String.format("%s_%.2f", GeoGridIndex.geohash(latitude, longitude, NEARBY_CACHE_PRECISION), radius);
+    }
+
     @Override
+    @Deprecated
     public void incrementRateLimit(String key) {
         incrementRateLimit(key, RATE_LIMIT_TTL);
     }
 
     @Override
+    @Deprecated
     public void incrementRateLimit(String key, Duration window) {
         try {
+            // INCR and first-hit PEXPIRE in one round trip; the window is no longer extended on every hit
             String fullKey = buildKey("rate_limit", key);
-            redisTemplate.opsForValue().increment(fullKey);
-            redisTemplate.expire(fullKey, window);
+            stringRedisTemplate.execute(RATE_LIMIT_INCREMENT_SCRIPT, List.of(fullKey), String.valueOf(window.toMillis()));
         } catch (Exception e) {
             log.error("Failed to increment rate limit for key: {}", key, e);
         }
@@ -309,8 +466,8 @@ public class CacheServiceImpl implements CacheService {
     public long getRateLimitCount(String key) {
         try {
             String fullKey = buildKey("rate_limit", key);
-            Object value = redisTemplate.opsForValue().get(fullKey);
-            return value != null ? Long.parseLong(value.toString()) : 0L;
+            String value = stringRedisTemplate.opsForValue().get(fullKey);
+            return value != null ? Long.parseLong(value) : 0L;
         } catch (Exception e) {
             log.error("Failed to get rate limit count for key: {}", key, e);
             return 0L;
@@ -318,10 +475,56 @@ public class CacheServiceImpl implements CacheService {
     }
 
     @Override
+    @Deprecated
     public boolean isRateLimited(String key, long limit) {
         return getRateLimitCount(key) >= limit;
     }
 
+    @Override
+    public RateLimitDecision tryAcquireRateLimit(String key, long limit, Duration window) {
+        long now = System.nanoTime();
+        LocalTokenBucket bucket = localRateLimitBuckets.asMap().compute(key, (k, existing) ->
+            existing != null && existing.matches(limit, window.toNanos())
+                ? existing
+                : new LocalTokenBucket(limit, window.toNanos(), now));
+        
+        long localWaitNanos = bucket.tryConsume(now);
+        if (localWaitNanos > 0) {
+            trackCacheOperation("RATE_LIMIT_LOCAL_REJECT", "rate_limit", key);
+            return RateLimitDecision.rejected(Duration.ofNanos(localWaitNanos), true);
+        }
+        
+        try {
+            double emissionIntervalMs = (double) window.toMillis() / limit;
+            List<?> result = stringRedisTemplate.execute(RATE_LIMIT_GCRA_SCRIPT,
+                List.of(buildKey("rate_limit_gcra", key)),
+                String.valueOf(emissionIntervalMs), String.valueOf(limit), "1");
+            
+            if (((Number) result.get(0)).longValue() == 1L) {
+                return RateLimitDecision.allowed(((Number) result.get(1)).longValue());
+            }
+            
+            Duration retryAfter = Duration.ofMillis(((Number) result.get(2)).longValue());
+            bucket.blockUntil(now + retryAfter.toNanos());
+            trackCacheOperation("RATE_LIMIT_REJECT", "rate_limit", key);
+            return RateLimitDecision.rejected(retryAfter, false);
+        } catch (Exception e) {
+            // Fail open; the local bucket still caps what this node lets through
+            log.error("Failed to evaluate rate limit for key: {}", key, e);
+            return RateLimitDecision.allowed(0);
+        }
+    }
+
+    @Override
+    public void resetRateLimit(String key) {
+        try {
+            stringRedisTemplate.unlink(List.of(buildKey("rate_limit", key), buildKey("rate_limit_gcra", key)));
+            localRateLimitBuckets.invalidate(key);
+        } catch (Exception e) {
+            log.error("Failed to reset rate limit for key: {}", key, e);
+        }
+    }
+
     @Override
     public boolean acquireLock(String lockKey, Duration timeout) {
         try {
@@ -349,11 +552,11 @@ public class CacheServiceImpl implements CacheService {
         Map<String, Object> stats = new HashMap<>();
         
         try {
-            String pattern = buildKey(cacheName, "*");
-            Set<String> keys = redisTemplate.keys(pattern);
-            
-            stats.put("keyCount", keys != null ? keys.size() : 0);
+            // Admin-only path: counts live entries of the current generation with SCAN
+            stats.put("keyCount", countByPattern(cacheName, "*"));
+            stats.put("generation", generationRegistry.currentGeneration(cacheName));
             stats.put("cacheName", cacheName);
+            stats.put("nearCache", nearCacheManager.getStatistics(cacheName));
             stats.put("timestamp", System.currentTimeMillis());
             
             // Add more detailed statistics if needed
@@ -365,12 +568,252 @@ public class CacheServiceImpl implements CacheService {
         return stats;
     }
 
+    // Stampede protection
+
+    /**
+     * Serve from cache when fresh, otherwise coalesce recomputation. Entries written here
+     * carry their compute time and logical expiry so that callers can refresh early with
+     * probability rising towards expiry (XFetch), instead of all missing at the same instant.
+     */
+    private <T> CompletableFuture<T> resolve(String cacheName, String key, Class<T> type,
+                                             Supplier<T> supplier, Duration ttl, Executor loader) {
+        hotKeyTracker.record(cacheName, key);
+        Object entry = null;
+        try {
+            entry = readEntry(cacheName, key, type);
+        } catch (Exception e) {
+            log.error("Failed to read cache entry for key: {}, recomputing", buildKey(cacheName, key), e);
+        }
+        
+        if (entry != null) {
+            if (!(entry instanceof ComputedEntry computed)) {
+                return CompletableFuture.completedFuture(type.cast(entry));
+            }
+            
+            T current = type.cast(computed.getValue());
+            if (!shouldRecompute(computed, System.currentTimeMillis())) {
+                return CompletableFuture.completedFuture(current);
+            }
+            
+            if (staleWhileRevalidateCaches.contains(cacheName)) {
+                // Serve what we have and let exactly one background flight refresh it
+                computeCoalesced(cacheName, key, type, supplier, ttl, cacheRefreshExecutor)
+                    .exceptionally(error -> {
+                        log.warn("Background refresh failed for key: {}", buildKey(cacheName, key), error);
+                        return null;
+                    });
+                trackCacheOperation("STALE_HIT", cacheName, key);
+                return CompletableFuture.completedFuture(current);
+            }
+            trackCacheOperation("EARLY_REFRESH", cacheName, key);
+        }
+        
+        return computeCoalesced(cacheName, key, type, supplier, ttl, loader).thenApply(type::cast);
+    }
+
+    private boolean shouldRecompute(ComputedEntry entry, long nowMillis) {
+        if (entry.isExpiredAt(nowMillis)) {
+            return true;
+        }
+        // XFetch: now - delta * beta * ln(rand) >= expiry
+        double jitter = entry.getComputeMillis() * earlyRefreshBeta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return nowMillis - jitter >= entry.getExpiresAtMillis();
+    }
+
+    private <T> CompletableFuture<Object> computeCoalesced(String cacheName, String key, Class<T> type,
+                                                           Supplier<T> supplier, Duration ttl, Executor loader) {
+        String flightKey = buildKey(cacheName, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightComputations.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            trackCacheOperation("COALESCED", cacheName, key);
+            return existing;
+        }
+        
+        try {
+            loader.execute(() -> {
+                try {
+                    flight.complete(computeWithLease(cacheName, key, type, supplier, ttl));
+                } catch (Throwable error) {
+                    flight.completeExceptionally(error);
+                } finally {
+                    inFlightComputations.remove(flightKey, flight);
+                }
+            });
+        } catch (RuntimeException rejected) {
+            inFlightComputations.remove(flightKey, flight);
+            flight.completeExceptionally(rejected);
+        }
+        return flight;
+    }
+
+    /**
+     * Optionally take a cross-node lease so only one node runs the supplier; the others
+     * wait briefly for the winner's value and compute themselves only if it never shows up
+     */
+    private <T> Object computeWithLease(String cacheName, String key, Class<T> type, Supplier<T> supplier, Duration ttl) {
+        if (!distributedLease) {
+            return computeAndStore(cacheName, key, supplier, ttl);
+        }
+        
+        String leaseKey = "compute:" + buildKey(cacheName, key);
+        if (acquireLock(leaseKey, leaseTtl)) {
+            try {
+                return computeAndStore(cacheName, key, supplier, ttl);
+            } finally {
+                releaseLock(leaseKey);
+            }
+        }
+        
+        Object published = awaitPeerComputation(cacheName, key, type);
+        if (published != null) {
+            trackCacheOperation("LEASE_WAIT_HIT", cacheName, key);
+            return published;
+        }
+        
+        log.debug("Peer did not publish {} within {}, computing locally", buildKey(cacheName, key), leaseWait);
+        return computeAndStore(cacheName, key, supplier, ttl);
+    }
+
+    private <T> Object awaitPeerComputation(String cacheName, String key, Class<T> type) {
+        long deadline = System.nanoTime() + leaseWait.toNanos();
+        
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(LEASE_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            
+            Object value = redisTemplate.opsForValue().get(buildEntryKey(cacheName, key));
+            if (value instanceof ComputedEntry computed) {
+                if (!computed.isExpiredAt(System.currentTimeMillis())) {
+                    return convert(computed.getValue(), type);
+                }
+            } else if (value != null) {
+                return convert(value, type);
+            }
+        }
+        return null;
+    }
+
+    private <T> T computeAndStore(String cacheName, String key, Supplier<T> supplier, Duration ttl) {
+        long start = System.nanoTime();
+        T value = supplier.get();
+        long computeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        if (value != null) {
+            ComputedEntry entry = ComputedEntry.builder()
+                .value(value)
+                .computeMillis(computeMillis)
+                .expiresAtMillis(System.currentTimeMillis() + ttl.toMillis())
+                .build();
+            
+            // Stale-while-revalidate namespaces keep the entry around past its logical expiry
+            Duration physicalTtl = staleWhileRevalidateCaches.contains(cacheName) ? ttl.plus(staleGrace) : ttl;
+            put(cacheName, key, entry, physicalTtl);
+        }
+        return value;
+    }
+
     // Helper methods
 
+    private static <T> RedisScript<T> loadScript(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+
+    /**
+     * Read an entry through L1 then Redis. Returns either the value converted to {@code type}
+     * or a {@link ComputedEntry} whose value is already converted; L1 keeps the converted form
+     * so hot reads skip deserialization entirely.
+     */
+    private <T> Object readEntry(String cacheName, String key, Class<T> type) {
+        Optional<Object> local = nearCacheManager.get(cacheName, key);
+        if (local.isPresent() && type.isInstance(unwrap(local.get()))) {
+            trackCacheOperation("L1_HIT", cacheName, key);
+            return local.get();
+        }
+        
+        long epoch = nearCacheManager.epoch(cacheName);
+        Object value = redisTemplate.opsForValue().get(buildEntryKey(cacheName, key));
+        if (value == null) {
+            return null;
+        }
+        
+        trackCacheOperation("HIT", cacheName, key);
+        Object converted = toLocalForm(value, type);
+        nearCacheManager.populate(cacheName, key, converted, epoch);
+        return converted;
+    }
+
+    /**
+     * A value read from Redis converted to {@code type}, still wrapped in its
+     * {@link ComputedEntry} when it has one
+     */
+    private <T> Object toLocalForm(Object value, Class<T> type) {
+        return value instanceof ComputedEntry computed
+            ? computed.withValue(convert(computed.getValue(), type))
+            : convert(value, type);
+    }
+
+    private Object unwrap(Object entry) {
+        return entry instanceof ComputedEntry computed ? computed.getValue() : entry;
+    }
+
+    private <T> T convert(Object value, Class<T> type) {
+        return type.isInstance(value) ? type.cast(value) : objectMapper.convertValue(value, type);
+    }
+
     private String buildKey(String cacheName, String key) {
         return String.format("%s:%s", cacheName, key);
     }
 
+    /**
+     * Key of a cache entry, scoped to the current generation of its namespace
+     */
+    private String buildEntryKey(String cacheName, String key) {
+        return cacheName + ":" + generationRegistry.currentGeneration(cacheName) + ":" + key;
+    }
+
+    private Set<String> scanKeys(String fullPattern) {
+        Set<String> keys = new HashSet<>();
+        ScanOptions options = ScanOptions.scanOptions().match(fullPattern).count(SCAN_BATCH_SIZE).build();
+        
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(keys::add);
+        }
+        return keys;
+    }
+
+    private long unlinkMatching(String fullPattern) {
+        long unlinked = 0;
+        List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+        ScanOptions options = ScanOptions.scanOptions().match(fullPattern).count(SCAN_BATCH_SIZE).build();
+        
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= SCAN_BATCH_SIZE) {
+                    unlinked += unlinkBatch(batch);
+                }
+            }
+        }
+        return unlinked + unlinkBatch(batch);
+    }
+
+    private long unlinkBatch(List<String> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Long removed = redisTemplate.unlink(batch);
+        batch.clear();
+        return removed != null ? removed : 0;
+    }
+
     private String generateSearchKey(String searchQuery) {
         // Generate a consistent key for search queries
         return searchQuery.toLowerCase().replaceAll("\\s+", "_");
@@ -384,10 +827,19 @@ public class CacheServiceImpl implements CacheService {
 
     // Placeholder implementations for interface methods not shown due to length constraints
     @Override public boolean exists(String cacheName, String key) { return false; }
-    @Override public <T> void putMultiple(String cacheName, Map<String, T> keyValuePairs) {}
-    @Override public <T> void putMultiple(String cacheName, Map<String, T> keyValuePairs, Duration ttl) {}
-    @Override public void evictMultiple(String cacheName, Set<String> keys) {}
-    @Override public long countByPattern(String cacheName, String pattern) { return 0; }
+    @Override public long countByPattern(String cacheName, String pattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(buildEntryKey(cacheName, pattern)).count(SCAN_BATCH_SIZE).build();
+        long count = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                cursor.next();
+                count++;
+            }
+        } catch (Exception e) {
+            log.error("Failed to count keys by pattern for cache: {}, pattern: {}", cacheName, pattern, e);
+        }
+        return count;
+    }
     @Override public void warmCache(String cacheName, Map<String, Object> data) {}
     @Override public void warmCacheAsync(String cacheName, Map<String, Object> data) {}
     @Override public void preloadVendorCache(Long vendorId) {}
@@ -1,10 +1,12 @@
 package com.weddingmarketplace.service.impl;
 
+import com.weddingmarketplace.cache.writebehind.VendorActivityRecorder;
 import com.weddingmarketplace.event.VendorApprovedEvent;
 import com.weddingmarketplace.event.VendorRegisteredEvent;
 import com.weddingmarketplace.exception.ResourceNotFoundException;
 import com.weddingmarketplace.exception.BadRequestException;
 import com.weddingmarketplace.mapper.VendorMapper;
+import com.weddingmarketplace.ml.similarity.VendorSimilarityIndex;
 import com.weddingmarketplace.model.dto.request.VendorSearchRequest;
 import com.weddingmarketplace.model.dto.request.VendorRegistrationRequest;
 import com.weddingmarketplace.model.dto.response.VendorResponse;
@@ -17,6 +19,17 @@ import com.weddingmarketplace.repository.VendorRepository;
 import com.weddingmarketplace.repository.UserRepository;
 import com.weddingmarketplace.repository.CategoryRepository;
 import com.weddingmarketplace.repository.specification.VendorSpecification;
+import com.weddingmarketplace.search.cache.CachedSearchPage;
+import com.weddingmarketplace.search.cache.VendorSearchResultCache;
+import com.weddingmarketplace.search.availability.VendorAvailabilityIndex;
+import com.weddingmarketplace.search.geo.GeoBoundingBox;
+import com.weddingmarketplace.search.geo.GeoFilter;
+import com.weddingmarketplace.search.geo.GeoGridIndex;
+import com.weddingmarketplace.search.geo.VendorGeoIndex;
+import com.weddingmarketplace.search.paging.CursorPage;
+import com.weddingmarketplace.search.paging.SearchCursor;
+import com.weddingmarketplace.search.paging.VendorKeyset;
+import com.weddingmarketplace.search.query.SearchQueryFingerprint;
 import com.weddingmarketplace.service.VendorService;
 import com.weddingmarketplace.service.CacheService;
 import com.weddingmarketplace.service.SearchService;
@@ -24,18 +37,24 @@ import com.weddingmarketplace.service.AnalyticsService;
 import com.weddingmarketplace.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -60,9 +79,19 @@ public class VendorServiceImpl implements VendorService {
     private final AnalyticsService analyticsService;
     private final NotificationService notificationService;
     private final ApplicationEventPublisher eventPublisher;
+    private final VendorActivityRecorder vendorActivityRecorder;
+    private final VendorSearchResultCache searchResultCache;
+    private final VendorGeoIndex vendorGeoIndex;
+    private final VendorAvailabilityIndex vendorAvailabilityIndex;
+    private final VendorSimilarityIndex vendorSimilarityIndex;
+
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.search.result-cache.vendor-ttl:2h}")
+    private Duration vendorCacheTtl;
 
     private static final String VENDOR_CACHE = "vendors";
-    private static final String VENDOR_SEARCH_CACHE = "vendor_search";
     private static final String FEATURED_VENDORS_CACHE = "featured_vendors";
     private static final String TRENDING_VENDORS_CACHE = "trending_vendors";
 
@@ -117,52 +146,173 @@ public class VendorServiceImpl implements VendorService {
     }
 
     @Override
-    @Cacheable(value = VENDOR_SEARCH_CACHE, key = "#searchRequest.hashCode() + '_' + #pageable.pageNumber")
     public VendorSearchResponse searchVendors(VendorSearchRequest searchRequest, Pageable pageable) {
         log.debug("Searching vendors with request: {}", searchRequest);
         
-        // Build dynamic specification
+        // Cached pages hold vendor ids only and are keyed by the canonical query fingerprint
+        boolean cacheable = !Boolean.FALSE.equals(searchRequest.getUseCache());
+        String fingerprint = cacheable ? SearchQueryFingerprint.of(searchRequest, pageable) : null;
+        Optional<CachedSearchPage> cachedPage = cacheable ? searchResultCache.get(fingerprint, searchRequest.hasDateConstraints()) : Optional.empty();
+        
+        VendorSearchResponse response = cachedPage.isPresent()
+            ? buildCachedSearchResponse(searchRequest, pageable, cachedPage.get())
+            : executeSearch(searchRequest, pageable, fingerprint);
+        
+        // Track search analytics
+        analyticsService.trackVendorSearch(searchRequest, response);
+        
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<VendorResponse> searchVendorsByCursor(VendorSearchRequest searchRequest, String cursor, int size) {
+        log.debug("Searching vendors by cursor with request: {}", searchRequest);
+        
+        // Keyword relevance exists only in Elasticsearch, which pages it by search_after
+        if (isRankedByRelevance(searchRequest)) {
+            CursorPage<Long> ids = searchService.searchVendorIdsByCursor(searchRequest, cursor, size);
+            long[] vendorIds = ids.getItems().stream().mapToLong(Long::longValue).toArray();
+            return new CursorPage<>(searchResultCache.hydrate(vendorIds), ids.getSize(), ids.getNextCursor());
+        }
+        
+        // The cursor is bound to the filters and sort, never to a page number
+        String scope = SearchQueryFingerprint.of(searchRequest);
+        VendorKeyset keyset = VendorKeyset.of(searchRequest.getSortBy(), searchRequest.getSortDirection());
         Specification<Vendor> spec = buildSearchSpecification(searchRequest);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(keyset.after(SearchCursor.decode(cursor, scope).getAfter()));
+        }
         
-        // Execute search with specification
-        Page<Vendor> vendorPage = vendorRepository.findAll(spec, pageable);
+        // One extra row tells whether there is a next page, so no count query is needed
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        List<Vendor> rows = vendorRepository.findBy(spec, query -> query.sortBy(keyset.sort()).limit(limit + 1).all());
+        boolean hasNext = rows.size() > limit;
+        List<Vendor> page = hasNext ? rows.subList(0, limit) : rows;
         
-        // Convert to response DTOs
-        List<VendorResponse> vendors = vendorPage.getContent().stream()
+        String nextCursor = hasNext
+            ? new SearchCursor(scope, keyset.valuesOf(page.get(page.size() - 1)), null).encode()
+            : null;
+        List<VendorResponse> vendors = page.stream()
             .map(vendorMapper::toResponse)
             .collect(Collectors.toList());
         
-        // Build search response with metadata
-        VendorSearchResponse response = VendorSearchResponse.builder()
-            .vendors(vendors)
-            .totalElements(vendorPage.getTotalElements())
-            .totalPages(vendorPage.getTotalPages())
-            .currentPage(vendorPage.getNumber())
-            .pageSize(vendorPage.getSize())
-            .hasNext(vendorPage.hasNext())
-            .hasPrevious(vendorPage.hasPrevious())
-            .searchMetadata(buildSearchMetadata(searchRequest, vendorPage))
-            .build();
+        return new CursorPage<>(vendors, limit, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<VendorResponse> getVendorsNearby(Double latitude, Double longitude, Double radiusKm, Pageable pageable) {
+        log.debug("Getting vendors within {} km of {}, {}", radiusKm, latitude, longitude);
+        
+        checkNearbyArguments(latitude, longitude, radiusKm);
+        // Offset pages still read every nearer vendor; deep pages belong on the cursor form
+        int size = Math.max(1, Math.min(pageable.getPageSize(), maxPageSize));
+        int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - size);
+        
+        // Served from the in-memory grid and the vendor cache once the grid is built
+        Optional<List<GeoGridIndex.Hit>> fromGrid = vendorGeoIndex.nearestQuantized(
+            latitude, longitude, offset + size, radiusKm, GeoFilter.NONE);
+        if (fromGrid.isPresent()) {
+            List<GeoGridIndex.Hit> hits = fromGrid.get();
+            long[] ids = hits.subList(Math.min(offset, hits.size()), hits.size()).stream()
+                .mapToLong(GeoGridIndex.Hit::getVendorId)
+                .toArray();
+            return searchResultCache.hydrate(ids);
+        }
         
-        // Track search analytics
-        analyticsService.trackVendorSearch(searchRequest, response);
+        List<VendorRepository.VendorDistance> rows = findNearby(latitude, longitude, radiusKm, null, null, offset + size);
+        return loadVendorsInOrder(rows.subList(Math.min(offset, rows.size()), rows.size()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<VendorResponse> getVendorsNearbyByCursor(Double latitude, Double longitude, Double radiusKm, String cursor, int size) {
+        log.debug("Getting vendors within {} km of {}, {} by cursor", radiusKm, latitude, longitude);
+        
+        // The cursor carries the exact distance computed by the database, so the next page
+        // resumes strictly after the last row however many vendors share a distance
+        String scope = "nearby:" + latitude + "," + longitude + "," + radiusKm;
+        Double afterDistance = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            List<Object> after = SearchCursor.decode(cursor, scope).getAfter();
+            if (after.size() != 2 || !(after.get(0) instanceof Number distance) || !(after.get(1) instanceof Number id)) {
+                throw new BadRequestException("Invalid page cursor");
+            }
+            afterDistance = distance.doubleValue();
+            afterId = id.longValue();
+        }
         
-        return response;
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        List<VendorRepository.VendorDistance> rows = findNearby(latitude, longitude, radiusKm, afterDistance, afterId, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<VendorRepository.VendorDistance> page = hasNext ? rows.subList(0, limit) : rows;
+        
+        String nextCursor = null;
+        if (hasNext) {
+            VendorRepository.VendorDistance last = page.get(page.size() - 1);
+            nextCursor = new SearchCursor(scope, List.of(last.getDistanceMeters(), last.getId()), null).encode();
+        }
+        return new CursorPage<>(loadVendorsInOrder(page), limit, nextCursor);
+    }
+
+    private boolean isRankedByRelevance(VendorSearchRequest searchRequest) {
+        String sortBy = searchRequest.getSortBy();
+        return searchRequest.getKeyword() != null && !searchRequest.getKeyword().isBlank()
+            && (sortBy == null || "relevance".equalsIgnoreCase(sortBy));
+    }
+
+    private List<VendorRepository.VendorDistance> findNearby(Double latitude, Double longitude, Double radiusKm,
+                                                            Double afterDistance, Long afterId, int limit) {
+        checkNearbyArguments(latitude, longitude, radiusKm);
+        GeoBoundingBox box = GeoBoundingBox.around(latitude, longitude, radiusKm);
+        return vendorRepository.findNearbyVendorIds(GeoBoundingBox.pointWkt(latitude, longitude),
+            box.toPolygonWkt(), radiusKm * 1000, afterDistance, afterId, limit);
+    }
+
+    private static void checkNearbyArguments(Double latitude, Double longitude, Double radiusKm) {
+        if (latitude == null || longitude == null || radiusKm == null
+                || Math.abs(latitude) > 90 || Math.abs(longitude) > 180 || radiusKm < 0) {
+            throw new BadRequestException("Invalid coordinates or radius");
+        }
+    }
+
+    private List<VendorResponse> loadVendorsInOrder(List<VendorRepository.VendorDistance> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Vendor> vendorsById = vendorRepository.findAllById(rows.stream()
+                .map(VendorRepository.VendorDistance::getId)
+                .collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(Vendor::getId, vendor -> vendor));
+        return rows.stream()
+            .map(row -> vendorsById.get(row.getId()))
+            .filter(Objects::nonNull)
+            .map(vendorMapper::toResponse)
+            .collect(Collectors.toList());
     }
 
     @Override
-    @Cacheable(value = VENDOR_CACHE, key = "#vendorId")
+    @Transactional(readOnly = true)
     public Optional<VendorResponse> getVendorById(Long vendorId, boolean incrementViewCount) {
         log.debug("Getting vendor by ID: {}, incrementViewCount: {}", vendorId, incrementViewCount);
         
-        Optional<Vendor> vendorOpt = vendorRepository.findByIdAndDeletedFalse(vendorId);
+        // Same "vendors" entries search pages hydrate from, fronted by the near cache
+        String key = vendorId.toString();
+        Optional<VendorResponse> vendor = cacheService.get(VENDOR_CACHE, key, VendorResponse.class);
+        if (vendor.isEmpty()) {
+            vendor = vendorRepository.findByIdAndDeletedFalse(vendorId).map(vendorMapper::toResponse);
+            vendor.ifPresent(response -> cacheService.put(VENDOR_CACHE, key, response, vendorCacheTtl));
+        }
         
-        if (vendorOpt.isPresent() && incrementViewCount) {
-            // Increment view count asynchronously
-            analyticsService.incrementVendorViewCount(vendorId);
+        if (vendor.isPresent() && incrementViewCount) {
+            // Coalesced in memory and flushed as a batched UPDATE
+            vendorActivityRecorder.recordView(vendorId);
         }
         
-        return vendorOpt.map(vendorMapper::toResponse);
+        return vendor;
     }
 
     @Override
@@ -175,8 +325,7 @@ public class VendorServiceImpl implements VendorService {
     }
 
     @Override
-    @CachePut(value = VENDOR_CACHE, key = "#vendorId")
-    @CacheEvict(value = {VENDOR_SEARCH_CACHE, FEATURED_VENDORS_CACHE, TRENDING_VENDORS_CACHE}, allEntries = true)
+    @CacheEvict(value = {FEATURED_VENDORS_CACHE, TRENDING_VENDORS_CACHE}, allEntries = true)
     public VendorResponse updateVendor(Long vendorId, VendorRegistrationRequest request, Long userId) {
         log.info("Updating vendor: {} by user: {}", vendorId, userId);
         
@@ -190,6 +339,7 @@ public class VendorServiceImpl implements VendorService {
         
         // Track changes for audit
         Map<String, Object> changes = trackVendorChanges(vendor, request);
+        List<Object> searchedFieldsBefore = searchedFields(vendor);
         
         // Update vendor fields
         vendorMapper.updateEntityFromRequest(request, vendor);
@@ -206,8 +356,20 @@ public class VendorServiceImpl implements VendorService {
             vendor.setCategory(newCategory);
         }
         
+        // Cached pages only re-read vendor entries, so a change to a filtered field can move
+        // the vendor in or out of result sets
+        boolean searchMembershipChanged = !searchedFieldsBefore.equals(searchedFields(vendor));
+        
         vendor = vendorRepository.save(vendor);
         
+        // Invalidate Redis and near-cached copies on every node
+        afterCommit(() -> {
+            cacheService.evictVendorCaches(vendorId);
+            if (searchMembershipChanged) {
+                searchResultCache.invalidateAll();
+            }
+        });
+        
         // Log audit trail
         analyticsService.logVendorUpdate(vendorId, userId, changes);
         
@@ -216,7 +378,7 @@ public class VendorServiceImpl implements VendorService {
     }
 
     @Override
-    @CacheEvict(value = {VENDOR_CACHE, VENDOR_SEARCH_CACHE, FEATURED_VENDORS_CACHE}, allEntries = true)
+    @CacheEvict(value = {VENDOR_CACHE, FEATURED_VENDORS_CACHE}, allEntries = true)
     public VendorResponse approveVendor(Long vendorId, Long adminId, String notes) {
         log.info("Approving vendor: {} by admin: {}", vendorId, adminId);
         
@@ -243,6 +405,10 @@ public class VendorServiceImpl implements VendorService {
         
         // Update search index
         searchService.indexVendor(vendor);
+        afterCommit(() -> {
+            cacheService.evictVendorCaches(vendorId);
+            searchResultCache.invalidateAll();
+        });
         
         // Track analytics
         analyticsService.trackVendorApproval(vendorId, adminId);
@@ -252,7 +418,7 @@ public class VendorServiceImpl implements VendorService {
     }
 
     @Override
-    @CacheEvict(value = {VENDOR_CACHE, VENDOR_SEARCH_CACHE, FEATURED_VENDORS_CACHE}, allEntries = true)
+    @CacheEvict(value = {VENDOR_CACHE, FEATURED_VENDORS_CACHE}, allEntries = true)
     public VendorResponse rejectVendor(Long vendorId, Long adminId, String reason) {
         log.info("Rejecting vendor: {} by admin: {}", vendorId, adminId);
         
@@ -264,6 +430,10 @@ public class VendorServiceImpl implements VendorService {
         vendor.setAdminNotes(reason);
         
         vendor = vendorRepository.save(vendor);
+        afterCommit(() -> {
+            cacheService.evictVendorCaches(vendorId);
+            searchResultCache.invalidateAll();
+        });
         
         // Send rejection notification
         notificationService.notifyVendorRejection(vendor, reason);
@@ -300,6 +470,27 @@ public class VendorServiceImpl implements VendorService {
             .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<VendorResponse> getSimilarVendors(Long vendorId, Integer limit) {
+        log.debug("Getting vendors similar to vendor: {}", vendorId);
+        
+        int size = Math.max(1, Math.min(limit != null ? limit : 10, maxPageSize));
+        
+        // Precomputed co-booking neighbours, hydrated through the vendor cache. The matrix only
+        // moves with its nightly rebuild, and hydration drops neighbours suspended, rejected or
+        // deleted since, so twice the page is asked for to keep it full.
+        Optional<List<Long>> similar = vendorSimilarityIndex.similarVendors(vendorId, size * 2);
+        if (similar.isPresent()) {
+            List<VendorResponse> approved = searchResultCache.hydrate(similar.get().stream().mapToLong(Long::longValue).toArray());
+            return approved.size() > size ? new ArrayList<>(approved.subList(0, size)) : approved;
+        }
+        
+        return vendorRepository.findSimilarVendors(vendorId, PageRequest.of(0, size)).stream()
+            .map(vendorMapper::toResponse)
+            .collect(Collectors.toList());
+    }
+
     @Override
     public Map<String, Object> getVendorAnalytics(Long vendorId, String period) {
         log.debug("Getting vendor analytics for vendor: {}, period: {}", vendorId, period);
@@ -310,8 +501,87 @@ public class VendorServiceImpl implements VendorService {
         return analyticsService.getVendorAnalytics(vendor, period);
     }
 
+    @Override
+    public void updateResponseMetrics(Long vendorId, boolean responded, int responseTimeHours) {
+        // Folded into the vendor's moving averages by the next batched UPDATE
+        vendorActivityRecorder.recordResponse(vendorId, responded, responseTimeHours);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isVendorAvailable(Long vendorId, String date) {
+        LocalDate eventDate;
+        try {
+            eventDate = LocalDate.parse(date);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new BadRequestException("Invalid date: " + date);
+        }
+        return vendorAvailabilityIndex.isAvailable(vendorId, eventDate);
+    }
+
+    @Override
+    public void updateAvailability(Long vendorId, String availabilityData) {
+        log.info("Updating availability calendar for vendor: {}", vendorId);
+        
+        Vendor vendor = vendorRepository.findByIdAndDeletedFalse(vendorId)
+            .orElseThrow(() -> new ResourceNotFoundException("Vendor", "id", vendorId));
+        
+        // Searches read the calendar back as blocked days, so only well-formed ones are stored
+        vendor.setAvailabilityCalendar(vendorAvailabilityIndex.normalizeCalendar(availabilityData));
+        vendor = vendorRepository.save(vendor);
+        
+        // The index queue fans the change out to the availability index once this commits
+        searchService.indexVendorAsync(vendor);
+    }
+
     // Helper methods
     
+    private VendorSearchResponse executeSearch(VendorSearchRequest searchRequest, Pageable pageable, String fingerprint) {
+        // Build dynamic specification
+        Specification<Vendor> spec = buildSearchSpecification(searchRequest);
+        
+        // Execute search with specification
+        Page<Vendor> vendorPage = vendorRepository.findAll(spec, pageable);
+        
+        // Convert to response DTOs
+        List<VendorResponse> vendors = vendorPage.getContent().stream()
+            .map(vendorMapper::toResponse)
+            .collect(Collectors.toList());
+        
+        if (fingerprint != null) {
+            searchResultCache.put(fingerprint, searchRequest.hasDateConstraints(), vendorPage, vendors);
+        }
+        
+        // Build search response with metadata
+        return VendorSearchResponse.builder()
+            .vendors(vendors)
+            .totalElements(vendorPage.getTotalElements())
+            .totalPages(vendorPage.getTotalPages())
+            .currentPage(vendorPage.getNumber())
+            .pageSize(vendorPage.getSize())
+            .hasNext(vendorPage.hasNext())
+            .hasPrevious(vendorPage.hasPrevious())
+            .searchMetadata(buildSearchMetadata(searchRequest, vendorPage.getTotalElements()))
+            .build();
+    }
+    
+    private VendorSearchResponse buildCachedSearchResponse(VendorSearchRequest searchRequest, Pageable pageable,
+                                                           CachedSearchPage page) {
+        int pageNumber = pageable.isPaged() ? pageable.getPageNumber() : 0;
+        int pageSize = pageable.isPaged() ? pageable.getPageSize() : (int) page.getTotalElements();
+        
+        return VendorSearchResponse.builder()
+            .vendors(searchResultCache.hydrate(page))
+            .totalElements(page.getTotalElements())
+            .totalPages(page.getTotalPages())
+            .currentPage(pageNumber)
+            .pageSize(pageSize)
+            .hasNext(page.hasNext(pageNumber))
+            .hasPrevious(pageNumber > 0)
+            .searchMetadata(buildSearchMetadata(searchRequest, page.getTotalElements()))
+            .build();
+    }
+    
     private Specification<Vendor> buildSearchSpecification(VendorSearchRequest request) {
         List<Specification<Vendor>> specs = new ArrayList<>();
         
@@ -353,14 +623,20 @@ public class VendorServiceImpl implements VendorService {
             specs.add(VendorSpecification.hasInstantBooking(request.getInstantBooking()));
         }
         
+        // Date constraints become a short exclusion list from the availability index, or
+        // are checked against calendars and bookings when that list would be long
+        vendorAvailabilityIndex.filterFor(request).ifPresent(dates -> specs.add(dates.getExcludedIds() != null
+            ? VendorSpecification.excludingIds(dates.getExcludedIds())
+            : VendorSpecification.availableOn(dates.getEventDate(), dates.getAnyOf(), VendorAvailabilityIndex.BLOCKING_STATUSES)));
+        
         return VendorSpecification.combineWithAnd(specs);
     }
     
-    private Map<String, Object> buildSearchMetadata(VendorSearchRequest request, Page<Vendor> results) {
+    private Map<String, Object> buildSearchMetadata(VendorSearchRequest request, long totalElements) {
         Map<String, Object> metadata = new HashMap<>();
         metadata.put("searchTerm", request.getKeyword());
         metadata.put("filters", request);
-        metadata.put("resultCount", results.getTotalElements());
+        metadata.put("resultCount", totalElements);
         metadata.put("searchTime", System.currentTimeMillis());
         return metadata;
     }
@@ -377,6 +653,36 @@ public class VendorServiceImpl implements VendorService {
         return changes;
     }
     
+    /**
+     * Run a cache invalidation once the current transaction commits; invalidating earlier
+     * lets a concurrent read cache the rows as they were before the change
+     */
+    private void afterCommit(Runnable invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        } else {
+            invalidation.run();
+        }
+    }
+    
+    /**
+     * The vendor fields search filters, keyword matching and rating sorts read
+     */
+    private static List<Object> searchedFields(Vendor vendor) {
+        return Arrays.asList(vendor.getCategory() != null ? vendor.getCategory().getId() : null,
+            vendor.getBusinessName(), vendor.getDescription(), vendor.getServicesOffered(),
+            vendor.getBusinessCity(), vendor.getBusinessState(), vendor.getLatitude(), vendor.getLongitude(),
+            vendor.getPriceRangeMin(), vendor.getPriceRangeMax(), vendor.getFeatured(), vendor.getPremium(),
+            vendor.getInstantBookingEnabled(), vendor.getYearsOfExperience(), vendor.getTeamSize(),
+            vendor.getAverageRating(), vendor.getTotalReviews());
+    }
+    
+    
     private boolean isAdmin(Long userId) {
         return userRepository.findByIdAndDeletedFalse(userId)
             .map(user -> user.getRole().isAdmin())
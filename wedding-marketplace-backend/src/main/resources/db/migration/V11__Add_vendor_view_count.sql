@@ -0,0 +1,2 @@
+-- View counter maintained by the write-behind queue (batched increments, never by JPA)
+ALTER TABLE vendors ADD COLUMN view_count BIGINT NOT NULL DEFAULT 0 AFTER response_rate;
@@ -0,0 +1,10 @@
+-- Transactional outbox for vendor search index updates
+-- One row per vendor with pending changes; version is bumped on every further change
+-- so a relay only deletes the row if nothing changed after it read the vendor
+CREATE TABLE search_index_outbox (
+    vendor_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 1,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    
+    INDEX idx_search_outbox_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
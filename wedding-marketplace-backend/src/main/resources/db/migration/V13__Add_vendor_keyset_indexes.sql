@@ -0,0 +1,12 @@
+-- Keyset pagination indexes for vendor listings
+-- Each covers the active-vendor filter, then one listing sort key, then id as tie-breaker,
+-- so the page after (key, id) is a single range scan instead of an OFFSET skip
+CREATE INDEX idx_vendor_keyset_rating ON vendors (status, deleted, average_rating, id);
+CREATE INDEX idx_vendor_keyset_rating_reviews ON vendors (status, deleted, average_rating, total_reviews, id);
+CREATE INDEX idx_vendor_keyset_price ON vendors (status, deleted, price_range_min, id);
+CREATE INDEX idx_vendor_keyset_bookings ON vendors (status, deleted, total_bookings, id);
+CREATE INDEX idx_vendor_keyset_reviews ON vendors (status, deleted, total_reviews, id);
+CREATE INDEX idx_vendor_keyset_created_at ON vendors (status, deleted, created_at, id);
+
+-- Category browsing, the deepest listings, by the default rating order
+CREATE INDEX idx_vendor_keyset_category_rating ON vendors (category_id, status, deleted, average_rating, id);
@@ -0,0 +1,13 @@
+-- Geographic point for radius search, kept in step with latitude/longitude by MySQL itself.
+-- STORED computes it for every existing row while the column is added, which is the backfill,
+-- and for every later write, so the entity never maps it. A SPATIAL index needs NOT NULL:
+-- vendors without coordinates get POINT(0 0) and are excluded by the latitude/longitude IS NOT NULL
+-- predicate that every radius query carries.
+ALTER TABLE vendors
+    ADD COLUMN location POINT
+        GENERATED ALWAYS AS (ST_PointFromText(
+            CONCAT('POINT(', COALESCE(longitude, 0), ' ', COALESCE(latitude, 0), ')'),
+            4326, 'axis-order=long-lat')) STORED NOT NULL SRID 4326;
+
+-- R-tree over the points: MBRContains(box, location) becomes an index range scan
+CREATE SPATIAL INDEX idx_vendor_location_point ON vendors (location);
@@ -0,0 +1,76 @@
+-- Per-vendor rollup behind trending, quality ranking and competition analysis
+-- Rows are refreshed for a vendor whenever one of its bookings, inquiries or reviews
+-- (or the vendor itself) changes, windows are slid hourly and everything is
+-- reconciled nightly, so the listing queries read one index range instead of
+-- counting bookings and inquiries per vendor on every call
+CREATE TABLE vendor_stats (
+    vendor_id BIGINT PRIMARY KEY,
+    category_id BIGINT,
+    business_city VARCHAR(100),
+    listed BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Sliding activity windows, by created_at
+    bookings_7d INT NOT NULL DEFAULT 0,
+    bookings_30d INT NOT NULL DEFAULT 0,
+    inquiries_7d INT NOT NULL DEFAULT 0,
+    inquiries_30d INT NOT NULL DEFAULT 0,
+
+    -- Copied from the vendor so rankings sort within this table
+    average_rating DECIMAL(3,2),
+    quality_score DOUBLE,
+
+    -- Approved vendors sharing the category and city
+    local_competition INT NOT NULL DEFAULT 0,
+
+    refreshed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    FOREIGN KEY (vendor_id) REFERENCES vendors(id) ON DELETE CASCADE,
+
+    INDEX idx_vendor_stats_trending (listed, bookings_30d, inquiries_7d, average_rating),
+    INDEX idx_vendor_stats_quality (listed, category_id, quality_score),
+    INDEX idx_vendor_stats_market (category_id, business_city)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Refreshing a vendor counts its recent rows through these instead of every row it ever had
+CREATE INDEX idx_booking_vendor_created_at ON bookings (vendor_id, created_at);
+CREATE INDEX idx_inquiry_vendor_created_at ON inquiries (vendor_id, created_at);
+
+-- Initial population; the application keeps it current from here
+INSERT INTO vendor_stats (vendor_id, category_id, business_city, listed,
+                          bookings_7d, bookings_30d, inquiries_7d, inquiries_30d,
+                          average_rating, quality_score)
+SELECT v.id, v.category_id, v.business_city,
+       v.deleted = false AND v.status = 'APPROVED',
+       COALESCE(b.bookings_7d, 0), COALESCE(b.bookings_30d, 0),
+       COALESCE(i.inquiries_7d, 0), COALESCE(i.inquiries_30d, 0),
+       v.average_rating,
+       (v.average_rating * 0.25 +
+        LEAST(v.total_reviews / 50.0, 1.0) * 0.20 +
+        v.response_rate / 100.0 * 0.15 +
+        (1.0 - LEAST(v.response_time_hours / 24.0, 1.0)) * 0.10 +
+        CASE WHEN v.featured THEN 0.15 ELSE 0.0 END +
+        CASE WHEN v.premium THEN 0.10 ELSE 0.0 END +
+        CASE WHEN v.instant_booking_enabled THEN 0.05 ELSE 0.0 END)
+FROM vendors v
+LEFT JOIN (SELECT vendor_id,
+                  SUM(created_at >= DATE_SUB(NOW(), INTERVAL 7 DAY)) AS bookings_7d,
+                  COUNT(*) AS bookings_30d
+           FROM bookings
+           WHERE created_at >= DATE_SUB(NOW(), INTERVAL 30 DAY)
+           GROUP BY vendor_id) b ON b.vendor_id = v.id
+LEFT JOIN (SELECT vendor_id,
+                  SUM(created_at >= DATE_SUB(NOW(), INTERVAL 7 DAY)) AS inquiries_7d,
+                  COUNT(*) AS inquiries_30d
+           FROM inquiries
+           WHERE created_at >= DATE_SUB(NOW(), INTERVAL 30 DAY)
+           GROUP BY vendor_id) i ON i.vendor_id = v.id;
+
+UPDATE vendor_stats s
+LEFT JOIN (SELECT category_id, business_city, COUNT(*) AS vendor_count
+           FROM vendors
+           WHERE deleted = false
+           AND status = 'APPROVED'
+           AND business_city IS NOT NULL
+           GROUP BY category_id, business_city) m
+    ON m.category_id = s.category_id AND m.business_city = s.business_city
+SET s.local_competition = COALESCE(m.vendor_count, 0);
@@ -0,0 +1,33 @@
+-- Generic Cell Rate Algorithm: one key per client holding its theoretical arrival time (TAT).
+-- Equivalent to a sliding window of ARGV[2] requests per ARGV[2] * ARGV[1] ms, without the
+-- 2x burst a fixed window allows at its edges.
+--
+-- KEYS[1]  rate limit key
+-- ARGV[1]  emission interval in ms (window / limit, may be fractional)
+-- ARGV[2]  limit (burst capacity)
+-- ARGV[3]  cost of this request
+--
+-- Returns {allowed (1/0), remaining, retry_after_ms}
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local interval = tonumber(ARGV[1])
+local limit = tonumber(ARGV[2])
+local cost = tonumber(ARGV[3])
+local tolerance = interval * limit
+
+local tat = tonumber(redis.call('GET', KEYS[1]))
+if tat == nil or tat < now then
+    tat = now
+end
+
+local new_tat = tat + interval * cost
+local allow_at = new_tat - tolerance
+
+if allow_at > now then
+    return {0, 0, math.ceil(allow_at - now)}
+end
+
+redis.call('SET', KEYS[1], new_tat, 'PX', math.max(1, math.ceil(new_tat - now)))
+return {1, math.floor((now - allow_at) / interval), 0}
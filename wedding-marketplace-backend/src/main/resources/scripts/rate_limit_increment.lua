@@ -0,0 +1,13 @@
+-- Fixed-window counter in one round trip. The expiry is only set when the window
+-- opens, so later hits no longer push the window out.
+--
+-- KEYS[1]  counter key
+-- ARGV[1]  window in ms
+--
+-- Returns the count after incrementing
+
+local count = redis.call('INCR', KEYS[1])
+if count == 1 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[1])
+end
+return count
@@ -0,0 +1,23 @@
+-- Best members of a small sorted set that start with a prefix, filtered server-side so
+-- only the matches cross the wire. Meant for capped sets such as a user's query history.
+--
+-- KEYS[1]  sorted set
+-- ARGV[1]  prefix
+-- ARGV[2]  maximum number of matches
+--
+-- Returns {member, score, member, score, ...}, highest score first
+
+local limit = tonumber(ARGV[2])
+local prefix = ARGV[1]
+local entries = redis.call('ZREVRANGE', KEYS[1], 0, -1, 'WITHSCORES')
+local matches = {}
+for i = 1, #entries, 2 do
+    if #matches >= limit * 2 then
+        break
+    end
+    if string.sub(entries[i], 1, #prefix) == prefix then
+        matches[#matches + 1] = entries[i]
+        matches[#matches + 1] = entries[i + 1]
+    end
+end
+return matches
@@ -0,0 +1,26 @@
+-- Count a search query and fold it into the per-prefix top lists in one round trip.
+-- Every prefix set holds queries scored by their global count and is capped at ARGV[2]
+-- members by dropping the lowest. The query is written with its full count, so one that
+-- was evicted from a prefix comes back as soon as it outranks that prefix's tail.
+--
+-- All keys share one hash tag, so the call stays within a single Redis Cluster slot.
+--
+-- KEYS[1]    global query frequency set
+-- KEYS[2..]  prefix sets of the query, shortest first
+-- ARGV[1]    normalized query
+-- ARGV[2]    members kept per prefix
+-- ARGV[3]    prefix set expiry in seconds, refreshed on every write
+-- ARGV[4]    amount added to the query's count
+--
+-- Returns the query's new count
+
+local count = redis.call('ZINCRBY', KEYS[1], ARGV[4], ARGV[1])
+local cap = tonumber(ARGV[2])
+for i = 2, #KEYS do
+    redis.call('ZADD', KEYS[i], count, ARGV[1])
+    if redis.call('ZCARD', KEYS[i]) > cap then
+        redis.call('ZREMRANGEBYRANK', KEYS[i], 0, -(cap + 1))
+    end
+    redis.call('EXPIRE', KEYS[i], ARGV[3])
+end
+return tonumber(count)
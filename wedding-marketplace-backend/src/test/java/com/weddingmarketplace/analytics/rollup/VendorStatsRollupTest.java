@@ -0,0 +1,133 @@
+package com.weddingmarketplace.analytics.rollup;
+
+import com.weddingmarketplace.service.CacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for vendor stats rollup refresh batching, window sliding and drift counting
+ *
+ * @author Wedding Marketplace Team
+ */
+@ExtendWith(MockitoExtension.class)
+class VendorStatsRollupTest {
+
+    @Mock
+    private VendorStatsStore vendorStatsStore;
+
+    @Mock
+    private CacheService cacheService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VendorStatsRollup rollup;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Runs submitted work inline
+        rollup = new VendorStatsRollup(vendorStatsStore, cacheService, Runnable::run, meterRegistry);
+        ReflectionTestUtils.setField(rollup, "batchSize", 2);
+        ReflectionTestUtils.setField(rollup, "lockTtl", Duration.ofMinutes(5));
+        rollup.registerMetrics();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueue_RefreshesInBatchesAndRecountsTouchedCategories() {
+        when(vendorStatsStore.refresh(any())).thenReturn(Set.of(4L));
+
+        rollup.enqueue(1L);
+        rollup.enqueue(1L);
+        verifyNoInteractions(vendorStatsStore);
+        rollup.enqueue(2L);
+        rollup.enqueue(3L);
+        rollup.scheduledDrain();
+
+        ArgumentCaptor<Collection<Long>> batches = ArgumentCaptor.forClass(Collection.class);
+        verify(vendorStatsStore, times(2)).refresh(batches.capture());
+        Set<Long> refreshed = new HashSet<>();
+        batches.getAllValues().forEach(refreshed::addAll);
+        assertEquals(Set.of(1L, 2L, 3L), refreshed);
+        verify(vendorStatsStore, times(2)).recountCompetition(Set.of(4L));
+    }
+
+    @Test
+    void drain_WhenRefreshFails_KeepsVendorsQueued() {
+        when(vendorStatsStore.refresh(any())).thenThrow(new IllegalStateException("deadlock")).thenReturn(Set.of());
+
+        rollup.enqueue(1L);
+        rollup.scheduledDrain();
+        rollup.scheduledDrain();
+
+        verify(vendorStatsStore, times(2)).refresh(List.of(1L));
+    }
+
+    @Test
+    void slide_PagesThroughActiveVendors() {
+        when(cacheService.acquireLock(anyString(), any())).thenReturn(true);
+        when(vendorStatsStore.activePage(0L, 2)).thenReturn(List.of(3L, 8L));
+        when(vendorStatsStore.activePage(8L, 2)).thenReturn(List.of(9L));
+
+        rollup.slide();
+
+        verify(vendorStatsStore).refresh(List.of(3L, 8L));
+        verify(vendorStatsStore).refresh(List.of(9L));
+        verify(cacheService).releaseLock(anyString());
+    }
+
+    @Test
+    void slide_WithoutTheLock_DoesNothing() {
+        when(cacheService.acquireLock(anyString(), any())).thenReturn(false);
+
+        rollup.slide();
+
+        verifyNoInteractions(vendorStatsStore);
+        verify(cacheService, never()).releaseLock(anyString());
+    }
+
+    @Test
+    void reconcile_CountsCorrectedRowsAndRecountsEveryCategory() {
+        VendorStatsStore.Row stale = row(1);
+        VendorStatsStore.Row fresh = row(2);
+        when(cacheService.acquireLock(anyString(), any())).thenReturn(true);
+        when(vendorStatsStore.vendorPage(0L, 2)).thenReturn(List.of(1L, 2L));
+        when(vendorStatsStore.vendorPage(2L, 2)).thenReturn(List.of(5L));
+        when(vendorStatsStore.rows(List.of(1L, 2L)))
+            .thenReturn(Map.of(1L, stale, 2L, fresh))
+            .thenReturn(Map.of(1L, fresh, 2L, fresh));
+        // Vendor 5 had no row yet
+        when(vendorStatsStore.rows(List.of(5L)))
+            .thenReturn(Map.of())
+            .thenReturn(Map.of(5L, fresh));
+        when(vendorStatsStore.categories()).thenReturn(List.of(1L, 2L, 3L));
+
+        rollup.reconcile();
+
+        assertEquals(2.0, meterRegistry.counter("analytics.vendor_stats.drift").count());
+        verify(vendorStatsStore).recountCompetition(List.of(1L, 2L));
+        verify(vendorStatsStore).recountCompetition(List.of(3L));
+    }
+
+    private static VendorStatsStore.Row row(int bookings) {
+        return new VendorStatsStore.Row(7L, "Austin", true, bookings, bookings, 0, 0,
+            new BigDecimal("4.50"), 0.8, 12);
+    }
+}
@@ -0,0 +1,187 @@
+package com.weddingmarketplace.benchmark;
+
+import com.weddingmarketplace.search.suggest.CompletionIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Autocomplete lookup latency and footprint: the immutable {@link CompletionIndex}
+ * against the mutable HashMap-of-characters trie it replaced, over the same synthetic
+ * vocabulary of vendor names and queries, each indexed whole and word by word.
+ *
+ * Sample-time mode reports the latency distribution, so compare the p0.99 rows. Short
+ * prefixes are the old trie's worst case, since it walked the subtree on every lookup.
+ * Retained heap of each structure is printed once per trial.
+ *
+ * @author Wedding Marketplace Team
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class AutocompleteBenchmark {
+
+    private static final String[] ADJECTIVES = {"rustic", "elegant", "modern", "vintage", "boho", "classic", "garden",
+        "luxury", "beach", "budget", "intimate", "royal", "golden", "silver", "urban", "country"};
+    private static final String[] NOUNS = {"weddings", "events", "photography", "florals", "catering", "venue",
+        "studio", "bakery", "bridal", "films", "decor", "music", "dj", "planners", "rentals", "cakes", "gowns"};
+    private static final String[] CITIES = {"austin", "boston", "chicago", "denver", "miami", "seattle", "portland",
+        "atlanta", "phoenix", "dallas", "houston", "nashville", "orlando", "tampa", "raleigh", "savannah"};
+    private static final int LIMIT = 10;
+
+    @Param({"50000"})
+    private int entries;
+
+    @Param({"2", "4", "8"})
+    private int prefixLength;
+
+    private LegacyTrie legacyTrie;
+    private CompletionIndex completionIndex;
+    private String[] prefixes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> vocabulary = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            String entry = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]
+                + " " + CITIES[random.nextInt(CITIES.length)];
+            // Business names are mostly unique
+            vocabulary.add(random.nextInt(3) == 0 ? entry : entry + " " + Integer.toString(i, 36));
+        }
+
+        long before = usedHeap();
+        legacyTrie = new LegacyTrie();
+        vocabulary.forEach(legacyTrie::update);
+        long legacyBytes = usedHeap() - before;
+
+        before = usedHeap();
+        completionIndex = buildIndex(vocabulary);
+        long indexBytes = usedHeap() - before;
+
+        prefixes = vocabulary.stream()
+            .filter(entry -> entry.length() >= prefixLength)
+            .map(entry -> entry.substring(0, prefixLength))
+            .distinct()
+            .toArray(String[]::new);
+
+        System.out.printf("%nentries=%d legacy trie retained ~%d KB, completion index retained ~%d KB "
+                + "(%d terms, %d nodes, %d KB by array sizes)%n", entries, legacyBytes / 1024, indexBytes / 1024,
+            completionIndex.size(), completionIndex.nodeCount(), completionIndex.memoryBytes() / 1024);
+    }
+
+    @Benchmark
+    public List<String> legacyTrie() {
+        return legacyTrie.complete(nextPrefix(), LIMIT);
+    }
+
+    @Benchmark
+    public List<CompletionIndex.Completion> completionIndex() {
+        return completionIndex.complete(nextPrefix(), LIMIT);
+    }
+
+    private static CompletionIndex buildIndex(List<String> vocabulary) {
+        CompletionIndex.Builder builder = CompletionIndex.builder();
+        for (String entry : vocabulary) {
+            builder.add(entry, 1);
+            for (String word : entry.split(" ")) {
+                if (word.length() >= 2) {
+                    builder.add(word, 1);
+                }
+            }
+        }
+        return builder.build(20);
+    }
+
+    private String nextPrefix() {
+        return prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The suggestion trie as it was in RealTimeSearchSuggestionsService
+     */
+    private static final class LegacyTrie {
+
+        private final Node root = new Node();
+
+        synchronized void update(String query) {
+            for (String word : query.split("\\s+")) {
+                if (word.length() >= 2) {
+                    insert(word);
+                }
+            }
+            insert(query);
+        }
+
+        private void insert(String word) {
+            Node current = root;
+            for (char c : word.toCharArray()) {
+                current.children.putIfAbsent(c, new Node());
+                current = current.children.get(c);
+            }
+            current.isEndOfWord = true;
+            current.frequency++;
+        }
+
+        List<String> complete(String prefix, int maxCompletions) {
+            Node current = root;
+            for (char c : prefix.toCharArray()) {
+                if (!current.children.containsKey(c)) {
+                    return Collections.emptyList();
+                }
+                current = current.children.get(c);
+            }
+
+            List<Completion> completions = new ArrayList<>();
+            collect(current, prefix, completions, maxCompletions * 2);
+
+            return completions.stream()
+                .sorted((a, b) -> Integer.compare(b.frequency, a.frequency))
+                .limit(maxCompletions)
+                .map(completion -> completion.word)
+                .collect(Collectors.toList());
+        }
+
+        private void collect(Node node, String prefix, List<Completion> completions, int maxCompletions) {
+            if (completions.size() >= maxCompletions) return;
+
+            if (node.isEndOfWord) {
+                completions.add(new Completion(prefix, node.frequency));
+            }
+
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                collect(entry.getValue(), prefix + entry.getKey(), completions, maxCompletions);
+            }
+        }
+
+        private static final class Node {
+            Map<Character, Node> children = new HashMap<>();
+            boolean isEndOfWord = false;
+            int frequency = 0;
+        }
+
+        private static final class Completion {
+            final String word;
+            final int frequency;
+
+            Completion(String word, int frequency) {
+                this.word = word;
+                this.frequency = frequency;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.weddingmarketplace.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weddingmarketplace.cache.invalidation.CacheGenerationRegistry;
+import com.weddingmarketplace.cache.near.NearCacheManager;
+import com.weddingmarketplace.cache.near.NearCacheProperties;
+import com.weddingmarketplace.cache.warming.HotKeyTracker;
+import com.weddingmarketplace.service.impl.CacheServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The bulk cache API of CacheServiceImpl against Redis 7 at batch sizes of 10, 100 and
+ * 1000: getMultiple (one MGET for the L1 misses) against a get per key, and
+ * putMultiple (pipelined SET ... PX) against a put per key.
+ *
+ * The service runs with a real near cache and generation registry. With
+ * {@code nearCache} on, the namespace is cached locally, so reads measure the L1 path
+ * and writes include the invalidation broadcast; with it off every call goes to Redis.
+ * Values go through the JSON serializer, so conversion is part of the cost. Setup
+ * checks that getMultiple returns every entry. Needs Docker for the Redis container.
+ *
+ * @author Wedding Marketplace Team
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBulkOperationsBenchmark {
+
+    private static final String CACHE_NAME = "vendors";
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Param({"10", "100", "1000"})
+    private int batchSize;
+
+    @Param({"false", "true"})
+    private boolean nearCache;
+
+    private GenericContainer<?> redis;
+    private LettuceConnectionFactory connectionFactory;
+    private CacheServiceImpl cacheService;
+
+    private List<String> keys;
+    private Map<String, VendorPayload> entries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+        redis.start();
+
+        connectionFactory = new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+
+        NearCacheProperties properties = new NearCacheProperties();
+        if (nearCache) {
+            NearCacheProperties.Namespace namespace = new NearCacheProperties.Namespace();
+            namespace.setMaximumSize(10_000);
+            namespace.setTtl(Duration.ofMinutes(10));
+            properties.getNamespaces().put(CACHE_NAME, namespace);
+        }
+        NearCacheManager nearCacheManager = new NearCacheManager(properties, stringRedisTemplate, new SimpleMeterRegistry());
+
+        CacheGenerationRegistry generationRegistry = new CacheGenerationRegistry(stringRedisTemplate);
+        ReflectionTestUtils.setField(generationRegistry, "channel", "cache:generation");
+        ReflectionTestUtils.setField(generationRegistry, "refreshInterval", Duration.ofSeconds(5));
+
+        cacheService = new CacheServiceImpl(redisTemplate, stringRedisTemplate, new ObjectMapper(),
+            nearCacheManager, generationRegistry, new HotKeyTracker(), Runnable::run);
+
+        keys = new ArrayList<>(batchSize);
+        entries = new LinkedHashMap<>();
+        for (int i = 0; i < batchSize; i++) {
+            String key = String.valueOf(i);
+            keys.add(key);
+            entries.put(key, new VendorPayload((long) i, "Vendor " + i, "City " + (i % 50), 3.5 + (i % 15) / 10.0));
+        }
+        cacheService.putMultiple(CACHE_NAME, entries, TTL);
+
+        Map<String, VendorPayload> read = cacheService.getMultiple(CACHE_NAME, keys, VendorPayload.class);
+        if (!read.equals(entries)) {
+            throw new IllegalStateException("getMultiple returned " + read.size() + " of " + batchSize + " entries");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @Benchmark
+    public void getOneByOne(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(cacheService.get(CACHE_NAME, key, VendorPayload.class));
+        }
+    }
+
+    @Benchmark
+    public Map<String, VendorPayload> getMultiple() {
+        return cacheService.getMultiple(CACHE_NAME, keys, VendorPayload.class);
+    }
+
+    @Benchmark
+    public void putOneByOne() {
+        for (Map.Entry<String, VendorPayload> entry : entries.entrySet()) {
+            cacheService.put(CACHE_NAME, entry.getKey(), entry.getValue(), TTL);
+        }
+    }
+
+    @Benchmark
+    public void putMultiple() {
+        cacheService.putMultiple(CACHE_NAME, entries, TTL);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VendorPayload {
+        private Long id;
+        private String businessName;
+        private String city;
+        private double averageRating;
+    }
+}
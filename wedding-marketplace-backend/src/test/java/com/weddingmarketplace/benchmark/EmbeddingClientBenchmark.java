@@ -0,0 +1,74 @@
+package com.weddingmarketplace.benchmark;
+
+import com.weddingmarketplace.search.embedding.EmbeddingBatcher;
+import com.weddingmarketplace.search.embedding.StubEmbeddingServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedding throughput with 32 concurrent callers against a stub model server that
+ * costs 2 ms per call plus 50 us per text, roughly a small sentence model on CPU.
+ *
+ * {@code maxBatchSize=1} is the old one-text-per-request behaviour with the same
+ * in-flight limit; larger batches show how much of the per-call overhead coalescing
+ * amortizes. The average batch size actually sent is printed after each trial.
+ *
+ * @author Wedding Marketplace Team
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(32)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class EmbeddingClientBenchmark {
+
+    private static final int DIMENSION = 384;
+    private static final int MAX_IN_FLIGHT = 4;
+
+    @Param({"1", "8", "32"})
+    private int maxBatchSize;
+
+    private StubEmbeddingServer server;
+    private ExecutorService clientExecutor;
+    private EmbeddingBatcher batcher;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new StubEmbeddingServer(DIMENSION, 2_000, 50);
+        clientExecutor = Executors.newFixedThreadPool(MAX_IN_FLIGHT);
+        batcher = new EmbeddingBatcher(new RestTemplate(), clientExecutor);
+        ReflectionTestUtils.setField(batcher, "embeddingApiUrl", server.url());
+        ReflectionTestUtils.setField(batcher, "embeddingModel", "benchmark-model");
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", maxBatchSize);
+        ReflectionTestUtils.setField(batcher, "maxWait", Duration.ofMillis(5));
+        ReflectionTestUtils.setField(batcher, "maxInFlight", MAX_IN_FLIGHT);
+        ReflectionTestUtils.setField(batcher, "maxQueued", 100_000);
+        batcher.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nmaxBatchSize=%d calls=%d texts=%d average batch=%.1f%n", maxBatchSize,
+            server.calls(), server.texts(), server.texts() / (double) Math.max(1, server.calls()));
+        batcher.stop();
+        clientExecutor.shutdownNow();
+        server.close();
+    }
+
+    @Benchmark
+    public float[] embed() throws Exception {
+        // Distinct texts, so in-batch de-duplication does not flatter the numbers
+        return batcher.embed("query " + sequence.incrementAndGet()).get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,165 @@
+package com.weddingmarketplace.benchmark;
+
+import com.weddingmarketplace.search.vector.EmbeddingMatrix;
+import com.weddingmarketplace.search.vector.QuantizedEmbeddingMatrix;
+import com.weddingmarketplace.search.vector.VectorKernel;
+import com.weddingmarketplace.search.vector.VectorMath;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-query-against-the-catalogue scoring: scalar vs SIMD float32 vs int8 codes.
+ *
+ * All float32 variants scan the same contiguous row-major matrix, so the difference is
+ * the kernel alone. Run through the {@code benchmark} profile, which starts the JVM with
+ * {@code --add-modules jdk.incubator.vector}; without it the "simd" rows silently use the
+ * scalar kernel, which the setup line makes visible. Setup also prints the resident bytes
+ * of each store and the recall@k of the re-ranked int8 search against exact search.
+ *
+ * @author Wedding Marketplace Team
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g", "--add-modules=jdk.incubator.vector"})
+public class VectorKernelBenchmark {
+
+    private static final int DIMENSION = 384;
+    private static final int CATEGORIES = 40;
+    private static final int QUERIES = 200;
+    private static final int RECALL_QUERIES = 100;
+
+    @Param({"10000", "50000"})
+    private int vendors;
+
+    @Param({"10"})
+    private int k;
+
+    @Param({"50"})
+    private int rerankCandidates;
+
+    private float[] flat;
+    private float[] scores;
+    private EmbeddingMatrix matrix;
+    private QuantizedEmbeddingMatrix quantized;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(11);
+        float[][] centroids = new float[CATEGORIES][];
+        for (int c = 0; c < CATEGORIES; c++) {
+            centroids[c] = normalize(gaussian(random, 1.0f));
+        }
+
+        matrix = new EmbeddingMatrix(DIMENSION, vendors);
+        quantized = QuantizedEmbeddingMatrix.inMemory(DIMENSION, vendors);
+        for (int i = 0; i < vendors; i++) {
+            float[] vector = normalize(add(centroids[random.nextInt(CATEGORIES)], gaussian(random, 0.6f)));
+            matrix.add(vector);
+            quantized.add(vector);
+        }
+        flat = new float[vendors * DIMENSION];
+        for (int i = 0; i < vendors; i++) {
+            System.arraycopy(matrix.get(i), 0, flat, i * DIMENSION, DIMENSION);
+        }
+        scores = new float[vendors];
+
+        queries = new float[QUERIES][];
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = normalize(add(centroids[random.nextInt(CATEGORIES)], gaussian(random, 0.8f)));
+        }
+
+        System.out.printf("%nvendors=%d kernel=%s float32=%d KB int8=%d KB (excluding full-precision rows) recall@%d=%.4f%n",
+            vendors, VectorMath.kernel().name(), matrix.memoryBytes() / 1024,
+            (long) vendors * (DIMENSION + Float.BYTES) / 1024, k, recall());
+    }
+
+    @Benchmark
+    public void scalarDotAll(Blackhole blackhole) {
+        blackhole.consume(scan(VectorMath.scalarKernel(), nextQuery()));
+    }
+
+    @Benchmark
+    public void simdDotAll(Blackhole blackhole) {
+        blackhole.consume(scan(VectorMath.kernel(), nextQuery()));
+    }
+
+    @Benchmark
+    public void int8DotAll(Blackhole blackhole) {
+        quantized.quantizedDotAll(nextQuery(), scores);
+        blackhole.consume(scores);
+    }
+
+    @Benchmark
+    public void exactTopK(Blackhole blackhole) {
+        blackhole.consume(matrix.search(nextQuery(), k, null));
+    }
+
+    @Benchmark
+    public void int8TopKReranked(Blackhole blackhole) {
+        blackhole.consume(quantized.search(nextQuery(), k, rerankCandidates, null));
+    }
+
+    private float[] scan(VectorKernel kernel, float[] query) {
+        for (int row = 0, offset = 0; row < vendors; row++, offset += DIMENSION) {
+            scores[row] = kernel.dot(query, 0, flat, offset, DIMENSION);
+        }
+        return scores;
+    }
+
+    private float[] nextQuery() {
+        float[] query = queries[next];
+        next = (next + 1) % QUERIES;
+        return query;
+    }
+
+    private double recall() {
+        int hits = 0;
+        for (int q = 0; q < RECALL_QUERIES; q++) {
+            Set<Integer> expected = new HashSet<>();
+            matrix.search(queries[q], k, null).forEach(match -> expected.add(match.getRow()));
+            for (EmbeddingMatrix.Match match : quantized.search(queries[q], k, rerankCandidates, null)) {
+                if (expected.contains(match.getRow())) {
+                    hits++;
+                }
+            }
+        }
+        return hits / (double) (RECALL_QUERIES * k);
+    }
+
+    /**
+     * Random vector with expected length {@code scale}
+     */
+    private static float[] gaussian(Random random, float scale) {
+        float[] vector = new float[DIMENSION];
+        double perComponent = scale / Math.sqrt(DIMENSION);
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) (random.nextGaussian() * perComponent);
+        }
+        return vector;
+    }
+
+    private static float[] add(float[] a, float[] b) {
+        float[] sum = new float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    private static float[] normalize(float[] vector) {
+        float inverse = 1 / VectorMath.norm(vector);
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inverse;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,183 @@
+package com.weddingmarketplace.benchmark;
+
+import com.weddingmarketplace.search.vector.HnswIndex;
+import com.weddingmarketplace.search.vector.VectorAttributes;
+import com.weddingmarketplace.search.vector.VectorFilter;
+import com.weddingmarketplace.search.vector.VectorMath;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-k vendor vector search: HNSW against the brute-force scan it replaces.
+ *
+ * The catalogue is synthetic but clustered (vendors of one category sit near a shared
+ * centroid), which is closer to real embeddings than uniform noise. Recall@k of the HNSW
+ * results against the exact answer is measured once per trial and printed with the
+ * build time, so latency and quality can be read side by side for each efSearch.
+ *
+ * @author Wedding Marketplace Team
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class VectorSearchBenchmark {
+
+    private static final int DIMENSION = 384;
+    private static final int CATEGORIES = 40;
+    private static final int QUERIES = 200;
+    private static final int RECALL_QUERIES = 100;
+
+    @Param({"10000", "50000"})
+    private int vendors;
+
+    @Param({"32", "64", "128"})
+    private int efSearch;
+
+    @Param({"10"})
+    private int k;
+
+    private float[][] vectors;
+    private long[] categories;
+    private float[][] queries;
+    private HnswIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(11);
+        float[][] centroids = new float[CATEGORIES][];
+        for (int c = 0; c < CATEGORIES; c++) {
+            centroids[c] = normalize(gaussian(random, 1.0f));
+        }
+
+        vectors = new float[vendors][];
+        categories = new long[vendors];
+        long started = System.nanoTime();
+        index = new HnswIndex(DIMENSION, 16, 200, 1L);
+        for (int i = 0; i < vendors; i++) {
+            int category = random.nextInt(CATEGORIES);
+            vectors[i] = normalize(add(centroids[category], gaussian(random, 0.6f)));
+            categories[i] = category;
+            index.upsert(i, vectors[i], VectorAttributes.of((long) category, null, "APPROVED"));
+        }
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+
+        queries = new float[QUERIES][];
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = normalize(add(centroids[random.nextInt(CATEGORIES)], gaussian(random, 0.8f)));
+        }
+
+        System.out.printf("%nvendors=%d efSearch=%d build=%d ms recall@%d=%.4f filtered recall@%d=%.4f%n",
+            vendors, efSearch, buildMillis, k, recall(null), k, recall(VectorFilter.of(3L, null, "APPROVED")));
+    }
+
+    @Benchmark
+    public void hnsw(Blackhole blackhole) {
+        blackhole.consume(index.search(nextQuery(), k, efSearch, null));
+    }
+
+    @Benchmark
+    public void hnswFilteredByCategory(Blackhole blackhole) {
+        blackhole.consume(index.search(nextQuery(), k, efSearch, VectorFilter.of(3L, null, "APPROVED")));
+    }
+
+    /**
+     * The previous path: score every vendor, sort all of them, keep k
+     */
+    @Benchmark
+    public void bruteForceFullSort(Blackhole blackhole) {
+        float[] query = nextQuery();
+        Integer[] order = new Integer[vendors];
+        float[] scores = new float[vendors];
+        for (int i = 0; i < vendors; i++) {
+            order[i] = i;
+            scores[i] = VectorMath.dot(query, vectors[i]);
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+        blackhole.consume(Arrays.copyOf(order, k));
+    }
+
+    @Benchmark
+    public void bruteForceTopKHeap(Blackhole blackhole) {
+        blackhole.consume(exact(nextQuery(), k, -1));
+    }
+
+    private float[] nextQuery() {
+        float[] query = queries[next];
+        next = (next + 1) % QUERIES;
+        return query;
+    }
+
+    private double recall(VectorFilter filter) {
+        long category = filter != null ? filter.getCategoryId() : -1;
+        int hits = 0;
+        int expectedTotal = 0;
+        for (int q = 0; q < RECALL_QUERIES; q++) {
+            Set<Long> expected = exact(queries[q], k, category);
+            expectedTotal += expected.size();
+            for (HnswIndex.Neighbor neighbor : index.search(queries[q], k, efSearch, filter)) {
+                if (expected.contains(neighbor.getId())) {
+                    hits++;
+                }
+            }
+        }
+        return hits / (double) expectedTotal;
+    }
+
+    private Set<Long> exact(float[] query, int topK, long category) {
+        PriorityQueue<float[]> best = new PriorityQueue<>(topK + 1, (a, b) -> Float.compare(a[1], b[1]));
+        for (int i = 0; i < vendors; i++) {
+            if (category >= 0 && categories[i] != category) {
+                continue;
+            }
+            float score = VectorMath.dot(query, vectors[i]);
+            if (best.size() < topK) {
+                best.add(new float[] {i, score});
+            } else if (score > best.peek()[1]) {
+                best.poll();
+                best.add(new float[] {i, score});
+            }
+        }
+        Set<Long> ids = new HashSet<>();
+        best.forEach(entry -> ids.add((long) entry[0]));
+        return ids;
+    }
+
+    /**
+     * Random vector with expected length {@code scale}
+     */
+    private static float[] gaussian(Random random, float scale) {
+        float[] vector = new float[DIMENSION];
+        double perComponent = scale / Math.sqrt(DIMENSION);
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) (random.nextGaussian() * perComponent);
+        }
+        return vector;
+    }
+
+    private static float[] add(float[] a, float[] b) {
+        float[] sum = new float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float inverse = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inverse;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,164 @@
+package com.weddingmarketplace.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of fetching page 1, 100 and 1000 of the approved-vendor listing by rating:
+ * LIMIT/OFFSET against a keyset predicate on (average_rating, id), over the same
+ * in-memory H2 table and the composite index from V13.
+ *
+ * OFFSET walks and discards every earlier row, so its time grows with the page number;
+ * the keyset query starts its index range scan at the cursor and stays flat. Absolute
+ * numbers differ on MySQL, the shape of the curve does not.
+ *
+ * @author Wedding Marketplace Team
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class VendorPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final String OFFSET_QUERY = """
+        SELECT id, business_name, average_rating FROM vendors
+        WHERE status = 'APPROVED' AND deleted = FALSE
+        ORDER BY average_rating DESC, id DESC
+        LIMIT ? OFFSET ?
+        """;
+
+    private static final String FIRST_PAGE_QUERY = """
+        SELECT id, business_name, average_rating FROM vendors
+        WHERE status = 'APPROVED' AND deleted = FALSE
+        ORDER BY average_rating DESC, id DESC
+        LIMIT ?
+        """;
+
+    private static final String KEYSET_QUERY = """
+        SELECT id, business_name, average_rating FROM vendors
+        WHERE status = 'APPROVED' AND deleted = FALSE
+        AND average_rating <= ? AND (average_rating < ? OR id < ?)
+        ORDER BY average_rating DESC, id DESC
+        LIMIT ?
+        """;
+
+    @Param({"100000"})
+    private int vendors;
+
+    @Param({"1", "100", "1000"})
+    private int page;
+
+    private Connection connection;
+    private PreparedStatement offsetStatement;
+    private PreparedStatement keysetStatement;
+    private BigDecimal cursorRating;
+    private long cursorId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:pagination;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS vendors");
+            statement.execute("""
+                CREATE TABLE vendors (
+                    id BIGINT PRIMARY KEY,
+                    business_name VARCHAR(255) NOT NULL,
+                    status VARCHAR(20) NOT NULL,
+                    deleted BOOLEAN NOT NULL,
+                    average_rating DECIMAL(3,2) NOT NULL
+                )
+                """);
+            statement.execute("CREATE INDEX idx_vendor_keyset_rating ON vendors (status, deleted, average_rating, id)");
+        }
+
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO vendors VALUES (?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= vendors; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "Vendor " + id);
+                // Mostly approved, with the long tail of other states a real table has
+                insert.setString(3, random.nextInt(10) < 8 ? "APPROVED" : "PENDING");
+                insert.setBoolean(4, random.nextInt(50) == 0);
+                // Few distinct ratings, so ties on the sort key are common and id has to break them
+                insert.setBigDecimal(5, BigDecimal.valueOf(random.nextInt(501), 2));
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        offsetStatement = connection.prepareStatement(OFFSET_QUERY);
+        keysetStatement = connection.prepareStatement(page == 1 ? FIRST_PAGE_QUERY : KEYSET_QUERY);
+
+        // The cursor a client holds after reading page - 1: the last row of that page
+        if (page > 1) {
+            try (PreparedStatement previous = connection.prepareStatement(OFFSET_QUERY)) {
+                previous.setInt(1, 1);
+                previous.setInt(2, (page - 1) * PAGE_SIZE - 1);
+                try (ResultSet row = previous.executeQuery()) {
+                    if (!row.next()) {
+                        throw new IllegalStateException("Not enough vendors for page " + page);
+                    }
+                    cursorId = row.getLong(1);
+                    cursorRating = row.getBigDecimal(3);
+                }
+            }
+        }
+
+        List<Long> byOffset = offset();
+        List<Long> byKeyset = keyset();
+        if (!byOffset.equals(byKeyset)) {
+            throw new IllegalStateException("Offset and keyset pages differ: " + byOffset + " vs " + byKeyset);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> offset() throws SQLException {
+        offsetStatement.setInt(1, PAGE_SIZE);
+        offsetStatement.setInt(2, (page - 1) * PAGE_SIZE);
+        return ids(offsetStatement);
+    }
+
+    @Benchmark
+    public List<Long> keyset() throws SQLException {
+        if (page == 1) {
+            keysetStatement.setInt(1, PAGE_SIZE);
+        } else {
+            keysetStatement.setBigDecimal(1, cursorRating);
+            keysetStatement.setBigDecimal(2, cursorRating);
+            keysetStatement.setLong(3, cursorId);
+            keysetStatement.setInt(4, PAGE_SIZE);
+        }
+        return ids(keysetStatement);
+    }
+
+    private static List<Long> ids(PreparedStatement statement) throws SQLException {
+        List<Long> ids = new ArrayList<>(PAGE_SIZE);
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,253 @@
+package com.weddingmarketplace.benchmark;
+
+import com.weddingmarketplace.search.geo.GeoBoundingBox;
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Vendors near me" over 100k and 1M vendors on MySQL 8: the per-row Haversine scan
+ * findVendorsWithinRadius used to run, against the V14 SPATIAL index with a bounding-box
+ * MBRContains prefilter and ST_Distance_Sphere on the survivors, for a full radius result
+ * and for one keyset page of the nearest vendors.
+ *
+ * The Haversine query evaluates acos for every approved row whatever the radius, so it
+ * grows with the table; the spatial query reads the R-tree range of the box and grows
+ * with the number of vendors near the centre. Setup checks with EXPLAIN that both
+ * spatial queries read through the SPATIAL index and that they agree with Haversine.
+ * Needs Docker for the MySQL container.
+ *
+ * @author Wedding Marketplace Team
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class VendorRadiusSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final String SPATIAL_INDEX = "idx_vendor_location_point";
+
+    /** Search centre: Manhattan, inside the densest cluster */
+    private static final double LATITUDE = 40.7128;
+    private static final double LONGITUDE = -74.0060;
+
+    /** Metro areas the generated vendors cluster around, as real listings do */
+    private static final double[][] METROS = {
+        {40.7128, -74.0060}, {34.0522, -118.2437}, {41.8781, -87.6298}, {29.7604, -95.3698},
+        {51.5074, -0.1278}, {48.8566, 2.3522}, {19.0760, 72.8777}, {-33.8688, 151.2093}
+    };
+
+    private static final String HAVERSINE_QUERY = """
+        SELECT v.id,
+               (6371 * acos(cos(radians(?)) * cos(radians(v.latitude)) *
+                cos(radians(v.longitude) - radians(?)) +
+                sin(radians(?)) * sin(radians(v.latitude)))) AS distance
+        FROM vendors v
+        WHERE v.deleted = false
+        AND v.status = 'APPROVED'
+        AND v.latitude IS NOT NULL
+        AND v.longitude IS NOT NULL
+        HAVING distance <= ?
+        ORDER BY distance
+        """;
+
+    private static final String SPATIAL_QUERY = """
+        SELECT v.id
+        FROM vendors v
+        WHERE MBRContains(ST_GeomFromText(?, 4326, 'axis-order=long-lat'), v.location)
+        AND v.deleted = false
+        AND v.status = 'APPROVED'
+        AND v.latitude IS NOT NULL
+        AND v.longitude IS NOT NULL
+        AND ST_Distance_Sphere(v.location, ST_GeomFromText(?, 4326, 'axis-order=long-lat')) <= ?
+        ORDER BY ST_Distance_Sphere(v.location, ST_GeomFromText(?, 4326, 'axis-order=long-lat')), v.id
+        """;
+
+    private static final String SPATIAL_PAGE_QUERY = """
+        SELECT nearby.id, nearby.distance_m
+        FROM (
+            SELECT v.id,
+                   ST_Distance_Sphere(v.location, ST_GeomFromText(?, 4326, 'axis-order=long-lat')) AS distance_m
+            FROM vendors v
+            WHERE MBRContains(ST_GeomFromText(?, 4326, 'axis-order=long-lat'), v.location)
+            AND v.deleted = false
+            AND v.status = 'APPROVED'
+            AND v.latitude IS NOT NULL
+            AND v.longitude IS NOT NULL
+        ) nearby
+        WHERE nearby.distance_m <= ?
+        ORDER BY nearby.distance_m, nearby.id
+        LIMIT ?
+        """;
+
+    @Param({"100000", "1000000"})
+    private int vendors;
+
+    @Param({"5", "50"})
+    private double radiusKm;
+
+    private MySQLContainer<?> mysql;
+    private Connection connection;
+    private PreparedStatement haversineStatement;
+    private PreparedStatement spatialStatement;
+    private PreparedStatement spatialPageStatement;
+    private String center;
+    private String box;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        mysql = new MySQLContainer<>("mysql:8.0");
+        mysql.start();
+        connection = DriverManager.getConnection(mysql.getJdbcUrl() + "?rewriteBatchedStatements=true",
+            mysql.getUsername(), mysql.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                CREATE TABLE vendors (
+                    id BIGINT PRIMARY KEY,
+                    business_name VARCHAR(255) NOT NULL,
+                    status VARCHAR(20) NOT NULL,
+                    deleted BOOLEAN NOT NULL,
+                    latitude DECIMAL(10, 8),
+                    longitude DECIMAL(11, 8),
+                    INDEX idx_vendor_location (latitude, longitude)
+                ) ENGINE=InnoDB
+                """);
+        }
+
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO vendors VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= vendors; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "Vendor " + id);
+                insert.setString(3, random.nextInt(10) < 8 ? "APPROVED" : "PENDING");
+                insert.setBoolean(4, random.nextInt(50) == 0);
+                if (random.nextInt(20) == 0) {
+                    // Vendors that never entered an address
+                    insert.setNull(5, Types.DECIMAL);
+                    insert.setNull(6, Types.DECIMAL);
+                } else if (random.nextInt(4) == 0) {
+                    insert.setDouble(5, random.nextDouble() * 120 - 50);
+                    insert.setDouble(6, random.nextDouble() * 360 - 180);
+                } else {
+                    // Roughly within 60 km of a metro centre
+                    double[] metro = METROS[random.nextInt(METROS.length)];
+                    insert.setDouble(5, metro[0] + random.nextGaussian() * 0.3);
+                    insert.setDouble(6, metro[1] + random.nextGaussian() * 0.3);
+                }
+                insert.addBatch();
+                if (id % 5000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        // V14 as it runs on a populated table
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                ALTER TABLE vendors
+                    ADD COLUMN location POINT
+                        GENERATED ALWAYS AS (ST_PointFromText(
+                            CONCAT('POINT(', COALESCE(longitude, 0), ' ', COALESCE(latitude, 0), ')'),
+                            4326, 'axis-order=long-lat')) STORED NOT NULL SRID 4326
+                """);
+            statement.execute("CREATE SPATIAL INDEX idx_vendor_location_point ON vendors (location)");
+            statement.execute("ANALYZE TABLE vendors");
+        }
+
+        center = GeoBoundingBox.pointWkt(LATITUDE, LONGITUDE);
+        box = GeoBoundingBox.around(LATITUDE, LONGITUDE, radiusKm).toPolygonWkt();
+        haversineStatement = connection.prepareStatement(HAVERSINE_QUERY);
+        spatialStatement = connection.prepareStatement(SPATIAL_QUERY);
+        spatialPageStatement = connection.prepareStatement(SPATIAL_PAGE_QUERY);
+
+        requireSpatialIndex(SPATIAL_QUERY, box, center, radiusKm * 1000, center);
+        requireSpatialIndex(SPATIAL_PAGE_QUERY, center, box, radiusKm * 1000, PAGE_SIZE);
+
+        // The two earth radii differ by 14 m in 6371 km, so only vendors on the rim may disagree
+        Set<Long> byHaversine = new HashSet<>(haversine());
+        Set<Long> bySpatial = new HashSet<>(spatial());
+        Set<Long> difference = new HashSet<>(byHaversine);
+        difference.addAll(bySpatial);
+        difference.removeIf(id -> byHaversine.contains(id) && bySpatial.contains(id));
+        if (difference.size() > byHaversine.size() / 1000 + 1) {
+            throw new IllegalStateException("Haversine and spatial results differ by " + difference.size()
+                + " of " + byHaversine.size() + " vendors");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        mysql.stop();
+    }
+
+    @Benchmark
+    public List<Long> haversine() throws SQLException {
+        haversineStatement.setDouble(1, LATITUDE);
+        haversineStatement.setDouble(2, LONGITUDE);
+        haversineStatement.setDouble(3, LATITUDE);
+        haversineStatement.setDouble(4, radiusKm);
+        return ids(haversineStatement);
+    }
+
+    @Benchmark
+    public List<Long> spatial() throws SQLException {
+        spatialStatement.setString(1, box);
+        spatialStatement.setString(2, center);
+        spatialStatement.setDouble(3, radiusKm * 1000);
+        spatialStatement.setString(4, center);
+        return ids(spatialStatement);
+    }
+
+    @Benchmark
+    public List<Long> spatialFirstPage() throws SQLException {
+        spatialPageStatement.setString(1, center);
+        spatialPageStatement.setString(2, box);
+        spatialPageStatement.setDouble(3, radiusKm * 1000);
+        spatialPageStatement.setInt(4, PAGE_SIZE);
+        return ids(spatialPageStatement);
+    }
+
+    /**
+     * Fails unless the plan reads vendors through the SPATIAL index rather than a scan
+     */
+    private void requireSpatialIndex(String query, Object... parameters) throws SQLException {
+        List<String> keys = new ArrayList<>();
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + query)) {
+            for (int i = 0; i < parameters.length; i++) {
+                explain.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rows = explain.executeQuery()) {
+                while (rows.next()) {
+                    if ("v".equals(rows.getString("table"))) {
+                        keys.add(rows.getString("key"));
+                    }
+                }
+            }
+        }
+        if (!keys.equals(List.of(SPATIAL_INDEX))) {
+            throw new IllegalStateException("Expected vendors to be read through " + SPATIAL_INDEX
+                + " but the plan uses " + keys + " for: " + query);
+        }
+    }
+
+    private static List<Long> ids(PreparedStatement statement) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,439 @@
+package com.weddingmarketplace.benchmark;
+
+import com.weddingmarketplace.analytics.rollup.VendorStatsStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Trending vendors, the quality ranking of a category and a vendor's local competition
+ * on MySQL 8: the correlated subqueries VendorRepository used to run, against the
+ * V15 vendor_stats rollup, plus the cost of refreshing a batch of rollup rows, which
+ * is what keeping the rollup current adds to the write side.
+ *
+ * The correlated trending query counts bookings and inquiries for every approved
+ * vendor before it can sort, and the quality query evaluates its formula for every
+ * vendor of the category; the rollup reads the first rows of an index range. Setup
+ * checks that both return the same rankings, before and after an incremental refresh.
+ * Needs Docker for the MySQL container.
+ *
+ * @author Wedding Marketplace Team
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class VendorStatsRollupBenchmark {
+
+    private static final int LIMIT = 20;
+    private static final int CATEGORIES = 40;
+    private static final int CITIES = 60;
+    private static final int HISTORY_DAYS = 180;
+    private static final int REFRESH_BATCH = 500;
+
+    private static final String TRENDING_CORRELATED = """
+        SELECT v.id,
+               (SELECT COUNT(*) FROM bookings b WHERE b.vendor_id = v.id
+                AND b.created_at >= DATE_SUB(NOW(), INTERVAL 30 DAY)) as recent_bookings,
+               (SELECT COUNT(*) FROM inquiries i WHERE i.vendor_id = v.id
+                AND i.created_at >= DATE_SUB(NOW(), INTERVAL 7 DAY)) as recent_inquiries,
+               v.average_rating
+        FROM vendors v
+        WHERE v.deleted = false
+        AND v.status = 'APPROVED'
+        ORDER BY recent_bookings DESC, recent_inquiries DESC, v.average_rating DESC
+        LIMIT ?
+        """;
+
+    private static final String TRENDING_ROLLUP = """
+        SELECT v.id, s.bookings_30d, s.inquiries_7d, s.average_rating
+        FROM vendor_stats s
+        JOIN vendors v ON v.id = s.vendor_id
+        WHERE s.listed = true
+        AND v.deleted = false
+        AND v.status = 'APPROVED'
+        ORDER BY s.bookings_30d DESC, s.inquiries_7d DESC, s.average_rating DESC
+        LIMIT ?
+        """;
+
+    private static final String QUALITY_CORRELATED = """
+        SELECT v.id,
+               (v.average_rating * 0.25 +
+                LEAST(v.total_reviews / 50.0, 1.0) * 0.20 +
+                v.response_rate / 100.0 * 0.15 +
+                (1.0 - LEAST(v.response_time_hours / 24.0, 1.0)) * 0.10 +
+                CASE WHEN v.featured THEN 0.15 ELSE 0.0 END +
+                CASE WHEN v.premium THEN 0.10 ELSE 0.0 END +
+                CASE WHEN v.instant_booking_enabled THEN 0.05 ELSE 0.0 END) as quality_score
+        FROM vendors v
+        WHERE v.deleted = false
+        AND v.status = 'APPROVED'
+        AND v.category_id = ?
+        ORDER BY quality_score DESC
+        LIMIT ?
+        """;
+
+    private static final String QUALITY_ROLLUP = """
+        SELECT v.id, s.quality_score
+        FROM vendor_stats s
+        JOIN vendors v ON v.id = s.vendor_id
+        WHERE s.listed = true
+        AND s.category_id = ?
+        AND v.deleted = false
+        AND v.status = 'APPROVED'
+        ORDER BY s.quality_score DESC
+        LIMIT ?
+        """;
+
+    private static final String COMPETITION_CORRELATED = """
+        SELECT v.id,
+            (SELECT COUNT(*) FROM vendors v2
+             WHERE v2.category_id = v.category_id
+             AND v2.business_city = v.business_city
+             AND v2.deleted = false
+             AND v2.status = 'APPROVED') as local_competition
+        FROM vendors v
+        WHERE v.id = ?
+        """;
+
+    private static final String COMPETITION_ROLLUP = """
+        SELECT v.id, COALESCE(s.local_competition, 0) as local_competition
+        FROM vendors v
+        LEFT JOIN vendor_stats s ON s.vendor_id = v.id
+        WHERE v.id = ?
+        """;
+
+    @Param({"20000", "100000"})
+    private int vendors;
+
+    private MySQLContainer<?> mysql;
+    private Connection connection;
+    private VendorStatsStore store;
+    private PreparedStatement trendingCorrelated;
+    private PreparedStatement trendingRollup;
+    private PreparedStatement qualityCorrelated;
+    private PreparedStatement qualityRollup;
+    private PreparedStatement competitionCorrelated;
+    private PreparedStatement competitionRollup;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        mysql = new MySQLContainer<>("mysql:8.0");
+        mysql.start();
+        connection = DriverManager.getConnection(mysql.getJdbcUrl() + "?rewriteBatchedStatements=true",
+            mysql.getUsername(), mysql.getPassword());
+        createSchema();
+        populate();
+        try (Statement statement = connection.createStatement()) {
+            for (String migration : statements("/db/migration/V15__Create_vendor_stats_rollup.sql")) {
+                statement.execute(migration);
+            }
+            statement.execute("ANALYZE TABLE vendors, bookings, inquiries, vendor_stats");
+        }
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(connection, true);
+        store = new VendorStatsStore(new JdbcTemplate(dataSource), new NamedParameterJdbcTemplate(dataSource));
+        trendingCorrelated = connection.prepareStatement(TRENDING_CORRELATED);
+        trendingRollup = connection.prepareStatement(TRENDING_ROLLUP);
+        qualityCorrelated = connection.prepareStatement(QUALITY_CORRELATED);
+        qualityRollup = connection.prepareStatement(QUALITY_ROLLUP);
+        competitionCorrelated = connection.prepareStatement(COMPETITION_CORRELATED);
+        competitionRollup = connection.prepareStatement(COMPETITION_ROLLUP);
+
+        checkRollupMatches("after the migration");
+
+        // New activity and a few vendors leaving the listing, applied the way the rollup applies events
+        List<Long> touched = recordActivity(1_000);
+        store.recountCompetition(store.refresh(touched));
+        checkRollupMatches("after an incremental refresh");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        mysql.stop();
+    }
+
+    @Benchmark
+    public List<List<Object>> trendingCorrelated() throws SQLException {
+        trendingCorrelated.setInt(1, LIMIT);
+        return rows(trendingCorrelated);
+    }
+
+    @Benchmark
+    public List<List<Object>> trendingRollup() throws SQLException {
+        trendingRollup.setInt(1, LIMIT);
+        return rows(trendingRollup);
+    }
+
+    @Benchmark
+    public List<List<Object>> qualityCorrelated() throws SQLException {
+        return quality(qualityCorrelated, 1 + random.nextInt(CATEGORIES));
+    }
+
+    @Benchmark
+    public List<List<Object>> qualityRollup() throws SQLException {
+        return quality(qualityRollup, 1 + random.nextInt(CATEGORIES));
+    }
+
+    @Benchmark
+    public List<List<Object>> competitionCorrelated() throws SQLException {
+        competitionCorrelated.setLong(1, 1 + random.nextInt(vendors));
+        return rows(competitionCorrelated);
+    }
+
+    @Benchmark
+    public List<List<Object>> competitionRollup() throws SQLException {
+        competitionRollup.setLong(1, 1 + random.nextInt(vendors));
+        return rows(competitionRollup);
+    }
+
+    /**
+     * One drain batch of the rollup: recompute 500 vendors and recount their categories
+     */
+    @Benchmark
+    public Set<Long> refreshBatch() {
+        Set<Long> batch = new HashSet<>();
+        while (batch.size() < REFRESH_BATCH) {
+            batch.add(1L + random.nextInt(vendors));
+        }
+        Set<Long> categories = store.refresh(batch);
+        store.recountCompetition(categories);
+        return categories;
+    }
+
+    // Correctness
+
+    /**
+     * Ties may come back in either order, so rankings are compared by their sort keys
+     */
+    private void checkRollupMatches(String when) throws SQLException {
+        for (int limit : new int[]{LIMIT, 500}) {
+            trendingCorrelated.setInt(1, limit);
+            trendingRollup.setInt(1, limit);
+            compare("trending top " + limit + " " + when, sortKeys(rows(trendingCorrelated)), sortKeys(rows(trendingRollup)));
+        }
+        for (long category = 1; category <= CATEGORIES; category++) {
+            compare("quality ranking of category " + category + " " + when,
+                sortKeys(quality(qualityCorrelated, category)), sortKeys(quality(qualityRollup, category)));
+        }
+        for (int i = 0; i < 500; i++) {
+            long vendorId = 1 + random.nextInt(vendors);
+            competitionCorrelated.setLong(1, vendorId);
+            competitionRollup.setLong(1, vendorId);
+            compare("competition of vendor " + vendorId + " " + when, rows(competitionCorrelated), rows(competitionRollup));
+        }
+    }
+
+    private static void compare(String what, List<?> expected, List<?> actual) {
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Rollup disagrees on " + what + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static List<List<Object>> sortKeys(List<List<Object>> rows) {
+        return rows.stream().map(row -> row.subList(1, row.size())).collect(Collectors.toList());
+    }
+
+    private List<List<Object>> quality(PreparedStatement statement, long categoryId) throws SQLException {
+        statement.setLong(1, categoryId);
+        statement.setInt(2, LIMIT);
+        return rows(statement);
+    }
+
+    private static List<List<Object>> rows(PreparedStatement statement) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                List<Object> row = new ArrayList<>(columns);
+                row.add(resultSet.getLong(1));
+                for (int column = 2; column <= columns; column++) {
+                    row.add(normalize(resultSet.getObject(column)));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Counts come back as BIGINT from COUNT(*) and INT from the rollup, and the quality
+     * score as DECIMAL from the formula and DOUBLE from the rollup
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof BigDecimal || value instanceof Double || value instanceof Float) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value;
+    }
+
+    // Data
+
+    private void createSchema() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                CREATE TABLE vendors (
+                    id BIGINT PRIMARY KEY,
+                    category_id BIGINT NOT NULL,
+                    business_city VARCHAR(100),
+                    status VARCHAR(20) NOT NULL,
+                    deleted BOOLEAN NOT NULL,
+                    featured BOOLEAN NOT NULL,
+                    premium BOOLEAN NOT NULL,
+                    instant_booking_enabled BOOLEAN NOT NULL,
+                    average_rating DECIMAL(3,2) DEFAULT 0.00,
+                    total_reviews INT DEFAULT 0,
+                    response_time_hours INT DEFAULT 24,
+                    response_rate DECIMAL(5,2) DEFAULT 100.00,
+                    INDEX idx_vendor_category (category_id),
+                    INDEX idx_vendor_status (status),
+                    INDEX idx_vendor_rating (average_rating),
+                    INDEX idx_vendor_city (business_city),
+                    INDEX idx_vendor_deleted (deleted)
+                ) ENGINE=InnoDB
+                """);
+            for (String table : List.of("bookings", "inquiries")) {
+                String prefix = table.equals("bookings") ? "idx_booking" : "idx_inquiry";
+                statement.execute("""
+                    CREATE TABLE %s (
+                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        vendor_id BIGINT NOT NULL,
+                        created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                        INDEX %s_vendor (vendor_id),
+                        INDEX %s_created_at (created_at)
+                    ) ENGINE=InnoDB
+                    """.formatted(table, prefix, prefix));
+            }
+        }
+    }
+
+    private void populate() throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO vendors VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= vendors; id++) {
+                insert.setLong(1, id);
+                insert.setLong(2, 1 + random.nextInt(CATEGORIES));
+                if (random.nextInt(30) == 0) {
+                    insert.setNull(3, Types.VARCHAR);
+                } else {
+                    insert.setString(3, "City " + (int) Math.min(CITIES - 1, Math.abs(random.nextGaussian()) * CITIES / 3));
+                }
+                insert.setString(4, random.nextInt(10) < 8 ? "APPROVED" : "PENDING");
+                insert.setBoolean(5, random.nextInt(50) == 0);
+                insert.setBoolean(6, random.nextInt(20) == 0);
+                insert.setBoolean(7, random.nextInt(10) == 0);
+                insert.setBoolean(8, random.nextInt(4) == 0);
+                insert.setBigDecimal(9, BigDecimal.valueOf(random.nextInt(501), 2));
+                insert.setInt(10, random.nextInt(200));
+                insert.setInt(11, random.nextInt(72));
+                insert.setBigDecimal(12, BigDecimal.valueOf(random.nextInt(10001), 2));
+                insert.addBatch();
+                if (id % 5000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        // A long tail: most vendors see a handful of bookings a season, a few see hundreds
+        insertActivity("bookings", vendors * 8, HISTORY_DAYS);
+        insertActivity("inquiries", vendors * 20, HISTORY_DAYS);
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private void insertActivity(String table, int rows, int days) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (vendor_id, created_at) VALUES (?, DATE_SUB(NOW(), INTERVAL ? SECOND))")) {
+            for (int row = 1; row <= rows; row++) {
+                insert.setLong(1, skewedVendor());
+                insert.setLong(2, ageSeconds(days));
+                insert.addBatch();
+                if (row % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Keeps clear of the 7 and 30 day boundaries, so no row ages out of a window while
+     * setup compares the two sides
+     */
+    private long ageSeconds(int days) {
+        while (true) {
+            long age = random.nextInt(days * 86_400);
+            if (Math.abs(age - 7 * 86_400) > 3_600 && Math.abs(age - 30 * 86_400) > 3_600) {
+                return age;
+            }
+        }
+    }
+
+    private long skewedVendor() {
+        double u = random.nextDouble();
+        return 1 + (long) (vendors * u * u * u);
+    }
+
+    /**
+     * Fresh bookings and inquiries, plus vendors suspended or moved to another city
+     */
+    private List<Long> recordActivity(int events) throws SQLException {
+        Set<Long> touched = new HashSet<>();
+        try (PreparedStatement booking = connection.prepareStatement("INSERT INTO bookings (vendor_id) VALUES (?)");
+             PreparedStatement inquiry = connection.prepareStatement("INSERT INTO inquiries (vendor_id) VALUES (?)");
+             PreparedStatement suspend = connection.prepareStatement("UPDATE vendors SET status = 'SUSPENDED' WHERE id = ?");
+             PreparedStatement move = connection.prepareStatement("UPDATE vendors SET business_city = 'City 0' WHERE id = ?")) {
+            for (int i = 0; i < events; i++) {
+                long vendorId = 1 + random.nextInt(vendors);
+                PreparedStatement statement = switch (random.nextInt(10)) {
+                    case 0 -> suspend;
+                    case 1 -> move;
+                    case 2, 3, 4 -> booking;
+                    default -> inquiry;
+                };
+                statement.setLong(1, vendorId);
+                statement.executeUpdate();
+                touched.add(vendorId);
+            }
+        }
+        return new ArrayList<>(touched);
+    }
+
+    /**
+     * The statements of a migration script, without its comments
+     */
+    private static List<String> statements(String resource) throws IOException {
+        try (InputStream in = VendorStatsRollupBenchmark.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing migration " + resource);
+            }
+            String script = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                .filter(line -> !line.trim().startsWith("--"))
+                .collect(Collectors.joining("\n"));
+            return Arrays.stream(script.split(";"))
+                .map(String::trim)
+                .filter(statement -> !statement.isEmpty())
+                .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.weddingmarketplace.cache.broadcast;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for coalescing, applying and broadcasting changed ids
+ *
+ * @author Wedding Marketplace Team
+ */
+@ExtendWith(MockitoExtension.class)
+class ChangeFanoutTest {
+
+    private static final String CHANNEL = "search:test:changes";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final List<Applied> applied = new ArrayList<>();
+    private final AtomicBoolean ready = new AtomicBoolean(true);
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private ChangeFanout changes;
+
+    @BeforeEach
+    void setUp() {
+        // Runs drains inline
+        changes = ChangeFanout.builder()
+            .name("test index")
+            .channel(CHANNEL)
+            .batchSize(2)
+            .executor(Runnable::run)
+            .stringRedisTemplate(stringRedisTemplate)
+            .ready(ready::get)
+            .applier((ids, local) -> {
+                if (failing.get()) {
+                    throw new IllegalStateException("store unavailable");
+                }
+                applied.add(new Applied(List.copyOf(ids), local));
+            })
+            .build();
+    }
+
+    @Test
+    void enqueue_CoalescesRepeatsAndDrainsAtTheBatchSize() {
+        // Given
+        changes.enqueue(1L);
+        changes.enqueue(1L);
+        assertTrue(applied.isEmpty());
+
+        // When
+        changes.enqueue(2L);
+
+        // Then
+        assertEquals(1, applied.size());
+        assertEquals(Set.of(1L, 2L), new HashSet<>(applied.get(0).ids));
+        assertTrue(applied.get(0).local);
+        assertFalse(changes.hasPending());
+    }
+
+    @Test
+    void drain_BroadcastsLocalBatchesUnderTheNodeId() {
+        // Given
+        changes.enqueue(7L);
+
+        // When
+        changes.drainPending();
+
+        // Then
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(CHANNEL), body.capture());
+        assertTrue(body.getValue().endsWith("|7"));
+        assertTrue(body.getValue().indexOf('|') > 0);
+    }
+
+    @Test
+    void onMessage_AppliesPeerIdsWithoutBroadcastingThemAgain() {
+        // Given
+        changes.onMessage(message("peer-node|3,4"), null);
+
+        // When
+        changes.drainPending();
+
+        // Then
+        assertEquals(List.of(new Applied(List.of(3L, 4L), false)), applied);
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void onMessage_IgnoresItsOwnAndMalformedBroadcasts() {
+        // Given
+        changes.enqueue(9L);
+        changes.drainPending();
+        ArgumentCaptor<String> own = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(CHANNEL), own.capture());
+        applied.clear();
+
+        // When
+        changes.onMessage(message(own.getValue()), null);
+        changes.onMessage(message("no separator"), null);
+        changes.onMessage(message("peer-node|3,x"), null);
+
+        // Then
+        assertFalse(changes.hasPending());
+        changes.drainPending();
+        assertTrue(applied.isEmpty());
+    }
+
+    @Test
+    void drain_WhenTheApplierFails_KeepsTheBatchForTheNextTick() {
+        // Given
+        failing.set(true);
+        changes.enqueue(5L);
+
+        // When
+        changes.drainPending();
+
+        // Then
+        assertEquals(1, changes.pending());
+        verifyNoInteractions(stringRedisTemplate);
+
+        failing.set(false);
+        changes.drainPending();
+        assertEquals(List.of(new Applied(List.of(5L), true)), applied);
+        assertEquals(0, changes.pending());
+    }
+
+    @Test
+    void drain_WhileNotReady_LeavesChangesQueued() {
+        // Given
+        ready.set(false);
+        changes.enqueue(1L);
+        changes.enqueue(2L);
+
+        // When
+        changes.drainPending();
+
+        // Then
+        assertTrue(applied.isEmpty());
+        assertEquals(2, changes.pending());
+
+        ready.set(true);
+        changes.drainPending();
+        assertEquals(1, applied.size());
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @lombok.Value
+    private static class Applied {
+        List<Long> ids;
+        boolean local;
+    }
+}
@@ -0,0 +1,128 @@
+package com.weddingmarketplace.cache.invalidation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for namespace generations: bumping, local caching and broadcasts from peers
+ *
+ * @author Wedding Marketplace Team
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheGenerationRegistryTest {
+
+    private static final String CHANNEL = "cache:generation";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private CacheGenerationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new CacheGenerationRegistry(stringRedisTemplate);
+        ReflectionTestUtils.setField(registry, "channel", CHANNEL);
+        ReflectionTestUtils.setField(registry, "refreshInterval", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void bump_IncrementsBroadcastsAndServesTheNewGenerationLocally() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment("generation:vendors")).thenReturn(4L);
+
+        long generation = registry.bump("vendors");
+
+        assertEquals(4L, generation);
+        verify(stringRedisTemplate).convertAndSend(CHANNEL, "vendors|4");
+        assertEquals(4L, registry.currentGeneration("vendors"));
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    void bump_WhenTheBroadcastFails_StillMovesToTheNewGeneration() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment("generation:vendors")).thenReturn(2L);
+        doThrow(new IllegalStateException("connection reset")).when(stringRedisTemplate).convertAndSend(anyString(), anyString());
+
+        assertEquals(2L, registry.bump("vendors"));
+        assertEquals(2L, registry.currentGeneration("vendors"));
+    }
+
+    @Test
+    void currentGeneration_ReadsRedisOnceWithinTheRefreshInterval() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("generation:vendors")).thenReturn("7");
+
+        assertEquals(7L, registry.currentGeneration("vendors"));
+        assertEquals(7L, registry.currentGeneration("vendors"));
+
+        verify(valueOperations, times(1)).get("generation:vendors");
+    }
+
+    @Test
+    void currentGeneration_AfterTheRefreshInterval_PicksUpAMissedBump() {
+        ReflectionTestUtils.setField(registry, "refreshInterval", Duration.ZERO);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("generation:vendors")).thenReturn("7", "8");
+
+        assertEquals(7L, registry.currentGeneration("vendors"));
+        assertEquals(8L, registry.currentGeneration("vendors"));
+    }
+
+    @Test
+    void currentGeneration_WhenRedisFails_KeepsTheLastKnownGeneration() {
+        ReflectionTestUtils.setField(registry, "refreshInterval", Duration.ZERO);
+        registry.onMessage(message("vendors|5"), null);
+        when(stringRedisTemplate.opsForValue()).thenThrow(new IllegalStateException("connection reset"));
+
+        assertEquals(5L, registry.currentGeneration("vendors"));
+    }
+
+    @Test
+    void onMessage_FromPeer_AdvancesWithoutReadingRedis() {
+        registry.onMessage(message("vendors|5"), null);
+
+        assertEquals(5L, registry.currentGeneration("vendors"));
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void onMessage_LateBroadcast_NeverMovesAGenerationBackwards() {
+        registry.onMessage(message("vendors|5"), null);
+        registry.onMessage(message("vendors|3"), null);
+
+        assertEquals(5L, registry.currentGeneration("vendors"));
+    }
+
+    @Test
+    void onMessage_Malformed_IsIgnored() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("generation:vendors")).thenReturn("1");
+
+        registry.onMessage(message("vendors"), null);
+        registry.onMessage(message("vendors|next"), null);
+
+        assertEquals(1L, registry.currentGeneration("vendors"));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,153 @@
+package com.weddingmarketplace.cache.near;
+
+import com.weddingmarketplace.cache.eviction.EvictionPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the near cache tier: admission, epoch guarding and pub/sub invalidation
+ *
+ * @author Wedding Marketplace Team
+ */
+@ExtendWith(MockitoExtension.class)
+class NearCacheManagerTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private NearCacheProperties properties;
+    private NearCacheManager nearCacheManager;
+
+    @BeforeEach
+    void setUp() {
+        properties = new NearCacheProperties();
+        NearCacheProperties.Namespace vendors = new NearCacheProperties.Namespace();
+        vendors.setMaximumSize(100);
+        vendors.setTtl(Duration.ofMinutes(1));
+        properties.getNamespaces().put("vendors", vendors);
+
+        nearCacheManager = new NearCacheManager(properties, stringRedisTemplate, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void populate_WithUnchangedEpoch_AdmitsValue() {
+        long epoch = nearCacheManager.epoch("vendors");
+
+        nearCacheManager.populate("vendors", "1", "vendor-1", epoch);
+
+        assertEquals("vendor-1", nearCacheManager.get("vendors", "1").orElse(null));
+    }
+
+    @Test
+    void populate_AfterConcurrentInvalidation_RejectsStaleValue() {
+        long epoch = nearCacheManager.epoch("vendors");
+        nearCacheManager.invalidate("vendors", "1");
+
+        nearCacheManager.populate("vendors", "1", "stale", epoch);
+
+        assertTrue(nearCacheManager.get("vendors", "1").isEmpty());
+    }
+
+    @Test
+    void put_StoresLocallyAndBroadcastsInvalidation() {
+        nearCacheManager.put("vendors", "1", "vendor-1");
+
+        assertEquals("vendor-1", nearCacheManager.get("vendors", "1").orElse(null));
+        verify(stringRedisTemplate).convertAndSend(eq(properties.getInvalidationChannel()), contains("|K|vendors|1"));
+    }
+
+    @Test
+    void onMessage_FromPeer_InvalidatesKey() {
+        nearCacheManager.populate("vendors", "1", "vendor-1", nearCacheManager.epoch("vendors"));
+
+        nearCacheManager.onMessage(message("peer-node|K|vendors|1"), null);
+
+        assertTrue(nearCacheManager.get("vendors", "1").isEmpty());
+    }
+
+    @Test
+    void onMessage_FromSelf_IsIgnored() {
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        nearCacheManager.put("vendors", "1", "vendor-1");
+        verify(stringRedisTemplate).convertAndSend(anyString(), body.capture());
+
+        nearCacheManager.onMessage(message(body.getValue()), null);
+
+        assertEquals("vendor-1", nearCacheManager.get("vendors", "1").orElse(null));
+    }
+
+    @Test
+    void onMessage_NamespaceScope_ClearsWholeNamespace() {
+        long epoch = nearCacheManager.epoch("vendors");
+        nearCacheManager.populate("vendors", "1", "vendor-1", epoch);
+        nearCacheManager.populate("vendors", "2", "vendor-2", epoch);
+
+        nearCacheManager.onMessage(message("peer-node|A|vendors|"), null);
+
+        assertTrue(nearCacheManager.get("vendors", "1").isEmpty());
+        assertTrue(nearCacheManager.get("vendors", "2").isEmpty());
+    }
+
+    @Test
+    void populate_PastTheNamespaceMaximumSize_EvictsWithinThatNamespace() {
+        NearCacheProperties.Namespace search = new NearCacheProperties.Namespace();
+        search.setMaximumSize(2);
+        properties.getNamespaces().put("vendor_search", search);
+        nearCacheManager.populate("vendors", "1", "vendor-1", nearCacheManager.epoch("vendors"));
+
+        long epoch = nearCacheManager.epoch("vendor_search");
+        for (int i = 0; i < 10; i++) {
+            nearCacheManager.populate("vendor_search", "q" + i, "results-" + i, epoch);
+        }
+
+        Map<String, Object> stats = nearCacheManager.getStatistics("vendor_search");
+        assertEquals(2L, stats.get("size"));
+        assertEquals(8L, stats.get("evictionCount"));
+        assertEquals("vendor-1", nearCacheManager.get("vendors", "1").orElse(null));
+        assertEquals(0L, nearCacheManager.getStatistics("vendors").get("evictionCount"));
+    }
+
+    @Test
+    void registerEvictionPolicy_ReplacesTheConfiguredBound() {
+        nearCacheManager.populate("vendors", "1", "vendor-1", nearCacheManager.epoch("vendors"));
+
+        nearCacheManager.registerEvictionPolicy("vendors", EvictionPolicy.sizeBounded(1));
+        long epoch = nearCacheManager.epoch("vendors");
+        nearCacheManager.populate("vendors", "2", "vendor-2", epoch);
+        nearCacheManager.populate("vendors", "3", "vendor-3", epoch);
+
+        assertTrue(nearCacheManager.get("vendors", "1").isEmpty());
+        Map<String, Object> stats = nearCacheManager.getStatistics("vendors");
+        assertEquals(1L, stats.get("size"));
+        assertEquals(1L, stats.get("evictionCount"));
+    }
+
+    @Test
+    void unconfiguredNamespace_IsNeverCachedOrBroadcast() {
+        nearCacheManager.put("rate_limit", "client", 5L);
+
+        assertFalse(nearCacheManager.isEnabled("rate_limit"));
+        assertTrue(nearCacheManager.get("rate_limit", "client").isEmpty());
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage("cache:near:invalidation".getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8));
+    }
+}
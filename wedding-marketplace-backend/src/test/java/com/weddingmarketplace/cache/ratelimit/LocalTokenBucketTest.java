@@ -0,0 +1,58 @@
+package com.weddingmarketplace.cache.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the local rate limit pre-filter
+ *
+ * @author Wedding Marketplace Team
+ */
+class LocalTokenBucketTest {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(60);
+
+    @Test
+    void tryConsume_WithinCapacity_Allows() {
+        LocalTokenBucket bucket = new LocalTokenBucket(3, WINDOW, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+    }
+
+    @Test
+    void tryConsume_WhenDrained_ReturnsWaitUntilNextToken() {
+        LocalTokenBucket bucket = new LocalTokenBucket(3, WINDOW, 0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(0);
+        }
+
+        long wait = bucket.tryConsume(0);
+
+        // One token every 20 seconds
+        assertEquals(TimeUnit.SECONDS.toNanos(20), wait, TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(0, bucket.tryConsume(TimeUnit.SECONDS.toNanos(20)));
+    }
+
+    @Test
+    void blockUntil_RejectsUntilDeadlineEvenWithTokens() {
+        LocalTokenBucket bucket = new LocalTokenBucket(10, WINDOW, 0);
+
+        bucket.blockUntil(TimeUnit.SECONDS.toNanos(5));
+
+        assertEquals(TimeUnit.SECONDS.toNanos(4), bucket.tryConsume(TimeUnit.SECONDS.toNanos(1)));
+        assertEquals(0, bucket.tryConsume(TimeUnit.SECONDS.toNanos(5)));
+    }
+
+    @Test
+    void matches_DetectsChangedLimits() {
+        LocalTokenBucket bucket = new LocalTokenBucket(10, WINDOW, 0);
+
+        assertTrue(bucket.matches(10, WINDOW));
+        assertFalse(bucket.matches(20, WINDOW));
+    }
+}
@@ -0,0 +1,74 @@
+package com.weddingmarketplace.cache.warming;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for access frequency tracking used by cache warming
+ *
+ * @author Wedding Marketplace Team
+ */
+class HotKeyTrackerTest {
+
+    @Test
+    void countMinSketch_NeverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for (int i = 0; i < 5000; i++) {
+            sketch.increment("key-" + (i % 500));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(sketch.estimate("key-" + i) >= 10);
+        }
+    }
+
+    @Test
+    void countMinSketch_DecayHalvesCounts() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("vendor:1");
+        }
+
+        sketch.decay();
+
+        assertEquals(4, sketch.estimate("vendor:1"));
+    }
+
+    @Test
+    void hotKeys_ReturnsMostFrequentFirstAndBoundedByTopK() {
+        HotKeyTracker tracker = new HotKeyTracker();
+        ReflectionTestUtils.setField(tracker, "topK", 3);
+
+        for (int key = 0; key < 20; key++) {
+            for (int hit = 0; hit <= key; hit++) {
+                tracker.record("vendors", "vendor:" + key);
+            }
+        }
+
+        List<String> hotKeys = tracker.hotKeys("vendors", 10);
+        assertEquals(List.of("vendor:19", "vendor:18", "vendor:17"), hotKeys);
+        assertTrue(tracker.hotKeys("unknown", 10).isEmpty());
+    }
+
+    @Test
+    void decay_LetsRecentKeysOvertakeFormerlyHotOnes() {
+        HotKeyTracker tracker = new HotKeyTracker();
+        ReflectionTestUtils.setField(tracker, "topK", 1);
+
+        for (int i = 0; i < 16; i++) {
+            tracker.record("vendors", "old");
+        }
+        for (int i = 0; i < 4; i++) {
+            tracker.decay();
+        }
+        for (int i = 0; i < 5; i++) {
+            tracker.record("vendors", "new");
+        }
+
+        assertEquals(List.of("new"), tracker.hotKeys("vendors", 1));
+    }
+}
@@ -0,0 +1,97 @@
+package com.weddingmarketplace.cache.writebehind;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for recording vendor activity when the write-behind queue is full
+ *
+ * @author Wedding Marketplace Team
+ */
+class VendorActivityRecorderTest {
+
+    private RecordingViewWriter writer;
+    private SimpleMeterRegistry meterRegistry;
+    private WriteBehindQueue queue;
+    private VendorActivityRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        writer = new RecordingViewWriter();
+        meterRegistry = new SimpleMeterRegistry();
+        queue = new WriteBehindQueue(List.of(writer), meterRegistry);
+        ReflectionTestUtils.setField(queue, "batchSize", 100);
+        ReflectionTestUtils.setField(queue, "maxPendingKeys", 1);
+        // Long interval so only explicit flushes run during the test
+        ReflectionTestUtils.setField(queue, "flushInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(queue, "shutdownTimeout", Duration.ofSeconds(1));
+        queue.start();
+        recorder = new VendorActivityRecorder(queue);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.drain();
+    }
+
+    @Test
+    void recordView_WhenQueueIsFull_WritesThrough() {
+        recorder.recordView(1L);
+        recorder.recordView(2L);
+
+        assertEquals(List.of(Map.of("2", 1L)), writer.batches);
+        assertEquals(1, queue.depth(VendorViewCountWriter.NAMESPACE));
+        assertEquals(1.0, counter("cache.write_behind.rejected"));
+        assertEquals(1.0, counter("cache.write_behind.written_through"));
+    }
+
+    @Test
+    void recordView_WhenQueueIsFullAndDatabaseFails_CountsTheDrop() {
+        recorder.recordView(1L);
+        writer.failNext = true;
+
+        assertDoesNotThrow(() -> recorder.recordView(2L));
+
+        assertTrue(writer.batches.isEmpty());
+        assertEquals(1.0, counter("cache.write_behind.dropped"));
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name, "namespace", VendorViewCountWriter.NAMESPACE).count();
+    }
+
+    private static class RecordingViewWriter implements WriteBehindWriter<Long> {
+        private final List<Map<String, Long>> batches = new ArrayList<>();
+        private boolean failNext;
+
+        @Override
+        public String namespace() {
+            return VendorViewCountWriter.NAMESPACE;
+        }
+
+        @Override
+        public Long merge(Long pending, Long incoming) {
+            return pending + incoming;
+        }
+
+        @Override
+        public synchronized void writeBatch(Map<String, Long> batch) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("database unavailable");
+            }
+            batches.add(new HashMap<>(batch));
+        }
+    }
+}
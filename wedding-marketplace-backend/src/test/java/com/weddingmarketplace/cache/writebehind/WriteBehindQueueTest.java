@@ -0,0 +1,127 @@
+package com.weddingmarketplace.cache.writebehind;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for write-behind coalescing, retry and drain
+ *
+ * @author Wedding Marketplace Team
+ */
+class WriteBehindQueueTest {
+
+    private RecordingCounterWriter writer;
+    private WriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        writer = new RecordingCounterWriter();
+        queue = new WriteBehindQueue(List.of(writer), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(queue, "batchSize", 100);
+        ReflectionTestUtils.setField(queue, "maxPendingKeys", 1000);
+        // Long interval so only explicit flushes run during the test
+        ReflectionTestUtils.setField(queue, "flushInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(queue, "shutdownTimeout", Duration.ofSeconds(1));
+        queue.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.drain();
+    }
+
+    @Test
+    void enqueue_CoalescesUpdatesPerKey() {
+        for (int i = 0; i < 50; i++) {
+            queue.enqueue("counters", "1", 1L);
+        }
+        queue.enqueue("counters", "2", 1L);
+
+        assertEquals(2, queue.depth("counters"));
+        queue.flushAll();
+
+        assertEquals(1, writer.batches.size());
+        assertEquals(Map.of("1", 50L, "2", 1L), writer.batches.get(0));
+        assertEquals(0, queue.depth("counters"));
+    }
+
+    @Test
+    void flush_WhenWriterFails_RequeuesWithoutLosingIncrements() {
+        queue.enqueue("counters", "1", 3L);
+        writer.failNext = true;
+        queue.flushAll();
+
+        queue.enqueue("counters", "1", 2L);
+        queue.flushAll();
+
+        assertEquals(Map.of("1", 5L), writer.batches.get(writer.batches.size() - 1));
+    }
+
+    @Test
+    void drain_FlushesPendingAndWritesThroughAfterwards() {
+        queue.enqueue("counters", "1", 1L);
+        queue.drain();
+
+        assertEquals(Map.of("1", 1L), writer.batches.get(0));
+
+        queue.enqueue("counters", "1", 1L);
+        assertEquals(2, writer.batches.size());
+    }
+
+    @Test
+    void enqueue_WhenFull_DropsNewKeysButKeepsCoalescing() {
+        ReflectionTestUtils.setField(queue, "batchSize", 10_000);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(queue.enqueue("counters", Integer.toString(i), 1L));
+        }
+
+        assertFalse(queue.enqueue("counters", "new", 1L));
+        assertTrue(queue.enqueue("counters", "0", 1L));
+        assertEquals(1000, queue.depth("counters"));
+
+        queue.flushAll();
+        assertEquals(2L, writer.batches.get(0).get("0"));
+        assertFalse(writer.batches.get(0).containsKey("new"));
+        assertTrue(queue.enqueue("counters", "new", 1L));
+    }
+
+    @Test
+    void enqueue_UnknownNamespace_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> queue.enqueue("unknown", "1", 1L));
+    }
+
+    private static class RecordingCounterWriter implements WriteBehindWriter<Long> {
+        private final List<Map<String, Long>> batches = new ArrayList<>();
+        private boolean failNext;
+
+        @Override
+        public String namespace() {
+            return "counters";
+        }
+
+        @Override
+        public Long merge(Long pending, Long incoming) {
+            return pending + incoming;
+        }
+
+        @Override
+        public synchronized void writeBatch(Map<String, Long> batch) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("database unavailable");
+            }
+            batches.add(new HashMap<>(batch));
+        }
+    }
+}
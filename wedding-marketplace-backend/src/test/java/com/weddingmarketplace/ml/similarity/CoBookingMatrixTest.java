@@ -0,0 +1,174 @@
+package com.weddingmarketplace.ml.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the co-booking similarity matrix
+ *
+ * @author Wedding Marketplace Team
+ */
+class CoBookingMatrixTest {
+
+    private static final float NO_SHRINKAGE = 0f;
+
+    @Test
+    void similarTo_RanksVendorsSharingMoreCustomersFirst() {
+        CoBookingMatrix matrix = new CoBookingMatrix.Builder(new long[]{10, 20, 30, 40}, new long[]{1, 1, 1, 1})
+            .addCustomer(1, new long[]{10, 20, 30}, new float[]{1, 1, 1})
+            .addCustomer(2, new long[]{10, 20}, new float[]{1, 1})
+            .addCustomer(3, new long[]{40}, new float[]{1})
+            .build(10, 100, NO_SHRINKAGE);
+
+        List<CoBookingMatrix.Neighbour> similar = matrix.similarTo(10, 10, false).orElseThrow();
+
+        assertEquals(List.of(20L, 30L), vendorIds(similar));
+        assertEquals(1.0f, similar.get(0).getScore(), 1e-6);
+        assertEquals((float) (1 / Math.sqrt(2)), similar.get(1).getScore(), 1e-6);
+        assertEquals(List.of(), matrix.similarTo(40, 10, false).orElseThrow());
+        assertTrue(matrix.similarTo(99, 10, false).isEmpty());
+    }
+
+    @Test
+    void similarTo_InCategory_SkipsOtherCategoriesButKeepsTheRowFull() {
+        CoBookingMatrix matrix = new CoBookingMatrix.Builder(new long[]{1, 2, 3, 4}, new long[]{7, 8, 8, 7})
+            .addCustomer(1, new long[]{1, 2, 3, 4}, new float[]{1, 1, 1, 1})
+            .addCustomer(2, new long[]{1, 2, 3}, new float[]{1, 1, 1})
+            .addCustomer(3, new long[]{1, 2}, new float[]{1, 1})
+            .build(1, 100, NO_SHRINKAGE);
+
+        assertEquals(List.of(2L), vendorIds(matrix.similarTo(1, 5, false).orElseThrow()));
+        assertEquals(List.of(4L), vendorIds(matrix.similarTo(1, 5, true).orElseThrow()));
+    }
+
+    @Test
+    void build_MatchesBruteForceCosine() {
+        Random random = new Random(11);
+        int vendors = 60;
+        long[] vendorIds = new long[vendors];
+        long[] categoryIds = new long[vendors];
+        for (int i = 0; i < vendors; i++) {
+            // Deliberately out of order
+            vendorIds[i] = 1000 - i * 7L;
+            categoryIds[i] = i % 4;
+        }
+
+        CoBookingMatrix.Builder builder = new CoBookingMatrix.Builder(vendorIds, categoryIds);
+        List<Map<Long, Float>> customers = new ArrayList<>();
+        for (long customer = 1; customer <= 400; customer++) {
+            Map<Long, Float> interactions = new HashMap<>();
+            int count = 1 + random.nextInt(6);
+            long[] ids = new long[count];
+            float[] weights = new float[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = vendorIds[random.nextInt(vendors)];
+                weights[i] = 0.1f + random.nextInt(10) / 10f;
+                interactions.merge(ids[i], weights[i], Math::max);
+            }
+            builder.addCustomer(customer, ids, weights);
+            customers.add(interactions);
+        }
+        float shrinkage = 2f;
+        CoBookingMatrix matrix = builder.build(vendors, 100, shrinkage);
+
+        for (long vendor : vendorIds) {
+            Map<Long, Float> expected = new HashMap<>();
+            for (long other : vendorIds) {
+                double dot = 0, normA = 0, normB = 0;
+                int shared = 0;
+                for (Map<Long, Float> interactions : customers) {
+                    float a = interactions.getOrDefault(vendor, 0f);
+                    float b = interactions.getOrDefault(other, 0f);
+                    dot += (double) a * b;
+                    normA += (double) a * a;
+                    normB += (double) b * b;
+                    if (a > 0 && b > 0) {
+                        shared++;
+                    }
+                }
+                if (other != vendor && shared > 0) {
+                    expected.put(other, (float) (dot / Math.sqrt(normA * normB) * shared / (shared + shrinkage)));
+                }
+            }
+
+            List<CoBookingMatrix.Neighbour> actual = matrix.similarTo(vendor, vendors, false).orElseThrow();
+            assertEquals(expected.size(), actual.size());
+            float previous = Float.MAX_VALUE;
+            for (CoBookingMatrix.Neighbour neighbour : actual) {
+                assertEquals(expected.get(neighbour.getVendorId()), neighbour.getScore(), 1e-5);
+                assertTrue(neighbour.getScore() <= previous);
+                previous = neighbour.getScore();
+            }
+        }
+    }
+
+    @Test
+    void build_IgnoresCustomersWithTooManyInteractionsForSimilarity() {
+        CoBookingMatrix matrix = new CoBookingMatrix.Builder(new long[]{1, 2, 3}, new long[]{1, 1, 1})
+            .addCustomer(1, new long[]{1, 2, 3}, new float[]{1, 1, 1})
+            .addCustomer(2, new long[]{1, 2}, new float[]{1, 1})
+            .build(10, 2, NO_SHRINKAGE);
+
+        assertEquals(List.of(2L), vendorIds(matrix.similarTo(1, 10, false).orElseThrow()));
+        // Their own interactions are still known
+        assertEquals(3, matrix.interactionsOf(1).size());
+    }
+
+    @Test
+    void addCustomer_KeepsTheHighestWeightPerVendorAndDropsUnlistedVendors() {
+        CoBookingMatrix matrix = new CoBookingMatrix.Builder(new long[]{5, 6}, new long[]{1, 1})
+            .addCustomer(9, new long[]{6, 5, 6, 77}, new float[]{0.3f, 0.5f, 0.9f, 1f})
+            .build(10, 100, NO_SHRINKAGE);
+
+        CoBookingMatrix.Interactions interactions = matrix.interactionsOf(9);
+
+        assertArrayEquals(new long[]{5, 6}, interactions.getVendorIds());
+        assertArrayEquals(new float[]{0.5f, 0.9f}, interactions.getWeights());
+        assertTrue(interactions.contains(6));
+        assertFalse(interactions.contains(77));
+        assertEquals(0, matrix.interactionsOf(10).size());
+    }
+
+    @Test
+    void addCustomer_OutOfOrder_IsRejected() {
+        CoBookingMatrix.Builder builder = new CoBookingMatrix.Builder(new long[]{1}, new long[]{1})
+            .addCustomer(5, new long[]{1}, new float[]{1});
+
+        assertThrows(IllegalArgumentException.class, () -> builder.addCustomer(5, new long[]{1}, new float[]{1}));
+    }
+
+    @Test
+    void recommend_SumsNeighbourScoresAndLeavesOutInteractedVendors() {
+        CoBookingMatrix matrix = new CoBookingMatrix.Builder(new long[]{1, 2, 3, 4}, new long[]{1, 2, 3, 4})
+            .addCustomer(1, new long[]{1, 3}, new float[]{1, 1})
+            .addCustomer(2, new long[]{2, 3}, new float[]{1, 1})
+            .addCustomer(3, new long[]{2, 4}, new float[]{1, 1})
+            .addCustomer(4, new long[]{1, 2}, new float[]{1, 1})
+            .build(10, 100, NO_SHRINKAGE);
+
+        List<CoBookingMatrix.Neighbour> recommended = matrix.recommend(matrix.interactionsOf(4), 10);
+
+        // Vendor 3 is a neighbour of both 1 and 2, vendor 4 of 2 only
+        assertEquals(List.of(3L, 4L), vendorIds(recommended));
+        float expectedThree = matrix.similarTo(1, 10, false).orElseThrow().stream()
+            .filter(n -> n.getVendorId() == 3).findFirst().orElseThrow().getScore()
+            + matrix.similarTo(2, 10, false).orElseThrow().stream()
+            .filter(n -> n.getVendorId() == 3).findFirst().orElseThrow().getScore();
+        assertEquals(expectedThree, recommended.get(0).getScore(), 1e-6);
+        assertEquals(List.of(3L), vendorIds(matrix.recommend(matrix.interactionsOf(4), 1)));
+        assertTrue(matrix.recommend(CoBookingMatrix.Interactions.NONE, 10).isEmpty());
+    }
+
+    private static List<Long> vendorIds(List<CoBookingMatrix.Neighbour> neighbours) {
+        List<Long> ids = new ArrayList<>();
+        neighbours.forEach(neighbour -> ids.add(neighbour.getVendorId()));
+        return ids;
+    }
+}
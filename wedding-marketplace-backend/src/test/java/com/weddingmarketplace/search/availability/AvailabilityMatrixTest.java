@@ -0,0 +1,132 @@
+package com.weddingmarketplace.search.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the day-by-vendor availability bitmap
+ *
+ * @author Wedding Marketplace Team
+ */
+class AvailabilityMatrixTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+
+    @Test
+    void isFree_ReflectsBlockedDays() {
+        AvailabilityMatrix matrix = new AvailabilityMatrix(FIRST_DAY, 365);
+        matrix.put(7L, List.of(LocalDate.of(2026, 6, 13)));
+
+        assertEquals(Optional.of(false), matrix.isFree(7L, LocalDate.of(2026, 6, 13)));
+        assertEquals(Optional.of(true), matrix.isFree(7L, LocalDate.of(2026, 6, 14)));
+    }
+
+    @Test
+    void isFree_DoesNotAnswerOutsideTheWindowOrForUnlistedVendors() {
+        AvailabilityMatrix matrix = new AvailabilityMatrix(FIRST_DAY, 365);
+        matrix.put(7L, List.of());
+
+        assertTrue(matrix.isFree(7L, FIRST_DAY.minusDays(1)).isEmpty());
+        assertTrue(matrix.isFree(7L, FIRST_DAY.plusDays(365)).isEmpty());
+        assertTrue(matrix.isFree(8L, FIRST_DAY).isEmpty());
+        assertTrue(matrix.blockedOnAll(List.of(FIRST_DAY, FIRST_DAY.plusYears(2))).isEmpty());
+    }
+
+    @Test
+    void put_ReplacesAVendorsBlockedDays() {
+        AvailabilityMatrix matrix = new AvailabilityMatrix(FIRST_DAY, 365);
+        LocalDate saturday = LocalDate.of(2026, 6, 13);
+        matrix.put(7L, List.of(saturday));
+
+        // The booking on the Saturday was cancelled and another one confirmed the day after
+        matrix.put(7L, List.of(saturday.plusDays(1)));
+
+        assertEquals(Optional.of(true), matrix.isFree(7L, saturday));
+        assertEquals(Optional.of(false), matrix.isFree(7L, saturday.plusDays(1)));
+        assertEquals(1, matrix.size());
+    }
+
+    @Test
+    void blockedOnAll_MatchesAPerVendorScan() {
+        Random random = new Random(5);
+        AvailabilityMatrix matrix = new AvailabilityMatrix(FIRST_DAY, 60);
+        List<Set<LocalDate>> calendars = new ArrayList<>();
+        for (long id = 0; id < 3_000; id++) {
+            Set<LocalDate> blocked = new HashSet<>();
+            for (int day = 0; day < 60; day++) {
+                if (random.nextInt(3) == 0) {
+                    blocked.add(FIRST_DAY.plusDays(day));
+                }
+            }
+            matrix.put(id, blocked);
+            calendars.add(blocked);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            List<LocalDate> dates = new ArrayList<>();
+            for (int n = 1 + random.nextInt(3); n > 0; n--) {
+                dates.add(FIRST_DAY.plusDays(random.nextInt(60)));
+            }
+
+            Set<Long> expectedBusy = new HashSet<>();
+            for (int id = 0; id < calendars.size(); id++) {
+                if (calendars.get(id).containsAll(dates)) {
+                    expectedBusy.add((long) id);
+                }
+            }
+
+            assertEquals(expectedBusy, new HashSet<>(matrix.blockedOnAll(dates).orElseThrow()));
+        }
+    }
+
+    @Test
+    void freeOnAny_KeepsCandidatesFreeOnAtLeastOneDate() {
+        AvailabilityMatrix matrix = new AvailabilityMatrix(FIRST_DAY, 365);
+        LocalDate friday = LocalDate.of(2026, 6, 12);
+        LocalDate saturday = friday.plusDays(1);
+        matrix.put(1L, List.of(friday, saturday));
+        matrix.put(2L, List.of(saturday));
+        matrix.put(3L, List.of());
+        matrix.put(4L, List.of());
+
+        List<Long> free = matrix.freeOnAny(List.of(1L, 2L, 3L, 99L), List.of(friday, saturday)).orElseThrow();
+
+        assertEquals(Set.of(2L, 3L), new HashSet<>(free));
+    }
+
+    @Test
+    void remove_UnlistsAVendorAndRecyclesItsOrdinal() {
+        AvailabilityMatrix matrix = new AvailabilityMatrix(FIRST_DAY, 365);
+        LocalDate saturday = LocalDate.of(2026, 6, 13);
+        matrix.put(1L, List.of(saturday));
+        matrix.put(2L, List.of(saturday));
+
+        assertTrue(matrix.remove(1L));
+        assertFalse(matrix.remove(1L));
+        matrix.put(3L, List.of());
+
+        assertTrue(matrix.isFree(1L, saturday).isEmpty());
+        assertEquals(Optional.of(true), matrix.isFree(3L, saturday));
+        assertEquals(List.of(2L), matrix.blockedOnAll(List.of(saturday)).orElseThrow());
+    }
+
+    @Test
+    void blockedOnAll_IsEmptyListWhenAnyDateIsFreeForEveryone() {
+        AvailabilityMatrix matrix = new AvailabilityMatrix(FIRST_DAY, 365);
+        matrix.put(1L, List.of(FIRST_DAY));
+
+        List<Long> busy = matrix.blockedOnAll(List.of(FIRST_DAY, FIRST_DAY.plusDays(1))).orElseThrow();
+
+        assertTrue(busy.isEmpty());
+        assertEquals(List.of(1L), matrix.blockedOnAll(List.of(FIRST_DAY)).orElseThrow());
+    }
+}
@@ -0,0 +1,85 @@
+package com.weddingmarketplace.search.cache;
+
+import com.weddingmarketplace.mapper.VendorMapper;
+import com.weddingmarketplace.model.dto.response.VendorResponse;
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.model.enums.VendorStatus;
+import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.service.CacheService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for hydrating cached vendor ids in the search result cache
+ *
+ * @author Wedding Marketplace Team
+ */
+@ExtendWith(MockitoExtension.class)
+class VendorSearchResultCacheTest {
+
+    @Mock
+    private CacheService cacheService;
+
+    @Mock
+    private VendorRepository vendorRepository;
+
+    @Mock
+    private VendorMapper vendorMapper;
+
+    @InjectMocks
+    private VendorSearchResultCache searchResultCache;
+
+    @Test
+    void hydrate_KeepsOnlyApprovedVendorsInOrder() {
+        // Given
+        Map<String, VendorResponse> cached = new LinkedHashMap<>();
+        cached.put("4", response(4L, VendorStatus.APPROVED));
+        cached.put("3", response(3L, VendorStatus.SUSPENDED));
+        when(cacheService.getMultiple(eq("vendors"), eq(List.of("4", "3", "2", "1")), eq(VendorResponse.class)))
+            .thenReturn(cached);
+
+        Vendor approved = Vendor.builder().id(2L).status(VendorStatus.APPROVED).deleted(false).build();
+        Vendor rejected = Vendor.builder().id(1L).status(VendorStatus.REJECTED).deleted(false).build();
+        when(vendorRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(approved, rejected));
+        when(vendorMapper.toResponse(approved)).thenReturn(response(2L, VendorStatus.APPROVED));
+        when(vendorMapper.toResponse(rejected)).thenReturn(response(1L, VendorStatus.REJECTED));
+
+        // When
+        List<VendorResponse> result = searchResultCache.hydrate(new long[]{4L, 3L, 2L, 1L});
+
+        // Then
+        assertEquals(List.of(4L, 2L), result.stream().map(VendorResponse::getId).toList());
+    }
+
+    @Test
+    void hydrate_DropsDeletedVendorsWithoutCachingThem() {
+        // Given
+        when(cacheService.getMultiple(eq("vendors"), eq(List.of("7")), eq(VendorResponse.class))).thenReturn(Map.of());
+        Vendor deleted = Vendor.builder().id(7L).status(VendorStatus.APPROVED).deleted(true).build();
+        when(vendorRepository.findAllById(List.of(7L))).thenReturn(List.of(deleted));
+
+        // When
+        List<VendorResponse> result = searchResultCache.hydrate(new long[]{7L});
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(cacheService, never()).putMultiple(anyString(), anyMap(), any(Duration.class));
+        verifyNoInteractions(vendorMapper);
+    }
+
+    private static VendorResponse response(Long id, VendorStatus status) {
+        return VendorResponse.builder().id(id).status(status).build();
+    }
+}
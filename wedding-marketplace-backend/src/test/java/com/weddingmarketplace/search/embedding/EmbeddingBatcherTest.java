@@ -0,0 +1,166 @@
+package com.weddingmarketplace.search.embedding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for request coalescing in the embedding client, against a local stub server
+ *
+ * @author Wedding Marketplace Team
+ */
+class EmbeddingBatcherTest {
+
+    private static final int DIMENSION = 16;
+
+    private StubEmbeddingServer server;
+    private ExecutorService clientExecutor;
+    private EmbeddingBatcher batcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 20 ms per call, so concurrent requests pile up while a batch is in flight
+        server = new StubEmbeddingServer(DIMENSION, 20_000, 0);
+        clientExecutor = Executors.newFixedThreadPool(2);
+        batcher = new EmbeddingBatcher(new RestTemplate(), clientExecutor);
+        ReflectionTestUtils.setField(batcher, "embeddingApiUrl", server.url());
+        ReflectionTestUtils.setField(batcher, "embeddingModel", "test-model");
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", 16);
+        ReflectionTestUtils.setField(batcher, "maxWait", Duration.ofMillis(5));
+        ReflectionTestUtils.setField(batcher, "maxInFlight", 2);
+        ReflectionTestUtils.setField(batcher, "maxQueued", 1000);
+        batcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+        clientExecutor.shutdownNow();
+        server.close();
+    }
+
+    @Test
+    void embed_ConcurrentCallersShareBatches() throws Exception {
+        int callers = 64;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<float[]>> results = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            for (int i = 0; i < callers; i++) {
+                String text = "text " + i;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return batcher.embed(text).get(5, TimeUnit.SECONDS);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < callers; i++) {
+                assertArrayEquals(server.expected("text " + i), results.get(i).get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(callers, server.texts());
+        assertTrue(server.calls() <= callers / 4, "64 texts took " + server.calls() + " calls");
+        assertTrue(server.largestBatch() <= 16);
+    }
+
+    @Test
+    void embedAll_SendsDuplicateTextsOnce() {
+        List<float[]> embeddings = batcher.embedAll(List.of("veil", "cake", "veil"), Duration.ofSeconds(5));
+
+        assertEquals(1, server.calls());
+        assertEquals(2, server.texts());
+        assertArrayEquals(server.expected("veil"), embeddings.get(0));
+        assertArrayEquals(server.expected("cake"), embeddings.get(1));
+        assertArrayEquals(server.expected("veil"), embeddings.get(2));
+    }
+
+    @Test
+    void embed_SingleRequestOnlyWaitsForTheWindow() throws Exception {
+        long started = System.nanoTime();
+        batcher.embed("alone").get(5, TimeUnit.SECONDS);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // 20 ms stub latency plus the 5 ms window, with room for a slow CI machine
+        assertTrue(millis < 500, "single request took " + millis + " ms");
+        assertEquals(1, server.calls());
+    }
+
+    @Test
+    void embedAll_WhenModelFails_ReturnsNullsInsteadOfThrowing() {
+        server.setFailing(true);
+
+        List<float[]> embeddings = batcher.embedAll(List.of("a", "b"), Duration.ofSeconds(5));
+
+        assertEquals(Arrays.asList(null, null), embeddings);
+        assertEquals(1, server.calls());
+    }
+
+    @Test
+    void embedAll_AtTheDeadline_NeverSendsAbandonedTexts() throws Exception {
+        // One text per call and one call at a time, each taking 300 ms
+        try (StubEmbeddingServer slowServer = new StubEmbeddingServer(DIMENSION, 300_000, 0)) {
+            EmbeddingBatcher slowBatcher = new EmbeddingBatcher(new RestTemplate(), clientExecutor);
+            ReflectionTestUtils.setField(slowBatcher, "embeddingApiUrl", slowServer.url());
+            ReflectionTestUtils.setField(slowBatcher, "embeddingModel", "test-model");
+            ReflectionTestUtils.setField(slowBatcher, "maxBatchSize", 1);
+            ReflectionTestUtils.setField(slowBatcher, "maxWait", Duration.ofMillis(5));
+            ReflectionTestUtils.setField(slowBatcher, "maxInFlight", 1);
+            ReflectionTestUtils.setField(slowBatcher, "maxQueued", 1000);
+            slowBatcher.start();
+            try {
+                List<float[]> embeddings = slowBatcher.embedAll(List.of("a", "b", "c", "d"), Duration.ofMillis(100));
+                assertEquals(Arrays.asList(null, null, null, null), embeddings);
+
+                // Long enough for every text to have been sent had it not been dropped
+                Thread.sleep(1500);
+                assertEquals(1, slowServer.texts());
+                assertEquals(List.of(), drainQueue(slowBatcher));
+            } finally {
+                slowBatcher.stop();
+            }
+        }
+    }
+
+    @Test
+    void cacheKey_DependsOnModelAndExactText() {
+        String key = EmbeddingCache.key("model-a", "rustic barn venue");
+
+        assertEquals(key, EmbeddingCache.key("model-a", "rustic barn venue"));
+        assertNotEquals(key, EmbeddingCache.key("model-b", "rustic barn venue"));
+        assertNotEquals(key, EmbeddingCache.key("model-a", "rustic barn venues"));
+        // The separator keeps the model/text boundary unambiguous
+        assertNotEquals(EmbeddingCache.key("ab", "c"), EmbeddingCache.key("a", "bc"));
+        assertTrue(key.matches("emb:[0-9a-f]{64}"));
+    }
+
+    @Test
+    void cacheEncoding_RoundTripsCompactly() {
+        float[] vector = server.expected("round trip");
+
+        byte[] encoded = EmbeddingCache.encode(vector);
+
+        assertEquals(1 + DIMENSION * Float.BYTES, encoded.length);
+        assertArrayEquals(vector, EmbeddingCache.decode(encoded));
+        assertNull(EmbeddingCache.decode(null));
+        assertNull(EmbeddingCache.decode(new byte[] {9, 0, 0, 0, 0}));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> drainQueue(EmbeddingBatcher batcher) {
+        List<Object> queued = new ArrayList<>();
+        ((BlockingQueue<Object>) ReflectionTestUtils.getField(batcher, "queue")).drainTo(queued);
+        return queued;
+    }
+}
@@ -0,0 +1,138 @@
+package com.weddingmarketplace.search.embedding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the embedding model server, for tests and benchmarks.
+ *
+ * Serves {@code POST /embeddings/batch} on an ephemeral port with deterministic vectors
+ * (seeded by the text, so equal texts get equal embeddings) and simulates model cost as
+ * a fixed per-call latency plus a per-text cost. Counts calls and texts so tests can
+ * assert on batching, and can be told to fail calls with a 503.
+ *
+ * @author Wedding Marketplace Team
+ */
+public class StubEmbeddingServer implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int dimension;
+    private final long callLatencyMicros;
+    private final long perTextMicros;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicLong texts = new AtomicLong();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+    private volatile boolean failing;
+
+    public StubEmbeddingServer(int dimension, long callLatencyMicros, long perTextMicros) throws IOException {
+        this.dimension = dimension;
+        this.callLatencyMicros = callLatencyMicros;
+        this.perTextMicros = perTextMicros;
+        this.executor = Executors.newFixedThreadPool(16);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext(EmbeddingBatcher.BATCH_PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int calls() {
+        return calls.get();
+    }
+
+    public long texts() {
+        return texts.get();
+    }
+
+    public int largestBatch() {
+        return largestBatch.get();
+    }
+
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    /**
+     * The vector this server returns for {@code text}
+     */
+    public float[] expected(String text) {
+        Random random = new Random(text.hashCode());
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            List<String> batch = new ArrayList<>();
+            request.path("texts").forEach(text -> batch.add(text.asText()));
+
+            calls.incrementAndGet();
+            texts.addAndGet(batch.size());
+            largestBatch.accumulateAndGet(batch.size(), Math::max);
+            sleepMicros(callLatencyMicros + perTextMicros * batch.size());
+
+            if (failing) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            List<float[]> embeddings = new ArrayList<>(batch.size());
+            batch.forEach(text -> embeddings.add(expected(text)));
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("embeddings", embeddings);
+            response.put("model", request.path("model").asText());
+            response.put("dimension", dimension);
+
+            byte[] body = objectMapper.writeValueAsString(response).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static void sleepMicros(long micros) {
+        if (micros <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,84 @@
+package com.weddingmarketplace.search.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for radius bounding boxes
+ *
+ * @author Wedding Marketplace Team
+ */
+class GeoBoundingBoxTest {
+
+    @Test
+    void around_ContainsEveryPointWithinTheRadius() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            double latitude = random.nextDouble() * 170 - 85;
+            double longitude = random.nextDouble() * 360 - 180;
+            double radiusKm = random.nextDouble() * 500;
+            GeoBoundingBox box = GeoBoundingBox.around(latitude, longitude, radiusKm);
+
+            for (int j = 0; j < 50; j++) {
+                double pointLatitude = latitude + (random.nextDouble() * 2 - 1) * 10;
+                double pointLongitude = longitude + (random.nextDouble() * 2 - 1) * 20;
+                pointLatitude = Math.max(-90, Math.min(90, pointLatitude));
+                pointLongitude = pointLongitude > 180 ? pointLongitude - 360 : pointLongitude < -180 ? pointLongitude + 360 : pointLongitude;
+                if (haversineKm(latitude, longitude, pointLatitude, pointLongitude) <= radiusKm) {
+                    assertTrue(box.contains(pointLatitude, pointLongitude),
+                        () -> box + " misses a point within the radius");
+                }
+            }
+        }
+    }
+
+    @Test
+    void around_WrapsAcrossTheAntimeridian() {
+        GeoBoundingBox box = GeoBoundingBox.around(-17.7134, 178.0650, 300);
+
+        assertTrue(box.crossesAntimeridian());
+        assertTrue(box.contains(-17.7, -179.5));
+        assertTrue(box.contains(-17.7, 179.5));
+        assertFalse(box.contains(-17.7, 0));
+        assertTrue(box.toPolygonWkt().startsWith("POLYGON((175."), box.toPolygonWkt());
+    }
+
+    @Test
+    void around_ReachingAPoleSpansAllLongitudesAndHasNoPolygon() {
+        GeoBoundingBox box = GeoBoundingBox.around(89.5, 10, 100);
+
+        assertTrue(box.coversAllLongitudes());
+        assertEquals(90, box.getMaxLatitude());
+        assertNull(box.toPolygonWkt());
+    }
+
+    @Test
+    void toPolygonWkt_IsLongitudeFirstClosedRing() {
+        GeoBoundingBox box = GeoBoundingBox.around(40.7128, -74.0060, 10);
+        String[] corners = box.toPolygonWkt().replace("POLYGON((", "").replace("))", "").split(", ");
+
+        assertEquals(5, corners.length);
+        assertEquals(corners[0], corners[4]);
+        assertTrue(Double.parseDouble(corners[0].split(" ")[0]) < -74);
+        assertTrue(Double.parseDouble(corners[0].split(" ")[1]) < 40.7128);
+        assertEquals("POINT(-74.00600000 40.71280000)", GeoBoundingBox.pointWkt(40.7128, -74.0060));
+    }
+
+    @Test
+    void around_RejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> GeoBoundingBox.around(91, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> GeoBoundingBox.around(0, 0, -1));
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+            * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        return 6371 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,168 @@
+package com.weddingmarketplace.search.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the in-memory vendor geo grid
+ *
+ * @author Wedding Marketplace Team
+ */
+class GeoGridIndexTest {
+
+    @Test
+    void nearest_MatchesALinearScan() {
+        Random random = new Random(11);
+        GeoGridIndex index = new GeoGridIndex(5, 40);
+        List<double[]> vendors = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            double latitude = 40 + random.nextDouble() * 4;
+            double longitude = -75 + random.nextDouble() * 5;
+            long categoryId = random.nextInt(4);
+            float rating = random.nextInt(51) / 10f;
+            index.upsert(id, latitude, longitude, categoryId, rating, PriceBand.BUDGET);
+            vendors.add(new double[] {id, (float) latitude, (float) longitude, categoryId, rating});
+        }
+
+        for (int i = 0; i < 200; i++) {
+            double latitude = 39.5 + random.nextDouble() * 5;
+            double longitude = -75.5 + random.nextDouble() * 6;
+            int k = 1 + random.nextInt(30);
+            double radiusKm = i % 2 == 0 ? Double.POSITIVE_INFINITY : random.nextDouble() * 60;
+            GeoFilter filter = i % 3 == 0 ? new GeoFilter(2L, 3.5f, null) : GeoFilter.NONE;
+
+            List<Long> expected = vendors.stream()
+                .filter(v -> filter.test((long) v[3], (float) v[4], PriceBand.BUDGET))
+                .filter(v -> GeoGridIndex.haversineKm(latitude, longitude, v[1], v[2]) <= radiusKm)
+                .sorted(Comparator.comparingDouble(v -> GeoGridIndex.haversineKm(latitude, longitude, v[1], v[2])))
+                .limit(k)
+                .map(v -> (long) v[0])
+                .collect(Collectors.toList());
+
+            assertEquals(expected, ids(index.nearest(latitude, longitude, k, radiusKm, filter)));
+        }
+    }
+
+    @Test
+    void nearest_ExpandsAcrossTheAntimeridian() {
+        GeoGridIndex index = new GeoGridIndex(5, 40);
+        index.upsert(1L, -17.70, -179.99, 1L, 4f, PriceBand.MODERATE);
+        index.upsert(2L, -17.70, 178.00, 1L, 4f, PriceBand.MODERATE);
+
+        List<GeoGridIndex.Hit> hits = index.nearest(-17.70, 179.99, 2, 50, GeoFilter.NONE);
+
+        assertEquals(List.of(1L), ids(hits));
+        assertEquals(2.1, hits.get(0).getDistanceKm(), 0.1);
+    }
+
+    @Test
+    void nearest_FiltersOnPriceBand() {
+        GeoGridIndex index = new GeoGridIndex(5, 40);
+        index.upsert(1L, 51.50, -0.12, 1L, 4f, PriceBand.LUXURY);
+        index.upsert(2L, 51.51, -0.12, 1L, 4f, PriceBand.MODERATE);
+        index.upsert(3L, 51.52, -0.12, 1L, 4f, PriceBand.UNKNOWN);
+
+        List<GeoGridIndex.Hit> hits = index.nearest(51.50, -0.12, 10, 10,
+            new GeoFilter(null, null, (int) PriceBand.MID_RANGE));
+
+        assertEquals(List.of(2L), ids(hits));
+    }
+
+    @Test
+    void upsertAndRemove_KeepTheGridCurrent() {
+        GeoGridIndex index = new GeoGridIndex(5, 40);
+        index.upsert(1L, 48.85, 2.35, 1L, 4f, PriceBand.BUDGET);
+        index.upsert(2L, 48.86, 2.35, 1L, 4f, PriceBand.BUDGET);
+
+        // Moving a vendor to another city takes it out of its old cell
+        index.upsert(1L, 45.76, 4.83, 1L, 4f, PriceBand.BUDGET);
+        assertEquals(2, index.size());
+        assertEquals(List.of(2L), ids(index.nearest(48.85, 2.35, 10, 20, GeoFilter.NONE)));
+        assertEquals(List.of(1L), ids(index.nearest(45.76, 4.83, 10, 20, GeoFilter.NONE)));
+
+        assertTrue(index.remove(2L));
+        assertFalse(index.remove(2L));
+        assertEquals(1, index.size());
+        assertTrue(index.nearest(48.85, 2.35, 10, 20, GeoFilter.NONE).isEmpty());
+    }
+
+    @Test
+    void nearest_HandlesEmptyAndOversizedRequests() {
+        GeoGridIndex index = new GeoGridIndex(5, 40);
+        assertTrue(index.nearest(0, 0, 10, 100, GeoFilter.NONE).isEmpty());
+
+        index.upsert(1L, 0.01, 0.01, 1L, 4f, PriceBand.BUDGET);
+        assertEquals(List.of(1L), ids(index.nearest(0, 0, Integer.MAX_VALUE, 100, null)));
+        assertTrue(index.nearest(0, 0, 0, 100, GeoFilter.NONE).isEmpty());
+    }
+
+    @Test
+    void geohash_MatchesTheReferenceEncoding() {
+        assertEquals("u4pruydqqvj", GeoGridIndex.geohash(57.64911, 10.40744, 11));
+        assertEquals("ezs42", GeoGridIndex.geohash(42.6, -5.6, 5));
+    }
+
+    @Test
+    void cellCentre_LiesInTheSameCell() {
+        double[] centre = GeoGridIndex.cellCentre(57.64911, 10.40744, 6);
+
+        assertEquals(GeoGridIndex.geohash(57.64911, 10.40744, 6), GeoGridIndex.geohash(centre[0], centre[1], 6));
+    }
+
+    @Test
+    void constructor_RejectsUnsupportedPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new GeoGridIndex(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GeoGridIndex(9, 10));
+    }
+
+    @Test
+    void builder_LoadsTheSameGridAsUpserts() {
+        Random random = new Random(5);
+        GeoGridIndex upserted = new GeoGridIndex(5, 40);
+        GeoGridIndex.Builder builder = GeoGridIndex.builder(5, 40);
+        for (long id = 1; id <= 2_000; id++) {
+            double latitude = 40 + random.nextDouble();
+            double longitude = -75 + random.nextDouble();
+            upserted.upsert(id, latitude, longitude, 1L, 4f, PriceBand.BUDGET);
+            builder.add(id, latitude, longitude, 1L, 4f, PriceBand.BUDGET);
+        }
+        GeoGridIndex built = builder.build();
+
+        assertEquals(upserted.size(), built.size());
+        assertEquals(upserted.nearest(40.5, -74.5, 50, 30, GeoFilter.NONE),
+            built.nearest(40.5, -74.5, 50, 30, GeoFilter.NONE));
+
+        // A built grid takes incremental updates like any other
+        assertTrue(built.remove(1L));
+        built.upsert(2L, 40.5, -74.5, 1L, 4f, PriceBand.BUDGET);
+        assertEquals(1_999, built.size());
+        assertEquals(2L, built.nearest(40.5, -74.5, 1, 1, GeoFilter.NONE).get(0).getVendorId());
+        assertThrows(IllegalArgumentException.class, () -> GeoGridIndex.builder(5, 40)
+            .add(1L, 0, 0, 1L, 4f, PriceBand.BUDGET)
+            .add(1L, 1, 1, 1L, 4f, PriceBand.BUDGET));
+    }
+
+    @Test
+    void coverageKm_BoundsWhatTheRingLimitReaches() {
+        GeoGridIndex index = new GeoGridIndex(5, 2);
+        index.upsert(1L, 40.0, -75.0, 1L, 4f, PriceBand.BUDGET);
+
+        // Two rings of 4.9 km cells reach at least one full cell, but not 100 km
+        double coverage = index.coverageKm(40.0, -75.3);
+        assertTrue(coverage >= 4.0 && coverage < 20, "coverage " + coverage);
+        assertTrue(index.nearest(40.0, -75.3, 1, 100, GeoFilter.NONE).isEmpty());
+
+        assertEquals(Double.POSITIVE_INFINITY, new GeoGridIndex(1, 40).coverageKm(40.0, -75.3));
+    }
+
+    private static List<Long> ids(List<GeoGridIndex.Hit> hits) {
+        return hits.stream().map(GeoGridIndex.Hit::getVendorId).collect(Collectors.toList());
+    }
+}
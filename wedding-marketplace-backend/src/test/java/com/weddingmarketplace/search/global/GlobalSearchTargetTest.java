@@ -0,0 +1,71 @@
+package com.weddingmarketplace.search.global;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for global search targets and grouped results
+ *
+ * @author Wedding Marketplace Team
+ */
+class GlobalSearchTargetTest {
+
+    @Test
+    void resolve_AllOrMissingTypeSearchesEveryIndex() {
+        assertEquals(EnumSet.allOf(GlobalSearchTarget.class), GlobalSearchTarget.resolve(null));
+        assertEquals(EnumSet.allOf(GlobalSearchTarget.class), GlobalSearchTarget.resolve(" ALL "));
+    }
+
+    @Test
+    void resolve_AcceptsSingularAndPluralAndFallsBackToVendors() {
+        assertEquals(EnumSet.of(GlobalSearchTarget.USERS), GlobalSearchTarget.resolve("user"));
+        assertEquals(EnumSet.of(GlobalSearchTarget.BOOKINGS), GlobalSearchTarget.resolve("Bookings"));
+        assertEquals(EnumSet.of(GlobalSearchTarget.VENDORS), GlobalSearchTarget.resolve("payments"));
+    }
+
+    @Test
+    void sourceFields_NeverExposeUserContactDetails() {
+        List<String> userFields = List.of(GlobalSearchTarget.USERS.sourceFields());
+
+        assertFalse(userFields.contains("email"));
+        assertFalse(userFields.contains("phone"));
+        assertTrue(userFields.contains("id"));
+    }
+
+    @Test
+    void result_IsPartialWhenAnyGroupTimedOutOrFailed() {
+        GlobalSearchResult result = new GlobalSearchResult();
+        result.getGroups().put("vendors", new GlobalSearchResult.Group());
+        assertFalse(result.isPartial());
+
+        GlobalSearchResult.Group users = new GlobalSearchResult.Group();
+        users.setTimedOut(true);
+        result.getGroups().put("users", users);
+        assertTrue(result.isPartial());
+
+        GlobalSearchResult failed = new GlobalSearchResult();
+        GlobalSearchResult.Group bookings = new GlobalSearchResult.Group();
+        bookings.setError("index_not_found_exception");
+        failed.setGroups(Map.of("bookings", bookings));
+        assertTrue(failed.isPartial());
+    }
+
+    @Test
+    void asCached_FlagsACopyAndLeavesTheCachedInstanceAlone() {
+        GlobalSearchResult result = new GlobalSearchResult();
+        result.setQuery("florist");
+        result.getGroups().put("vendors", new GlobalSearchResult.Group());
+
+        GlobalSearchResult served = result.asCached();
+
+        assertTrue(served.isCached());
+        assertFalse(result.isCached());
+        assertEquals("florist", served.getQuery());
+        assertEquals(result.getGroups(), served.getGroups());
+    }
+}
@@ -0,0 +1,56 @@
+package com.weddingmarketplace.search.hybrid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for reciprocal-rank fusion of retrieval legs
+ *
+ * @author Wedding Marketplace Team
+ */
+class ReciprocalRankFusionTest {
+
+    @Test
+    void fuse_RanksIdsFoundByBothLegsFirst() {
+        List<Long> keyword = List.of(1L, 2L, 3L);
+        List<Long> vector = List.of(4L, 3L, 2L);
+
+        List<ReciprocalRankFusion.Fused> fused = ReciprocalRankFusion.fuse(List.of(keyword, vector), 60);
+
+        // 2 and 3 are in both legs with mirrored ranks, so they tie and the lower id goes first
+        assertEquals(List.of(2L, 3L, 1L, 4L), ids(fused));
+        assertEquals(1.0 / 62 + 1.0 / 63, fused.get(0).getScore(), 1e-12);
+        assertEquals(1.0 / 61, fused.get(2).getScore(), 1e-12);
+    }
+
+    @Test
+    void fuse_SingleLegKeepsItsOrder() {
+        List<ReciprocalRankFusion.Fused> fused = ReciprocalRankFusion.fuse(List.of(List.of(9L, 5L, 7L)), 60);
+
+        assertEquals(List.of(9L, 5L, 7L), ids(fused));
+    }
+
+    @Test
+    void fuse_IgnoresMissingLegsNullsAndDuplicates() {
+        List<ReciprocalRankFusion.Fused> fused = ReciprocalRankFusion.fuse(
+            Arrays.asList(null, Arrays.asList(5L, null, 5L, 6L)), 60);
+
+        assertEquals(List.of(5L, 6L), ids(fused));
+        assertEquals(1.0 / 62, fused.get(1).getScore(), 1e-12);
+        assertTrue(ReciprocalRankFusion.fuse(List.of(), 60).isEmpty());
+    }
+
+    @Test
+    void fuse_RejectsNonPositiveK() {
+        assertThrows(IllegalArgumentException.class, () -> ReciprocalRankFusion.fuse(List.of(List.of(1L)), 0));
+    }
+
+    private static List<Long> ids(List<ReciprocalRankFusion.Fused> fused) {
+        return fused.stream().map(ReciprocalRankFusion.Fused::getId).collect(Collectors.toList());
+    }
+}
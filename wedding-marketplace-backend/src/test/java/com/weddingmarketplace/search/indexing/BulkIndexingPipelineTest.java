@@ -0,0 +1,277 @@
+package com.weddingmarketplace.search.indexing;
+
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.repository.VendorRepository;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.GetAliasesResponse;
+import org.elasticsearch.client.IndicesClient;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.GetMappingsRequest;
+import org.elasticsearch.client.indices.GetMappingsResponse;
+import org.elasticsearch.cluster.metadata.AliasMetadata;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for bulk indexing: flush thresholds, retry of rejected items and keyset
+ * paging through a reindex
+ *
+ * @author Wedding Marketplace Team
+ */
+@ExtendWith(MockitoExtension.class)
+class BulkIndexingPipelineTest {
+
+    private static final Function<Vendor, Map<String, Object>> DOCUMENTS =
+        vendor -> Map.of("businessName", "Studio " + vendor.getId());
+
+    @Mock
+    private RestHighLevelClient elasticsearchClient;
+
+    @Mock
+    private VendorRepository vendorRepository;
+
+    @Mock
+    private IndicesClient indicesClient;
+
+    // Bulk requests as the cluster received them, retries included
+    private final List<BulkRequest> bulks = Collections.synchronizedList(new ArrayList<>());
+
+    // Item outcomes, built up front because answers must not stub
+    private BulkItemResponse created;
+    private BulkItemResponse rejected;
+    private BulkItemResponse invalid;
+
+    private BulkIndexingPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        created = item(false, null);
+        rejected = item(true, new EsRejectedExecutionException("write queue full"));
+        invalid = item(true, new IllegalArgumentException("mapper_parsing_exception"));
+
+        pipeline = new BulkIndexingPipeline(elasticsearchClient, vendorRepository);
+        ReflectionTestUtils.setField(pipeline, "bulkActions", 2);
+        ReflectionTestUtils.setField(pipeline, "bulkSizeMb", 5);
+        // Only the action count and close flush
+        ReflectionTestUtils.setField(pipeline, "flushInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(pipeline, "concurrentRequests", 1);
+        ReflectionTestUtils.setField(pipeline, "backoffInitialDelay", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(pipeline, "backoffMaxRetries", 3);
+        ReflectionTestUtils.setField(pipeline, "pageSize", 2);
+        ReflectionTestUtils.setField(pipeline, "replicas", 1);
+        ReflectionTestUtils.setField(pipeline, "closeTimeout", Duration.ofSeconds(10));
+    }
+
+    @Test
+    void indexVendors_FlushesEveryBulkActionsAndTheRemainderOnClose() {
+        // Given
+        respond(request -> succeeded(request.numberOfActions()));
+
+        // When
+        IndexingReport report = pipeline.indexVendors("vendors", vendors(1, 5), DOCUMENTS);
+
+        // Then
+        assertEquals(List.of(List.of("1", "2"), List.of("3", "4"), List.of("5")), bulkIds());
+        assertEquals(5, report.getDocumentsIndexed());
+        assertEquals(0, report.getDocumentsFailed());
+    }
+
+    @Test
+    void indexVendors_RetriesOnlyTheItemsRejectedWith429() {
+        // Given
+        List<Integer> attempts = Collections.synchronizedList(new ArrayList<>());
+        respond(request -> {
+            attempts.add(request.numberOfActions());
+            return attempts.size() == 1
+                ? response(created, rejected)
+                : succeeded(request.numberOfActions());
+        });
+
+        // When
+        IndexingReport report = pipeline.indexVendors("vendors", vendors(1, 2), DOCUMENTS);
+
+        // Then
+        assertEquals(List.of(List.of("1", "2"), List.of("2")), bulkIds());
+        assertEquals(2, report.getDocumentsIndexed());
+        assertEquals(0, report.getDocumentsFailed());
+    }
+
+    @Test
+    void indexVendors_CountsItemsThatCannotBeRetriedAsFailed() {
+        // Given
+        respond(request -> response(created, invalid));
+
+        // When
+        IndexingReport report = pipeline.indexVendors("vendors", vendors(1, 2), DOCUMENTS);
+
+        // Then
+        assertEquals(1, bulks.size());
+        assertEquals(1, report.getDocumentsIndexed());
+        assertEquals(1, report.getDocumentsFailed());
+    }
+
+    @Test
+    void reindexVendors_PagesByKeysetAndSwapsTheAlias() throws Exception {
+        // Given
+        respond(request -> succeeded(request.numberOfActions()));
+        existingIndex("vendors_v1");
+        when(vendorRepository.count()).thenReturn(3L);
+        when(vendorRepository.findIndexingPage(eq(0L), isNull(), any())).thenReturn(vendors(1, 2));
+        when(vendorRepository.findIndexingPage(eq(2L), isNull(), any())).thenReturn(vendors(3, 3));
+        when(vendorRepository.findIndexingPage(eq(3L), isNull(), any())).thenReturn(List.of());
+        when(vendorRepository.findChangedPage(anyLong(), any(), any())).thenReturn(List.of());
+
+        // When
+        IndexingReport report = pipeline.reindexVendors("vendors", DOCUMENTS);
+
+        // Then
+        InOrder pages = inOrder(vendorRepository);
+        pages.verify(vendorRepository).findIndexingPage(0L, null, PageRequest.of(0, 2));
+        pages.verify(vendorRepository).findIndexingPage(2L, null, PageRequest.of(0, 2));
+        pages.verify(vendorRepository).findIndexingPage(3L, null, PageRequest.of(0, 2));
+        assertEquals(List.of(List.of("1", "2"), List.of("3")), bulkIds());
+        assertEquals(3, report.getDocumentsIndexed());
+
+        String newIndex = report.getIndexName();
+        assertTrue(newIndex.startsWith("vendors_v"));
+        assertTrue(bulks.stream().flatMap(bulk -> bulk.requests().stream()).allMatch(item -> newIndex.equals(item.index())));
+        ArgumentCaptor<IndicesAliasesRequest> aliases = ArgumentCaptor.forClass(IndicesAliasesRequest.class);
+        verify(indicesClient).updateAliases(aliases.capture(), any());
+        List<AliasActions> actions = aliases.getValue().getAliasActions();
+        assertEquals(AliasActions.Type.REMOVE, actions.get(0).actionType());
+        assertArrayEquals(new String[]{"vendors_v1"}, actions.get(0).indices());
+        assertEquals(AliasActions.Type.ADD, actions.get(1).actionType());
+        assertArrayEquals(new String[]{newIndex}, actions.get(1).indices());
+    }
+
+    @Test
+    void reindexVendors_CatchesUpOnChangesUntilAPassFindsNothingNew() throws Exception {
+        // Given
+        respond(request -> succeeded(request.numberOfActions()));
+        existingIndex("vendors_v1");
+        LocalDateTime editedAt = LocalDateTime.now();
+        Vendor edited = vendor(2);
+        edited.setUpdatedAt(editedAt);
+        Vendor deleted = vendor(3);
+        deleted.setUpdatedAt(editedAt);
+        deleted.setDeleted(true);
+        when(vendorRepository.count()).thenReturn(3L);
+        when(vendorRepository.findIndexingPage(eq(0L), isNull(), any())).thenReturn(vendors(1, 2));
+        when(vendorRepository.findIndexingPage(eq(2L), isNull(), any())).thenReturn(vendors(3, 3));
+        when(vendorRepository.findIndexingPage(eq(3L), isNull(), any())).thenReturn(List.of());
+        // Every pass sees the same versions; only the first may write them
+        when(vendorRepository.findChangedPage(eq(0L), any(), any())).thenReturn(List.of(edited, deleted));
+        when(vendorRepository.findChangedPage(eq(3L), any(), any())).thenReturn(List.of());
+
+        // When
+        pipeline.reindexVendors("vendors", DOCUMENTS);
+
+        // Then
+        assertEquals(List.of(List.of("1", "2"), List.of("3"), List.of("2", "3")), bulkIds());
+        List<DocWriteRequest<?>> catchUp = bulks.get(2).requests();
+        assertEquals(DocWriteRequest.OpType.INDEX, catchUp.get(0).opType());
+        assertEquals(DocWriteRequest.OpType.DELETE, catchUp.get(1).opType());
+        // Two catch-up passes and the pass after the swap
+        verify(vendorRepository, times(3)).findChangedPage(eq(0L), any(), any());
+    }
+
+    private void respond(Function<BulkRequest, BulkResponse> cluster) {
+        when(elasticsearchClient.bulkAsync(any(BulkRequest.class), any(RequestOptions.class), any())).thenAnswer(invocation -> {
+            BulkRequest request = invocation.getArgument(0);
+            ActionListener<BulkResponse> listener = invocation.getArgument(2);
+            bulks.add(request);
+            listener.onResponse(cluster.apply(request));
+            return null;
+        });
+    }
+
+    private void existingIndex(String indexName) throws Exception {
+        when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        GetAliasesResponse aliases = mock(GetAliasesResponse.class);
+        when(aliases.getAliases()).thenReturn(Map.of(indexName, Set.<AliasMetadata>of()));
+        when(indicesClient.getAlias(any(GetAliasesRequest.class), any())).thenReturn(aliases);
+        GetMappingsResponse mappings = mock(GetMappingsResponse.class);
+        when(mappings.mappings()).thenReturn(Map.of());
+        when(indicesClient.getMapping(any(GetMappingsRequest.class), any())).thenReturn(mappings);
+    }
+
+    private List<List<String>> bulkIds() {
+        synchronized (bulks) {
+            return bulks.stream()
+                .map(bulk -> bulk.requests().stream().map(DocWriteRequest::id).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private BulkResponse succeeded(int items) {
+        BulkItemResponse[] responses = new BulkItemResponse[items];
+        Arrays.fill(responses, created);
+        return new BulkResponse(responses, 1L);
+    }
+
+    private static BulkResponse response(BulkItemResponse... items) {
+        return new BulkResponse(items, 1L);
+    }
+
+    private static BulkItemResponse item(boolean failed, Exception cause) {
+        BulkItemResponse item = mock(BulkItemResponse.class, withSettings().strictness(Strictness.LENIENT));
+        when(item.isFailed()).thenReturn(failed);
+        if (failed) {
+            RestStatus status = cause instanceof EsRejectedExecutionException ? RestStatus.TOO_MANY_REQUESTS : RestStatus.BAD_REQUEST;
+            BulkItemResponse.Failure failure = mock(BulkItemResponse.Failure.class, withSettings().strictness(Strictness.LENIENT));
+            when(failure.getCause()).thenReturn(cause);
+            when(failure.getStatus()).thenReturn(status);
+            when(item.getFailure()).thenReturn(failure);
+            when(item.status()).thenReturn(status);
+            when(item.getFailureMessage()).thenReturn(cause.getMessage());
+        } else {
+            when(item.status()).thenReturn(RestStatus.CREATED);
+        }
+        return item;
+    }
+
+    private static List<Vendor> vendors(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId).mapToObj(BulkIndexingPipelineTest::vendor).collect(Collectors.toList());
+    }
+
+    private static Vendor vendor(long id) {
+        Vendor vendor = new Vendor();
+        vendor.setId(id);
+        vendor.setDeleted(false);
+        return vendor;
+    }
+}
@@ -0,0 +1,75 @@
+package com.weddingmarketplace.search.indexing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the outbox SQL against MySQL: versions bump on every further change and an
+ * acknowledgement only removes the row while its version is unchanged
+ *
+ * @author Wedding Marketplace Team
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SearchIndexOutbox.class)
+@Testcontainers(disabledWithoutDocker = true)
+class SearchIndexOutboxJdbcTest {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @Autowired
+    private SearchIndexOutbox searchIndexOutbox;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM search_index_outbox");
+    }
+
+    @Test
+    void record_BumpsTheVersionOfAPendingVendor() {
+        searchIndexOutbox.record(1L);
+        searchIndexOutbox.record(1L);
+        searchIndexOutbox.record(2L);
+
+        assertEquals(Map.of(1L, 2L, 2L, 1L), searchIndexOutbox.versions(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void acknowledge_KeepsRowsChangedAfterTheirVersionWasRead() {
+        searchIndexOutbox.record(1L);
+        searchIndexOutbox.record(2L);
+        Map<Long, Long> read = searchIndexOutbox.versions(List.of(1L, 2L));
+        // Vendor 2 changes again while its document is being indexed
+        searchIndexOutbox.record(2L);
+
+        searchIndexOutbox.acknowledge(read);
+
+        assertEquals(Map.of(2L, 2L), searchIndexOutbox.versions(List.of(1L, 2L)));
+    }
+}
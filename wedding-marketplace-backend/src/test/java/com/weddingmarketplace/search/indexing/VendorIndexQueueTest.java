@@ -0,0 +1,238 @@
+package com.weddingmarketplace.search.indexing;
+
+import com.weddingmarketplace.analytics.rollup.VendorStatsRollup;
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.search.availability.VendorAvailabilityIndex;
+import com.weddingmarketplace.search.geo.VendorGeoIndex;
+import com.weddingmarketplace.search.vector.VendorVectorIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for coalescing vendor index updates, acknowledging them in the outbox and
+ * relaying the ones that were never delivered
+ *
+ * @author Wedding Marketplace Team
+ */
+@ExtendWith(MockitoExtension.class)
+class VendorIndexQueueTest {
+
+    @Mock
+    private RestHighLevelClient elasticsearchClient;
+
+    @Mock
+    private VendorRepository vendorRepository;
+
+    @Mock
+    private VendorDocumentBuilder vendorDocumentBuilder;
+
+    @Mock
+    private SearchIndexOutbox searchIndexOutbox;
+
+    @Mock
+    private VendorVectorIndex vendorVectorIndex;
+
+    @Mock
+    private VendorGeoIndex vendorGeoIndex;
+
+    @Mock
+    private VendorAvailabilityIndex vendorAvailabilityIndex;
+
+    @Mock
+    private VendorStatsRollup vendorStatsRollup;
+
+    private VendorIndexQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        // Runs flushes inline
+        queue = new VendorIndexQueue(elasticsearchClient, vendorRepository, vendorDocumentBuilder, searchIndexOutbox,
+            vendorVectorIndex, vendorGeoIndex, vendorAvailabilityIndex, vendorStatsRollup, Runnable::run,
+            new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(queue, "batchSize", 10);
+        ReflectionTestUtils.setField(queue, "relayDelay", Duration.ofSeconds(30));
+        queue.registerMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void enqueue_RepeatedUpdatesToAVendor_IndexOneDocument() throws IOException {
+        // Given
+        stubVendors();
+        when(searchIndexOutbox.versions(any())).thenReturn(Map.of(1L, 3L, 2L, 1L));
+        BulkResponse delivered = response(false, false);
+        when(elasticsearchClient.bulk(any(BulkRequest.class), any(RequestOptions.class))).thenReturn(delivered);
+
+        // When
+        queue.enqueue(1L);
+        queue.enqueue(1L);
+        queue.enqueue(1L);
+        queue.enqueue(2L);
+        queue.scheduledFlush();
+
+        // Then
+        verify(searchIndexOutbox, times(3)).record(1L);
+        assertEquals(List.of(List.of("1", "2")), bulkIds(1));
+        verify(searchIndexOutbox).acknowledge(Map.of(1L, 3L, 2L, 1L));
+    }
+
+    @Test
+    void enqueue_InsideATransaction_QueuesOnlyAfterCommit() throws IOException {
+        // Given
+        stubVendors();
+        when(searchIndexOutbox.versions(any())).thenReturn(Map.of(1L, 1L));
+        BulkResponse delivered = response(false);
+        when(elasticsearchClient.bulk(any(BulkRequest.class), any(RequestOptions.class))).thenReturn(delivered);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        queue.enqueue(1L);
+        queue.scheduledFlush();
+
+        // Then
+        verify(searchIndexOutbox).record(1L);
+        verify(elasticsearchClient, never()).bulk(any(BulkRequest.class), any(RequestOptions.class));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        queue.scheduledFlush();
+        assertEquals(List.of(List.of("1")), bulkIds(1));
+    }
+
+    @Test
+    void flush_AcknowledgesOnlyTheVersionsReadBeforeDelivery() throws IOException {
+        // Given
+        stubVendors();
+        when(searchIndexOutbox.versions(any()))
+            .thenReturn(new HashMap<>(Map.of(1L, 3L, 2L, 1L)))
+            .thenReturn(new HashMap<>(Map.of(2L, 2L)));
+        // Vendor 2 is rejected the first time
+        BulkResponse rejected = response(false, true);
+        BulkResponse delivered = response(false);
+        when(elasticsearchClient.bulk(any(BulkRequest.class), any(RequestOptions.class)))
+            .thenReturn(rejected)
+            .thenReturn(delivered);
+
+        // When
+        queue.enqueue(1L);
+        queue.enqueue(2L);
+        queue.scheduledFlush();
+        queue.scheduledFlush();
+
+        // Then
+        assertEquals(List.of(List.of("1", "2"), List.of("2")), bulkIds(2));
+        verify(searchIndexOutbox).acknowledge(Map.of(1L, 3L));
+        // The version re-read with the retry, not the one read before the rejection
+        verify(searchIndexOutbox).acknowledge(Map.of(2L, 2L));
+    }
+
+    @Test
+    void flush_WhenTheBulkRequestFails_KeepsTheOutboxRowsAndRetries() throws IOException {
+        // Given
+        stubVendors();
+        when(searchIndexOutbox.versions(any())).thenReturn(Map.of(1L, 1L));
+        BulkResponse delivered = response(false);
+        when(elasticsearchClient.bulk(any(BulkRequest.class), any(RequestOptions.class)))
+            .thenThrow(new IOException("connection refused"))
+            .thenReturn(delivered);
+
+        // When
+        queue.enqueue(1L);
+        queue.scheduledFlush();
+
+        // Then
+        verify(searchIndexOutbox, never()).acknowledge(any());
+        assertEquals(1, ((Map<?, ?>) ReflectionTestUtils.getField(queue, "pending")).size());
+
+        queue.scheduledFlush();
+        assertEquals(List.of(List.of("1"), List.of("1")), bulkIds(2));
+        verify(searchIndexOutbox).acknowledge(Map.of(1L, 1L));
+    }
+
+    @Test
+    void relayStaleOutboxEntries_RequeuesUndeliveredVendors() throws IOException {
+        // Given
+        stubVendors();
+        when(searchIndexOutbox.pending(Duration.ofSeconds(30), 100)).thenReturn(List.of(7L, 8L));
+        when(searchIndexOutbox.versions(any())).thenReturn(Map.of(7L, 1L, 8L, 4L));
+        BulkResponse delivered = response(false, false);
+        when(elasticsearchClient.bulk(any(BulkRequest.class), any(RequestOptions.class))).thenReturn(delivered);
+
+        // When
+        queue.relayStaleOutboxEntries();
+
+        // Then
+        assertEquals(List.of(List.of("7", "8")), bulkIds(1));
+        verify(searchIndexOutbox).acknowledge(Map.of(7L, 1L, 8L, 4L));
+        verifyNoInteractions(vendorVectorIndex, vendorGeoIndex, vendorAvailabilityIndex, vendorStatsRollup);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubVendors() {
+        when(vendorRepository.findAllById(any())).thenAnswer(invocation -> ((Collection<Long>) invocation.getArgument(0))
+            .stream()
+            .map(VendorIndexQueueTest::vendor)
+            .collect(Collectors.toList()));
+        when(vendorDocumentBuilder.build(any())).thenAnswer(invocation ->
+            Map.of("businessName", "Studio " + ((Vendor) invocation.getArgument(0)).getId()));
+    }
+
+    private List<List<String>> bulkIds(int bulks) throws IOException {
+        ArgumentCaptor<BulkRequest> requests = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(elasticsearchClient, times(bulks)).bulk(requests.capture(), any(RequestOptions.class));
+        return requests.getAllValues().stream()
+            .map(request -> request.requests().stream().map(DocWriteRequest::id).sorted().collect(Collectors.toList()))
+            .collect(Collectors.toList());
+    }
+
+    private static BulkResponse response(boolean... failed) {
+        BulkItemResponse[] items = new BulkItemResponse[failed.length];
+        for (int i = 0; i < failed.length; i++) {
+            items[i] = mock(BulkItemResponse.class, withSettings().strictness(Strictness.LENIENT));
+            when(items[i].isFailed()).thenReturn(failed[i]);
+            when(items[i].getFailureMessage()).thenReturn(failed[i] ? "es_rejected_execution_exception" : null);
+        }
+        return new BulkResponse(items, 1L);
+    }
+
+    private static Vendor vendor(Long id) {
+        Vendor vendor = new Vendor();
+        vendor.setId(id);
+        vendor.setDeleted(false);
+        return vendor;
+    }
+}
@@ -0,0 +1,65 @@
+package com.weddingmarketplace.search.paging;
+
+import com.weddingmarketplace.exception.BadRequestException;
+import com.weddingmarketplace.model.entity.Vendor;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for cursor tokens and the keyset values they carry
+ *
+ * @author Wedding Marketplace Team
+ */
+class SearchCursorTest {
+
+    @Test
+    void decode_RoundTripsSortValuesAndPointInTime() {
+        SearchCursor cursor = new SearchCursor("scope-1", Arrays.asList(4.5, "4.50", null, 1_700_000_000_000L, 42), "pit==");
+
+        String token = cursor.encode();
+        SearchCursor decoded = SearchCursor.decode(token, "scope-1");
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+        assertEquals(Arrays.asList(4.5, "4.50", null, 1_700_000_000_000L, 42), decoded.getAfter());
+        assertEquals("pit==", decoded.getPointInTimeId());
+    }
+
+    @Test
+    void decode_RejectsCursorOfAnotherSearch() {
+        String token = new SearchCursor("scope-1", List.of("4.50", 42), null).encode();
+
+        assertThrows(BadRequestException.class, () -> SearchCursor.decode(token, "scope-2"));
+    }
+
+    @Test
+    void decode_RejectsGarbage() {
+        assertThrows(BadRequestException.class, () -> SearchCursor.decode("not a cursor", "scope-1"));
+        assertThrows(BadRequestException.class, () -> SearchCursor.decode("e30", "scope-1"));
+        assertThrows(BadRequestException.class, () -> SearchCursor.decode(null, "scope-1"));
+    }
+
+    @Test
+    void keyset_OrdersBySortKeyThenId() {
+        assertEquals(Sort.by(Sort.Direction.ASC, "priceRangeMin", "id"), VendorKeyset.of("price", "asc").sort());
+        // No relevance score in the database: falls back to best rated first
+        assertEquals(Sort.by(Sort.Direction.DESC, "averageRating", "id"), VendorKeyset.of("relevance", "asc").sort());
+    }
+
+    @Test
+    void keyset_ValuesKeepDecimalScaleAndNulls() {
+        Vendor rated = new Vendor();
+        rated.setId(7L);
+        rated.setAverageRating(new BigDecimal("4.50"));
+        Vendor unpriced = new Vendor();
+        unpriced.setId(8L);
+
+        assertEquals(Arrays.asList("4.50", 7L), VendorKeyset.of("rating", "desc").valuesOf(rated));
+        assertEquals(Arrays.asList(null, 8L), VendorKeyset.of("price", "asc").valuesOf(unpriced));
+    }
+}
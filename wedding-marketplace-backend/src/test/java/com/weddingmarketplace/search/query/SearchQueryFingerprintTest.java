@@ -0,0 +1,99 @@
+package com.weddingmarketplace.search.query;
+
+import com.weddingmarketplace.model.dto.request.VendorSearchRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for canonical vendor search fingerprints
+ *
+ * @author Wedding Marketplace Team
+ */
+class SearchQueryFingerprintTest {
+
+    @Test
+    void fingerprint_IgnoresListOrderCaseAndDecimalFormatting() {
+        VendorSearchRequest first = VendorSearchRequest.builder()
+            .keyword("  Wedding   Photography ")
+            .city("New York")
+            .minPrice(new BigDecimal("1000.00"))
+            .services(List.of("Drone", "album"))
+            .customFilters(Map.of("style", "candid", "hours", 8))
+            .build();
+        VendorSearchRequest second = VendorSearchRequest.builder()
+            .keyword("wedding photography")
+            .city("new york")
+            .minPrice(new BigDecimal("1E+3"))
+            .services(List.of("album", "drone", "ALBUM"))
+            .customFilters(Map.of("hours", 8, "style", "Candid"))
+            .build();
+
+        assertEquals(SearchQueryFingerprint.of(first), SearchQueryFingerprint.of(second));
+    }
+
+    @Test
+    void fingerprint_DistinguishesFieldsTheOldKeyIgnored() {
+        String base = SearchQueryFingerprint.of(nearTimesSquare().build());
+
+        assertNotEquals(base, SearchQueryFingerprint.of(nearTimesSquare().radius(25.0).build()));
+        assertNotEquals(base, SearchQueryFingerprint.of(nearTimesSquare().maxRating(BigDecimal.ONE).build()));
+        assertNotEquals(base, SearchQueryFingerprint.of(nearTimesSquare().availableDates(List.of("2026-06-01")).build()));
+    }
+
+    @Test
+    void fingerprint_SnapsCoordinatesToGridCell() {
+        VendorSearchRequest request = VendorSearchRequest.builder().latitude(40.71281).longitude(-74.00601).build();
+        VendorSearchRequest nearby = VendorSearchRequest.builder().latitude(40.71279).longitude(-74.00599).build();
+        VendorSearchRequest farAway = VendorSearchRequest.builder().latitude(40.7200).longitude(-74.0060).build();
+
+        assertEquals(SearchQueryFingerprint.of(request), SearchQueryFingerprint.of(nearby));
+        assertNotEquals(SearchQueryFingerprint.of(request), SearchQueryFingerprint.of(farAway));
+    }
+
+    @Test
+    void fingerprint_IncludesPageAndIgnoresTelemetry() {
+        VendorSearchRequest request = VendorSearchRequest.builder().keyword("florist").build();
+        VendorSearchRequest tracked = VendorSearchRequest.builder().keyword("florist")
+            .userAgent("Mozilla/5.0").referrer("https://example.com").build();
+
+        assertEquals(SearchQueryFingerprint.of(request, PageRequest.of(0, 20)), SearchQueryFingerprint.of(tracked, PageRequest.of(0, 20)));
+        assertNotEquals(SearchQueryFingerprint.of(request, PageRequest.of(0, 20)), SearchQueryFingerprint.of(request, PageRequest.of(1, 20)));
+        assertEquals(32, SearchQueryFingerprint.of(request).length());
+    }
+
+    @Test
+    void globalFingerprint_NormalizesQueryAndKeysOnQuotasAndPage() {
+        Map<String, Integer> quotas = Map.of("vendors", 10, "users", 5);
+
+        assertEquals(SearchQueryFingerprint.ofGlobal("Rose  Garden", quotas, 0),
+            SearchQueryFingerprint.ofGlobal(" rose garden ", Map.of("users", 5, "vendors", 10), 0));
+        assertNotEquals(SearchQueryFingerprint.ofGlobal("rose garden", quotas, 0),
+            SearchQueryFingerprint.ofGlobal("rose garden", quotas, 1));
+        assertNotEquals(SearchQueryFingerprint.ofGlobal("rose garden", quotas, 0),
+            SearchQueryFingerprint.ofGlobal("rose garden", Map.of("vendors", 10), 0));
+        // Never collides with a vendor search on the same keyword
+        assertNotEquals(SearchQueryFingerprint.of(VendorSearchRequest.builder().keyword("rose garden").build()),
+            SearchQueryFingerprint.ofGlobal("rose garden", Map.of(), 0));
+    }
+
+    private VendorSearchRequest.VendorSearchRequestBuilder nearTimesSquare() {
+        return VendorSearchRequest.builder().latitude(40.7128).longitude(-74.0060).radius(10.0);
+    }
+
+    @Test
+    void hash_MatchesMurmur3x64128ReferenceVectors() {
+        // Published MurmurHash3_x64_128 digests with a zero seed
+        assertEquals("00000000000000000000000000000000", SearchQueryFingerprint.hash(""));
+        assertEquals("cbd8a7b341bd9b025b1e906a48ae1d19", SearchQueryFingerprint.hash("hello"));
+        assertEquals("342fac623a5ebc8e4cdcbc079642414d", SearchQueryFingerprint.hash("hello, world"));
+        assertEquals("b89e5988b737affc664fc2950231b2cb", SearchQueryFingerprint.hash("19 Jan 2038 at 3:14:07 AM"));
+        assertEquals("e34bbc7bbc071b6c7a433ca9c49a9347",
+            SearchQueryFingerprint.hash("The quick brown fox jumps over the lazy dog"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.weddingmarketplace.search.suggest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the immutable completion index
+ *
+ * @author Wedding Marketplace Team
+ */
+class CompletionIndexTest {
+
+    @Test
+    void complete_ReturnsHeaviestFirstWithLexicographicTies() {
+        CompletionIndex index = CompletionIndex.builder()
+            .add("wedding cake", 5)
+            .add("wedding dress", 9)
+            .add("wedding venue", 5)
+            .add("wedding", 1)
+            .add("florist", 7)
+            .build(10);
+
+        assertEquals(List.of("wedding dress", "wedding cake", "wedding venue", "wedding"), texts(index.complete("wed", 10)));
+        assertEquals(List.of("wedding dress", "florist"), texts(index.complete("", 2)));
+        assertEquals(9, index.complete("wedding d", 1).get(0).getWeight());
+    }
+
+    @Test
+    void complete_PrefixEndingInsideAnEdgeLabel() {
+        CompletionIndex index = CompletionIndex.builder()
+            .add("photographer", 3)
+            .add("photo booth", 2)
+            .build(5);
+
+        assertEquals(List.of("photographer", "photo booth"), texts(index.complete("ph", 5)));
+        assertEquals(List.of("photographer"), texts(index.complete("photog", 5)));
+        assertEquals(List.of("photographer"), texts(index.complete("photographer", 5)));
+        assertTrue(index.complete("photographers", 5).isEmpty());
+        assertTrue(index.complete("photx", 5).isEmpty());
+        assertTrue(index.complete("z", 5).isEmpty());
+    }
+
+    @Test
+    void build_SumsRepeatedTermsAndCapsAtTopK() {
+        CompletionIndex index = CompletionIndex.builder()
+            .add("dj", 1)
+            .add("dj", 4)
+            .add("dance floor", 3)
+            .add("decor", 2)
+            .add(null, 100)
+            .add("", 100)
+            .build(2);
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("dj", "dance floor"), texts(index.complete("d", 10)));
+        assertEquals(5, index.complete("dj", 1).get(0).getWeight());
+        assertTrue(index.complete("d", 0).isEmpty());
+    }
+
+    @Test
+    void empty_CompletesNothing() {
+        assertTrue(CompletionIndex.EMPTY.complete("", 10).isEmpty());
+        assertTrue(CompletionIndex.EMPTY.complete("abc", 10).isEmpty());
+        assertEquals(0, CompletionIndex.EMPTY.size());
+    }
+
+    @Test
+    void complete_MatchesBruteForceOnRandomTerms() {
+        Random random = new Random(7);
+        Map<String, Long> weights = new HashMap<>();
+        CompletionIndex.Builder builder = CompletionIndex.builder();
+        for (int i = 0; i < 5000; i++) {
+            // A small alphabet forces deep shared prefixes and many branches
+            int length = 1 + random.nextInt(8);
+            StringBuilder term = new StringBuilder();
+            for (int c = 0; c < length; c++) {
+                term.append((char) ('a' + random.nextInt(4)));
+            }
+            long weight = random.nextInt(50);
+            builder.add(term.toString(), weight);
+            weights.merge(term.toString(), weight, Long::sum);
+        }
+        int topK = 8;
+        CompletionIndex index = builder.build(topK);
+
+        for (int i = 0; i < 500; i++) {
+            String word = weights.keySet().stream().skip(random.nextInt(weights.size())).findFirst().orElseThrow();
+            String prefix = word.substring(0, random.nextInt(word.length() + 1));
+
+            List<String> expected = weights.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(topK)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+            assertEquals(expected, texts(index.complete(prefix, topK)), "prefix '" + prefix + "'");
+        }
+    }
+
+    private static List<String> texts(List<CompletionIndex.Completion> completions) {
+        return completions.stream().map(CompletionIndex.Completion::getText).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,173 @@
+package com.weddingmarketplace.search.suggest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the prefix suggestion index scripts, compaction and legacy key migration against
+ * a real Redis
+ *
+ * @author Wedding Marketplace Team
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PrefixSuggestionIndexRedisTest {
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+        new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redis;
+
+    private PrefixSuggestionIndex index;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        redis = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.execute(connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        }, true);
+
+        index = new PrefixSuggestionIndex(redis);
+        ReflectionTestUtils.setField(index, "minPrefixLength", 1);
+        ReflectionTestUtils.setField(index, "maxPrefixLength", 4);
+        ReflectionTestUtils.setField(index, "perPrefix", 2);
+        ReflectionTestUtils.setField(index, "prefixTtl", Duration.ofDays(30));
+        ReflectionTestUtils.setField(index, "maxQueryLength", 100);
+        ReflectionTestUtils.setField(index, "maxTrackedQueries", 1000L);
+        ReflectionTestUtils.setField(index, "reseedTop", 1000);
+        ReflectionTestUtils.setField(index, "userHistory", 3);
+        ReflectionTestUtils.setField(index, "userHistoryTtl", Duration.ofDays(90));
+        ReflectionTestUtils.setField(index, "compactionIntervalMs", 3600000L);
+    }
+
+    @Test
+    void record_KeepsTheTopQueriesOfEveryPrefix() {
+        record("dj", 3);
+        record("decor", 2);
+        record("dress", 1);
+        record("drummer", 4);
+
+        assertEquals(List.of("drummer", "dj"), queries(index.topForPrefix("d", 10)));
+        assertEquals(List.of("drummer", "dress"), queries(index.topForPrefix("dr", 10)));
+        assertEquals(List.of("decor"), queries(index.topForPrefix("de", 10)));
+        assertEquals(4.0, index.topForPrefix("dru", 1).get(0).getScore());
+        assertTrue(redis.getExpire("{suggest}:prefix:d") > 0);
+    }
+
+    @Test
+    void record_ReturnsEvictedQueriesOnceTheyOutrankThePrefixTail() {
+        record("dj", 2);
+        record("decor", 2);
+        record("dress", 3);
+
+        assertEquals(List.of("dress", "dj"), queries(index.topForPrefix("d", 10)));
+
+        record("decor", 1);
+
+        assertEquals(List.of("dress", "decor"), queries(index.topForPrefix("d", 10)));
+    }
+
+    @Test
+    void topForPrefix_NarrowsTheLongestIndexedPrefix() {
+        record("wedding cake", 2);
+        record("wedding venue", 1);
+
+        assertEquals(List.of("wedding venue"), queries(index.topForPrefix("wedding v", 10)));
+    }
+
+    @Test
+    void topForUser_FiltersTheCappedHistoryServerSide() {
+        for (String query : List.of("dj", "decor", "dress", "florist")) {
+            index.record(query, 7L);
+        }
+        index.record("dress", 7L);
+
+        assertEquals(List.of("dress"), queries(index.topForUser(7L, "dr", 10)));
+        assertEquals(3L, redis.opsForZSet().zCard("suggest:user:7"));
+        assertEquals(1, index.topForUser(7L, "d", 1).size());
+    }
+
+    @Test
+    void compact_TrimsRarestQueriesFromTheirPrefixSets() {
+        ReflectionTestUtils.setField(index, "maxTrackedQueries", 1L);
+        record("dj", 1);
+        record("drummer", 5);
+
+        index.compact();
+
+        assertEquals(1L, redis.opsForZSet().zCard(PrefixSuggestionIndex.FREQUENCY_KEY));
+        assertEquals(List.of("drummer"), queries(index.topForPrefix("d", 10)));
+        assertTrue(index.topForPrefix("dj", 10).isEmpty());
+    }
+
+    @Test
+    void compact_ReseedsPopularQueriesIntoExpiredPrefixSets() {
+        record("dj", 3);
+        redis.delete("{suggest}:prefix:d");
+
+        index.compact();
+
+        assertEquals(List.of("dj"), queries(index.topForPrefix("d", 10)));
+    }
+
+    @Test
+    void migrate_CarriesLegacyCountsAndHistoriesOverOnce() {
+        record("dj", 2);
+        redis.opsForZSet().add(LegacySuggestionMigration.LEGACY_FREQUENCY_KEY, "\"dj\"", 5);
+        redis.opsForZSet().add(LegacySuggestionMigration.LEGACY_FREQUENCY_KEY, "\"decor\"", 1);
+        redis.opsForZSet().add(LegacySuggestionMigration.LEGACY_USER_KEY_PREFIX + "7", "\"dress\"", 2);
+
+        LegacySuggestionMigration migration = new LegacySuggestionMigration(redis, index, new ObjectMapper());
+        ReflectionTestUtils.setField(migration, "maxTrackedQueries", 1000L);
+        ReflectionTestUtils.setField(migration, "userHistory", 100);
+        migration.migrate();
+        migration.migrate();
+
+        assertEquals(List.of("dj", "decor"), queries(index.topForPrefix("d", 10)));
+        assertEquals(7.0, index.topForPrefix("dj", 1).get(0).getScore());
+        assertEquals(List.of("dress"), queries(index.topForUser(7L, "d", 10)));
+        assertFalse(redis.hasKey(LegacySuggestionMigration.LEGACY_FREQUENCY_KEY));
+        assertFalse(redis.hasKey(LegacySuggestionMigration.LEGACY_USER_KEY_PREFIX + "7"));
+        assertTrue(redis.hasKey(LegacySuggestionMigration.MIGRATED_KEY));
+    }
+
+    private void record(String query, int times) {
+        for (int i = 0; i < times; i++) {
+            index.record(query, null);
+        }
+    }
+
+    private static List<String> queries(List<PrefixSuggestionIndex.ScoredQuery> scored) {
+        return scored.stream().map(PrefixSuggestionIndex.ScoredQuery::getQuery).toList();
+    }
+}
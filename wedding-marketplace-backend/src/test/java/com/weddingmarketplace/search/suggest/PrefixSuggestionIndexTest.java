@@ -0,0 +1,153 @@
+package com.weddingmarketplace.search.suggest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the key layout, script calls and compaction of the Redis prefix
+ * suggestion index
+ *
+ * @author Wedding Marketplace Team
+ */
+class PrefixSuggestionIndexTest {
+
+    private StringRedisTemplate stringRedisTemplate;
+    private PrefixSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        index = new PrefixSuggestionIndex(stringRedisTemplate);
+        ReflectionTestUtils.setField(index, "minPrefixLength", 1);
+        ReflectionTestUtils.setField(index, "maxPrefixLength", 5);
+        ReflectionTestUtils.setField(index, "perPrefix", 20);
+        ReflectionTestUtils.setField(index, "prefixTtl", Duration.ofDays(30));
+        ReflectionTestUtils.setField(index, "maxQueryLength", 100);
+        ReflectionTestUtils.setField(index, "maxTrackedQueries", 3L);
+        ReflectionTestUtils.setField(index, "reseedTop", 10);
+        ReflectionTestUtils.setField(index, "userHistory", 100);
+        ReflectionTestUtils.setField(index, "userHistoryTtl", Duration.ofDays(90));
+        ReflectionTestUtils.setField(index, "compactionIntervalMs", 3600000L);
+    }
+
+    @Test
+    void prefixKeys_CoverMinToMaxLength() {
+        assertEquals(List.of("{suggest}:prefix:w", "{suggest}:prefix:we", "{suggest}:prefix:wed",
+            "{suggest}:prefix:wedd", "{suggest}:prefix:weddi"), index.prefixKeys("wedding venue"));
+    }
+
+    @Test
+    void prefixKeys_ShortQueriesStopAtTheirLength() {
+        assertEquals(List.of("{suggest}:prefix:d", "{suggest}:prefix:dj"), index.prefixKeys("dj"));
+        assertEquals(List.of("{suggest}:prefix:d"), index.prefixKeys("d"));
+    }
+
+    @Test
+    void prefixKeys_NeverSplitSurrogatePairs() {
+        // "a" followed by a ring emoji, a surrogate pair
+        String query = "a\uD83D\uDC8Dxyz";
+
+        assertEquals(List.of("{suggest}:prefix:a", "{suggest}:prefix:a\uD83D\uDC8D",
+            "{suggest}:prefix:a\uD83D\uDC8Dx", "{suggest}:prefix:a\uD83D\uDC8Dxy"), index.prefixKeys(query));
+    }
+
+    @Test
+    void recordKeys_ShareOneClusterSlot() {
+        List<String> keys = new ArrayList<>();
+        keys.add(PrefixSuggestionIndex.FREQUENCY_KEY);
+        keys.addAll(index.prefixKeys("{dj} booth"));
+
+        for (String key : keys) {
+            assertEquals("suggest", hashTag(key), key);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_CountsOnceThroughTheScript() {
+        index.record("dj", null);
+
+        verify(stringRedisTemplate).execute(any(RedisScript.class),
+            eq(List.of(PrefixSuggestionIndex.FREQUENCY_KEY, "{suggest}:prefix:d", "{suggest}:prefix:dj")),
+            eq("dj"), eq("20"), eq("2592000"), eq("1.0"));
+        verify(stringRedisTemplate, never()).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCounts_AddsCarriedOverCountsAndSkipsUnindexableQueries() {
+        index.importCounts(List.of(
+            new PrefixSuggestionIndex.ScoredQuery("dj", 42.0),
+            new PrefixSuggestionIndex.ScoredQuery("x".repeat(101), 7.0)));
+
+        verify(stringRedisTemplate).execute(any(RedisScript.class), anyList(),
+            eq("dj"), eq("20"), eq("2592000"), eq("42.0"));
+        verifyNoMoreInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compact_SkipsWithoutTheLease() {
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(values);
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        index.compact();
+
+        verify(stringRedisTemplate, never()).opsForZSet();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compact_TrimsLeastSearchedQueriesFromEverySet() {
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(values);
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSet);
+        when(values.setIfAbsent(eq("{suggest}:compaction:lock"), anyString(), any(Duration.class))).thenReturn(true);
+        when(zSet.zCard(PrefixSuggestionIndex.FREQUENCY_KEY)).thenReturn(5L);
+        when(zSet.range(PrefixSuggestionIndex.FREQUENCY_KEY, 0, 1)).thenReturn(new LinkedHashSet<>(List.of("ab", "c")));
+
+        RedisOperations<String, String> pipeline = mock(RedisOperations.class);
+        ZSetOperations<String, String> pipelineZSet = mock(ZSetOperations.class);
+        when(pipeline.opsForZSet()).thenReturn(pipelineZSet);
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.<SessionCallback<Object>>getArgument(0).execute(pipeline);
+            return List.of();
+        });
+
+        index.compact();
+
+        verify(pipelineZSet).remove(PrefixSuggestionIndex.FREQUENCY_KEY, "ab", "c");
+        verify(pipelineZSet).remove("{suggest}:prefix:a", "ab");
+        verify(pipelineZSet).remove("{suggest}:prefix:ab", "ab");
+        verify(pipelineZSet).remove("{suggest}:prefix:c", "c");
+        verify(zSet).reverseRangeWithScores(PrefixSuggestionIndex.FREQUENCY_KEY, 0, 9);
+    }
+
+    /**
+     * The part of a key Redis Cluster hashes: the text between the first '{' and the next
+     * '}', when not empty
+     */
+    private static String hashTag(String key) {
+        int open = key.indexOf('{');
+        int close = open >= 0 ? key.indexOf('}', open + 1) : -1;
+        return close > open + 1 ? key.substring(open + 1, close) : key;
+    }
+}
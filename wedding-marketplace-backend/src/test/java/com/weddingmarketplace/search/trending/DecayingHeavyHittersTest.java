@@ -0,0 +1,91 @@
+package com.weddingmarketplace.search.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the decaying Space-Saving sketch and the merging of node snapshots
+ *
+ * @author Wedding Marketplace Team
+ */
+class DecayingHeavyHittersTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Test
+    void top_FindsHeavyHittersAmongManyRareItems() {
+        DecayingHeavyHitters sketch = new DecayingHeavyHitters(100, Duration.ofDays(365), 0);
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            int roll = random.nextInt(100);
+            String item = roll < 10 ? "wedding venue" : roll < 15 ? "florist" : roll < 18 ? "dj" : "rare " + random.nextInt(50_000);
+            sketch.offer(item, i);
+        }
+
+        List<String> top = sketch.top(3, 100_000).stream().map(DecayingHeavyHitters.Estimate::getItem).collect(Collectors.toList());
+
+        assertEquals(List.of("wedding venue", "florist", "dj"), top);
+        assertEquals(100, sketch.size());
+        // The guaranteed count never exceeds the truth (~10000) and is close to it
+        double venue = sketch.count("wedding venue", 100_000);
+        assertTrue(venue <= 10_500 && venue > 9_000, "estimate " + venue);
+    }
+
+    @Test
+    void count_HalvesEveryHalfLife() {
+        DecayingHeavyHitters sketch = new DecayingHeavyHitters(10, Duration.ofHours(1), 0);
+        for (int i = 0; i < 8; i++) {
+            sketch.offer("cake", 0);
+        }
+
+        assertEquals(8.0, sketch.count("cake", 0), 1e-9);
+        assertEquals(4.0, sketch.count("cake", HOUR), 1e-9);
+        assertEquals(1.0, sketch.count("cake", 3 * HOUR), 1e-9);
+        assertEquals(0.0, sketch.count("veil", 0));
+    }
+
+    @Test
+    void offer_SurvivesLandmarkRescaling() {
+        DecayingHeavyHitters sketch = new DecayingHeavyHitters(10, Duration.ofHours(1), 0);
+        sketch.offer("old", 0);
+        // Far past the point where forward-decay weights are rescaled
+        long later = 500 * HOUR;
+        sketch.offer("new", later);
+        sketch.offer("new", later);
+
+        assertEquals(2.0, sketch.count("new", later), 1e-9);
+        assertTrue(sketch.count("old", later) < 1e-100);
+        assertEquals("new", sketch.top(1, later).get(0).getItem());
+        assertEquals(1.0, sketch.count("new", later + 1 * HOUR), 1e-9);
+    }
+
+    @Test
+    void rate_InvertsTheSteadyStateCount() {
+        Duration halfLife = Duration.ofMinutes(10);
+        DecayingHeavyHitters sketch = new DecayingHeavyHitters(10, halfLife, 0);
+        // One search per second for ten half-lives
+        long end = 10 * halfLife.toMillis();
+        for (long t = 0; t <= end; t += 1000) {
+            sketch.offer("photographer", t);
+        }
+
+        assertEquals(1.0, sketch.rate(sketch.count("photographer", end)), 0.01);
+    }
+
+    @Test
+    void mergeSnapshot_DecaysAndAddsPeerCounts() {
+        Map<String, double[]> merged = new HashMap<>();
+        merged.put("dj", new double[] {1.0, 2.0});
+
+        TrendingQueryTracker.mergeSnapshot(merged, Map.of("dj", "4.0|8.0", "cake", "2.0|2.0", "bad", "x|1"), 0.5, 0.25);
+
+        assertArrayEquals(new double[] {3.0, 4.0}, merged.get("dj"), 1e-9);
+        assertArrayEquals(new double[] {1.0, 0.5}, merged.get("cake"), 1e-9);
+        assertFalse(merged.containsKey("bad"));
+    }
+}
@@ -0,0 +1,178 @@
+package com.weddingmarketplace.search.vector;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HNSW vector index
+ *
+ * @author Wedding Marketplace Team
+ */
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+    private static final int SIZE = 2000;
+
+    private final Random random = new Random(7);
+    private float[][] vectors;
+    private HnswIndex index;
+
+    @BeforeEach
+    void setUp() {
+        vectors = new float[SIZE][];
+        index = new HnswIndex(DIMENSION, 16, 100, 1L);
+        for (int i = 0; i < SIZE; i++) {
+            vectors[i] = randomUnitVector();
+            index.upsert(i, vectors[i], VectorAttributes.of((long) (i % 10), i % 2 == 0 ? "Boston" : "Denver", "APPROVED"));
+        }
+    }
+
+    @Test
+    void search_RecallAgainstBruteForceIsHigh() {
+        int k = 10;
+        int hits = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVector();
+            Set<Long> expected = bruteForce(query, k);
+            for (HnswIndex.Neighbor neighbor : index.search(query, k, 64, null)) {
+                if (expected.contains(neighbor.getId())) {
+                    hits++;
+                }
+            }
+        }
+
+        double recall = hits / (double) (queries * k);
+        assertTrue(recall >= 0.9, "recall@10 was " + recall);
+    }
+
+    @Test
+    void search_ReturnsBestFirst() {
+        List<HnswIndex.Neighbor> results = index.search(vectors[42], 5, 64, null);
+
+        assertEquals(42L, results.get(0).getId());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(results.get(i - 1).getSimilarity() >= results.get(i).getSimilarity());
+        }
+    }
+
+    @Test
+    void search_AppliesFilterInsideTheIndex() {
+        VectorFilter filter = VectorFilter.of(3L, "denver", "APPROVED");
+
+        List<HnswIndex.Neighbor> results = index.search(randomUnitVector(), 10, 32, filter);
+
+        assertEquals(10, results.size());
+        for (HnswIndex.Neighbor neighbor : results) {
+            assertEquals(3, neighbor.getId() % 10);
+            assertEquals(1, neighbor.getId() % 2);
+        }
+    }
+
+    @Test
+    void removeAndUpsert_AreReflectedInResults() {
+        index.remove(42);
+        assertNotEquals(42L, index.search(vectors[42], 1, 64, null).get(0).getId());
+
+        index.upsert(7, vectors[100], VectorAttributes.of(7L, "Boston", "APPROVED"));
+        index.remove(100);
+        assertEquals(7L, index.search(vectors[100], 1, 64, null).get(0).getId());
+        assertEquals(SIZE - 2, index.size());
+        assertEquals(3, index.tombstones());
+    }
+
+    @Test
+    void snapshot_RoundTripsGraphAndAttributes() throws IOException {
+        index.remove(5);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+
+        HnswIndex restored = HnswIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 1L);
+
+        float[] query = randomUnitVector();
+        VectorFilter filter = VectorFilter.of(2L, null, "APPROVED");
+        assertEquals(index.search(query, 10, 64, filter), restored.search(query, 10, 64, filter));
+        assertEquals(index.size(), restored.size());
+        assertFalse(restored.contains(5));
+    }
+
+    @Test
+    void quantizedIndex_RerankedRecallAndExactSimilarities() throws IOException {
+        try (HnswIndex quantized = new HnswIndex(DIMENSION, 16, 100, 1L, QuantizedEmbeddingMatrix.inMemory(DIMENSION, 64), 4)) {
+            for (int i = 0; i < SIZE; i++) {
+                quantized.upsert(i, vectors[i], VectorAttributes.of((long) (i % 10), "Boston", "APPROVED"));
+            }
+
+            int k = 10;
+            int hits = 0;
+            int queries = 50;
+            for (int q = 0; q < queries; q++) {
+                float[] query = randomUnitVector();
+                Set<Long> expected = bruteForce(query, k);
+                List<HnswIndex.Neighbor> results = quantized.search(query, k, 64, null);
+                assertEquals(k, results.size());
+                for (int i = 0; i < results.size(); i++) {
+                    HnswIndex.Neighbor neighbor = results.get(i);
+                    assertEquals(VectorMath.dot(query, vectors[(int) neighbor.getId()]), neighbor.getSimilarity(), 1e-6f);
+                    if (i > 0) {
+                        assertTrue(results.get(i - 1).getSimilarity() >= neighbor.getSimilarity());
+                    }
+                    if (expected.contains(neighbor.getId())) {
+                        hits++;
+                    }
+                }
+            }
+
+            double recall = hits / (double) (queries * k);
+            assertTrue(recall >= 0.9, "quantized recall@10 was " + recall);
+        }
+    }
+
+    @Test
+    void snapshot_RestoresIntoQuantizedStore() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+
+        try (HnswIndex restored = HnswIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 1L,
+                QuantizedEmbeddingMatrix.inMemory(DIMENSION, 64), 4)) {
+            assertEquals(index.size(), restored.size());
+            assertEquals(42L, restored.search(vectors[42], 1, 64, null).get(0).getId());
+
+            ByteArrayOutputStream rewritten = new ByteArrayOutputStream();
+            restored.writeTo(new DataOutputStream(rewritten));
+            assertArrayEquals(bytes.toByteArray(), rewritten.toByteArray());
+        }
+    }
+
+    private Set<Long> bruteForce(float[] query, int k) {
+        PriorityQueue<long[]> best = new PriorityQueue<>(Comparator.comparingDouble(entry -> Double.longBitsToDouble(entry[1])));
+        for (int i = 0; i < SIZE; i++) {
+            double similarity = VectorMath.dot(query, vectors[i]);
+            best.add(new long[] {i, Double.doubleToLongBits(similarity)});
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+        Set<Long> ids = new HashSet<>();
+        best.forEach(entry -> ids.add(entry[0]));
+        return ids;
+    }
+
+    private float[] randomUnitVector() {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
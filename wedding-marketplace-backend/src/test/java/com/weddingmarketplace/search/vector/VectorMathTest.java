@@ -0,0 +1,195 @@
+package com.weddingmarketplace.search.vector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the vector kernels and the embedding matrices built on them
+ *
+ * @author Wedding Marketplace Team
+ */
+class VectorMathTest {
+
+    private static final int DIMENSION = 384;
+
+    private final Random random = new Random(3);
+
+    @Test
+    void kernels_AgreeWithDoublePrecisionReference() {
+        VectorKernel scalar = VectorMath.scalarKernel();
+        VectorKernel active = VectorMath.kernel();
+        // Odd lengths exercise the tail loops after the vector lanes
+        for (int length : new int[] {1, 7, 31, 384, 385}) {
+            float[] a = randomVector(length);
+            float[] b = randomVector(length);
+            double dot = 0;
+            double l2 = 0;
+            for (int i = 0; i < length; i++) {
+                dot += (double) a[i] * b[i];
+                l2 += (double) (a[i] - b[i]) * (a[i] - b[i]);
+            }
+
+            double tolerance = 1e-5 * length;
+            assertEquals(dot, scalar.dot(a, 0, b, 0, length), tolerance);
+            assertEquals(dot, active.dot(a, 0, b, 0, length), tolerance, active.name());
+            assertEquals(l2, scalar.squaredL2(a, 0, b, 0, length), 10 * tolerance);
+            assertEquals(l2, active.squaredL2(a, 0, b, 0, length), 10 * tolerance, active.name());
+        }
+    }
+
+    @Test
+    void dotInt8_IsExactIncludingOffsets() {
+        byte[] a = new byte[DIMENSION + 5];
+        byte[] b = new byte[DIMENSION + 3];
+        random.nextBytes(a);
+        random.nextBytes(b);
+        int expected = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            expected += a[i + 5] * b[i + 3];
+        }
+
+        assertEquals(expected, VectorMath.scalarKernel().dotInt8(a, 5, b, 3, DIMENSION));
+        assertEquals(expected, VectorMath.kernel().dotInt8(a, 5, b, 3, DIMENSION));
+    }
+
+    @Test
+    void embeddingMatrix_DotAllAndSearchMatchRowByRowScoring() {
+        EmbeddingMatrix matrix = new EmbeddingMatrix(DIMENSION, 4);
+        float[][] rows = new float[300][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = randomUnitVector();
+            assertEquals(i, matrix.add(rows[i]));
+        }
+        float[] query = randomUnitVector();
+
+        float[] scores = new float[matrix.rows()];
+        matrix.dotAll(query, scores);
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals(VectorMath.dot(query, rows[i]), scores[i], 1e-5);
+        }
+
+        List<EmbeddingMatrix.Match> best = matrix.search(query, 5, row -> row % 2 == 0);
+        assertEquals(5, best.size());
+        for (int i = 0; i < best.size(); i++) {
+            assertEquals(0, best.get(i).getRow() % 2);
+            if (i > 0) {
+                assertTrue(best.get(i - 1).getScore() >= best.get(i).getScore());
+            }
+        }
+        assertEquals(bruteForce(rows, query, 5, true), rowsOf(best));
+    }
+
+    @Test
+    void quantizedSearch_RerankedResultsMatchExactTopK() throws IOException {
+        QuantizedEmbeddingMatrix matrix = QuantizedEmbeddingMatrix.inMemory(DIMENSION, 16);
+        float[][] rows = clusteredRows(2000);
+        for (float[] row : rows) {
+            matrix.add(row);
+        }
+
+        int hits = 0;
+        int queries = 50;
+        int k = 10;
+        for (int q = 0; q < queries; q++) {
+            float[] query = rows[random.nextInt(rows.length)].clone();
+            query[0] += 0.05f;
+            List<EmbeddingMatrix.Match> results = matrix.search(query, k, 5 * k, null);
+            for (int i = 1; i < results.size(); i++) {
+                assertTrue(results.get(i - 1).getScore() >= results.get(i).getScore());
+            }
+            Set<Integer> expected = new HashSet<>(bruteForce(rows, query, k, false));
+            for (EmbeddingMatrix.Match match : results) {
+                if (expected.contains(match.getRow())) {
+                    hits++;
+                }
+                // Reported scores come from the full-precision vectors, not the codes
+                assertEquals(VectorMath.dot(query, rows[match.getRow()]), match.getScore(), 1e-5);
+            }
+        }
+
+        double recall = hits / (double) (queries * k);
+        assertTrue(recall >= 0.98, "recall@10 after re-ranking was " + recall);
+    }
+
+    @Test
+    void mappedQuantizedMatrix_KeepsFullPrecisionRowsAcrossGrowth(@TempDir Path directory) throws IOException {
+        try (QuantizedEmbeddingMatrix matrix = QuantizedEmbeddingMatrix.mapped(DIMENSION, 2, directory.resolve("vectors.f32"))) {
+            float[][] rows = new float[50][];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = randomUnitVector();
+                matrix.add(rows[i]);
+            }
+            float[] replacement = randomUnitVector();
+            matrix.set(7, replacement);
+            rows[7] = replacement;
+
+            for (int i = 0; i < rows.length; i++) {
+                assertArrayEquals(rows[i], matrix.get(i));
+            }
+            assertEquals(7, matrix.search(replacement, 1, 10, null).get(0).getRow());
+            assertEquals(50L * (DIMENSION + Float.BYTES), matrix.memoryBytes());
+        }
+    }
+
+    // Helpers
+
+    private float[][] clusteredRows(int count) {
+        float[][] centroids = new float[20][];
+        for (int c = 0; c < centroids.length; c++) {
+            centroids[c] = randomUnitVector();
+        }
+        float[][] rows = new float[count][];
+        for (int i = 0; i < count; i++) {
+            float[] centroid = centroids[random.nextInt(centroids.length)];
+            float[] row = new float[DIMENSION];
+            for (int d = 0; d < DIMENSION; d++) {
+                row[d] = centroid[d] + (float) (random.nextGaussian() * 0.6 / Math.sqrt(DIMENSION));
+            }
+            rows[i] = normalize(row);
+        }
+        return rows;
+    }
+
+    private List<Integer> bruteForce(float[][] rows, float[] query, int k, boolean evenOnly) {
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            if (!evenOnly || i % 2 == 0) {
+                candidates.add(i);
+            }
+        }
+        candidates.sort((a, b) -> Float.compare(VectorMath.dot(query, rows[b]), VectorMath.dot(query, rows[a])));
+        return candidates.subList(0, k);
+    }
+
+    private static List<Integer> rowsOf(List<EmbeddingMatrix.Match> matches) {
+        List<Integer> rows = new ArrayList<>();
+        matches.forEach(match -> rows.add(match.getRow()));
+        return rows;
+    }
+
+    private float[] randomVector(int length) {
+        float[] vector = new float[length];
+        for (int i = 0; i < length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private float[] randomUnitVector() {
+        return normalize(randomVector(DIMENSION));
+    }
+
+    private static float[] normalize(float[] vector) {
+        float inverse = 1 / VectorMath.norm(vector);
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inverse;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,128 @@
+package com.weddingmarketplace.search.vector;
+
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.search.service.VectorEmbeddingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Builds and updates the vendor vector index from vendors read by the real repository
+ * outside any transaction, the way the indexing executor reads them
+ *
+ * @author Wedding Marketplace Team
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class VendorVectorIndexJpaTest {
+
+    private static final int DIMENSION = 4;
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path snapshotDirectory;
+
+    private VectorEmbeddingService vectorEmbeddingService;
+    private VendorVectorIndex index;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM vendors");
+        jdbcTemplate.update("DELETE FROM categories");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("INSERT INTO users (id, uuid, first_name, email, password) VALUES (1, 'u-1', 'Ana', 'ana@test.com', 'x')");
+        jdbcTemplate.update("INSERT INTO categories (id, uuid, name, slug) VALUES (1, 'c-1', 'Photography', 'photography')");
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO vendors (id, uuid, user_id, business_name, category_id, status) VALUES (?, ?, 1, ?, 1, 'APPROVED')",
+                id, "v-" + id, "Studio " + id);
+        }
+
+        // Reads the category name the way buildVendorSearchText does
+        vectorEmbeddingService = mock(VectorEmbeddingService.class);
+        when(vectorEmbeddingService.getVendorEmbeddings(anyList())).thenAnswer(invocation -> embed(invocation.getArgument(0)));
+        when(vectorEmbeddingService.refreshVendorEmbeddings(anyList())).thenAnswer(invocation -> embed(invocation.getArgument(0)));
+
+        index = new VendorVectorIndex(vendorRepository, vectorEmbeddingService, mock(StringRedisTemplate.class), Runnable::run);
+        ReflectionTestUtils.setField(index, "m", 8);
+        ReflectionTestUtils.setField(index, "efConstruction", 32);
+        ReflectionTestUtils.setField(index, "efSearch", 16);
+        ReflectionTestUtils.setField(index, "batchSize", 2);
+        ReflectionTestUtils.setField(index, "rebuildTombstoneRatio", 0.2);
+        ReflectionTestUtils.setField(index, "snapshotPath", snapshotDirectory.resolve("vendor-vectors.hnsw").toString());
+        ReflectionTestUtils.setField(index, "channel", "search:vector:changes");
+        ReflectionTestUtils.setField(index, "maxEmbeddingAttempts", 5);
+        ReflectionTestUtils.setField(index, "embeddingModel", "test-model");
+        ReflectionTestUtils.setField(index, "embeddingDimension", DIMENSION);
+        index.createChangeFanout();
+    }
+
+    @Test
+    void initialize_BuildsTheIndexFromDetachedVendors() {
+        index.initialize();
+
+        assertTrue(index.isReady());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void enqueue_ReEmbedsDetachedVendors() {
+        index.initialize();
+        jdbcTemplate.update("UPDATE vendors SET business_name = 'Studio Nine' WHERE id = 2");
+
+        index.enqueue(2L);
+        index.scheduledDrain();
+
+        verify(vectorEmbeddingService).refreshVendorEmbeddings(argThat(vendors ->
+            vendors.size() == 1 && "Studio Nine".equals(vendors.get(0).getBusinessName())));
+        assertEquals(3, index.size());
+    }
+
+    private static Map<Long, float[]> embed(List<Vendor> vendors) {
+        Map<Long, float[]> embeddings = new HashMap<>();
+        for (Vendor vendor : vendors) {
+            float length = vendor.getCategory().getName().length();
+            embeddings.put(vendor.getId(), new float[]{1f, vendor.getId(), length, 0.5f});
+        }
+        return embeddings;
+    }
+}
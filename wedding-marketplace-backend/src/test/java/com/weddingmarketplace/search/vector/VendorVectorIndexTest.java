@@ -0,0 +1,95 @@
+package com.weddingmarketplace.search.vector;
+
+import com.weddingmarketplace.model.entity.Category;
+import com.weddingmarketplace.model.entity.Vendor;
+import com.weddingmarketplace.model.enums.VendorStatus;
+import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.search.service.VectorEmbeddingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for applying queued vendor changes to the vector index
+ *
+ * @author Wedding Marketplace Team
+ */
+@ExtendWith(MockitoExtension.class)
+class VendorVectorIndexTest {
+
+    @Mock
+    private VendorRepository vendorRepository;
+
+    @Mock
+    private VectorEmbeddingService vectorEmbeddingService;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @TempDir
+    Path snapshotDirectory;
+
+    private VendorVectorIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new VendorVectorIndex(vendorRepository, vectorEmbeddingService, stringRedisTemplate, Runnable::run);
+        ReflectionTestUtils.setField(index, "m", 8);
+        ReflectionTestUtils.setField(index, "efConstruction", 32);
+        ReflectionTestUtils.setField(index, "efSearch", 16);
+        ReflectionTestUtils.setField(index, "batchSize", 10);
+        ReflectionTestUtils.setField(index, "rebuildTombstoneRatio", 0.2);
+        ReflectionTestUtils.setField(index, "snapshotPath", snapshotDirectory.resolve("vendor-vectors.hnsw").toString());
+        ReflectionTestUtils.setField(index, "channel", "search:vector:changes");
+        ReflectionTestUtils.setField(index, "maxEmbeddingAttempts", 5);
+        ReflectionTestUtils.setField(index, "embeddingModel", "test-model");
+        ReflectionTestUtils.setField(index, "embeddingDimension", 2);
+        index.createChangeFanout();
+
+        when(vendorRepository.findIndexingPage(eq(0L), isNull(), any())).thenReturn(List.of());
+        index.initialize();
+    }
+
+    @Test
+    void drain_AfterAFailedLoad_RetriesTheSameVendors() {
+        // Given
+        Vendor vendor = vendor(5L);
+        when(vendorRepository.findAllWithCategoryById(List.of(5L)))
+            .thenThrow(new QueryTimeoutException("timed out"))
+            .thenReturn(List.of(vendor));
+        when(vectorEmbeddingService.refreshVendorEmbeddings(List.of(vendor))).thenReturn(Map.of(5L, new float[]{0.6f, 0.8f}));
+
+        // When
+        index.enqueue(5L);
+        index.scheduledDrain();
+        index.scheduledDrain();
+
+        // Then
+        assertEquals(1, index.size());
+        verify(vendorRepository, times(2)).findAllWithCategoryById(List.of(5L));
+        verify(vendorRepository, never()).findAllById(anyIterable());
+    }
+
+    private static Vendor vendor(Long id) {
+        return Vendor.builder()
+            .id(id)
+            .status(VendorStatus.APPROVED)
+            .deleted(false)
+            .category(Category.builder().id(1L).name("Photography").build())
+            .build();
+    }
+}
@@ -0,0 +1,346 @@
+package com.weddingmarketplace.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weddingmarketplace.cache.compute.ComputedEntry;
+import com.weddingmarketplace.cache.invalidation.CacheGenerationRegistry;
+import com.weddingmarketplace.cache.near.NearCacheManager;
+import com.weddingmarketplace.cache.near.NearCacheProperties;
+import com.weddingmarketplace.cache.warming.HotKeyTracker;
+import com.weddingmarketplace.service.impl.CacheServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the bulk read path of the Redis cache service and what it leaves in
+ * the near cache, namespace invalidation, and stampede protection in getOrCompute
+ *
+ * @author Wedding Marketplace Team
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheServiceTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private CacheGenerationRegistry generationRegistry;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private NearCacheManager nearCacheManager;
+    private HotKeyTracker hotKeyTracker;
+    private CacheServiceImpl cacheService;
+
+    @BeforeEach
+    void setUp() {
+        NearCacheProperties properties = new NearCacheProperties();
+        NearCacheProperties.Namespace vendors = new NearCacheProperties.Namespace();
+        vendors.setMaximumSize(100);
+        vendors.setTtl(Duration.ofMinutes(1));
+        properties.getNamespaces().put("vendors", vendors);
+        nearCacheManager = new NearCacheManager(properties, stringRedisTemplate, new SimpleMeterRegistry());
+
+        hotKeyTracker = new HotKeyTracker();
+        cacheService = new CacheServiceImpl(redisTemplate, stringRedisTemplate, new ObjectMapper(),
+            nearCacheManager, generationRegistry, hotKeyTracker, Runnable::run);
+        ReflectionTestUtils.setField(cacheService, "earlyRefreshBeta", 1.0);
+        ReflectionTestUtils.setField(cacheService, "distributedLease", false);
+        ReflectionTestUtils.setField(cacheService, "leaseTtl", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(cacheService, "leaseWait", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(cacheService, "staleGrace", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(cacheService, "staleWhileRevalidateCaches", Set.of());
+        when(generationRegistry.currentGeneration("vendors")).thenReturn(3L);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void getMultiple_KeepsComputedEntriesWrappedInTheNearCache() {
+        // Given
+        ComputedEntry computed = ComputedEntry.builder()
+            .value("vendor-1")
+            .computeMillis(40)
+            .expiresAtMillis(System.currentTimeMillis() + 60_000)
+            .build();
+        when(valueOperations.multiGet(List.of("vendors:3:1", "vendors:3:2", "vendors:3:3")))
+            .thenReturn(Arrays.asList(computed, "vendor-2", null));
+
+        // When
+        Map<String, String> result = cacheService.getMultiple("vendors", List.of("1", "2", "3"), String.class);
+
+        // Then
+        assertEquals(List.of("1", "2"), List.copyOf(result.keySet()));
+        assertEquals("vendor-1", result.get("1"));
+        assertEquals(computed, nearCacheManager.get("vendors", "1").orElse(null));
+        assertEquals("vendor-2", nearCacheManager.get("vendors", "2").orElse(null));
+    }
+
+    @Test
+    void getMultiple_ServesNearCacheHitsWithoutAskingRedis() {
+        // Given
+        nearCacheManager.populate("vendors", "1", ComputedEntry.builder().value("vendor-1").build(),
+            nearCacheManager.epoch("vendors"));
+        when(valueOperations.multiGet(List.of("vendors:3:2"))).thenReturn(Arrays.asList((Object) null));
+
+        // When
+        Map<String, String> result = cacheService.getMultiple("vendors", List.of("1", "2"), String.class);
+
+        // Then
+        assertEquals(Map.of("1", "vendor-1"), result);
+        verify(valueOperations).multiGet(List.of("vendors:3:2"));
+    }
+
+    @Test
+    void reads_FeedTheHotKeyTracker() {
+        // Given
+        when(valueOperations.get("vendors:3:1")).thenReturn("vendor-1");
+        when(valueOperations.multiGet(List.of("vendors:3:2"))).thenReturn(Arrays.asList((Object) "vendor-2"));
+
+        // When
+        cacheService.get("vendors", "1", String.class);
+        cacheService.getMultiple("vendors", List.of("1", "2"), String.class);
+
+        // Then
+        assertEquals(2, hotKeyTracker.estimate("vendors", "1"));
+        assertEquals(1, hotKeyTracker.estimate("vendors", "2"));
+        assertEquals(List.of("1", "2"), hotKeyTracker.hotKeys("vendors", 10));
+    }
+
+    @Test
+    void evictAll_BumpsTheGenerationSoOldEntriesAreNoLongerRead() {
+        // Given
+        when(generationRegistry.currentGeneration("vendors")).thenReturn(3L, 4L);
+        when(generationRegistry.bump("vendors")).thenReturn(4L);
+        when(valueOperations.get("vendors:3:1")).thenReturn("vendor-1");
+        assertEquals("vendor-1", cacheService.get("vendors", "1", String.class).orElse(null));
+
+        // When
+        cacheService.evictAll("vendors");
+
+        // Then
+        assertTrue(cacheService.get("vendors", "1", String.class).isEmpty());
+        verify(valueOperations).get("vendors:4:1");
+        verify(redisTemplate, never()).keys(anyString());
+        verify(redisTemplate, never()).unlink(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictByPattern_SweepsTheCurrentGenerationWithScan() {
+        // Given
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true, true, false);
+        when(cursor.next()).thenReturn("vendors:3:city_austin", "vendors:3:city_boston");
+        ArgumentCaptor<ScanOptions> options = ArgumentCaptor.forClass(ScanOptions.class);
+        when(redisTemplate.scan(options.capture())).thenReturn(cursor);
+        // The batch list is reused after UNLINK, so copy what was passed
+        List<String> unlinked = new ArrayList<>();
+        when(redisTemplate.unlink(anyCollection())).thenAnswer(invocation -> {
+            unlinked.addAll(invocation.getArgument(0));
+            return 2L;
+        });
+        nearCacheManager.populate("vendors", "1", "vendor-1", nearCacheManager.epoch("vendors"));
+
+        // When
+        cacheService.evictByPattern("vendors", "city_*");
+
+        // Then
+        assertEquals("vendors:3:city_*", options.getValue().getPattern());
+        assertEquals(List.of("vendors:3:city_austin", "vendors:3:city_boston"), unlinked);
+        assertTrue(nearCacheManager.get("vendors", "1").isEmpty());
+        verify(cursor).close();
+        verify(redisTemplate, never()).keys(anyString());
+    }
+
+    @Test
+    void getOrCompute_ConcurrentMisses_RunTheSupplierOnce() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+            cacheService.getOrCompute("vendors", "1", String.class, () -> {
+                calls.incrementAndGet();
+                computing.countDown();
+                await(release);
+                return "vendor-1";
+            }, TTL));
+        assertTrue(computing.await(5, TimeUnit.SECONDS));
+
+        // When
+        CompletableFuture<String> second = cacheService.getOrComputeAsync("vendors", "1", String.class, () -> {
+            calls.incrementAndGet();
+            return "vendor-1b";
+        });
+        assertFalse(second.isDone());
+        release.countDown();
+
+        // Then
+        assertEquals("vendor-1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("vendor-1", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        verify(valueOperations).set(eq("vendors:3:1"), argThat(computedValue("vendor-1")), eq(TTL));
+    }
+
+    @Test
+    void getOrCompute_WithTheLease_ComputesAndReleasesIt() {
+        // Given
+        ReflectionTestUtils.setField(cacheService, "distributedLease", true);
+        when(valueOperations.setIfAbsent("lock:compute:vendors:1", "locked", Duration.ofSeconds(30))).thenReturn(true);
+
+        // When
+        String value = cacheService.getOrCompute("vendors", "1", String.class, () -> "vendor-1", TTL);
+
+        // Then
+        assertEquals("vendor-1", value);
+        verify(valueOperations).set(eq("vendors:3:1"), argThat(computedValue("vendor-1")), eq(TTL));
+        verify(redisTemplate).delete("lock:compute:vendors:1");
+    }
+
+    @Test
+    void getOrCompute_WhenAPeerHoldsTheLease_WaitsForItsValue() {
+        // Given
+        ReflectionTestUtils.setField(cacheService, "distributedLease", true);
+        when(valueOperations.setIfAbsent("lock:compute:vendors:1", "locked", Duration.ofSeconds(30))).thenReturn(false);
+        when(valueOperations.get("vendors:3:1")).thenReturn(null, computed("vendor-1", 0, 60_000));
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String value = cacheService.getOrCompute("vendors", "1", String.class, () -> {
+            calls.incrementAndGet();
+            return "local";
+        }, TTL);
+
+        // Then
+        assertEquals("vendor-1", value);
+        assertEquals(0, calls.get());
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void getOrCompute_WhenThePeerNeverPublishes_ComputesLocally() {
+        // Given
+        ReflectionTestUtils.setField(cacheService, "distributedLease", true);
+        ReflectionTestUtils.setField(cacheService, "leaseWait", Duration.ofMillis(120));
+        when(valueOperations.setIfAbsent("lock:compute:vendors:1", "locked", Duration.ofSeconds(30))).thenReturn(false);
+
+        // When
+        String value = cacheService.getOrCompute("vendors", "1", String.class, () -> "local", TTL);
+
+        // Then
+        assertEquals("local", value);
+        verify(valueOperations).set(eq("vendors:3:1"), argThat(computedValue("local")), eq(TTL));
+    }
+
+    @Test
+    void getOrCompute_FreshEntryWithCheapCompute_IsServedFromCache() {
+        // Given
+        when(valueOperations.get("vendors:3:1")).thenReturn(computed("cached", 0, 60_000));
+
+        // When
+        String value = cacheService.getOrCompute("vendors", "1", String.class, () -> "recomputed", TTL);
+
+        // Then
+        assertEquals("cached", value);
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+    }
+
+    @Test
+    void getOrCompute_EntryNearExpiryWithSlowCompute_IsRecomputedEarly() {
+        // Given
+        // Not expired for another minute, but a compute this slow makes XFetch refresh now
+        when(valueOperations.get("vendors:3:1")).thenReturn(computed("cached", 1_000_000_000_000L, 60_000));
+
+        // When
+        String value = cacheService.getOrCompute("vendors", "1", String.class, () -> "recomputed", TTL);
+
+        // Then
+        assertEquals("recomputed", value);
+        verify(valueOperations).set(eq("vendors:3:1"), argThat(computedValue("recomputed")), eq(TTL));
+    }
+
+    @Test
+    void getOrCompute_StaleWhileRevalidate_ServesTheOldValueAndRefreshesInTheBackground() {
+        // Given
+        ReflectionTestUtils.setField(cacheService, "staleWhileRevalidateCaches", Set.of("vendors"));
+        when(valueOperations.get("vendors:3:1")).thenReturn(computed("stale", 0, -1_000));
+
+        // When
+        String value = cacheService.getOrCompute("vendors", "1", String.class, () -> "refreshed", TTL);
+
+        // Then
+        assertEquals("stale", value);
+        // Kept past its logical expiry for the grace period
+        verify(valueOperations).set(eq("vendors:3:1"), argThat(computedValue("refreshed")),
+            eq(TTL.plus(Duration.ofMinutes(5))));
+    }
+
+    @Test
+    void getOrCompute_StaleWhileRevalidate_ServesTheOldValueWhenTheRefreshFails() {
+        // Given
+        ReflectionTestUtils.setField(cacheService, "staleWhileRevalidateCaches", Set.of("vendors"));
+        when(valueOperations.get("vendors:3:1")).thenReturn(computed("stale", 0, -1_000));
+
+        // When
+        String value = cacheService.getOrCompute("vendors", "1", String.class, () -> {
+            throw new IllegalStateException("database unavailable");
+        }, TTL);
+
+        // Then
+        assertEquals("stale", value);
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+    }
+
+    private static ComputedEntry computed(String value, long computeMillis, long expiresInMillis) {
+        return ComputedEntry.builder()
+            .value(value)
+            .computeMillis(computeMillis)
+            .expiresAtMillis(System.currentTimeMillis() + expiresInMillis)
+            .build();
+    }
+
+    private static ArgumentMatcher<Object> computedValue(String value) {
+        return entry -> entry instanceof ComputedEntry computed && value.equals(computed.getValue());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
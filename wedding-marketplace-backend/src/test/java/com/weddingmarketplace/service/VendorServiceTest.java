@@ -1,9 +1,11 @@
 package com.weddingmarketplace.service;
 
+import com.weddingmarketplace.cache.writebehind.VendorActivityRecorder;
 import com.weddingmarketplace.event.VendorRegisteredEvent;
 import com.weddingmarketplace.exception.BadRequestException;
 import com.weddingmarketplace.exception.ResourceNotFoundException;
 import com.weddingmarketplace.mapper.VendorMapper;
+import com.weddingmarketplace.ml.similarity.VendorSimilarityIndex;
 import com.weddingmarketplace.model.dto.request.VendorRegistrationRequest;
 import com.weddingmarketplace.model.dto.request.VendorSearchRequest;
 import com.weddingmarketplace.model.dto.response.VendorResponse;
@@ -16,6 +18,10 @@ import com.weddingmarketplace.model.enums.VendorStatus;
 import com.weddingmarketplace.repository.CategoryRepository;
 import com.weddingmarketplace.repository.UserRepository;
 import com.weddingmarketplace.repository.VendorRepository;
+import com.weddingmarketplace.search.availability.VendorAvailabilityIndex;
+import com.weddingmarketplace.search.cache.VendorSearchResultCache;
+import com.weddingmarketplace.search.geo.VendorGeoIndex;
+import com.weddingmarketplace.search.paging.CursorPage;
 import com.weddingmarketplace.service.impl.VendorServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,6 +35,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -76,6 +83,21 @@ class VendorServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private VendorActivityRecorder vendorActivityRecorder;
+
+    @Mock
+    private VendorSearchResultCache searchResultCache;
+
+    @Mock
+    private VendorGeoIndex vendorGeoIndex;
+
+    @Mock
+    private VendorAvailabilityIndex vendorAvailabilityIndex;
+
+    @Mock
+    private VendorSimilarityIndex vendorSimilarityIndex;
+
     @InjectMocks
     private VendorServiceImpl vendorService;
 
@@ -255,6 +277,26 @@ class VendorServiceTest {
         verify(analyticsService).trackVendorSearchAsync(eq(searchRequest), any(VendorSearchResponse.class));
     }
 
+    @Test
+    void searchVendorsByCursor_KeywordByRelevance_PagesThroughElasticsearch() {
+        // Given
+        VendorSearchRequest searchRequest = VendorSearchRequest.builder()
+            .keyword("photography")
+            .sortBy("relevance")
+            .build();
+        when(searchService.searchVendorIdsByCursor(searchRequest, "token-1", 20))
+            .thenReturn(new CursorPage<>(List.of(1L), 20, "token-2"));
+        when(searchResultCache.hydrate(new long[]{1L})).thenReturn(List.of(testResponse));
+
+        // When
+        CursorPage<VendorResponse> page = vendorService.searchVendorsByCursor(searchRequest, "token-1", 20);
+
+        // Then
+        assertEquals(List.of(testResponse), page.getItems());
+        assertEquals("token-2", page.getNextCursor());
+        verify(vendorRepository, never()).findBy(any(Specification.class), any());
+    }
+
     @Test
     void getVendorById_Success() {
         // Given
@@ -269,7 +311,32 @@ class VendorServiceTest {
         assertEquals("John's Photography", result.get().getBusinessName());
 
         verify(vendorRepository).findByIdAndDeletedFalse(1L);
-        verify(analyticsService).incrementVendorViewCountAsync(1L);
+        verify(vendorActivityRecorder).recordView(1L);
+        verify(cacheService).put(eq("vendors"), eq("1"), eq(testResponse), any());
+    }
+
+    @Test
+    void getVendorById_CacheHit_SkipsRepository() {
+        // Given
+        when(cacheService.get("vendors", "1", VendorResponse.class)).thenReturn(Optional.of(testResponse));
+
+        // When
+        Optional<VendorResponse> result = vendorService.getVendorById(1L, true);
+
+        // Then
+        assertEquals(Optional.of(testResponse), result);
+        verifyNoInteractions(vendorRepository);
+        verify(vendorActivityRecorder).recordView(1L);
+    }
+
+    @Test
+    void updateResponseMetrics_RecordsThroughWriteBehind() {
+        // When
+        vendorService.updateResponseMetrics(1L, true, 3);
+
+        // Then
+        verify(vendorActivityRecorder).recordResponse(1L, true, 3);
+        verifyNoInteractions(vendorRepository);
     }
 
     @Test
@@ -315,6 +382,8 @@ class VendorServiceTest {
         verify(notificationService).notifyVendorApproval(testVendor);
         verify(searchService).indexVendor(testVendor);
         verify(analyticsService).trackVendorApproval(1L, 2L);
+        verify(cacheService).evictVendorCaches(1L);
+        verify(searchResultCache).invalidateAll();
     }
 
     @Test
@@ -364,6 +433,26 @@ class VendorServiceTest {
         verify(vendorRepository).findFeaturedVendorsWithRotation(10);
     }
 
+    @Test
+    void getSimilarVendors_FillsThePageWhenNeighboursAreNoLongerApproved() {
+        // Given
+        ReflectionTestUtils.setField(vendorService, "maxPageSize", 100);
+        when(vendorSimilarityIndex.similarVendors(1L, 4)).thenReturn(Optional.of(List.of(2L, 3L, 4L, 5L)));
+        List<VendorResponse> approved = List.of(
+            VendorResponse.builder().id(2L).status(VendorStatus.APPROVED).build(),
+            VendorResponse.builder().id(4L).status(VendorStatus.APPROVED).build(),
+            VendorResponse.builder().id(5L).status(VendorStatus.APPROVED).build());
+        // Hydration leaves out vendor 3, suspended since the matrix was built
+        when(searchResultCache.hydrate(new long[]{2L, 3L, 4L, 5L})).thenReturn(approved);
+
+        // When
+        List<VendorResponse> result = vendorService.getSimilarVendors(1L, 2);
+
+        // Then
+        assertEquals(List.of(2L, 4L), result.stream().map(VendorResponse::getId).toList());
+        verifyNoInteractions(vendorRepository);
+    }
+
     @Test
     void updateVendor_Success() {
         // Given
@@ -388,6 +477,8 @@ class VendorServiceTest {
         verify(vendorMapper).updateEntityFromRequest(updateRequest, testVendor);
         verify(vendorRepository).save(testVendor);
         verify(analyticsService).logVendorUpdate(eq(1L), eq(1L), any(Map.class));
+        // No transaction here, so the eviction runs immediately instead of after commit
+        verify(cacheService).evictVendorCaches(1L);
     }
 
     @Test
@@ -434,6 +525,8 @@ class VendorServiceTest {
         verify(vendorRepository).save(testVendor);
         verify(notificationService).notifyVendorRejection(testVendor, "Incomplete documentation");
         verify(analyticsService).trackVendorRejection(1L, 2L, "Incomplete documentation");
+        verify(cacheService).evictVendorCaches(1L);
+        verify(searchResultCache).invalidateAll();
     }
 
     @Test